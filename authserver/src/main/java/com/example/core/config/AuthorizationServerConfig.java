@@ -1,9 +1,10 @@
 package com.example.core.config;
 
+import com.example.core.security.IndexedClientDetailsService;
+import com.example.core.token.GrantBatchingTokenServices;
+import com.example.core.token.KeyIdJwtAccessTokenConverter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.oauth2.config.annotation.configurers.ClientDetailsServiceConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.AuthorizationServerConfigurerAdapter;
@@ -11,7 +12,6 @@ import org.springframework.security.oauth2.config.annotation.web.configuration.E
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerEndpointsConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerSecurityConfigurer;
 import org.springframework.security.oauth2.provider.token.TokenStore;
-import org.springframework.security.oauth2.provider.token.store.redis.RedisTokenStore;
 
 /**
  * 授权服务器配置
@@ -24,21 +24,27 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
     private AuthenticationManager authenticationManager;    // 认证管理器
 
     @Autowired
-    private RedisConnectionFactory redisConnectionFactory;  // redis连接工厂
+    private TokenStore tokenStore;                          // 令牌存储（见 TokenStoreConfig）
 
-    /**
-     * 令牌存储
-     * @return redis令牌存储对象
-     */
-    @Bean
-    public TokenStore tokenStore() {
-        return new RedisTokenStore(redisConnectionFactory);
-    }
+    @Autowired(required = false)
+    private GrantBatchingTokenServices tokenServices;       // 按授权合并写入的令牌服务（见 TokenStoreConfig，关闭 batched-writes 时使用默认令牌服务）
+
+    @Autowired
+    private IndexedClientDetailsService indexedClientDetailsService;  // 客户端信息（MongoDB + 内存索引，见 ClientRegistryConfig）
+
+    @Autowired(required = false)
+    private KeyIdJwtAccessTokenConverter accessTokenConverter;  // JWT 访问令牌转换器（见 JwtConfig，未启用 auth.jwt 时为空）
 
     @Override
     public void configure(AuthorizationServerEndpointsConfigurer endpoints) throws Exception {
         endpoints.authenticationManager(this.authenticationManager);
-        endpoints.tokenStore(tokenStore());
+        endpoints.tokenStore(tokenStore);
+        if (accessTokenConverter != null) {
+            endpoints.accessTokenConverter(accessTokenConverter);
+        }
+        if (tokenServices != null) {
+            endpoints.tokenServices(tokenServices);
+        }
     }
 
     @Override
@@ -50,15 +56,7 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
 
     @Override
     public void configure(ClientDetailsServiceConfigurer clients) throws Exception {
-        clients.inMemory()
-                .withClient("android")
-                .scopes("xx")
-                .secret("android")
-                .authorizedGrantTypes("password", "authorization_code", "refresh_token")
-                .and()
-                .withClient("webapp")
-                .scopes("xx")
-                .authorizedGrantTypes("implicit");
+        clients.withClientDetails(indexedClientDetailsService);
     }
 
 }
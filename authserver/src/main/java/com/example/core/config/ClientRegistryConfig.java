@@ -0,0 +1,143 @@
+package com.example.core.config;
+
+import com.example.core.entity.OAuthClient;
+import com.example.core.repository.OAuthClientRepository;
+import com.example.core.security.IndexedClientDetailsService;
+import com.example.core.security.OAuthClientReloader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客户端注册配置
+ * 客户端存放在 MongoDB，由 IndexedClientDetailsService 加载成内存索引；通过 OAuthClientRepository 保存或删除客户端后，
+ * 经 Redis 频道通知所有节点重新加载，另外定时全量重新加载一次
+ * 客户端数量、加载次数和最近一次加载耗时通过 /metrics 暴露，前缀为 auth.clients
+ */
+@Configuration
+@EnableConfigurationProperties(ClientRegistryProperties.class)
+public class ClientRegistryConfig {
+
+    private static Logger logger = LoggerFactory.getLogger(ClientRegistryConfig.class);
+
+    @Autowired
+    private ClientRegistryProperties properties;            // 客户端注册配置
+
+    @Autowired
+    private OAuthClientRepository clientRepository;         // 客户端数据操作
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;  // redis连接工厂
+
+    /**
+     * 重新加载客户端索引的线程
+     * @return 定时任务线程池
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService clientReloadScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("client-reload-"));
+    }
+
+    /**
+     * 客户端信息服务，创建时加载一次（MongoDB 不可用时索引为空，等待定时重新加载）
+     * @return 基于内存索引的客户端信息服务
+     */
+    @Bean
+    public IndexedClientDetailsService indexedClientDetailsService() {
+        ScheduledExecutorService scheduler = clientReloadScheduler();
+        IndexedClientDetailsService clientDetailsService = new IndexedClientDetailsService(clientRepository::findAll,
+                scheduler, properties.getReloadDelayMillis());
+        if (properties.isSeedDefaults()) {
+            seedDefaults();
+        }
+        clientDetailsService.reload();
+        scheduler.scheduleWithFixedDelay(clientDetailsService::reload,
+                properties.getRefreshSeconds(), properties.getRefreshSeconds(), TimeUnit.SECONDS);
+        return clientDetailsService;
+    }
+
+    /**
+     * 客户端保存或删除后通知所有节点（包括本节点）重新加载
+     * @return 客户端变更监听对象
+     */
+    @Bean
+    public OAuthClientReloader oauthClientReloader() {
+        IndexedClientDetailsService clientDetailsService = indexedClientDetailsService();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        return new OAuthClientReloader(() -> {
+            clientDetailsService.requestReload();
+            try {
+                redisTemplate.convertAndSend(properties.getReloadChannel(), "reload");
+            } catch (RuntimeException e) {
+                logger.warn("Failed to publish client reload: {}", e.toString());
+            }
+        });
+    }
+
+    /**
+     * 订阅其他节点发出的重新加载消息
+     * @return 消息监听容器
+     */
+    @Bean
+    public RedisMessageListenerContainer clientReloadListenerContainer() {
+        IndexedClientDetailsService clientDetailsService = indexedClientDetailsService();
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener((message, pattern) -> clientDetailsService.requestReload(),
+                new ChannelTopic(properties.getReloadChannel()));
+        return container;
+    }
+
+    /**
+     * 客户端索引指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics clientRegistryMetrics() {
+        IndexedClientDetailsService clientDetailsService = indexedClientDetailsService();
+        return () -> Arrays.<Metric<?>>asList(
+                new Metric<>("auth.clients.count", clientDetailsService.size()),
+                new Metric<>("auth.clients.reloads", clientDetailsService.getReloads()),
+                new Metric<>("auth.clients.last-reload-millis", clientDetailsService.getLastReloadMillis()));
+    }
+
+    /**
+     * 集合为空时写入原来硬编码的两个客户端
+     */
+    private void seedDefaults() {
+        try {
+            if (clientRepository.count() > 0) {
+                return;
+            }
+            OAuthClient android = new OAuthClient();
+            android.setClientId("android");
+            android.setClientSecret("android");
+            android.setScopes(new String[]{"xx"});
+            android.setAuthorizedGrantTypes(new String[]{"password", "authorization_code", "refresh_token"});
+
+            OAuthClient webapp = new OAuthClient();
+            webapp.setClientId("webapp");
+            webapp.setScopes(new String[]{"xx"});
+            webapp.setAuthorizedGrantTypes(new String[]{"implicit"});
+
+            clientRepository.save(Arrays.asList(android, webapp));
+        } catch (RuntimeException e) {
+            logger.error("Failed to seed default clients: {}", e.toString());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 客户端注册配置
+ * 对应 auth.clients 前缀，客户端存放在 MongoDB 的 oauth_client 集合，授权时只读取内存索引
+ */
+@ConfigurationProperties(prefix = "auth.clients")
+public class ClientRegistryProperties {
+    private long reloadDelayMillis = 500;                   // 合并重新加载请求的等待时间（毫秒）
+    private long refreshSeconds = 300;                      // 定时全量重新加载的间隔（秒），覆盖直接修改 MongoDB 的情况
+    private String reloadChannel = "auth:client-reload";    // 各节点之间发送重新加载消息的 Redis 频道
+    private boolean seedDefaults = true;                    // 集合为空时是否写入默认客户端（android、webapp）
+
+    public long getReloadDelayMillis() {
+        return reloadDelayMillis;
+    }
+
+    public void setReloadDelayMillis(long reloadDelayMillis) {
+        this.reloadDelayMillis = reloadDelayMillis;
+    }
+
+    public long getRefreshSeconds() {
+        return refreshSeconds;
+    }
+
+    public void setRefreshSeconds(long refreshSeconds) {
+        this.refreshSeconds = refreshSeconds;
+    }
+
+    public String getReloadChannel() {
+        return reloadChannel;
+    }
+
+    public void setReloadChannel(String reloadChannel) {
+        this.reloadChannel = reloadChannel;
+    }
+
+    public boolean isSeedDefaults() {
+        return seedDefaults;
+    }
+
+    public void setSeedDefaults(boolean seedDefaults) {
+        this.seedDefaults = seedDefaults;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 批量校验令牌配置
+ * 对应 auth.introspection 前缀
+ */
+@ConfigurationProperties(prefix = "auth.introspection")
+public class IntrospectionProperties {
+    private int maxBatchSize = 100;     // 一次请求最多校验的令牌数
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+}
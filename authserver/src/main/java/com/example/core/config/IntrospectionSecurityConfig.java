@@ -0,0 +1,49 @@
+package com.example.core.config;
+
+import com.example.core.security.IndexedClientDetailsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.provider.client.ClientDetailsUserDetailsService;
+
+/**
+ * 批量校验令牌（/oauth/check_tokens）的安全配置
+ * 与 /oauth/check_token 相同，调用方用客户端 id 和密钥做 Basic 认证；
+ * 授权服务器自带的过滤器链只匹配它自己的端点，这里单独建立一条（排在授权服务器之后、资源服务之前）
+ */
+@Configuration
+@Order(1)
+@EnableConfigurationProperties(IntrospectionProperties.class)
+public class IntrospectionSecurityConfig extends WebSecurityConfigurerAdapter {
+    @Autowired
+    private IndexedClientDetailsService indexedClientDetailsService;    // 客户端信息（见 ClientRegistryConfig）
+
+    /**
+     * 只认证客户端，不使用全局的用户认证
+     * @param auth 认证管理
+     * @throws Exception 认证异常信息
+     */
+    @Override
+    protected void configure(AuthenticationManagerBuilder auth) throws Exception {
+        auth.userDetailsService(new ClientDetailsUserDetailsService(indexedClientDetailsService));
+    }
+
+    /**
+     * http安全配置
+     * @param http http安全对象
+     * @throws Exception http安全异常信息
+     */
+    @Override
+    protected void configure(HttpSecurity http) throws Exception {
+        http.requestMatchers().antMatchers("/oauth/check_tokens").and()
+                .authorizeRequests().anyRequest().authenticated().and()
+                .httpBasic().and()
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
+                .csrf().disable();
+    }
+}
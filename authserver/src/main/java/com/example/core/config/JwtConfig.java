@@ -0,0 +1,62 @@
+package com.example.core.config;
+
+import com.example.core.token.JwtSigningKeys;
+import com.example.core.token.KeyIdJwtAccessTokenConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.security.KeyPair;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JWT 访问令牌配置
+ * 启用 auth.jwt 后访问令牌为带 kid 的 RS256 JWT，仍然保存在 Redis 中，撤销和 check_token 不受影响；
+ * 存在 JwtAccessTokenConverter 时授权服务器会注册 /oauth/token_key（当前公钥），
+ * 全部公钥通过 /oauth/token_keys 以 JWK Set 格式发布
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "auth.jwt", name = "enabled")
+@EnableConfigurationProperties(JwtProperties.class)
+public class JwtConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtConfig.class);
+
+    @Autowired
+    private JwtProperties properties;       // JWT 配置
+
+    /**
+     * 签名密钥集合，未配置密钥时临时生成一个（重启后之前签发的令牌无法再校验）
+     * @return 签名密钥集合
+     */
+    @Bean
+    public JwtSigningKeys jwtSigningKeys() {
+        Map<String, KeyPair> keys = new LinkedHashMap<>();
+        for (JwtProperties.Key key : properties.getKeys()) {
+            if (!StringUtils.hasText(key.getId()) || !StringUtils.hasText(key.getPrivateKey())) {
+                throw new IllegalArgumentException("auth.jwt.keys entries require both id and private-key");
+            }
+            keys.put(key.getId(), JwtSigningKeys.parsePrivateKey(key.getPrivateKey()));
+        }
+        if (keys.isEmpty()) {
+            logger.warn("No auth.jwt.keys configured, generated an ephemeral signing key; tokens will not survive a restart");
+            keys.put("generated-" + Long.toHexString(System.currentTimeMillis()), JwtSigningKeys.generateKeyPair());
+        }
+        return new JwtSigningKeys(keys, properties.getActiveKeyId());
+    }
+
+    /**
+     * JWT 访问令牌转换器
+     * @return 带 kid 的 JWT 访问令牌转换器
+     */
+    @Bean
+    public KeyIdJwtAccessTokenConverter accessTokenConverter() {
+        return new KeyIdJwtAccessTokenConverter(jwtSigningKeys());
+    }
+}
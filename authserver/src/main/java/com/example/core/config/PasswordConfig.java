@@ -0,0 +1,77 @@
+package com.example.core.config;
+
+import com.example.core.security.AdaptivePasswordEncoder;
+import com.example.core.security.OffloadingPasswordEncoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码编码配置
+ * 密码使用 bcrypt 编码（强度默认在启动时按目标校验时间选择），明文保存的旧密码在登录成功后升级；
+ * 密码校验在固定大小、有界队列的线程池中执行，集中登录时不会占满 Tomcat 请求线程
+ * 当前强度、线程池的活动线程数、排队数和拒绝次数通过 /metrics 暴露，前缀为 auth.password
+ */
+@Configuration
+@EnableConfigurationProperties(PasswordProperties.class)
+public class PasswordConfig {
+
+    @Autowired
+    private PasswordProperties properties;      // 密码编码配置
+
+    /**
+     * 自适应密码编码器
+     * @return bcrypt 密码编码器（兼容明文旧密码）
+     */
+    @Bean
+    public AdaptivePasswordEncoder adaptivePasswordEncoder() {
+        int strength = properties.getStrength() > 0 ? properties.getStrength()
+                : AdaptivePasswordEncoder.tuneStrength(properties.getTargetMillis(), properties.getMinStrength(), properties.getMaxStrength());
+        return new AdaptivePasswordEncoder(strength);
+    }
+
+    /**
+     * 密码哈希线程池，队列有界，队列已满时拒绝
+     * @return 线程池
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor() {
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("password-hashing-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 在线程池中执行的密码编码器
+     * @return 密码编码器
+     */
+    @Bean
+    public OffloadingPasswordEncoder offloadingPasswordEncoder() {
+        return new OffloadingPasswordEncoder(adaptivePasswordEncoder(), passwordHashingExecutor(), properties.getMaxWaitMillis());
+    }
+
+    /**
+     * 密码编码指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics passwordMetrics() {
+        AdaptivePasswordEncoder passwordEncoder = adaptivePasswordEncoder();
+        OffloadingPasswordEncoder offloadingEncoder = offloadingPasswordEncoder();
+        return () -> Arrays.<Metric<?>>asList(
+                new Metric<>("auth.password.strength", passwordEncoder.getStrength()),
+                new Metric<>("auth.password.hashing.active", offloadingEncoder.getActiveCount()),
+                new Metric<>("auth.password.hashing.queued", offloadingEncoder.getQueueSize()),
+                new Metric<>("auth.password.hashing.rejected", offloadingEncoder.getRejected()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 密码编码配置
+ * 对应 auth.password 前缀，密码使用 bcrypt 编码，校验在专用的有界线程池中执行
+ */
+@ConfigurationProperties(prefix = "auth.password")
+public class PasswordProperties {
+    private int strength = 0;               // bcrypt 强度，0 表示启动时按 target-millis 自动选择
+    private long targetMillis = 100;        // 自动选择强度时的目标校验时间（毫秒）
+    private int minStrength = 10;           // 自动选择的最小强度
+    private int maxStrength = 14;           // 自动选择的最大强度
+    private int threads = 0;                // 密码哈希线程数，0 表示 CPU 核数
+    private int queueCapacity = 16;         // 等待哈希的最大登录数，超出时立即返回 503
+    private long maxWaitMillis = 2000;      // 登录请求等待哈希结果的最长时间（毫秒）
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public void setStrength(int strength) {
+        this.strength = strength;
+    }
+
+    public long getTargetMillis() {
+        return targetMillis;
+    }
+
+    public void setTargetMillis(long targetMillis) {
+        this.targetMillis = targetMillis;
+    }
+
+    public int getMinStrength() {
+        return minStrength;
+    }
+
+    public void setMinStrength(int minStrength) {
+        this.minStrength = minStrength;
+    }
+
+    public int getMaxStrength() {
+        return maxStrength;
+    }
+
+    public void setMaxStrength(int maxStrength) {
+        this.maxStrength = maxStrength;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+}
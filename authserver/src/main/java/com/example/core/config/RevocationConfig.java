@@ -0,0 +1,80 @@
+package com.example.core.config;
+
+import com.example.core.revocation.TokenRevokedEvent;
+import com.example.core.token.TokenRevocationRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已撤销令牌过滤器配置
+ * 访问令牌被删除后登记到 TokenRevocationRegistry（见 TokenStoreConfig），每一批撤销作为 TokenRevokedEvent 通过消息总线
+ * 广播给网关和资源服务；登记、广播和等待写入的指纹数通过 /metrics 暴露，前缀为 auth.revocation
+ * @ RemoteApplicationEventScan 让消息总线能够反序列化 TokenRevokedEvent
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "auth.revocation", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(RevocationProperties.class)
+@RemoteApplicationEventScan(basePackageClasses = TokenRevokedEvent.class)
+public class RevocationConfig {
+
+    @Autowired
+    private RevocationProperties properties;                // 已撤销令牌过滤器配置
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;  // redis连接工厂
+
+    @Autowired
+    private ApplicationContext context;                     // 发布总线事件，上下文 id 即总线上的服务 id
+
+    /**
+     * 合并写入撤销的线程
+     * @return 定时任务线程池
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService revocationScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("token-revocation-"));
+    }
+
+    /**
+     * 已撤销令牌登记，每一批撤销发布为 TokenRevokedEvent，由消息总线发送给其他服务
+     * @return 已撤销令牌登记对象
+     */
+    @Bean
+    public TokenRevocationRegistry tokenRevocationRegistry() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(redisConnectionFactory,
+                (version, fingerprints) -> context.publishEvent(new TokenRevokedEvent(this, context.getId(), version, fingerprints)),
+                revocationScheduler(), properties.getRetentionSeconds(), TimeUnit.SECONDS);
+        registry.setFlushDelayMillis(properties.getFlushDelayMillis());
+        registry.setMinCapacity(properties.getMinCapacity());
+        registry.setFalsePositiveRate(properties.getFalsePositiveRate());
+        registry.setSnapshotMaxAgeMillis(TimeUnit.SECONDS.toMillis(properties.getSnapshotMaxAgeSeconds()));
+        return registry;
+    }
+
+    /**
+     * 已撤销令牌指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics revocationMetrics() {
+        TokenRevocationRegistry registry = tokenRevocationRegistry();
+        return () -> Arrays.<Metric<?>>asList(
+                new Metric<>("auth.revocation.revoked", registry.getRevoked()),
+                new Metric<>("auth.revocation.published", registry.getPublished()),
+                new Metric<>("auth.revocation.pending", registry.getPending()));
+    }
+}
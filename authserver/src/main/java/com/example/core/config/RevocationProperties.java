@@ -0,0 +1,65 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 已撤销令牌过滤器配置
+ * 对应 auth.revocation 前缀，撤销增量通过消息总线广播，完整快照由 /oauth/revocations 提供
+ */
+@ConfigurationProperties(prefix = "auth.revocation")
+public class RevocationProperties {
+    private boolean enabled = true;                 // 是否登记和广播已撤销的令牌
+    private long retentionSeconds = 43200;          // 指纹的保留时间（秒），不短于访问令牌的有效期（默认 12 小时）
+    private long flushDelayMillis = 100;            // 合并撤销的等待时间（毫秒），这段时间内的撤销作为一条消息广播
+    private int minCapacity = 10000;                // 快照过滤器的最小容量
+    private double falsePositiveRate = 0.01;        // 快照过滤器的误判率
+    private long snapshotMaxAgeSeconds = 10;        // 快照的缓存时间（秒）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getRetentionSeconds() {
+        return retentionSeconds;
+    }
+
+    public void setRetentionSeconds(long retentionSeconds) {
+        this.retentionSeconds = retentionSeconds;
+    }
+
+    public long getFlushDelayMillis() {
+        return flushDelayMillis;
+    }
+
+    public void setFlushDelayMillis(long flushDelayMillis) {
+        this.flushDelayMillis = flushDelayMillis;
+    }
+
+    public int getMinCapacity() {
+        return minCapacity;
+    }
+
+    public void setMinCapacity(int minCapacity) {
+        this.minCapacity = minCapacity;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public long getSnapshotMaxAgeSeconds() {
+        return snapshotMaxAgeSeconds;
+    }
+
+    public void setSnapshotMaxAgeSeconds(long snapshotMaxAgeSeconds) {
+        this.snapshotMaxAgeSeconds = snapshotMaxAgeSeconds;
+    }
+}
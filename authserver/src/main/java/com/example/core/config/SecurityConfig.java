@@ -1,6 +1,9 @@
 package com.example.core.config;
 
+import com.example.core.security.AdaptivePasswordEncoder;
 import com.example.core.security.DomainUserDetailsService;
+import com.example.core.security.OffloadingPasswordEncoder;
+import com.example.core.security.PasswordUpgradingAuthenticationProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,7 +14,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.core.userdetails.UserDetailsService;
 
 /**
  * 安全配置
@@ -22,15 +24,33 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(prePostEnabled = true)
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
+    @Autowired
+    private AdaptivePasswordEncoder passwordEncoder;                // 密码编码器（见 PasswordConfig）
+
+    @Autowired
+    private OffloadingPasswordEncoder offloadingPasswordEncoder;    // 在线程池中校验密码的编码器（见 PasswordConfig）
+
     /**
      * 注入用户信息服务
      * @return 用户信息服务对象
      */
     @Bean
-    public UserDetailsService userDetailsService() {
+    public DomainUserDetailsService userDetailsService() {
         return new DomainUserDetailsService();
     }
 
+    /**
+     * 认证提供者，密码校验在专用线程池中执行，登录成功后升级明文或强度不足的密码
+     * @return 认证提供者对象
+     */
+    @Bean
+    public PasswordUpgradingAuthenticationProvider authenticationProvider() {
+        PasswordUpgradingAuthenticationProvider provider = new PasswordUpgradingAuthenticationProvider(
+                passwordEncoder, offloadingPasswordEncoder, userDetailsService());
+        provider.setUserDetailsService(userDetailsService());
+        return provider;
+    }
+
     /**
      * 全局用户信息
      * @param auth 认证管理
@@ -38,7 +58,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
      */
     @Autowired
     public void globalUserDetails(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userDetailsService());
+        auth.authenticationProvider(authenticationProvider());
     }
 
     /**
@@ -53,13 +73,15 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     }
 
     /**
-     * http安全配置
+     * http安全配置，公钥集合（/oauth/token_keys）和已撤销令牌过滤器（/oauth/revocations）不需要认证
      * @param http http安全对象
      * @throws Exception http安全异常信息
      */
     @Override
     protected void configure(HttpSecurity http) throws Exception {
-        http.authorizeRequests().antMatchers(HttpMethod.OPTIONS).permitAll().anyRequest().authenticated().and()
+        http.authorizeRequests().antMatchers(HttpMethod.OPTIONS).permitAll()
+                .antMatchers(HttpMethod.GET, "/oauth/token_keys", "/oauth/revocations").permitAll()
+                .anyRequest().authenticated().and()
                 .httpBasic().and().csrf().disable();
     }
 }
@@ -0,0 +1,212 @@
+package com.example.core.config;
+
+import com.example.core.token.CompactSerializationStrategy;
+import com.example.core.token.GrantBatchingTokenServices;
+import com.example.core.token.KeyIdJwtAccessTokenConverter;
+import com.example.core.token.NearCacheTokenStore;
+import com.example.core.token.PipelinedRedisTokenStore;
+import com.example.core.token.RedisBackedTokenStore;
+import com.example.core.token.ShardedRedisTokenStore;
+import com.example.core.token.TokenRevocationRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌存储配置
+ * 令牌存放在 Redis，默认在前面加一层本地缓存（NearCacheTokenStore），各节点通过 Redis 频道互相通知令牌失效
+ * 本地缓存的命中、未命中次数和条目数通过 /metrics 暴露，前缀为 auth.token-store
+ * 写入 Redis 的令牌默认使用紧凑序列化，发放令牌时一次授权的写入由 GrantBatchingTokenServices 合并
+ * 被删除的访问令牌登记到 TokenRevocationRegistry（见 RevocationConfig），由消息总线通知网关和资源服务
+ * 配置了 auth.token-store.shards 时令牌分布到多个 Redis（ShardedRedisTokenStore），回退读取和迁移次数通过 /metrics 暴露；
+ * 令牌失效通知等其他数据仍使用 spring.redis 指定的 Redis
+ */
+@Configuration
+@EnableConfigurationProperties(TokenStoreProperties.class)
+public class TokenStoreConfig implements DisposableBean {
+
+    @Autowired
+    private TokenStoreProperties properties;                // 令牌存储配置
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;  // redis连接工厂
+
+    @Autowired
+    private RedisProperties redisProperties;                // spring.redis 配置，分片沿用其中的密码、超时和连接池设置
+
+    @Autowired(required = false)
+    private TokenRevocationRegistry revocationRegistry;     // 已撤销令牌登记（关闭 auth.revocation 时为空）
+
+    private final List<JedisConnectionFactory> shardConnectionFactories = new ArrayList<>();   // 为分片创建的连接工厂
+
+    /**
+     * redis令牌存储，配置了分片时为分片令牌存储
+     * @return 支持合并写入的redis令牌存储对象
+     */
+    @Bean
+    public RedisBackedTokenStore redisTokenStore() {
+        RedisBackedTokenStore redisTokenStore;
+        if (properties.getShards().isEmpty()) {
+            PipelinedRedisTokenStore pipelinedTokenStore = new PipelinedRedisTokenStore(redisConnectionFactory);
+            if (properties.isCompactSerialization()) {
+                pipelinedTokenStore.setSerializationStrategy(new CompactSerializationStrategy());
+            }
+            redisTokenStore = pipelinedTokenStore;
+        } else {
+            Map<String, RedisConnectionFactory> connectionFactories = new LinkedHashMap<>();
+            for (TokenStoreProperties.Shard shard : properties.getShards()) {
+                connectionFactories.put(shard.getName(), shardConnectionFactory(shard));
+            }
+            ShardedRedisTokenStore shardedTokenStore = new ShardedRedisTokenStore(connectionFactories, properties.getVirtualNodes());
+            shardedTokenStore.setPreviousShards(properties.getPreviousShards());
+            if (properties.isCompactSerialization()) {
+                shardedTokenStore.setSerializationStrategy(new CompactSerializationStrategy());
+            }
+            redisTokenStore = shardedTokenStore;
+        }
+        if (revocationRegistry != null) {
+            redisTokenStore.setAccessTokenRemovalListener(revocationRegistry::revoke);
+        }
+        return redisTokenStore;
+    }
+
+    /**
+     * 令牌存储
+     * @return 本地缓存 + redis令牌存储对象，关闭本地缓存时为redis令牌存储对象
+     */
+    @Bean
+    @Primary
+    public TokenStore tokenStore() {
+        RedisBackedTokenStore redisTokenStore = redisTokenStore();
+        if (!properties.isNearCacheEnabled()) {
+            return redisTokenStore;
+        }
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        return new NearCacheTokenStore(redisTokenStore,
+                message -> redisTemplate.convertAndSend(properties.getInvalidationChannel(), message),
+                properties.getMaxSize(), properties.getMaxTtlSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * 令牌服务，设置与授权服务器默认创建的令牌服务相同，只是一次授权的写入合并为一个 Redis 流水线
+     * 授权服务器的 consumerTokenServices 和 defaultAuthorizationServerTokenServices 此时是两个不同的对象，
+     * 标记为 @Primary 让资源服务配置选用这一个
+     * 启用 auth.jwt 时访问令牌由 JWT 转换器编码
+     * @param clientDetailsService 客户端信息
+     * @param accessTokenConverter JWT 访问令牌转换器（见 JwtConfig）
+     * @return 按授权合并写入的令牌服务
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "auth.token-store", name = "batched-writes", matchIfMissing = true)
+    public GrantBatchingTokenServices tokenServices(ClientDetailsService clientDetailsService,
+                                                    ObjectProvider<KeyIdJwtAccessTokenConverter> accessTokenConverter) {
+        GrantBatchingTokenServices tokenServices = new GrantBatchingTokenServices(redisTokenStore());
+        tokenServices.setTokenStore(tokenStore());
+        tokenServices.setSupportRefreshToken(true);
+        tokenServices.setReuseRefreshToken(true);
+        tokenServices.setClientDetailsService(clientDetailsService);
+        tokenServices.setTokenEnhancer(accessTokenConverter.getIfAvailable());
+        return tokenServices;
+    }
+
+    /**
+     * 订阅其他节点发出的令牌失效消息
+     * @return 消息监听容器
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "auth.token-store", name = "near-cache-enabled", matchIfMissing = true)
+    public RedisMessageListenerContainer tokenInvalidationListenerContainer() {
+        NearCacheTokenStore tokenStore = (NearCacheTokenStore) tokenStore();
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener((message, pattern) -> tokenStore.evictLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(properties.getInvalidationChannel()));
+        return container;
+    }
+
+    /**
+     * 令牌本地缓存指标
+     * @return 指标
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "auth.token-store", name = "near-cache-enabled", matchIfMissing = true)
+    public PublicMetrics tokenStoreMetrics() {
+        NearCacheTokenStore tokenStore = (NearCacheTokenStore) tokenStore();
+        return () -> Arrays.<Metric<?>>asList(
+                new Metric<>("auth.token-store.near-cache.size", tokenStore.size()),
+                new Metric<>("auth.token-store.near-cache.hits", tokenStore.getHits()),
+                new Metric<>("auth.token-store.near-cache.misses", tokenStore.getMisses()));
+    }
+
+    /**
+     * 令牌分片指标：在原来的分片上读到的次数和迁移的令牌数，没有配置分片时为空
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics tokenShardMetrics() {
+        RedisBackedTokenStore redisTokenStore = redisTokenStore();
+        if (!(redisTokenStore instanceof ShardedRedisTokenStore)) {
+            return Collections::emptyList;
+        }
+        ShardedRedisTokenStore shardedTokenStore = (ShardedRedisTokenStore) redisTokenStore;
+        return () -> Arrays.<Metric<?>>asList(
+                new Metric<>("auth.token-store.shards.fallback-reads", shardedTokenStore.getFallbackReads()),
+                new Metric<>("auth.token-store.shards.moved", shardedTokenStore.getMoved()));
+    }
+
+    @Override
+    public void destroy() {
+        shardConnectionFactories.forEach(JedisConnectionFactory::destroy);
+    }
+
+    /**
+     * 创建分片的连接工厂，密码、超时和连接池设置沿用 spring.redis
+     */
+    private JedisConnectionFactory shardConnectionFactory(TokenStoreProperties.Shard shard) {
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        RedisProperties.Pool pool = redisProperties.getPool();
+        if (pool != null) {
+            poolConfig.setMaxTotal(pool.getMaxActive());
+            poolConfig.setMaxIdle(pool.getMaxIdle());
+            poolConfig.setMinIdle(pool.getMinIdle());
+            poolConfig.setMaxWaitMillis(pool.getMaxWait());
+        }
+        JedisConnectionFactory connectionFactory = new JedisConnectionFactory(poolConfig);
+        connectionFactory.setHostName(shard.getHost());
+        connectionFactory.setPort(shard.getPort());
+        connectionFactory.setDatabase(shard.getDatabase());
+        connectionFactory.setPassword(redisProperties.getPassword());
+        if (redisProperties.getTimeout() > 0) {
+            connectionFactory.setTimeout(redisProperties.getTimeout());
+        }
+        connectionFactory.afterPropertiesSet();
+        shardConnectionFactories.add(connectionFactory);
+        return connectionFactory;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 令牌存储配置
+ * 对应 auth.token-store 前缀，令牌本身存放在 Redis，本地缓存只加速读取
+ * 令牌写入 Redis 时默认使用紧凑序列化，一次授权的所有写入合并到一个流水线
+ * 配置 shards 后令牌按一致性哈希分布到多个 Redis；增加分片时把原来的分片名称写入 previous-shards，
+ * 令牌在被读取时逐步迁移，最长的令牌有效期过后再清空 previous-shards
+ */
+@ConfigurationProperties(prefix = "auth.token-store")
+public class TokenStoreProperties {
+    private boolean nearCacheEnabled = true;                        // 是否在 Redis 前加一层本地缓存
+    private int maxSize = 10000;                                    // 本地缓存的最大条目数
+    private long maxTtlSeconds = 300;                               // 本地条目的最长存活时间（令牌更早过期时随令牌过期）
+    private String invalidationChannel = "auth:token-invalidation"; // 各节点之间发送令牌失效消息的 Redis 频道
+    private boolean compactSerialization = true;                    // 是否用紧凑序列化代替 JDK 序列化（仍可读取 JDK 序列化的旧数据）
+    private boolean batchedWrites = true;                           // 是否把一次授权的所有写入合并到一个流水线
+    private List<Shard> shards = new ArrayList<>();                 // 令牌分片（为空时令牌存放在 spring.redis 指定的 Redis）
+    private List<String> previousShards = new ArrayList<>();        // 增加分片之前的分片名称，为空表示没有正在进行的迁移
+    private int virtualNodes = 160;                                 // 每个分片在一致性哈希环上的虚拟节点数
+
+    public boolean isNearCacheEnabled() {
+        return nearCacheEnabled;
+    }
+
+    public void setNearCacheEnabled(boolean nearCacheEnabled) {
+        this.nearCacheEnabled = nearCacheEnabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxTtlSeconds() {
+        return maxTtlSeconds;
+    }
+
+    public void setMaxTtlSeconds(long maxTtlSeconds) {
+        this.maxTtlSeconds = maxTtlSeconds;
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    public void setInvalidationChannel(String invalidationChannel) {
+        this.invalidationChannel = invalidationChannel;
+    }
+
+    public boolean isCompactSerialization() {
+        return compactSerialization;
+    }
+
+    public void setCompactSerialization(boolean compactSerialization) {
+        this.compactSerialization = compactSerialization;
+    }
+
+    public boolean isBatchedWrites() {
+        return batchedWrites;
+    }
+
+    public void setBatchedWrites(boolean batchedWrites) {
+        this.batchedWrites = batchedWrites;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public List<String> getPreviousShards() {
+        return previousShards;
+    }
+
+    public void setPreviousShards(List<String> previousShards) {
+        this.previousShards = previousShards;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * 令牌分片，密码、超时和连接池设置沿用 spring.redis
+     */
+    public static class Shard {
+        private String name;                // 分片名称，决定分片在环上的位置，设置后不能修改
+        private String host = "localhost";  // Redis 地址
+        private int port = 6379;            // Redis 端口
+        private int database = 0;           // Redis 数据库编号
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public int getDatabase() {
+            return database;
+        }
+
+        public void setDatabase(int database) {
+            this.database = database;
+        }
+    }
+}
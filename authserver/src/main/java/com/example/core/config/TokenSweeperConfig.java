@@ -0,0 +1,74 @@
+package com.example.core.config;
+
+import com.example.core.token.RedisBackedTokenStore;
+import com.example.core.token.TokenIndexSweeper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌索引清理配置
+ * 清理器在独立的线程上分步执行，键名前缀、序列化方式和 Redis 节点（分片时为所有分片）与 redisTokenStore 一致；
+ * 检查和删除的元素数、回收的字节数和键数通过 /metrics 暴露，前缀为 auth.token-sweeper
+ * 多个认证服务节点同时清理是安全的（LREM 只删除存在的元素），只是重复检查
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "auth.token-sweeper", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(TokenSweeperProperties.class)
+public class TokenSweeperConfig {
+
+    @Autowired
+    private TokenSweeperProperties properties;              // 令牌索引清理配置
+
+    @Autowired
+    private RedisBackedTokenStore redisTokenStore;          // redis令牌存储
+
+    /**
+     * 执行清理的线程
+     * @return 定时任务线程池
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService tokenSweeperScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("token-sweeper-"));
+    }
+
+    /**
+     * 令牌索引清理器，启动 initialDelaySeconds 后开始第一轮
+     * @return 令牌索引清理器
+     */
+    @Bean(destroyMethod = "stop")
+    public TokenIndexSweeper tokenIndexSweeper() {
+        TokenIndexSweeper sweeper = new TokenIndexSweeper(redisTokenStore, tokenSweeperScheduler());
+        sweeper.setScanCount(properties.getScanCount());
+        sweeper.setBatchSize(properties.getBatchSize());
+        sweeper.setPauseMillis(properties.getPauseMillis());
+        sweeper.setIntervalMillis(TimeUnit.SECONDS.toMillis(properties.getIntervalSeconds()));
+        sweeper.start(TimeUnit.SECONDS.toMillis(properties.getInitialDelaySeconds()));
+        return sweeper;
+    }
+
+    /**
+     * 令牌索引清理指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics tokenSweeperMetrics() {
+        TokenIndexSweeper sweeper = tokenIndexSweeper();
+        return () -> Arrays.<Metric<?>>asList(
+                new Metric<>("auth.token-sweeper.scanned", sweeper.getScanned()),
+                new Metric<>("auth.token-sweeper.removed", sweeper.getRemoved()),
+                new Metric<>("auth.token-sweeper.reclaimed-bytes", sweeper.getReclaimedBytes()),
+                new Metric<>("auth.token-sweeper.reclaimed-keys", sweeper.getReclaimedKeys()),
+                new Metric<>("auth.token-sweeper.passes", sweeper.getPasses()));
+    }
+}
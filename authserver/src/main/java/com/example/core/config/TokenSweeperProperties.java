@@ -0,0 +1,65 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 令牌索引清理配置
+ * 对应 auth.token-sweeper 前缀，清理 client_id_to_access: 和 uname_to_access: 列表中已过期的访问令牌
+ */
+@ConfigurationProperties(prefix = "auth.token-sweeper")
+public class TokenSweeperProperties {
+    private boolean enabled = true;                 // 是否清理令牌索引
+    private int scanCount = 100;                    // 每次 SCAN 的 COUNT
+    private int batchSize = 100;                    // 每一步检查的列表元素数
+    private long pauseMillis = 20;                  // 两步之间的暂停时间（毫秒）
+    private long intervalSeconds = 600;             // 两轮之间的间隔（秒）
+    private long initialDelaySeconds = 60;          // 启动后开始第一轮前的等待时间（秒）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getScanCount() {
+        return scanCount;
+    }
+
+    public void setScanCount(int scanCount) {
+        this.scanCount = scanCount;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getPauseMillis() {
+        return pauseMillis;
+    }
+
+    public void setPauseMillis(long pauseMillis) {
+        this.pauseMillis = pauseMillis;
+    }
+
+    public long getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    public void setIntervalSeconds(long intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    public long getInitialDelaySeconds() {
+        return initialDelaySeconds;
+    }
+
+    public void setInitialDelaySeconds(long initialDelaySeconds) {
+        this.initialDelaySeconds = initialDelaySeconds;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.core.config;
+
+import com.example.core.security.AccountCacheInvalidator;
+import com.example.core.security.UserDetailsCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户信息缓存配置
+ * DomainUserDetailsService 查询账户前先查本地缓存，账户通过 AccountRepository 保存或删除后各节点通过 Redis 频道互相通知失效
+ * 缓存的命中、未命中、加载次数、命中率和条目数通过 /metrics 暴露，前缀为 auth.user-cache
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "auth.user-cache", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(UserCacheProperties.class)
+public class UserCacheConfig {
+
+    @Autowired
+    private UserCacheProperties properties;                 // 用户信息缓存配置
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;  // redis连接工厂
+
+    /**
+     * 用户信息缓存
+     * @return 用户信息缓存对象
+     */
+    @Bean
+    public UserDetailsCache userDetailsCache() {
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        return new UserDetailsCache(message -> redisTemplate.convertAndSend(properties.getInvalidationChannel(), message),
+                properties.getMaxSize(), properties.getTtlSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * 监听账户的保存和删除
+     * @return 账户变更监听对象
+     */
+    @Bean
+    public AccountCacheInvalidator accountCacheInvalidator() {
+        return new AccountCacheInvalidator(userDetailsCache());
+    }
+
+    /**
+     * 订阅其他节点发出的账户失效消息
+     * @return 消息监听容器
+     */
+    @Bean
+    public RedisMessageListenerContainer userInvalidationListenerContainer() {
+        UserDetailsCache cache = userDetailsCache();
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener((message, pattern) -> cache.evictLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(properties.getInvalidationChannel()));
+        return container;
+    }
+
+    /**
+     * 用户信息缓存指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics userCacheMetrics() {
+        UserDetailsCache cache = userDetailsCache();
+        return () -> {
+            long hits = cache.getHits();
+            long misses = cache.getMisses();
+            return Arrays.<Metric<?>>asList(
+                    new Metric<>("auth.user-cache.size", cache.size()),
+                    new Metric<>("auth.user-cache.hits", hits),
+                    new Metric<>("auth.user-cache.misses", misses),
+                    new Metric<>("auth.user-cache.loads", cache.getLoads()),
+                    new Metric<>("auth.user-cache.hit-ratio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses)));
+        };
+    }
+}
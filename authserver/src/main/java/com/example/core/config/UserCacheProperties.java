@@ -0,0 +1,47 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 用户信息缓存配置
+ * 对应 auth.user-cache 前缀，账户本身存放在 MongoDB，本地缓存只加速登录和刷新令牌时的用户查询
+ */
+@ConfigurationProperties(prefix = "auth.user-cache")
+public class UserCacheProperties {
+    private boolean enabled = true;                                 // 是否缓存用户信息
+    private int maxSize = 10000;                                    // 最大条目数
+    private long ttlSeconds = 300;                                  // 条目的存活时间（秒），绕过 AccountRepository 修改的账户最多延迟这么久生效
+    private String invalidationChannel = "auth:user-invalidation";  // 各节点之间发送账户失效消息的 Redis 频道
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    public void setInvalidationChannel(String invalidationChannel) {
+        this.invalidationChannel = invalidationChannel;
+    }
+}
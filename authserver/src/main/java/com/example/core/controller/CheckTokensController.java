@@ -0,0 +1,89 @@
+package com.example.core.controller;
+
+import com.example.core.config.IntrospectionProperties;
+import com.example.core.token.BatchTokenReader;
+import com.example.core.token.StoredAccessToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.config.annotation.web.configuration.AuthorizationServerEndpointsConfiguration;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 批量校验令牌控制器
+ * /oauth/check_token 一次只校验一个令牌，资源服务部署后缓存为空时每个令牌一次 HTTP 请求；
+ * 这里一次请求最多校验 auth.introspection.max-batch-size 个令牌，令牌存储一次读取（本地缓存 + 一条 Redis MGET）
+ * 有效令牌的内容与 /oauth/check_token 相同并加上 "active": true，无效或过期的令牌为 {"active": false}
+ */
+@RestController
+public class CheckTokensController {
+    @Autowired
+    private TokenStore tokenStore;                                  // 令牌存储（见 TokenStoreConfig）
+
+    @Autowired
+    private AuthorizationServerEndpointsConfiguration endpoints;    // 授权服务器端点配置，取 /oauth/check_token 使用的令牌转换器
+
+    @Autowired
+    private IntrospectionProperties properties;                     // 批量校验令牌配置
+
+    /**
+     * 批量校验令牌，调用方需要客户端认证（见 IntrospectionSecurityConfig）
+     * @param tokens 访问令牌列表（JSON 数组）
+     * @return 访问令牌 -> 校验结果，令牌数超出上限时返回 400
+     */
+    @PostMapping("/oauth/check_tokens")
+    public ResponseEntity<Map<String, ?>> checkTokens(@RequestBody List<String> tokens) {
+        if (tokens.size() > properties.getMaxBatchSize()) {
+            Map<String, String> error = new LinkedHashMap<>();
+            error.put("error", "invalid_request");
+            error.put("error_description", "At most " + properties.getMaxBatchSize() + " tokens per request");
+            return ResponseEntity.badRequest().body(error);
+        }
+        Set<String> values = new LinkedHashSet<>(tokens);
+        values.remove(null);
+        Map<String, StoredAccessToken> stored = read(values);
+        AccessTokenConverter converter = endpoints.getEndpointsConfigurer().getAccessTokenConverter();
+        Map<String, Map<String, ?>> result = new LinkedHashMap<>();
+        for (String value : values) {
+            StoredAccessToken token = stored.get(value);
+            if (token == null || token.getAccessToken().isExpired()) {
+                result.put(value, Collections.singletonMap("active", false));
+                continue;
+            }
+            Map<String, Object> response = new LinkedHashMap<>(converter.convertAccessToken(token.getAccessToken(), token.getAuthentication()));
+            response.put("active", true);
+            result.put(value, response);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 令牌存储支持批量读取时一次读取，否则逐个读取
+     */
+    private Map<String, StoredAccessToken> read(Set<String> values) {
+        if (tokenStore instanceof BatchTokenReader) {
+            return ((BatchTokenReader) tokenStore).readAccessTokens(values);
+        }
+        Map<String, StoredAccessToken> stored = new LinkedHashMap<>();
+        for (String value : values) {
+            OAuth2AccessToken token = tokenStore.readAccessToken(value);
+            OAuth2Authentication authentication = token == null ? null : tokenStore.readAuthentication(value);
+            if (authentication != null) {
+                stored.put(value, new StoredAccessToken(token, authentication));
+            }
+        }
+        return stored;
+    }
+}
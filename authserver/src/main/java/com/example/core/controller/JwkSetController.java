@@ -0,0 +1,38 @@
+package com.example.core.controller;
+
+import com.example.core.config.JwtProperties;
+import com.example.core.token.JwtSigningKeys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 公钥集合控制器
+ * 以 JWK Set 格式发布所有 JWT 签名公钥，资源服务据此按 kid 在本地校验访问令牌
+ */
+@RestController
+@ConditionalOnProperty(prefix = "auth.jwt", name = "enabled")
+public class JwkSetController {
+    @Autowired
+    private JwtSigningKeys signingKeys;     // 签名密钥集合
+
+    @Autowired
+    private JwtProperties properties;       // JWT 配置
+
+    /**
+     * 公钥集合，不需要认证
+     * @return JWK Set
+     */
+    @GetMapping("/oauth/token_keys")
+    public ResponseEntity<Map<String, Object>> keys() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(properties.getKeySetMaxAgeSeconds(), TimeUnit.SECONDS))
+                .body(signingKeys.toJwkSet());
+    }
+}
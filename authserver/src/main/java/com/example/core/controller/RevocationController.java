@@ -0,0 +1,33 @@
+package com.example.core.controller;
+
+import com.example.core.token.TokenRevocationRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 已撤销令牌过滤器控制器
+ * 网关和资源服务启动时（以及发现增量版本不连续时）从这里取得完整的过滤器，之后通过消息总线接收增量
+ */
+@RestController
+@ConditionalOnProperty(prefix = "auth.revocation", name = "enabled", matchIfMissing = true)
+public class RevocationController {
+    @Autowired
+    private TokenRevocationRegistry registry;   // 已撤销令牌登记
+
+    /**
+     * 已撤销令牌过滤器的完整快照，不需要认证（只包含令牌指纹）
+     * @return 快照（version、hashes、bits、words）
+     */
+    @GetMapping("/oauth/revocations")
+    public ResponseEntity<Map<String, Object>> snapshot() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(registry.snapshot());
+    }
+}
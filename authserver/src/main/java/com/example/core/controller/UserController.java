@@ -3,6 +3,11 @@ package com.example.core.controller;
 import com.example.core.entity.Account;
 import com.example.core.repository.AccountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationDetails;
+import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -13,9 +18,18 @@ import java.security.Principal;
  */
 @RestController
 public class UserController {
+
+    /**
+     * 令牌剩余有效期（秒）的响应头，网关据此限制令牌校验结果的缓存时间
+     */
+    public static final String EXPIRES_IN_HEADER = "X-Token-Expires-In";
+
     @Autowired
     private AccountRepository accountRepository;    // 账户数据操作
 
+    @Autowired
+    private TokenStore tokenStore;                  // 令牌存储
+
     /**
      * 初始化用户数据
      */
@@ -40,11 +54,34 @@ public class UserController {
 
     /**
      * 获取授权用户的信息
+     * 通过访问令牌请求时在 X-Token-Expires-In 响应头中返回令牌的剩余有效期
      * @param user 当前用户
      * @return 授权信息
      */
     @GetMapping("/user")
-    public Principal user(Principal user){
-        return user;
+    public ResponseEntity<Principal> user(Principal user){
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        OAuth2AccessToken accessToken = accessToken(user);
+        if (accessToken != null && accessToken.getExpiration() != null) {
+            response.header(EXPIRES_IN_HEADER, String.valueOf(accessToken.getExpiresIn()));
+        }
+        return response.body(user);
+    }
+
+    /**
+     * 读取本次请求使用的访问令牌
+     * @param user 当前用户
+     * @return 访问令牌，不是通过访问令牌认证时为 null
+     */
+    private OAuth2AccessToken accessToken(Principal user) {
+        if (!(user instanceof OAuth2Authentication)) {
+            return null;
+        }
+        Object details = ((OAuth2Authentication) user).getDetails();
+        if (!(details instanceof OAuth2AuthenticationDetails)) {
+            return null;
+        }
+        String tokenValue = ((OAuth2AuthenticationDetails) details).getTokenValue();
+        return tokenValue == null ? null : tokenStore.readAccessToken(tokenValue);
     }
 }
@@ -0,0 +1,103 @@
+package com.example.core.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * OAuth2 客户端实体类
+ * 客户端注册信息存放在 MongoDB 的 oauth_client 集合，授权服务器启动时和记录变化时加载到内存索引
+ */
+@Document(collection = "oauth_client")
+public class OAuthClient {
+    @Id
+    private String clientId;                        // 客户端id（主键）
+    private String clientSecret;                    // 客户端密钥
+    private String[] scopes;                        // 授权范围
+    private String[] authorizedGrantTypes;          // 授权类型
+    private String[] redirectUris;                  // 重定向地址
+    private String[] authorities;                   // 客户端权限
+    private String[] resourceIds;                   // 可访问的资源id
+    private String[] autoApproveScopes;             // 自动批准的授权范围
+    private Integer accessTokenValiditySeconds;     // 访问令牌有效期（秒），为空时使用默认值
+    private Integer refreshTokenValiditySeconds;    // 刷新令牌有效期（秒），为空时使用默认值
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getClientSecret() {
+        return clientSecret;
+    }
+
+    public void setClientSecret(String clientSecret) {
+        this.clientSecret = clientSecret;
+    }
+
+    public String[] getScopes() {
+        return scopes;
+    }
+
+    public void setScopes(String[] scopes) {
+        this.scopes = scopes;
+    }
+
+    public String[] getAuthorizedGrantTypes() {
+        return authorizedGrantTypes;
+    }
+
+    public void setAuthorizedGrantTypes(String[] authorizedGrantTypes) {
+        this.authorizedGrantTypes = authorizedGrantTypes;
+    }
+
+    public String[] getRedirectUris() {
+        return redirectUris;
+    }
+
+    public void setRedirectUris(String[] redirectUris) {
+        this.redirectUris = redirectUris;
+    }
+
+    public String[] getAuthorities() {
+        return authorities;
+    }
+
+    public void setAuthorities(String[] authorities) {
+        this.authorities = authorities;
+    }
+
+    public String[] getResourceIds() {
+        return resourceIds;
+    }
+
+    public void setResourceIds(String[] resourceIds) {
+        this.resourceIds = resourceIds;
+    }
+
+    public String[] getAutoApproveScopes() {
+        return autoApproveScopes;
+    }
+
+    public void setAutoApproveScopes(String[] autoApproveScopes) {
+        this.autoApproveScopes = autoApproveScopes;
+    }
+
+    public Integer getAccessTokenValiditySeconds() {
+        return accessTokenValiditySeconds;
+    }
+
+    public void setAccessTokenValiditySeconds(Integer accessTokenValiditySeconds) {
+        this.accessTokenValiditySeconds = accessTokenValiditySeconds;
+    }
+
+    public Integer getRefreshTokenValiditySeconds() {
+        return refreshTokenValiditySeconds;
+    }
+
+    public void setRefreshTokenValiditySeconds(Integer refreshTokenValiditySeconds) {
+        this.refreshTokenValiditySeconds = refreshTokenValiditySeconds;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.core.repository;
+
+import com.example.core.entity.OAuthClient;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * OAuth2 客户端数据库操作类
+ * MongoDB操作接口，授权过程中不直接查询，客户端信息从 IndexedClientDetailsService 的内存索引读取
+ */
+@Component
+public interface OAuthClientRepository extends MongoRepository<OAuthClient, String> {
+}
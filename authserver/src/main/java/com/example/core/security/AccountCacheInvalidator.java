@@ -0,0 +1,30 @@
+package com.example.core.security;
+
+import com.example.core.entity.Account;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+/**
+ * 账户变更监听
+ * 通过 AccountRepository 保存账户后按用户名失效缓存；删除事件只带有查询条件，失效全部缓存
+ */
+public class AccountCacheInvalidator extends AbstractMongoEventListener<Account> {
+
+    private final UserDetailsCache userDetailsCache;    // 用户信息缓存
+
+    public AccountCacheInvalidator(UserDetailsCache userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Account> event) {
+        String userName = event.getSource().getUserName();
+        userDetailsCache.invalidate(userName == null ? UserDetailsCache.ALL : userName);
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Account> event) {
+        userDetailsCache.invalidate(UserDetailsCache.ALL);
+    }
+}
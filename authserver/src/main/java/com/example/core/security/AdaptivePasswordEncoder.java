@@ -0,0 +1,100 @@
+package com.example.core.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 自适应密码编码器
+ * 新密码使用 bcrypt，强度可以按目标校验时间在启动时自动选择；
+ * 之前以明文保存的密码仍然可以校验（恒定时间比较），{@link #upgradeEncoding(String)} 为 true 的密码在登录成功后重新编码
+ */
+public class AdaptivePasswordEncoder implements PasswordEncoder {
+
+    private static Logger logger = LoggerFactory.getLogger(AdaptivePasswordEncoder.class);
+
+    private static final Pattern BCRYPT = Pattern.compile("\\A\\$2a?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int strength;                     // bcrypt 强度（log2 轮数）
+    private final BCryptPasswordEncoder bcrypt;     // 新密码的编码器
+
+    /**
+     * @param strength bcrypt 强度（4~31）
+     */
+    public AdaptivePasswordEncoder(int strength) {
+        this.strength = strength;
+        this.bcrypt = new BCryptPasswordEncoder(strength);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return bcrypt.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        if (isBcrypt(encodedPassword)) {
+            return bcrypt.matches(rawPassword, encodedPassword);
+        }
+        return MessageDigest.isEqual(rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                encodedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 保存的密码是否需要重新编码：明文密码，或 bcrypt 强度低于当前强度
+     * @param encodedPassword 保存的密码
+     * @return 需要重新编码时返回 true
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        Matcher matcher = BCRYPT.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * 选择校验时间不超过目标时间的最大 bcrypt 强度（强度每加一，耗时翻倍）
+     * @param targetMillis 目标校验时间（毫秒）
+     * @param minStrength 最小强度，机器再慢也不低于这个值
+     * @param maxStrength 最大强度
+     * @return bcrypt 强度
+     */
+    public static int tuneStrength(long targetMillis, int minStrength, int maxStrength) {
+        String salt = BCrypt.gensalt(minStrength);
+        BCrypt.hashpw("warm-up", BCrypt.gensalt(4));
+        long millis = measure(salt);
+        int strength = minStrength;
+        // 下一个强度的耗时约为当前的两倍
+        while (strength < maxStrength && millis * 2 <= targetMillis) {
+            strength++;
+            millis = measure(BCrypt.gensalt(strength));
+        }
+        logger.info("Using bcrypt strength {} ({} ms per hash, target {} ms)", strength, millis, targetMillis);
+        return strength;
+    }
+
+    private static long measure(String salt) {
+        long start = System.nanoTime();
+        BCrypt.hashpw("strength-probe", salt);
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static boolean isBcrypt(String encodedPassword) {
+        return BCRYPT.matcher(encodedPassword).find();
+    }
+}
@@ -13,13 +13,18 @@ import org.springframework.stereotype.Service;
 /**
  * 用户信息服务
  * 实现 Spring Security的UserDetailsService接口方法，用于身份认证
+ * 启用 auth.user-cache 时先查本地缓存（见 UserCacheConfig），未命中再查询 MongoDB
+ * 登录成功后重新编码的密码也通过这里保存（见 PasswordUpgradingAuthenticationProvider）
  */
 @Service
-public class DomainUserDetailsService implements UserDetailsService {
+public class DomainUserDetailsService implements UserDetailsService, PasswordUpgradingAuthenticationProvider.PasswordUpdater {
 
     @Autowired
     private AccountRepository accountRepository;    // 账户数据操作接口
 
+    @Autowired(required = false)
+    private UserDetailsCache userDetailsCache;      // 用户信息缓存（关闭 auth.user-cache 时为空）
+
     /**
      * 根据用户名查找账户信息并返回用户信息实体
      * @param username 用户名
@@ -28,6 +33,29 @@ public class DomainUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        if (userDetailsCache != null) {
+            return userDetailsCache.get(username, this::loadFromRepository);
+        }
+        return loadFromRepository(username);
+    }
+
+    /**
+     * 保存重新编码的密码，账户密码在此期间已被修改时不覆盖
+     * 保存后 AccountCacheInvalidator 会失效用户信息缓存
+     * @param username 用户名
+     * @param oldEncodedPassword 校验时使用的密码
+     * @param newEncodedPassword 新编码的密码
+     */
+    @Override
+    public void updatePassword(String username, String oldEncodedPassword, String newEncodedPassword) {
+        Account account = accountRepository.findByUserName(username);
+        if (account != null && oldEncodedPassword.equals(account.getPassWord())) {
+            account.setPassWord(newEncodedPassword);
+            accountRepository.save(account);
+        }
+    }
+
+    private UserDetails loadFromRepository(String username) {
         Account account = accountRepository.findByUserName(username);
         if (account!=null){
             return new User(account.getUserName(),account.getPassWord(), AuthorityUtils.createAuthorityList(account.getRoles()));
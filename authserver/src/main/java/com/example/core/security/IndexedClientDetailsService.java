@@ -0,0 +1,132 @@
+package com.example.core.security;
+
+import com.example.core.entity.OAuthClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
+import org.springframework.security.oauth2.provider.client.BaseClientDetails;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 基于内存索引的客户端信息服务
+ * 客户端注册信息存放在 MongoDB，全部加载后构建成不可变的 clientId -> ClientDetails 索引并整体替换，
+ * 每次令牌请求只读取当前索引（一次哈希查找），不访问 MongoDB
+ * 记录变化时调用 {@link #requestReload()}，短时间内的多次请求合并为一次重新加载（批量导入客户端时只加载一次）；
+ * 加载失败时保留原来的索引
+ */
+public class IndexedClientDetailsService implements ClientDetailsService {
+
+    private static Logger logger = LoggerFactory.getLogger(IndexedClientDetailsService.class);
+
+    private final Supplier<? extends Collection<OAuthClient>> source;  // 读取全部客户端（MongoDB）
+    private final ScheduledExecutorService scheduler;                   // 执行合并后的重新加载
+    private final long reloadDelayMillis;                               // 合并重新加载请求的等待时间
+    private final AtomicBoolean reloadPending = new AtomicBoolean();    // 是否已有等待执行的重新加载
+    private final LongAdder reloads = new LongAdder();
+    private volatile Map<String, ClientDetails> index = Collections.emptyMap();    // 当前索引
+    private volatile long lastReloadMillis;                             // 最近一次加载耗时
+
+    /**
+     * @param source 读取全部客户端
+     * @param scheduler 执行合并后的重新加载
+     * @param reloadDelayMillis 合并重新加载请求的等待时间（毫秒）
+     */
+    public IndexedClientDetailsService(Supplier<? extends Collection<OAuthClient>> source,
+                                       ScheduledExecutorService scheduler, long reloadDelayMillis) {
+        this.source = source;
+        this.scheduler = scheduler;
+        this.reloadDelayMillis = reloadDelayMillis;
+    }
+
+    @Override
+    public ClientDetails loadClientByClientId(String clientId) throws ClientRegistrationException {
+        ClientDetails details = index.get(clientId);
+        if (details == null) {
+            throw new NoSuchClientException("No client with requested id: " + clientId);
+        }
+        return details;
+    }
+
+    /**
+     * 请求重新加载，reloadDelayMillis 内的多次请求只加载一次
+     */
+    public void requestReload() {
+        if (reloadPending.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                reloadPending.set(false);
+                reload();
+            }, reloadDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 立即重新加载全部客户端并替换索引，失败时保留原来的索引
+     * @return 是否加载成功
+     */
+    public synchronized boolean reload() {
+        long start = System.nanoTime();
+        Map<String, ClientDetails> loaded = new HashMap<>();
+        try {
+            for (OAuthClient client : source.get()) {
+                if (client.getClientId() != null) {
+                    loaded.put(client.getClientId(), toClientDetails(client));
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to load client registrations, keeping {} cached clients: {}", index.size(), e.toString());
+            return false;
+        }
+        index = Collections.unmodifiableMap(loaded);
+        reloads.increment();
+        lastReloadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Loaded {} client registrations in {} ms", loaded.size(), lastReloadMillis);
+        return true;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public long getReloads() {
+        return reloads.sum();
+    }
+
+    public long getLastReloadMillis() {
+        return lastReloadMillis;
+    }
+
+    private static ClientDetails toClientDetails(OAuthClient client) {
+        BaseClientDetails details = new BaseClientDetails();
+        details.setClientId(client.getClientId());
+        details.setClientSecret(client.getClientSecret());
+        details.setScope(list(client.getScopes()));
+        details.setAuthorizedGrantTypes(list(client.getAuthorizedGrantTypes()));
+        details.setRegisteredRedirectUri(new LinkedHashSet<>(list(client.getRedirectUris())));
+        details.setAuthorities(AuthorityUtils.createAuthorityList(client.getAuthorities() == null ? new String[0] : client.getAuthorities()));
+        details.setResourceIds(list(client.getResourceIds()));
+        details.setAutoApproveScopes(list(client.getAutoApproveScopes()));
+        details.setAccessTokenValiditySeconds(client.getAccessTokenValiditySeconds());
+        details.setRefreshTokenValiditySeconds(client.getRefreshTokenValiditySeconds());
+        return details;
+    }
+
+    private static List<String> list(String[] values) {
+        return values == null ? Collections.<String>emptyList() : Arrays.asList(values);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.core.security;
+
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+
+/**
+ * 密码校验线程池已满或等待超时
+ * 不是 AuthenticationException，ProviderManager 不会把它当作认证失败继续尝试，令牌端点返回 503 temporarily_unavailable
+ */
+public class LoginOverloadedException extends OAuth2Exception {
+
+    public LoginOverloadedException(String msg) {
+        super(msg);
+    }
+
+    @Override
+    public String getOAuth2ErrorCode() {
+        return "temporarily_unavailable";
+    }
+
+    @Override
+    public int getHttpErrorCode() {
+        return 503;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.core.security;
+
+import com.example.core.entity.OAuthClient;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+/**
+ * 客户端变更监听
+ * 通过 OAuthClientRepository 保存或删除客户端后通知所有节点重新加载客户端索引
+ */
+public class OAuthClientReloader extends AbstractMongoEventListener<OAuthClient> {
+
+    private final Runnable notifier;    // 通知所有节点（包括本节点）重新加载
+
+    public OAuthClientReloader(Runnable notifier) {
+        this.notifier = notifier;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<OAuthClient> event) {
+        notifier.run();
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<OAuthClient> event) {
+        notifier.run();
+    }
+}
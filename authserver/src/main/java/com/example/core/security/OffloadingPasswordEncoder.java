@@ -0,0 +1,109 @@
+package com.example.core.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 在专用线程池中执行密码编码和校验
+ * bcrypt 每次校验都要消耗几十到几百毫秒 CPU，如果直接在 Tomcat 请求线程中执行，一次集中登录会占满 CPU 和请求线程，
+ * 其他接口（check_token、/user）跟着变慢；这里把哈希计算限制在固定数量的线程中，排队数量有上限，
+ * 队列已满或等待超时的登录立即以 {@link LoginOverloadedException} 失败，不再占用请求线程
+ */
+public class OffloadingPasswordEncoder implements PasswordEncoder {
+
+    private static Logger logger = LoggerFactory.getLogger(OffloadingPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;         // 实际的密码编码器
+    private final ThreadPoolExecutor executor;      // 密码哈希线程池（有界队列）
+    private final long maxWaitMillis;               // 请求线程等待结果的最长时间
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param delegate 实际的密码编码器
+     * @param executor 密码哈希线程池，队列必须有界，拒绝策略必须抛出 RejectedExecutionException
+     * @param maxWaitMillis 请求线程等待结果的最长时间（毫秒）
+     */
+    public OffloadingPasswordEncoder(PasswordEncoder delegate, ThreadPoolExecutor executor, long maxWaitMillis) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 在线程池中执行后台任务（例如登录成功后重新编码密码），线程池已满时放弃
+     * @param task 后台任务
+     * @return 是否已提交
+     */
+    public boolean submitBackground(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.warn("Background password task failed: {}", e.toString());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new LoginOverloadedException("Too many concurrent logins, try again later");
+        }
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            rejected.increment();
+            throw new LoginOverloadedException("Too many concurrent logins, try again later");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new LoginOverloadedException("Interrupted while waiting for password check");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
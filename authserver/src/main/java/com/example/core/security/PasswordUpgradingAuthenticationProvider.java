@@ -0,0 +1,51 @@
+package com.example.core.security;
+
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * 登录成功后升级密码编码的认证提供者
+ * 密码校验通过 OffloadingPasswordEncoder 在专用线程池中执行（用户不存在时的等时校验也一样）；
+ * 保存的密码是明文或 bcrypt 强度低于当前强度时，用本次提交的密码在后台重新编码并保存
+ */
+public class PasswordUpgradingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final AdaptivePasswordEncoder passwordEncoder;          // 判断是否需要升级、生成新编码
+    private final OffloadingPasswordEncoder offloadingEncoder;      // 在线程池中校验密码和执行升级
+    private final PasswordUpdater passwordUpdater;                  // 保存新编码
+
+    public PasswordUpgradingAuthenticationProvider(AdaptivePasswordEncoder passwordEncoder,
+                                                   OffloadingPasswordEncoder offloadingEncoder,
+                                                   PasswordUpdater passwordUpdater) {
+        this.passwordEncoder = passwordEncoder;
+        this.offloadingEncoder = offloadingEncoder;
+        this.passwordUpdater = passwordUpdater;
+        setPasswordEncoder(offloadingEncoder);
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        String storedPassword = user.getPassword();
+        if (authentication.getCredentials() != null && passwordEncoder.upgradeEncoding(storedPassword)) {
+            String rawPassword = authentication.getCredentials().toString();
+            String username = user.getUsername();
+            // 线程池已满时跳过，下次登录再升级
+            offloadingEncoder.submitBackground(() ->
+                    passwordUpdater.updatePassword(username, storedPassword, passwordEncoder.encode(rawPassword)));
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+
+    /**
+     * 保存重新编码的密码
+     */
+    public interface PasswordUpdater {
+        /**
+         * @param username 用户名
+         * @param oldEncodedPassword 校验时使用的密码，账户密码已被修改时不应覆盖
+         * @param newEncodedPassword 新编码的密码
+         */
+        void updatePassword(String username, String oldEncodedPassword, String newEncodedPassword);
+    }
+}
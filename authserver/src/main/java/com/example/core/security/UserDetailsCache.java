@@ -0,0 +1,211 @@
+package com.example.core.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 用户信息本地缓存
+ * 密码模式登录和刷新令牌都会调用 loadUserByUsername，每次都查询 MongoDB；这里按用户名缓存用户信息，
+ * 条目数量有上限，超过存活时间后重新加载；同一用户名同时未命中时只加载一次，其他线程等待结果
+ * 账户保存或删除时先移除本地条目，再通过 Redis 发布/订阅通知其他节点移除
+ * 认证成功后 ProviderManager 会擦除 User 的密码，所以缓存保存的是快照，每次返回新的 User 对象
+ * 用户不存在时不缓存
+ */
+public class UserDetailsCache {
+
+    /**
+     * 清空全部条目的失效消息（删除账户时只知道主键）
+     */
+    public static final String ALL = "*";
+
+    private static Logger logger = LoggerFactory.getLogger(UserDetailsCache.class);
+
+    private static final int STRIPES = 64;
+
+    private final Consumer<String> publisher;       // 向其他节点发送失效消息
+    private final int maxSize;                      // 最大条目数
+    private final long ttlMillis;                   // 条目的存活时间
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<UserDetails>> loading = new ConcurrentHashMap<>();  // 正在加载的用户名
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);   // 按用户名分段的失效次数，加载期间同一段发生过失效时不写入缓存
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    /**
+     * @param publisher 向其他节点发送失效消息
+     * @param maxSize 最大条目数
+     * @param ttl 条目的存活时间
+     * @param unit 时间单位
+     */
+    public UserDetailsCache(Consumer<String> publisher, int maxSize, long ttl, TimeUnit unit) {
+        this.publisher = publisher;
+        this.maxSize = maxSize;
+        this.ttlMillis = unit.toMillis(ttl);
+    }
+
+    /**
+     * 读取用户信息，未命中时调用 loader 加载
+     * @param username 用户名
+     * @param loader 加载用户信息（例如查询 MongoDB），用户不存在时抛出 UsernameNotFoundException
+     * @return 用户信息（每次调用都是新对象）
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        Entry entry = entries.get(username);
+        if (entry != null && System.currentTimeMillis() < entry.expiresAt) {
+            hits.increment();
+            return copy(entry.user);
+        }
+        misses.increment();
+        CompletableFuture<UserDetails> future = new CompletableFuture<>();
+        CompletableFuture<UserDetails> inFlight = loading.putIfAbsent(username, future);
+        if (inFlight != null) {
+            return copy(await(inFlight));
+        }
+        try {
+            long generation = invalidations.get(stripe(username));
+            loads.increment();
+            UserDetails user = copy(loader.apply(username));
+            put(username, new Entry(user, System.currentTimeMillis() + ttlMillis), generation);
+            future.complete(user);
+            return copy(user);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(username, future);
+        }
+    }
+
+    /**
+     * 账户已改变，移除本节点的条目并通知其他节点
+     * @param username 用户名，{@link #ALL} 表示全部
+     */
+    public void invalidate(String username) {
+        evictLocal(username);
+        try {
+            publisher.accept(username);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to publish user invalidation {}: {}", username, e.toString());
+        }
+    }
+
+    /**
+     * 处理失效消息（本节点或其他节点发出），移除对应的本地条目
+     * @param message 用户名，{@link #ALL} 表示全部
+     */
+    public void evictLocal(String message) {
+        if (ALL.equals(message)) {
+            for (int i = 0; i < STRIPES; i++) {
+                invalidations.incrementAndGet(i);
+            }
+            entries.clear();
+        } else {
+            invalidations.incrementAndGet(stripe(message));
+            entries.remove(message);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * 写入条目，从开始加载到现在发生过失效时放弃写入，避免把修改前的账户写回缓存
+     */
+    private void put(String username, Entry entry, long generation) {
+        entries.put(username, entry);
+        if (invalidations.get(stripe(username)) != generation) {
+            entries.remove(username, entry);
+            return;
+        }
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * 超出上限时先清理过期条目，仍然超出则按哈希顺序近似随机地淘汰
+     * 同一时刻只有一个线程执行清理
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(entry -> now >= entry.expiresAt);
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (entries.size() > maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * 等待其他线程的加载结果，加载失败时抛出同样的异常
+     */
+    private static UserDetails await(CompletableFuture<UserDetails> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static int stripe(String username) {
+        return username.hashCode() & (STRIPES - 1);
+    }
+
+    private static UserDetails copy(UserDetails user) {
+        return new User(user.getUsername(), user.getPassword(), user.isEnabled(), user.isAccountNonExpired(),
+                user.isCredentialsNonExpired(), user.isAccountNonLocked(), user.getAuthorities());
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class Entry {
+        final UserDetails user;     // 用户信息快照
+        final long expiresAt;       // 过期时间（毫秒时间戳）
+
+        Entry(UserDetails user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
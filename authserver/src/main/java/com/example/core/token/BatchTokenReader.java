@@ -0,0 +1,18 @@
+package com.example.core.token;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 批量读取访问令牌
+ * 一次读取多个访问令牌及其认证信息，供批量校验令牌（/oauth/check_tokens）使用
+ */
+public interface BatchTokenReader {
+
+    /**
+     * 读取多个访问令牌及其认证信息
+     * @param tokenValues 访问令牌
+     * @return 访问令牌 -> 令牌及认证信息，不存在（或缺少认证信息）的令牌不在结果中
+     */
+    Map<String, StoredAccessToken> readAccessTokens(Collection<String> tokenValues);
+}
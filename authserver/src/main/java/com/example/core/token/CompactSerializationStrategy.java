@@ -0,0 +1,432 @@
+package com.example.core.token;
+
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.oauth2.common.DefaultExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.token.store.redis.StandardStringSerializationStrategy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 紧凑的令牌序列化方式，代替 RedisTokenStore 默认的 JDK 序列化
+ * 只写入字段值，不写类描述信息，一个 OAuth2Authentication 通常只有 JDK 序列化的几分之一大小
+ * 格式：'T' + 版本号 + 类型 + 字段；遇到无法按字段写入的对象（自定义的令牌、认证或权限类型）时整体退回 JDK 序列化
+ * 读取时兼容 JDK 序列化的数据（以 0xACED 开头），切换序列化方式时 Redis 中已有的令牌仍然可以读取
+ */
+public class CompactSerializationStrategy extends StandardStringSerializationStrategy {
+
+    private static final JdkSerializationRedisSerializer OBJECT_SERIALIZER = new JdkSerializationRedisSerializer();
+
+    private static final byte MAGIC = 'T';
+    private static final byte VERSION = 1;
+
+    private static final byte JDK = 0;              // 退回 JDK 序列化
+    private static final byte ACCESS_TOKEN = 1;
+    private static final byte REFRESH_TOKEN = 2;
+    private static final byte AUTHENTICATION = 3;
+
+    private static final byte NO_REFRESH_TOKEN = 0;
+    private static final byte REFRESH = 1;
+    private static final byte EXPIRING_REFRESH = 2;
+
+    private static final byte NO_USER = 0;
+    private static final byte USER_DETAILS = 1;     // UsernamePasswordAuthenticationToken，主体为 User
+    private static final byte USER_NAME = 2;        // UsernamePasswordAuthenticationToken，主体为用户名
+
+    @Override
+    protected byte[] serializeInternal(Object object) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            if (object instanceof OAuth2AccessToken && isCompact((OAuth2AccessToken) object)) {
+                out.writeByte(ACCESS_TOKEN);
+                writeAccessToken(out, (OAuth2AccessToken) object);
+            } else if (object instanceof OAuth2RefreshToken && isCompact((OAuth2RefreshToken) object)) {
+                out.writeByte(REFRESH_TOKEN);
+                writeRefreshToken(out, (OAuth2RefreshToken) object);
+            } else if (object instanceof OAuth2Authentication && isCompact((OAuth2Authentication) object)) {
+                out.writeByte(AUTHENTICATION);
+                writeAuthentication(out, (OAuth2Authentication) object);
+            } else {
+                out.writeByte(JDK);
+                out.write(OBJECT_SERIALIZER.serialize(object));
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationFailedException("Failed to serialize " + object.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> T deserializeInternal(byte[] bytes, Class<T> clazz) {
+        if (bytes.length >= 2 && bytes[0] == (byte) 0xAC && bytes[1] == (byte) 0xED) {
+            return (T) OBJECT_SERIALIZER.deserialize(bytes);
+        }
+        if (bytes.length < 3 || bytes[0] != MAGIC) {
+            throw new SerializationFailedException("Unknown token format");
+        }
+        if (bytes[1] != VERSION) {
+            throw new SerializationFailedException("Unsupported token format version " + bytes[1]);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 3, bytes.length - 3));
+        try {
+            switch (bytes[2]) {
+                case JDK:
+                    byte[] serialized = new byte[bytes.length - 3];
+                    in.readFully(serialized);
+                    return (T) OBJECT_SERIALIZER.deserialize(serialized);
+                case ACCESS_TOKEN:
+                    return (T) readAccessToken(in);
+                case REFRESH_TOKEN:
+                    return (T) readRefreshToken(in);
+                case AUTHENTICATION:
+                    return (T) readAuthentication(in);
+                default:
+                    throw new SerializationFailedException("Unknown token type " + bytes[2]);
+            }
+        } catch (IOException e) {
+            throw new SerializationFailedException("Failed to deserialize " + clazz.getName(), e);
+        }
+    }
+
+    // ---------------------------------------------------------------- 能否按字段写入
+
+    private static boolean isCompact(OAuth2AccessToken token) {
+        return token.getClass() == DefaultOAuth2AccessToken.class
+                && (token.getRefreshToken() == null || isCompact(token.getRefreshToken()))
+                && isStrings(token.getAdditionalInformation().values());
+    }
+
+    private static boolean isCompact(OAuth2RefreshToken token) {
+        return token.getClass() == DefaultOAuth2RefreshToken.class || token.getClass() == DefaultExpiringOAuth2RefreshToken.class;
+    }
+
+    private static boolean isCompact(OAuth2Authentication authentication) {
+        OAuth2Request request = authentication.getOAuth2Request();
+        Authentication user = authentication.getUserAuthentication();
+        if (authentication.getDetails() != null || !request.getExtensions().isEmpty() || !isSimple(request.getAuthorities())) {
+            return false;
+        }
+        if (user == null) {
+            return true;
+        }
+        Object principal = user.getPrincipal();
+        return user.getClass() == UsernamePasswordAuthenticationToken.class
+                && (principal instanceof String || principal != null && principal.getClass() == User.class && isSimple(((User) principal).getAuthorities()))
+                && (user.getCredentials() == null || user.getCredentials() instanceof String)
+                && (user.getDetails() == null || user.getDetails() instanceof Map && isStringMap((Map<?, ?>) user.getDetails()))
+                && isSimple(user.getAuthorities());
+    }
+
+    private static boolean isSimple(Collection<? extends GrantedAuthority> authorities) {
+        for (GrantedAuthority authority : authorities) {
+            if (authority.getClass() != SimpleGrantedAuthority.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isStrings(Collection<?> values) {
+        for (Object value : values) {
+            if (!(value instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isStringMap(Map<?, ?> map) {
+        return isStrings(map.keySet()) && isStrings(map.values());
+    }
+
+    // ---------------------------------------------------------------- 令牌
+
+    private static void writeAccessToken(DataOutputStream out, OAuth2AccessToken token) throws IOException {
+        writeString(out, token.getValue());
+        writeDate(out, token.getExpiration());
+        writeString(out, token.getTokenType());
+        OAuth2RefreshToken refreshToken = token.getRefreshToken();
+        if (refreshToken == null) {
+            out.writeByte(NO_REFRESH_TOKEN);
+        } else {
+            writeRefreshToken(out, refreshToken);
+        }
+        writeStrings(out, token.getScope());
+        writeStringMap(out, token.getAdditionalInformation());
+    }
+
+    private static OAuth2AccessToken readAccessToken(DataInputStream in) throws IOException {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(readString(in));
+        token.setExpiration(readDate(in));
+        token.setTokenType(readString(in));
+        token.setRefreshToken(readRefreshToken(in));
+        token.setScope(readStringSet(in));
+        token.setAdditionalInformation(new LinkedHashMap<String, Object>(readStringMap(in)));
+        return token;
+    }
+
+    private static void writeRefreshToken(DataOutputStream out, OAuth2RefreshToken token) throws IOException {
+        if (token instanceof DefaultExpiringOAuth2RefreshToken) {
+            out.writeByte(EXPIRING_REFRESH);
+            writeString(out, token.getValue());
+            writeDate(out, ((DefaultExpiringOAuth2RefreshToken) token).getExpiration());
+        } else {
+            out.writeByte(REFRESH);
+            writeString(out, token.getValue());
+        }
+    }
+
+    private static OAuth2RefreshToken readRefreshToken(DataInputStream in) throws IOException {
+        switch (in.readByte()) {
+            case NO_REFRESH_TOKEN:
+                return null;
+            case REFRESH:
+                return new DefaultOAuth2RefreshToken(readString(in));
+            case EXPIRING_REFRESH:
+                return new DefaultExpiringOAuth2RefreshToken(readString(in), readDate(in));
+            default:
+                throw new SerializationFailedException("Unknown refresh token type");
+        }
+    }
+
+    // ---------------------------------------------------------------- 认证信息
+
+    private static void writeAuthentication(DataOutputStream out, OAuth2Authentication authentication) throws IOException {
+        OAuth2Request request = authentication.getOAuth2Request();
+        writeStringMap(out, request.getRequestParameters());
+        writeString(out, request.getClientId());
+        writeAuthorities(out, request.getAuthorities());
+        out.writeBoolean(request.isApproved());
+        writeStrings(out, request.getScope());
+        writeStrings(out, request.getResourceIds());
+        writeString(out, request.getRedirectUri());
+        writeStrings(out, request.getResponseTypes());
+        TokenRequest refresh = request.getRefreshTokenRequest();
+        out.writeBoolean(refresh != null);
+        if (refresh != null) {
+            writeStringMap(out, refresh.getRequestParameters());
+            writeString(out, refresh.getClientId());
+            writeStrings(out, refresh.getScope());
+            writeString(out, refresh.getGrantType());
+        }
+
+        Authentication user = authentication.getUserAuthentication();
+        if (user == null) {
+            out.writeByte(NO_USER);
+            return;
+        }
+        if (user.getPrincipal() instanceof User) {
+            User principal = (User) user.getPrincipal();
+            out.writeByte(USER_DETAILS);
+            writeString(out, principal.getUsername());
+            writeString(out, principal.getPassword());
+            out.writeBoolean(principal.isEnabled());
+            out.writeBoolean(principal.isAccountNonExpired());
+            out.writeBoolean(principal.isCredentialsNonExpired());
+            out.writeBoolean(principal.isAccountNonLocked());
+            writeAuthorities(out, principal.getAuthorities());
+        } else {
+            out.writeByte(USER_NAME);
+            writeString(out, (String) user.getPrincipal());
+        }
+        writeString(out, (String) user.getCredentials());
+        out.writeBoolean(user.isAuthenticated());
+        writeAuthorities(out, user.getAuthorities());
+        @SuppressWarnings("unchecked")
+        Map<String, String> details = (Map<String, String>) user.getDetails();
+        out.writeBoolean(details != null);
+        if (details != null) {
+            writeStringMap(out, details);
+        }
+    }
+
+    private static OAuth2Authentication readAuthentication(DataInputStream in) throws IOException {
+        Map<String, String> parameters = readStringMap(in);
+        String clientId = readString(in);
+        List<GrantedAuthority> authorities = readAuthorities(in);
+        boolean approved = in.readBoolean();
+        Set<String> scope = readStringSet(in);
+        Set<String> resourceIds = readStringSet(in);
+        String redirectUri = readString(in);
+        Set<String> responseTypes = readStringSet(in);
+        OAuth2Request request = new OAuth2Request(parameters, clientId, authorities, approved, scope, resourceIds,
+                redirectUri, responseTypes, new LinkedHashMap<String, Serializable>());
+        if (in.readBoolean()) {
+            request = request.refresh(new TokenRequest(readStringMap(in), readString(in), readStringSet(in), readString(in)));
+        }
+
+        byte userType = in.readByte();
+        if (userType == NO_USER) {
+            return new OAuth2Authentication(request, null);
+        }
+        Object principal;
+        if (userType == USER_DETAILS) {
+            String username = readString(in);
+            String password = readString(in);
+            User user = new User(username, password == null ? "" : password, in.readBoolean(), in.readBoolean(),
+                    in.readBoolean(), in.readBoolean(), readAuthorities(in));
+            if (password == null) {
+                user.eraseCredentials();
+            }
+            principal = user;
+        } else {
+            principal = readString(in);
+        }
+        String credentials = readString(in);
+        boolean authenticated = in.readBoolean();
+        List<GrantedAuthority> userAuthorities = readAuthorities(in);
+        UsernamePasswordAuthenticationToken user = authenticated
+                ? new UsernamePasswordAuthenticationToken(principal, credentials, userAuthorities)
+                : new UsernamePasswordAuthenticationToken(principal, credentials);
+        if (in.readBoolean()) {
+            user.setDetails(readStringMap(in));
+        }
+        return new OAuth2Authentication(request, user);
+    }
+
+    private static void writeAuthorities(DataOutputStream out, Collection<? extends GrantedAuthority> authorities) throws IOException {
+        writeLength(out, authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            writeString(out, authority.getAuthority());
+        }
+    }
+
+    private static List<GrantedAuthority> readAuthorities(DataInputStream in) throws IOException {
+        int size = readLength(in);
+        List<GrantedAuthority> authorities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            authorities.add(new SimpleGrantedAuthority(readString(in)));
+        }
+        return authorities;
+    }
+
+    // ---------------------------------------------------------------- 基本类型
+
+    /**
+     * 写入可为空的字符串：长度 + 1（0 表示 null），后接 UTF-8 字节
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeLength(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeLength(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readLength(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 写入可为空的字符串集合：元素个数 + 1（0 表示 null）
+     */
+    private static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        if (values == null) {
+            writeLength(out, 0);
+            return;
+        }
+        writeLength(out, values.size() + 1);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static Set<String> readStringSet(DataInputStream in) throws IOException {
+        int size = readLength(in);
+        if (size == 0) {
+            return null;
+        }
+        Set<String> values = new LinkedHashSet<>();
+        for (int i = 1; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeStringMap(DataOutputStream out, Map<String, ?> map) throws IOException {
+        writeLength(out, map.size());
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, (String) entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readStringMap(DataInputStream in) throws IOException {
+        int size = readLength(in);
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(readString(in), readString(in));
+        }
+        return map;
+    }
+
+    private static void writeDate(DataOutputStream out, Date date) throws IOException {
+        out.writeLong(date == null ? Long.MIN_VALUE : date.getTime());
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        long time = in.readLong();
+        return time == Long.MIN_VALUE ? null : new Date(time);
+    }
+
+    /**
+     * 变长整数（每字节 7 位），短字符串和小集合只占一个字节
+     */
+    private static void writeLength(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readLength(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationFailedException("Malformed length");
+    }
+}
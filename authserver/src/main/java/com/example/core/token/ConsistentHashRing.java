@@ -0,0 +1,84 @@
+package com.example.core.token;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一致性哈希环
+ * 每个节点按名称在环上放置 virtualNodes 个虚拟节点，键顺时针归属于第一个虚拟节点所在的节点；
+ * 虚拟节点的位置只取决于节点名称，各个认证服务节点独立计算得到相同的环
+ * 增加一个节点时只有落在它的虚拟节点上的键（约 1/(N+1)）改变归属，其余键仍在原来的节点
+ * 环上的位置保存在有序数组中，查找为一次 64 位哈希加二分查找，不随键的数量增长
+ * @param <T> 节点
+ */
+public class ConsistentHashRing<T> {
+
+    private final long[] points;        // 虚拟节点的位置，升序
+    private final List<T> owners;       // 与 points 对应的节点
+    private final Collection<T> nodes;  // 所有节点
+
+    /**
+     * @param nodes 节点名称 -> 节点（至少一个）
+     * @param virtualNodes 每个节点的虚拟节点数
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("At least one node is required");
+        }
+        long[][] entries = new long[nodes.size() * virtualNodes][];
+        List<T> values = new ArrayList<>(nodes.values());
+        int n = 0;
+        int index = 0;
+        for (String name : nodes.keySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                entries[n++] = new long[]{hash(name + "#" + i), index};
+            }
+            index++;
+        }
+        // 位置相同时按节点名称的顺序，保证各个认证服务节点结果一致
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[entries.length];
+        this.owners = new ArrayList<>(entries.length);
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners.add(values.get((int) entries[i][1]));
+        }
+        this.nodes = values;
+    }
+
+    /**
+     * @param key 键
+     * @return 键所属的节点
+     */
+    public T get(String key) {
+        int i = Arrays.binarySearch(points, hash(key));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners.get(i == points.length ? 0 : i);
+    }
+
+    public Collection<T> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * 按字符的 64 位 FNV-1a（不分配字节数组）加 MurmurHash3 的 fmix64，令牌值前缀相同时也能均匀分布
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
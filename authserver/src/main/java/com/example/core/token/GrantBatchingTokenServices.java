@@ -0,0 +1,33 @@
+package com.example.core.token;
+
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+
+/**
+ * 按授权合并写入的令牌服务
+ * DefaultTokenServices 发放令牌时依次保存访问令牌和刷新令牌，这里把整个发放过程放进
+ * {@link RedisBackedTokenStore#batch}，两次保存合并为一次 Redis 流水线
+ */
+public class GrantBatchingTokenServices extends DefaultTokenServices {
+
+    private final RedisBackedTokenStore redisTokenStore;    // 负责合并写入的 redis令牌存储
+
+    /**
+     * @param redisTokenStore 负责合并写入的 redis令牌存储（令牌存储本身通过 setTokenStore 设置，可以是包装了它的本地缓存）
+     */
+    public GrantBatchingTokenServices(RedisBackedTokenStore redisTokenStore) {
+        this.redisTokenStore = redisTokenStore;
+    }
+
+    @Override
+    public OAuth2AccessToken createAccessToken(OAuth2Authentication authentication) {
+        return redisTokenStore.batch(() -> super.createAccessToken(authentication));
+    }
+
+    @Override
+    public OAuth2AccessToken refreshAccessToken(String refreshTokenValue, TokenRequest tokenRequest) {
+        return redisTokenStore.batch(() -> super.refreshAccessToken(refreshTokenValue, tokenRequest));
+    }
+}
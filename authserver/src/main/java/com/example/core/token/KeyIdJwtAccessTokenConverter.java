@@ -0,0 +1,101 @@
+package com.example.core.token;
+
+import org.springframework.security.jwt.Jwt;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.util.JsonParser;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 带 kid 的 JWT 访问令牌转换器
+ * 访问令牌用当前签名密钥签名，头部写入 kid，资源服务按 kid 从公钥集合中选择公钥在本地校验；
+ * 刷新令牌保持原来的随机值，只在授权服务器的令牌存储中使用
+ * （JwtAccessTokenConverter 每次发放都会重新编码刷新令牌，在复用刷新令牌时会与令牌存储中的值不一致）
+ */
+public class KeyIdJwtAccessTokenConverter extends JwtAccessTokenConverter {
+
+    private final JwtSigningKeys signingKeys;                   // 签名密钥集合
+    private final RsaSigner signer;                             // 当前签名密钥
+    private final Map<String, String> headers;                  // JWT 头部附加的字段（kid）
+    private final JsonParser jsonParser = JsonParserFactory.create();
+
+    public KeyIdJwtAccessTokenConverter(JwtSigningKeys signingKeys) {
+        this.signingKeys = signingKeys;
+        this.signer = new RsaSigner((RSAPrivateKey) signingKeys.getActiveKeyPair().getPrivate());
+        this.headers = Collections.singletonMap("kid", signingKeys.getActiveKeyId());
+        setKeyPair(signingKeys.getActiveKeyPair());
+    }
+
+    @Override
+    public OAuth2AccessToken enhance(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        DefaultOAuth2AccessToken result = new DefaultOAuth2AccessToken(accessToken);
+        Map<String, Object> info = new LinkedHashMap<>(accessToken.getAdditionalInformation());
+        info.putIfAbsent(TOKEN_ID, accessToken.getValue());
+        result.setAdditionalInformation(info);
+        result.setValue(encode(result, authentication));
+        return result;
+    }
+
+    /**
+     * 与父类相同，头部多一个 kid
+     */
+    @Override
+    protected String encode(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        String content;
+        try {
+            content = jsonParser.formatMap(getAccessTokenConverter().convertAccessToken(accessToken, authentication));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot convert access token to JSON", e);
+        }
+        return JwtHelper.encode(content, signer, headers).getEncoded();
+    }
+
+    /**
+     * 按头部的 kid 选择公钥校验签名，没有 kid 的令牌用当前签名密钥校验
+     */
+    @Override
+    protected Map<String, Object> decode(String token) {
+        RSAPublicKey publicKey;
+        try {
+            String kid = JwtHelper.headers(token).get("kid");
+            publicKey = signingKeys.getPublicKey(kid == null ? signingKeys.getActiveKeyId() : kid);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Cannot convert access token to JSON", e);
+        }
+        if (publicKey == null) {
+            throw new InvalidTokenException("Unknown signing key");
+        }
+        try {
+            Jwt jwt = JwtHelper.decodeAndVerify(token, new RsaVerifier(publicKey));
+            Map<String, Object> map = jsonParser.parseMap(jwt.getClaims());
+            if (map.get(EXP) instanceof Integer) {
+                map.put(EXP, ((Integer) map.get(EXP)).longValue());
+            }
+            return map;
+        } catch (Exception e) {
+            throw new InvalidTokenException("Cannot convert access token to JSON", e);
+        }
+    }
+
+    /**
+     * /oauth/token_key 返回的当前公钥，附带 kid
+     */
+    @Override
+    public Map<String, String> getKey() {
+        Map<String, String> key = new LinkedHashMap<>(super.getKey());
+        key.put("kid", signingKeys.getActiveKeyId());
+        return key;
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.core.token;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 两级令牌存储：进程内缓存 + Redis
+ * check_token 和 /user 每次都要 readAccessToken、readAuthentication，RedisTokenStore 每次都访问 Redis 并重新反序列化整个对象；
+ * 这里把读到的令牌和认证信息缓存在本地，条目数量有上限，令牌过期时条目随之过期（最长不超过 maxTtl）
+ * 令牌被删除、重新保存或通过刷新令牌撤销时，先移除本地条目，再通过 Redis 发布/订阅通知其他节点移除
+ * 返回的是缓存对象的副本，调用方（例如 OAuth2AuthenticationManager.setDetails）修改返回值不会影响缓存
+ * 批量读取时先查本地，未命中的令牌一次交给 Redis 读取
+ */
+public class NearCacheTokenStore implements TokenStore, BatchTokenReader {
+
+    /**
+     * 按访问令牌失效的消息前缀
+     */
+    public static final String ACCESS_PREFIX = "access:";
+
+    /**
+     * 按刷新令牌失效的消息前缀
+     */
+    public static final String REFRESH_PREFIX = "refresh:";
+
+    private static Logger logger = LoggerFactory.getLogger(NearCacheTokenStore.class);
+
+    private static final int STRIPES = 64;
+
+    private final TokenStore delegate;              // 实际的令牌存储（Redis）
+    private final Consumer<String> publisher;       // 向其他节点发送失效消息
+    private final int maxSize;                      // 最大条目数
+    private final long maxTtlMillis;                // 条目的最长存活时间
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);   // 按令牌分段的失效次数，加载期间同一段发生过失效时不写入缓存
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param delegate 实际的令牌存储
+     * @param publisher 向其他节点发送失效消息
+     * @param maxSize 最大条目数
+     * @param maxTtl 条目的最长存活时间（没有过期时间的令牌按这个时间过期）
+     * @param unit 时间单位
+     */
+    public NearCacheTokenStore(TokenStore delegate, Consumer<String> publisher, int maxSize, long maxTtl, TimeUnit unit) {
+        this.delegate = delegate;
+        this.publisher = publisher;
+        this.maxSize = maxSize;
+        this.maxTtlMillis = unit.toMillis(maxTtl);
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        Entry entry = get(tokenValue);
+        if (entry != null) {
+            hits.increment();
+            return new DefaultOAuth2AccessToken(entry.accessToken);
+        }
+        misses.increment();
+        long generation = invalidations.get(stripe(tokenValue));
+        OAuth2AccessToken token = delegate.readAccessToken(tokenValue);
+        if (token != null) {
+            put(tokenValue, new Entry(token, null, expiresAt(token)), generation);
+            return new DefaultOAuth2AccessToken(token);
+        }
+        return null;
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+        return readAuthentication(token.getValue());
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String tokenValue) {
+        Entry entry = get(tokenValue);
+        if (entry != null && entry.authentication != null) {
+            hits.increment();
+            return copy(entry.authentication);
+        }
+        misses.increment();
+        long generation = invalidations.get(stripe(tokenValue));
+        OAuth2Authentication authentication = delegate.readAuthentication(tokenValue);
+        // 只补充已缓存令牌的认证信息，过期时间跟随令牌
+        if (entry != null && authentication != null) {
+            put(tokenValue, new Entry(entry.accessToken, authentication, entry.expiresAt), generation);
+        }
+        return authentication == null ? null : copy(authentication);
+    }
+
+    /**
+     * 批量读取，本地未命中的令牌由实际的令牌存储一次读取（不支持批量读取时逐个读取）并写入缓存
+     * @param tokenValues 访问令牌
+     * @return 访问令牌 -> 令牌及认证信息的副本，不存在的令牌不在结果中
+     */
+    @Override
+    public Map<String, StoredAccessToken> readAccessTokens(Collection<String> tokenValues) {
+        Map<String, StoredAccessToken> result = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String tokenValue : tokenValues) {
+            Entry entry = get(tokenValue);
+            if (entry != null && entry.authentication != null) {
+                hits.increment();
+                result.put(tokenValue, new StoredAccessToken(new DefaultOAuth2AccessToken(entry.accessToken), copy(entry.authentication)));
+            } else {
+                misses.increment();
+                missing.add(tokenValue);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        long[] generations = new long[missing.size()];
+        for (int i = 0; i < missing.size(); i++) {
+            generations[i] = invalidations.get(stripe(missing.get(i)));
+        }
+        Map<String, StoredAccessToken> loaded = delegate instanceof BatchTokenReader
+                ? ((BatchTokenReader) delegate).readAccessTokens(missing) : readEach(missing);
+        for (int i = 0; i < missing.size(); i++) {
+            StoredAccessToken stored = loaded.get(missing.get(i));
+            if (stored != null) {
+                OAuth2AccessToken token = stored.getAccessToken();
+                put(missing.get(i), new Entry(token, stored.getAuthentication(), expiresAt(token)), generations[i]);
+                result.put(missing.get(i), new StoredAccessToken(new DefaultOAuth2AccessToken(token), copy(stored.getAuthentication())));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        delegate.storeAccessToken(token, authentication);
+        // 已有的令牌重新保存时认证信息可能已经改变；合并写入时等令牌真正写入 Redis 后再通知，避免其他节点读回旧值
+        if (delegate instanceof RedisBackedTokenStore) {
+            ((RedisBackedTokenStore) delegate).afterWrite(() -> invalidate(ACCESS_PREFIX + token.getValue()));
+        } else {
+            invalidate(ACCESS_PREFIX + token.getValue());
+        }
+    }
+
+    @Override
+    public void removeAccessToken(OAuth2AccessToken token) {
+        delegate.removeAccessToken(token);
+        invalidate(ACCESS_PREFIX + token.getValue());
+    }
+
+    @Override
+    public void removeAccessTokenUsingRefreshToken(OAuth2RefreshToken refreshToken) {
+        delegate.removeAccessTokenUsingRefreshToken(refreshToken);
+        invalidate(REFRESH_PREFIX + refreshToken.getValue());
+    }
+
+    @Override
+    public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+        delegate.storeRefreshToken(refreshToken, authentication);
+    }
+
+    @Override
+    public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+        return delegate.readRefreshToken(tokenValue);
+    }
+
+    @Override
+    public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+        return delegate.readAuthenticationForRefreshToken(token);
+    }
+
+    @Override
+    public void removeRefreshToken(OAuth2RefreshToken token) {
+        delegate.removeRefreshToken(token);
+    }
+
+    @Override
+    public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+        return delegate.getAccessToken(authentication);
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(String clientId, String userName) {
+        return delegate.findTokensByClientIdAndUserName(clientId, userName);
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+        return delegate.findTokensByClientId(clientId);
+    }
+
+    /**
+     * 处理失效消息（本节点或其他节点发出），移除对应的本地条目
+     * @param message access:访问令牌 或 refresh:刷新令牌
+     */
+    public void evictLocal(String message) {
+        if (message.startsWith(ACCESS_PREFIX)) {
+            String tokenValue = message.substring(ACCESS_PREFIX.length());
+            invalidations.incrementAndGet(stripe(tokenValue));
+            entries.remove(tokenValue);
+        } else if (message.startsWith(REFRESH_PREFIX)) {
+            // 不知道对应的访问令牌，所有分段都视为发生过失效
+            for (int i = 0; i < STRIPES; i++) {
+                invalidations.incrementAndGet(i);
+            }
+            String refreshToken = message.substring(REFRESH_PREFIX.length());
+            entries.values().removeIf(entry -> entry.accessToken.getRefreshToken() != null
+                    && refreshToken.equals(entry.accessToken.getRefreshToken().getValue()));
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private void invalidate(String message) {
+        evictLocal(message);
+        try {
+            publisher.accept(message);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to publish token invalidation {}: {}", message, e.toString());
+        }
+    }
+
+    /**
+     * 读取未过期的条目，过期条目顺便移除
+     */
+    private Entry get(String tokenValue) {
+        Entry entry = entries.get(tokenValue);
+        if (entry != null && System.currentTimeMillis() >= entry.expiresAt) {
+            entries.remove(tokenValue, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * 写入条目，从读取 Redis 开始到现在发生过失效时放弃写入，避免把已撤销的令牌写回缓存
+     */
+    private void put(String tokenValue, Entry entry, long generation) {
+        if (System.currentTimeMillis() >= entry.expiresAt) {
+            return;
+        }
+        entries.put(tokenValue, entry);
+        if (invalidations.get(stripe(tokenValue)) != generation) {
+            entries.remove(tokenValue, entry);
+            return;
+        }
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    private static int stripe(String tokenValue) {
+        return tokenValue.hashCode() & (STRIPES - 1);
+    }
+
+    private long expiresAt(OAuth2AccessToken token) {
+        long limit = System.currentTimeMillis() + maxTtlMillis;
+        Date expiration = token.getExpiration();
+        return expiration == null ? limit : Math.min(expiration.getTime(), limit);
+    }
+
+    /**
+     * 超出上限时先清理过期条目，仍然超出则按哈希顺序近似随机地淘汰
+     * 同一时刻只有一个线程执行清理
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(entry -> now >= entry.expiresAt);
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (entries.size() > maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private Map<String, StoredAccessToken> readEach(List<String> tokenValues) {
+        Map<String, StoredAccessToken> loaded = new LinkedHashMap<>();
+        for (String tokenValue : tokenValues) {
+            OAuth2AccessToken token = delegate.readAccessToken(tokenValue);
+            OAuth2Authentication authentication = token == null ? null : delegate.readAuthentication(tokenValue);
+            if (authentication != null) {
+                loaded.put(tokenValue, new StoredAccessToken(token, authentication));
+            }
+        }
+        return loaded;
+    }
+
+    private static OAuth2Authentication copy(OAuth2Authentication authentication) {
+        OAuth2Authentication copy = new OAuth2Authentication(authentication.getOAuth2Request(), authentication.getUserAuthentication());
+        copy.setDetails(authentication.getDetails());
+        return copy;
+    }
+
+    /**
+     * 缓存条目，authentication 在第一次 readAuthentication 后补充
+     */
+    private static final class Entry {
+        final OAuth2AccessToken accessToken;
+        final OAuth2Authentication authentication;
+        final long expiresAt;       // 过期时间（毫秒时间戳，与令牌的过期时间一致）
+
+        Entry(OAuth2AccessToken accessToken, OAuth2Authentication authentication, long expiresAt) {
+            this.accessToken = accessToken;
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
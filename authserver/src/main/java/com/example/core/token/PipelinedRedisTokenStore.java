@@ -0,0 +1,313 @@
+package com.example.core.token;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.DefaultAuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.store.redis.JdkSerializationStrategy;
+import org.springframework.security.oauth2.provider.token.store.redis.RedisTokenStore;
+import org.springframework.security.oauth2.provider.token.store.redis.RedisTokenStoreSerializationStrategy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 合并写入的 Redis 令牌存储，键的布局与 RedisTokenStore 相同，读取和删除沿用 RedisTokenStore
+ * RedisTokenStore 保存访问令牌和刷新令牌时各用一次流水线；在 {@link #batch(Supplier)} 中发放令牌时，
+ * 一次授权涉及的所有写入（access、auth、auth_to_access、client_id_to_access、uname_to_access、刷新令牌的各个映射）
+ * 先记录下来，授权结束后在同一个流水线中一次写入 Redis
+ * 批量读取时所有令牌的 access、auth 用一条 MGET 读取
+ * 访问令牌被删除（撤销、刷新后替换）后通知 accessTokenRemovalListener，例如登记到已撤销令牌过滤器
+ */
+public class PipelinedRedisTokenStore extends RedisTokenStore implements RedisBackedTokenStore {
+
+    private static final String ACCESS = "access:";
+    private static final String AUTH_TO_ACCESS = "auth_to_access:";
+    private static final String AUTH = "auth:";
+    private static final String REFRESH_AUTH = "refresh_auth:";
+    private static final String ACCESS_TO_REFRESH = "access_to_refresh:";
+    private static final String REFRESH = "refresh:";
+    private static final String REFRESH_TO_ACCESS = "refresh_to_access:";
+    private static final String CLIENT_ID_TO_ACCESS = "client_id_to_access:";
+    private static final String UNAME_TO_ACCESS = "uname_to_access:";
+
+    private final RedisConnectionFactory connectionFactory;                                     // redis连接工厂
+    private final ThreadLocal<Batch> pending = new ThreadLocal<>();                             // 当前线程正在进行的授权中尚未写入的命令
+    private AuthenticationKeyGenerator authenticationKeyGenerator = new DefaultAuthenticationKeyGenerator();
+    private RedisTokenStoreSerializationStrategy serializationStrategy = new JdkSerializationStrategy();
+    private String prefix = "";
+    private Consumer<String> accessTokenRemovalListener;                                        // 访问令牌被删除后的通知
+
+    public PipelinedRedisTokenStore(RedisConnectionFactory connectionFactory) {
+        super(connectionFactory);
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public void setAuthenticationKeyGenerator(AuthenticationKeyGenerator authenticationKeyGenerator) {
+        super.setAuthenticationKeyGenerator(authenticationKeyGenerator);
+        this.authenticationKeyGenerator = authenticationKeyGenerator;
+    }
+
+    @Override
+    public void setSerializationStrategy(RedisTokenStoreSerializationStrategy serializationStrategy) {
+        super.setSerializationStrategy(serializationStrategy);
+        this.serializationStrategy = serializationStrategy;
+    }
+
+    @Override
+    public void setPrefix(String prefix) {
+        super.setPrefix(prefix);
+        this.prefix = prefix;
+    }
+
+    @Override
+    public RedisTokenStoreSerializationStrategy getSerializationStrategy() {
+        return serializationStrategy;
+    }
+
+    @Override
+    public String getPrefix() {
+        return prefix;
+    }
+
+    @Override
+    public List<RedisConnectionFactory> getConnectionFactories() {
+        return Collections.singletonList(connectionFactory);
+    }
+
+    @Override
+    public void setAccessTokenRemovalListener(Consumer<String> accessTokenRemovalListener) {
+        this.accessTokenRemovalListener = accessTokenRemovalListener;
+    }
+
+    /**
+     * 删除访问令牌（removeAccessToken 和 removeAccessTokenUsingRefreshToken 最终都会调用这里）
+     * @param tokenValue 访问令牌
+     */
+    @Override
+    public void removeAccessToken(String tokenValue) {
+        super.removeAccessToken(tokenValue);
+        if (accessTokenRemovalListener != null) {
+            accessTokenRemovalListener.accept(tokenValue);
+        }
+    }
+
+    @Override
+    public <T> T batch(Supplier<T> grant) {
+        if (pending.get() != null) {
+            return grant.get();
+        }
+        Batch batch = new Batch();
+        pending.set(batch);
+        T result;
+        try {
+            result = grant.get();
+        } finally {
+            pending.remove();
+        }
+        execute(batch.commands);
+        batch.afterWrite.forEach(Runnable::run);
+        return result;
+    }
+
+    @Override
+    public void afterWrite(Runnable action) {
+        Batch batch = pending.get();
+        if (batch != null) {
+            batch.afterWrite.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        byte[] serializedAccessToken = serializationStrategy.serialize(token);
+        byte[] serializedAuth = serializationStrategy.serialize(authentication);
+        byte[] accessKey = serializeKey(ACCESS + token.getValue());
+        byte[] authKey = serializeKey(AUTH + token.getValue());
+        byte[] authToAccessKey = serializeKey(AUTH_TO_ACCESS + authenticationKeyGenerator.extractKey(authentication));
+        byte[] approvalKey = serializeKey(UNAME_TO_ACCESS + getApprovalKey(authentication));
+        byte[] clientId = serializeKey(CLIENT_ID_TO_ACCESS + authentication.getOAuth2Request().getClientId());
+        OAuth2RefreshToken refreshToken = token.getRefreshToken();
+        boolean hasRefreshToken = refreshToken != null && refreshToken.getValue() != null;
+        byte[] refreshToAccessKey = hasRefreshToken ? serializeKey(REFRESH_TO_ACCESS + refreshToken.getValue()) : null;
+        byte[] accessToRefreshKey = hasRefreshToken ? serializeKey(ACCESS_TO_REFRESH + token.getValue()) : null;
+        byte[] refresh = hasRefreshToken ? serializationStrategy.serialize(refreshToken.getValue()) : null;
+        byte[] access = hasRefreshToken ? serializationStrategy.serialize(token.getValue()) : null;
+        submit(conn -> {
+            conn.set(accessKey, serializedAccessToken);
+            conn.set(authKey, serializedAuth);
+            conn.set(authToAccessKey, serializedAccessToken);
+            if (!authentication.isClientOnly()) {
+                conn.rPush(approvalKey, serializedAccessToken);
+            }
+            conn.rPush(clientId, serializedAccessToken);
+            if (token.getExpiration() != null) {
+                int seconds = token.getExpiresIn();
+                conn.expire(accessKey, seconds);
+                conn.expire(authKey, seconds);
+                conn.expire(authToAccessKey, seconds);
+                conn.expire(clientId, seconds);
+                conn.expire(approvalKey, seconds);
+            }
+            if (hasRefreshToken) {
+                conn.set(refreshToAccessKey, access);
+                conn.set(accessToRefreshKey, refresh);
+                long seconds = secondsUntilExpiration(refreshToken);
+                if (seconds >= 0) {
+                    conn.expire(refreshToAccessKey, seconds);
+                    conn.expire(accessToRefreshKey, seconds);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+        byte[] refreshKey = serializeKey(REFRESH + refreshToken.getValue());
+        byte[] refreshAuthKey = serializeKey(REFRESH_AUTH + refreshToken.getValue());
+        byte[] serializedRefreshToken = serializationStrategy.serialize(refreshToken);
+        byte[] serializedAuth = serializationStrategy.serialize(authentication);
+        submit(conn -> {
+            conn.set(refreshKey, serializedRefreshToken);
+            conn.set(refreshAuthKey, serializedAuth);
+            long seconds = secondsUntilExpiration(refreshToken);
+            if (seconds >= 0) {
+                conn.expire(refreshKey, seconds);
+                conn.expire(refreshAuthKey, seconds);
+            }
+        });
+    }
+
+    /**
+     * 用一条 MGET 读取多个访问令牌及其认证信息
+     * @param tokenValues 访问令牌
+     * @return 访问令牌 -> 令牌及认证信息，不存在的令牌不在结果中
+     */
+    @Override
+    public Map<String, StoredAccessToken> readAccessTokens(Collection<String> tokenValues) {
+        Map<String, StoredAccessToken> result = new LinkedHashMap<>();
+        if (tokenValues.isEmpty()) {
+            return result;
+        }
+        List<String> values = new ArrayList<>(tokenValues);
+        byte[][] keys = new byte[values.size() * 2][];
+        for (int i = 0; i < values.size(); i++) {
+            keys[2 * i] = serializeKey(ACCESS + values.get(i));
+            keys[2 * i + 1] = serializeKey(AUTH + values.get(i));
+        }
+        List<byte[]> bytes;
+        RedisConnection conn = connectionFactory.getConnection();
+        try {
+            bytes = conn.mGet(keys);
+        } finally {
+            conn.close();
+        }
+        for (int i = 0; i < values.size(); i++) {
+            OAuth2AccessToken accessToken = serializationStrategy.deserialize(bytes.get(2 * i), OAuth2AccessToken.class);
+            OAuth2Authentication authentication = serializationStrategy.deserialize(bytes.get(2 * i + 1), OAuth2Authentication.class);
+            if (accessToken != null && authentication != null) {
+                result.put(values.get(i), new StoredAccessToken(accessToken, authentication));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 用一个流水线检查多个 access: 键是否存在
+     * @param tokenValues 访问令牌
+     * @return 与 tokenValues 一一对应的检查结果
+     */
+    @Override
+    public List<Boolean> accessTokensExist(List<String> tokenValues) {
+        List<Boolean> result = new ArrayList<>(tokenValues.size());
+        if (tokenValues.isEmpty()) {
+            return result;
+        }
+        List<Object> replies;
+        RedisConnection conn = connectionFactory.getConnection();
+        try {
+            conn.openPipeline();
+            for (String tokenValue : tokenValues) {
+                conn.exists(serializeKey(ACCESS + tokenValue));
+            }
+            replies = conn.closePipeline();
+        } finally {
+            conn.close();
+        }
+        for (Object reply : replies) {
+            result.add(Boolean.TRUE.equals(reply));
+        }
+        return result;
+    }
+
+    /**
+     * 在批量写入中时记录命令，否则立即在一个流水线中执行
+     */
+    private void submit(Consumer<RedisConnection> command) {
+        Batch batch = pending.get();
+        if (batch != null) {
+            batch.commands.add(command);
+        } else {
+            List<Consumer<RedisConnection>> single = new ArrayList<>(1);
+            single.add(command);
+            execute(single);
+        }
+    }
+
+    private void execute(List<Consumer<RedisConnection>> commands) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        RedisConnection conn = connectionFactory.getConnection();
+        try {
+            conn.openPipeline();
+            for (Consumer<RedisConnection> command : commands) {
+                command.accept(conn);
+            }
+            conn.closePipeline();
+        } finally {
+            conn.close();
+        }
+    }
+
+    private byte[] serializeKey(String key) {
+        return serializationStrategy.serialize(prefix + key);
+    }
+
+    /**
+     * 刷新令牌的剩余秒数，不会过期时返回 -1（与 RedisTokenStore 相同按整秒截断）
+     */
+    private static long secondsUntilExpiration(OAuth2RefreshToken refreshToken) {
+        if (refreshToken instanceof ExpiringOAuth2RefreshToken && ((ExpiringOAuth2RefreshToken) refreshToken).getExpiration() != null) {
+            long millis = ((ExpiringOAuth2RefreshToken) refreshToken).getExpiration().getTime() - System.currentTimeMillis();
+            return Math.max(millis / 1000, 0);
+        }
+        return -1;
+    }
+
+    private static String getApprovalKey(OAuth2Authentication authentication) {
+        String userName = authentication.getUserAuthentication() == null ? "" : authentication.getUserAuthentication().getName();
+        return authentication.getOAuth2Request().getClientId() + (userName == null ? "" : ":" + userName);
+    }
+
+    /**
+     * 一次授权中尚未写入的命令，以及写入之后要执行的操作
+     */
+    private static final class Batch {
+        final List<Consumer<RedisConnection>> commands = new ArrayList<>();
+        final List<Runnable> afterWrite = new ArrayList<>();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.core.token;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.redis.RedisTokenStoreSerializationStrategy;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 存放在 Redis 中的令牌存储
+ * 单个 Redis 使用 {@link PipelinedRedisTokenStore}，多个 Redis 分片使用 {@link ShardedRedisTokenStore}，
+ * 两者键的布局相同；合并写入的令牌服务、本地缓存、已撤销令牌登记和令牌索引清理只依赖这里的操作
+ */
+public interface RedisBackedTokenStore extends TokenStore, BatchTokenReader {
+
+    /**
+     * 在一次授权内执行令牌的发放，期间保存的令牌在授权结束后一次写入
+     * 授权过程中抛出异常时放弃写入；已经在批量写入中时直接执行
+     * @param grant 授权过程（例如 DefaultTokenServices.createAccessToken）
+     * @return 授权结果
+     */
+    <T> T batch(Supplier<T> grant);
+
+    /**
+     * 在令牌写入 Redis 之后执行（例如通知其他节点令牌已改变），不在批量写入中时立即执行
+     * @param action 要执行的操作
+     */
+    void afterWrite(Runnable action);
+
+    /**
+     * @param accessTokenRemovalListener 访问令牌被删除后的通知，参数为访问令牌
+     */
+    void setAccessTokenRemovalListener(Consumer<String> accessTokenRemovalListener);
+
+    /**
+     * 检查访问令牌是否还在 Redis 中（只检查 access: 键，不读取令牌）
+     * @param tokenValues 访问令牌
+     * @return 与 tokenValues 一一对应的检查结果
+     */
+    List<Boolean> accessTokensExist(List<String> tokenValues);
+
+    /**
+     * @return 保存令牌的所有 Redis 节点，单个 Redis 时只有一个
+     */
+    List<RedisConnectionFactory> getConnectionFactories();
+
+    RedisTokenStoreSerializationStrategy getSerializationStrategy();
+
+    String getPrefix();
+}
@@ -0,0 +1,694 @@
+package com.example.core.token;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.DefaultAuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.store.redis.JdkSerializationStrategy;
+import org.springframework.security.oauth2.provider.token.store.redis.RedisTokenStoreSerializationStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 按一致性哈希分片的 Redis 令牌存储，每个分片上键的布局与 RedisTokenStore 相同
+ * 键按所属的令牌或用户分布到各个分片：
+ * 访问令牌的 access、auth、access_to_refresh 按访问令牌的值，刷新令牌的 refresh、refresh_auth、refresh_to_access 按刷新令牌的值，
+ * 用户的 auth_to_access、uname_to_access 和该用户令牌在 client_id_to_access 中的元素按“客户端:用户名”放在同一个分片，
+ * 一个客户端的令牌列表因此分散在各个分片上，findTokensByClientId 合并所有分片的列表
+ * 一次授权的写入按分片合并，在 {@link #batch(Supplier)} 中每个涉及的分片一个流水线；批量读取每个分片一条 MGET
+ * 增加分片：把原来的分片名称设置为 previousShards，按新的环写入；按新的环读不到时回退到原来的环上的分片，
+ * 读到后把该令牌（或用户）的键连同剩余的过期时间迁移到新的分片；删除时先删原来的分片再删新的分片，
+ * 迁移复制之后如果原来的键已经被删除（DEL 返回 0）则撤销复制，迁移和删除并发时令牌不会复活
+ * 没有被读到的令牌在原来的分片上自然过期，最长有效期过后即可去掉 previousShards
+ * 原来的单个 Redis 可以直接作为一个分片（键的布局相同），以它为 previousShards 开始迁移
+ */
+public class ShardedRedisTokenStore implements RedisBackedTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedRedisTokenStore.class);
+
+    private static final String ACCESS = "access:";
+    private static final String AUTH_TO_ACCESS = "auth_to_access:";
+    private static final String AUTH = "auth:";
+    private static final String REFRESH_AUTH = "refresh_auth:";
+    private static final String ACCESS_TO_REFRESH = "access_to_refresh:";
+    private static final String REFRESH = "refresh:";
+    private static final String REFRESH_TO_ACCESS = "refresh_to_access:";
+    private static final String CLIENT_ID_TO_ACCESS = "client_id_to_access:";
+    private static final String UNAME_TO_ACCESS = "uname_to_access:";
+
+    private final Map<String, Shard> shards = new LinkedHashMap<>();            // 分片名称 -> 分片
+    private final ConsistentHashRing<Shard> ring;                               // 当前的环
+    private final int virtualNodes;                                             // 每个分片的虚拟节点数
+    private volatile ConsistentHashRing<Shard> previousRing;                    // 增加分片之前的环，没有正在进行的迁移时为空
+    private final ThreadLocal<Batch> pending = new ThreadLocal<>();             // 当前线程正在进行的授权中尚未写入的命令
+    private AuthenticationKeyGenerator authenticationKeyGenerator = new DefaultAuthenticationKeyGenerator();
+    private RedisTokenStoreSerializationStrategy serializationStrategy = new JdkSerializationStrategy();
+    private String prefix = "";
+    private Consumer<String> accessTokenRemovalListener;                        // 访问令牌被删除后的通知
+
+    private final LongAdder fallbackReads = new LongAdder();    // 在原来的分片上读到的次数
+    private final LongAdder moved = new LongAdder();            // 迁移到新分片的令牌（或用户）数
+
+    /**
+     * @param connectionFactories 分片名称 -> redis连接工厂，名称决定分片在环上的位置，不能随意修改
+     * @param virtualNodes 每个分片的虚拟节点数
+     */
+    public ShardedRedisTokenStore(Map<String, RedisConnectionFactory> connectionFactories, int virtualNodes) {
+        for (Map.Entry<String, RedisConnectionFactory> entry : connectionFactories.entrySet()) {
+            shards.put(entry.getKey(), new Shard(entry.getKey(), entry.getValue()));
+        }
+        this.virtualNodes = virtualNodes;
+        this.ring = new ConsistentHashRing<>(shards, virtualNodes);
+    }
+
+    /**
+     * @param previousShards 增加分片之前的分片名称，为空表示没有正在进行的迁移
+     */
+    public void setPreviousShards(Collection<String> previousShards) {
+        if (previousShards == null || previousShards.isEmpty()) {
+            this.previousRing = null;
+            return;
+        }
+        Map<String, Shard> previous = new LinkedHashMap<>();
+        for (String name : previousShards) {
+            Shard shard = shards.get(name);
+            if (shard == null) {
+                throw new IllegalArgumentException("Unknown token store shard: " + name);
+            }
+            previous.put(name, shard);
+        }
+        this.previousRing = new ConsistentHashRing<>(previous, virtualNodes);
+    }
+
+    public void setAuthenticationKeyGenerator(AuthenticationKeyGenerator authenticationKeyGenerator) {
+        this.authenticationKeyGenerator = authenticationKeyGenerator;
+    }
+
+    public void setSerializationStrategy(RedisTokenStoreSerializationStrategy serializationStrategy) {
+        this.serializationStrategy = serializationStrategy;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public RedisTokenStoreSerializationStrategy getSerializationStrategy() {
+        return serializationStrategy;
+    }
+
+    @Override
+    public String getPrefix() {
+        return prefix;
+    }
+
+    @Override
+    public List<RedisConnectionFactory> getConnectionFactories() {
+        List<RedisConnectionFactory> connectionFactories = new ArrayList<>(shards.size());
+        for (Shard shard : shards.values()) {
+            connectionFactories.add(shard.connectionFactory);
+        }
+        return connectionFactories;
+    }
+
+    @Override
+    public void setAccessTokenRemovalListener(Consumer<String> accessTokenRemovalListener) {
+        this.accessTokenRemovalListener = accessTokenRemovalListener;
+    }
+
+    /**
+     * @param route 访问令牌、刷新令牌或“客户端:用户名”
+     * @return 所属分片的名称
+     */
+    public String shardFor(String route) {
+        return ring.get(route).name;
+    }
+
+    public long getFallbackReads() {
+        return fallbackReads.sum();
+    }
+
+    public long getMoved() {
+        return moved.sum();
+    }
+
+    @Override
+    public <T> T batch(Supplier<T> grant) {
+        if (pending.get() != null) {
+            return grant.get();
+        }
+        Batch batch = new Batch();
+        pending.set(batch);
+        T result;
+        try {
+            result = grant.get();
+        } finally {
+            pending.remove();
+        }
+        for (Map.Entry<Shard, List<Consumer<RedisConnection>>> entry : batch.commands.entrySet()) {
+            execute(entry.getKey(), entry.getValue());
+        }
+        batch.afterWrite.forEach(Runnable::run);
+        return result;
+    }
+
+    @Override
+    public void afterWrite(Runnable action) {
+        Batch batch = pending.get();
+        if (batch != null) {
+            batch.afterWrite.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        byte[] serializedAccessToken = serializationStrategy.serialize(token);
+        byte[] serializedAuth = serializationStrategy.serialize(authentication);
+        byte[] accessKey = serializeKey(ACCESS + token.getValue());
+        byte[] authKey = serializeKey(AUTH + token.getValue());
+        String approvalKey = getApprovalKey(authentication);
+        byte[] authToAccessKey = serializeKey(AUTH_TO_ACCESS + authenticationKeyGenerator.extractKey(authentication));
+        byte[] unameKey = serializeKey(UNAME_TO_ACCESS + approvalKey);
+        byte[] clientIdKey = serializeKey(CLIENT_ID_TO_ACCESS + authentication.getOAuth2Request().getClientId());
+        OAuth2RefreshToken refreshToken = token.getRefreshToken();
+        boolean hasRefreshToken = refreshToken != null && refreshToken.getValue() != null;
+        int seconds = token.getExpiration() != null ? token.getExpiresIn() : -1;
+        long refreshSeconds = hasRefreshToken ? secondsUntilExpiration(refreshToken) : -1;
+
+        submit(ring.get(token.getValue()), conn -> {
+            conn.set(accessKey, serializedAccessToken);
+            conn.set(authKey, serializedAuth);
+            if (seconds >= 0) {
+                conn.expire(accessKey, seconds);
+                conn.expire(authKey, seconds);
+            }
+            if (hasRefreshToken) {
+                byte[] accessToRefreshKey = serializeKey(ACCESS_TO_REFRESH + token.getValue());
+                conn.set(accessToRefreshKey, serializationStrategy.serialize(refreshToken.getValue()));
+                if (refreshSeconds >= 0) {
+                    conn.expire(accessToRefreshKey, refreshSeconds);
+                }
+            }
+        });
+        if (hasRefreshToken) {
+            byte[] refreshToAccessKey = serializeKey(REFRESH_TO_ACCESS + refreshToken.getValue());
+            byte[] access = serializationStrategy.serialize(token.getValue());
+            submit(ring.get(refreshToken.getValue()), conn -> {
+                conn.set(refreshToAccessKey, access);
+                if (refreshSeconds >= 0) {
+                    conn.expire(refreshToAccessKey, refreshSeconds);
+                }
+            });
+        }
+        submit(ring.get(approvalKey), conn -> {
+            conn.set(authToAccessKey, serializedAccessToken);
+            if (!authentication.isClientOnly()) {
+                conn.rPush(unameKey, serializedAccessToken);
+            }
+            conn.rPush(clientIdKey, serializedAccessToken);
+            if (seconds >= 0) {
+                conn.expire(authToAccessKey, seconds);
+                conn.expire(clientIdKey, seconds);
+                conn.expire(unameKey, seconds);
+            }
+        });
+    }
+
+    @Override
+    public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+        byte[] refreshKey = serializeKey(REFRESH + refreshToken.getValue());
+        byte[] refreshAuthKey = serializeKey(REFRESH_AUTH + refreshToken.getValue());
+        byte[] serializedRefreshToken = serializationStrategy.serialize(refreshToken);
+        byte[] serializedAuth = serializationStrategy.serialize(authentication);
+        submit(ring.get(refreshToken.getValue()), conn -> {
+            conn.set(refreshKey, serializedRefreshToken);
+            conn.set(refreshAuthKey, serializedAuth);
+            long seconds = secondsUntilExpiration(refreshToken);
+            if (seconds >= 0) {
+                conn.expire(refreshKey, seconds);
+                conn.expire(refreshAuthKey, seconds);
+            }
+        });
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        byte[] bytes = read(tokenValue, serializeKey(ACCESS + tokenValue), accessTokenKeys(tokenValue));
+        return serializationStrategy.deserialize(bytes, OAuth2AccessToken.class);
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+        return readAuthentication(token.getValue());
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String token) {
+        byte[] bytes = read(token, serializeKey(AUTH + token), accessTokenKeys(token));
+        return serializationStrategy.deserialize(bytes, OAuth2Authentication.class);
+    }
+
+    @Override
+    public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+        String key = authenticationKeyGenerator.extractKey(authentication);
+        byte[] authToAccessKey = serializeKey(AUTH_TO_ACCESS + key);
+        byte[] bytes = read(getApprovalKey(authentication), authToAccessKey, authToAccessKey);
+        OAuth2AccessToken accessToken = serializationStrategy.deserialize(bytes, OAuth2AccessToken.class);
+        if (accessToken != null) {
+            OAuth2Authentication storedAuthentication = readAuthentication(accessToken.getValue());
+            if (storedAuthentication != null && !key.equals(authenticationKeyGenerator.extractKey(storedAuthentication))) {
+                storeAccessToken(accessToken, authentication);
+            }
+        }
+        return accessToken;
+    }
+
+    @Override
+    public void removeAccessToken(OAuth2AccessToken token) {
+        removeAccessToken(token.getValue());
+    }
+
+    /**
+     * 删除访问令牌（removeAccessToken 和 removeAccessTokenUsingRefreshToken 最终都会调用这里）
+     * 迁移期间先删除原来分片上的键，再删除新分片上的键
+     * @param tokenValue 访问令牌
+     */
+    public void removeAccessToken(String tokenValue) {
+        byte[] accessKey = serializeKey(ACCESS + tokenValue);
+        byte[] authKey = serializeKey(AUTH + tokenValue);
+        byte[] accessToRefreshKey = serializeKey(ACCESS_TO_REFRESH + tokenValue);
+        byte[] access = null;
+        byte[] auth = null;
+        for (Shard shard : owners(tokenValue)) {
+            List<Object> results = pipeline(shard, conn -> {
+                conn.get(accessKey);
+                conn.get(authKey);
+                conn.del(accessKey, accessToRefreshKey, authKey);
+            });
+            if (results.get(0) != null) {
+                access = (byte[]) results.get(0);
+                auth = (byte[]) results.get(1);
+            }
+        }
+        OAuth2Authentication authentication = serializationStrategy.deserialize(auth, OAuth2Authentication.class);
+        if (authentication != null) {
+            String approvalKey = getApprovalKey(authentication);
+            byte[] authToAccessKey = serializeKey(AUTH_TO_ACCESS + authenticationKeyGenerator.extractKey(authentication));
+            byte[] unameKey = serializeKey(UNAME_TO_ACCESS + approvalKey);
+            byte[] clientIdKey = serializeKey(CLIENT_ID_TO_ACCESS + authentication.getOAuth2Request().getClientId());
+            byte[] member = access;
+            for (Shard shard : owners(approvalKey)) {
+                pipeline(shard, conn -> {
+                    conn.del(authToAccessKey);
+                    conn.lRem(unameKey, 1, member);
+                    conn.lRem(clientIdKey, 1, member);
+                });
+            }
+        }
+        if (accessTokenRemovalListener != null) {
+            accessTokenRemovalListener.accept(tokenValue);
+        }
+    }
+
+    @Override
+    public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+        byte[] bytes = read(tokenValue, serializeKey(REFRESH + tokenValue), refreshTokenKeys(tokenValue));
+        return serializationStrategy.deserialize(bytes, OAuth2RefreshToken.class);
+    }
+
+    @Override
+    public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+        byte[] bytes = read(token.getValue(), serializeKey(REFRESH_AUTH + token.getValue()), refreshTokenKeys(token.getValue()));
+        return serializationStrategy.deserialize(bytes, OAuth2Authentication.class);
+    }
+
+    @Override
+    public void removeRefreshToken(OAuth2RefreshToken token) {
+        byte[][] keys = refreshTokenKeys(token.getValue());
+        byte[][] withAccessToRefresh = Arrays.copyOf(keys, keys.length + 1);
+        // 与 RedisTokenStore 相同，同时删除以刷新令牌为名的 access_to_refresh 键
+        withAccessToRefresh[keys.length] = serializeKey(ACCESS_TO_REFRESH + token.getValue());
+        for (Shard shard : owners(token.getValue())) {
+            pipeline(shard, conn -> conn.del(withAccessToRefresh));
+        }
+    }
+
+    @Override
+    public void removeAccessTokenUsingRefreshToken(OAuth2RefreshToken refreshToken) {
+        byte[] key = serializeKey(REFRESH_TO_ACCESS + refreshToken.getValue());
+        String accessToken = null;
+        for (Shard shard : owners(refreshToken.getValue())) {
+            List<Object> results = pipeline(shard, conn -> {
+                conn.get(key);
+                conn.del(key);
+            });
+            if (results.get(0) != null) {
+                accessToken = serializationStrategy.deserializeString((byte[]) results.get(0));
+            }
+        }
+        if (accessToken != null) {
+            removeAccessToken(accessToken);
+        }
+    }
+
+    /**
+     * 读取用户分片上的令牌列表，迁移期间合并原来分片上的列表
+     */
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(String clientId, String userName) {
+        String approvalKey = getApprovalKey(clientId, userName);
+        byte[] key = serializeKey(UNAME_TO_ACCESS + approvalKey);
+        List<OAuth2AccessToken> accessTokens = new ArrayList<>();
+        for (Shard shard : owners(approvalKey)) {
+            accessTokens.addAll(readList(shard, key));
+        }
+        return Collections.unmodifiableCollection(accessTokens);
+    }
+
+    /**
+     * 合并所有分片上该客户端的令牌列表
+     */
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+        byte[] key = serializeKey(CLIENT_ID_TO_ACCESS + clientId);
+        List<OAuth2AccessToken> accessTokens = new ArrayList<>();
+        for (Shard shard : shards.values()) {
+            accessTokens.addAll(readList(shard, key));
+        }
+        return Collections.unmodifiableCollection(accessTokens);
+    }
+
+    /**
+     * 按分片分组，每个分片用一条 MGET 读取访问令牌及其认证信息；迁移期间读不到的令牌逐个回退到原来的分片
+     * @param tokenValues 访问令牌
+     * @return 访问令牌 -> 令牌及认证信息，不存在的令牌不在结果中
+     */
+    @Override
+    public Map<String, StoredAccessToken> readAccessTokens(Collection<String> tokenValues) {
+        Map<String, StoredAccessToken> result = new LinkedHashMap<>();
+        Map<Shard, List<String>> groups = new LinkedHashMap<>();
+        for (String tokenValue : tokenValues) {
+            groups.computeIfAbsent(ring.get(tokenValue), shard -> new ArrayList<>()).add(tokenValue);
+        }
+        for (Map.Entry<Shard, List<String>> group : groups.entrySet()) {
+            List<String> values = group.getValue();
+            byte[][] keys = new byte[values.size() * 2][];
+            for (int i = 0; i < values.size(); i++) {
+                keys[2 * i] = serializeKey(ACCESS + values.get(i));
+                keys[2 * i + 1] = serializeKey(AUTH + values.get(i));
+            }
+            List<byte[]> bytes;
+            RedisConnection conn = group.getKey().connectionFactory.getConnection();
+            try {
+                bytes = conn.mGet(keys);
+            } finally {
+                conn.close();
+            }
+            for (int i = 0; i < values.size(); i++) {
+                OAuth2AccessToken accessToken = serializationStrategy.deserialize(bytes.get(2 * i), OAuth2AccessToken.class);
+                OAuth2Authentication authentication = serializationStrategy.deserialize(bytes.get(2 * i + 1), OAuth2Authentication.class);
+                if (accessToken != null && authentication != null) {
+                    result.put(values.get(i), new StoredAccessToken(accessToken, authentication));
+                }
+            }
+        }
+        if (previousRing != null) {
+            for (String tokenValue : tokenValues) {
+                if (!result.containsKey(tokenValue) && previousRing.get(tokenValue) != ring.get(tokenValue)) {
+                    OAuth2AccessToken accessToken = readAccessToken(tokenValue);
+                    OAuth2Authentication authentication = accessToken == null ? null : readAuthentication(tokenValue);
+                    if (authentication != null) {
+                        result.put(tokenValue, new StoredAccessToken(accessToken, authentication));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按分片分组，每个分片用一个流水线检查 access: 键；迁移期间不存在的再检查原来的分片
+     */
+    @Override
+    public List<Boolean> accessTokensExist(List<String> tokenValues) {
+        Boolean[] result = new Boolean[tokenValues.size()];
+        Arrays.fill(result, Boolean.FALSE);
+        List<Integer> all = new ArrayList<>(tokenValues.size());
+        for (int i = 0; i < tokenValues.size(); i++) {
+            all.add(i);
+        }
+        exists(ring, tokenValues, all, result);
+        ConsistentHashRing<Shard> previous = previousRing;
+        if (previous != null) {
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < tokenValues.size(); i++) {
+                if (!result[i] && previous.get(tokenValues.get(i)) != ring.get(tokenValues.get(i))) {
+                    missing.add(i);
+                }
+            }
+            exists(previous, tokenValues, missing, result);
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * 在 hashRing 上 tokenValues 的指定元素所属的分片中检查 access: 键，存在的结果置为 true
+     */
+    private void exists(ConsistentHashRing<Shard> hashRing, List<String> tokenValues, List<Integer> indexes, Boolean[] result) {
+        Map<Shard, List<Integer>> groups = new LinkedHashMap<>();
+        for (Integer i : indexes) {
+            groups.computeIfAbsent(hashRing.get(tokenValues.get(i)), shard -> new ArrayList<>()).add(i);
+        }
+        for (Map.Entry<Shard, List<Integer>> group : groups.entrySet()) {
+            List<Object> replies = pipeline(group.getKey(), conn -> {
+                for (Integer i : group.getValue()) {
+                    conn.exists(serializeKey(ACCESS + tokenValues.get(i)));
+                }
+            });
+            for (int j = 0; j < replies.size(); j++) {
+                if (Boolean.TRUE.equals(replies.get(j))) {
+                    result[group.getValue().get(j)] = Boolean.TRUE;
+                }
+            }
+        }
+    }
+
+    /**
+     * 在 route 所属的分片上读取 key；迁移期间读不到时回退到原来的分片，读到后把 keys 迁移到新的分片
+     * @param route 访问令牌、刷新令牌或“客户端:用户名”
+     * @param key 要读取的键
+     * @param keys 与 key 一起迁移的键（包括 key）
+     * @return 读到的值，不存在时为 null
+     */
+    private byte[] read(String route, byte[] key, byte[]... keys) {
+        Shard owner = ring.get(route);
+        byte[] bytes = get(owner, key);
+        ConsistentHashRing<Shard> previous = previousRing;
+        if (bytes != null || previous == null) {
+            return bytes;
+        }
+        Shard previousOwner = previous.get(route);
+        if (previousOwner == owner) {
+            return null;
+        }
+        bytes = get(previousOwner, key);
+        if (bytes != null) {
+            fallbackReads.increment();
+            move(previousOwner, owner, keys);
+        }
+        return bytes;
+    }
+
+    /**
+     * 把键连同剩余的过期时间从 from 复制到 to，再删除 from 上的键；
+     * 复制之后 from 上的键已经被并发的删除删掉时撤销复制。迁移失败不影响本次读取，下次读取时重试
+     */
+    private void move(Shard from, Shard to, byte[][] keys) {
+        try {
+            List<Object> replies = pipeline(from, conn -> {
+                for (byte[] key : keys) {
+                    conn.get(key);
+                    conn.pTtl(key);
+                }
+            });
+            List<byte[]> present = new ArrayList<>(keys.length);
+            List<byte[]> values = new ArrayList<>(keys.length);
+            List<Long> ttls = new ArrayList<>(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                byte[] value = (byte[]) replies.get(2 * i);
+                if (value != null) {
+                    present.add(keys[i]);
+                    values.add(value);
+                    ttls.add(((Number) replies.get(2 * i + 1)).longValue());
+                }
+            }
+            if (present.isEmpty()) {
+                return;
+            }
+            byte[][] presentKeys = present.toArray(new byte[present.size()][]);
+            pipeline(to, conn -> {
+                for (int i = 0; i < presentKeys.length; i++) {
+                    conn.set(presentKeys[i], values.get(i));
+                    if (ttls.get(i) > 0) {
+                        conn.pExpire(presentKeys[i], ttls.get(i));
+                    }
+                }
+            });
+            Long deleted;
+            RedisConnection conn = from.connectionFactory.getConnection();
+            try {
+                deleted = conn.del(presentKeys);
+            } finally {
+                conn.close();
+            }
+            if (deleted == null || deleted == 0) {
+                pipeline(to, c -> c.del(presentKeys));
+                return;
+            }
+            moved.increment();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to move token keys from shard {} to {}: {}", from.name, to.name, e.toString());
+        }
+    }
+
+    /**
+     * @return route 所属的分片；迁移期间原来的分片不同时，原来的分片在前
+     */
+    private List<Shard> owners(String route) {
+        Shard owner = ring.get(route);
+        ConsistentHashRing<Shard> previous = previousRing;
+        if (previous != null) {
+            Shard previousOwner = previous.get(route);
+            if (previousOwner != owner) {
+                return Arrays.asList(previousOwner, owner);
+            }
+        }
+        return Collections.singletonList(owner);
+    }
+
+    private byte[] get(Shard shard, byte[] key) {
+        RedisConnection conn = shard.connectionFactory.getConnection();
+        try {
+            return conn.get(key);
+        } finally {
+            conn.close();
+        }
+    }
+
+    private List<OAuth2AccessToken> readList(Shard shard, byte[] key) {
+        List<byte[]> byteList;
+        RedisConnection conn = shard.connectionFactory.getConnection();
+        try {
+            byteList = conn.lRange(key, 0, -1);
+        } finally {
+            conn.close();
+        }
+        if (byteList == null) {
+            return Collections.emptyList();
+        }
+        List<OAuth2AccessToken> accessTokens = new ArrayList<>(byteList.size());
+        for (byte[] bytes : byteList) {
+            accessTokens.add(serializationStrategy.deserialize(bytes, OAuth2AccessToken.class));
+        }
+        return accessTokens;
+    }
+
+    /**
+     * 在批量写入中时按分片记录命令，否则立即在该分片的一个流水线中执行
+     */
+    private void submit(Shard shard, Consumer<RedisConnection> command) {
+        Batch batch = pending.get();
+        if (batch != null) {
+            batch.commands.computeIfAbsent(shard, s -> new ArrayList<>()).add(command);
+        } else {
+            execute(shard, Collections.singletonList(command));
+        }
+    }
+
+    private void execute(Shard shard, List<Consumer<RedisConnection>> commands) {
+        pipeline(shard, conn -> commands.forEach(command -> command.accept(conn)));
+    }
+
+    private List<Object> pipeline(Shard shard, Consumer<RedisConnection> commands) {
+        RedisConnection conn = shard.connectionFactory.getConnection();
+        try {
+            conn.openPipeline();
+            commands.accept(conn);
+            return conn.closePipeline();
+        } finally {
+            conn.close();
+        }
+    }
+
+    private byte[][] accessTokenKeys(String tokenValue) {
+        return new byte[][]{serializeKey(ACCESS + tokenValue), serializeKey(AUTH + tokenValue),
+                serializeKey(ACCESS_TO_REFRESH + tokenValue)};
+    }
+
+    private byte[][] refreshTokenKeys(String tokenValue) {
+        return new byte[][]{serializeKey(REFRESH + tokenValue), serializeKey(REFRESH_AUTH + tokenValue),
+                serializeKey(REFRESH_TO_ACCESS + tokenValue)};
+    }
+
+    private byte[] serializeKey(String key) {
+        return serializationStrategy.serialize(prefix + key);
+    }
+
+    /**
+     * 刷新令牌的剩余秒数，不会过期时返回 -1（与 RedisTokenStore 相同按整秒截断）
+     */
+    private static long secondsUntilExpiration(OAuth2RefreshToken refreshToken) {
+        if (refreshToken instanceof ExpiringOAuth2RefreshToken && ((ExpiringOAuth2RefreshToken) refreshToken).getExpiration() != null) {
+            long millis = ((ExpiringOAuth2RefreshToken) refreshToken).getExpiration().getTime() - System.currentTimeMillis();
+            return Math.max(millis / 1000, 0);
+        }
+        return -1;
+    }
+
+    private static String getApprovalKey(OAuth2Authentication authentication) {
+        String userName = authentication.getUserAuthentication() == null ? "" : authentication.getUserAuthentication().getName();
+        return getApprovalKey(authentication.getOAuth2Request().getClientId(), userName);
+    }
+
+    private static String getApprovalKey(String clientId, String userName) {
+        return clientId + (userName == null ? "" : ":" + userName);
+    }
+
+    /**
+     * 一个分片
+     */
+    private static final class Shard {
+        final String name;                                  // 分片名称
+        final RedisConnectionFactory connectionFactory;     // redis连接工厂
+
+        Shard(String name, RedisConnectionFactory connectionFactory) {
+            this.name = name;
+            this.connectionFactory = connectionFactory;
+        }
+    }
+
+    /**
+     * 一次授权中按分片记录的尚未写入的命令，以及写入之后要执行的操作
+     */
+    private static final class Batch {
+        final Map<Shard, List<Consumer<RedisConnection>>> commands = new LinkedHashMap<>();
+        final List<Runnable> afterWrite = new ArrayList<>();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.core.token;
+
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+/**
+ * 令牌存储中的一个访问令牌及其认证信息
+ */
+public final class StoredAccessToken {
+    private final OAuth2AccessToken accessToken;            // 访问令牌
+    private final OAuth2Authentication authentication;      // 认证信息
+
+    public StoredAccessToken(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        this.accessToken = accessToken;
+        this.authentication = authentication;
+    }
+
+    public OAuth2AccessToken getAccessToken() {
+        return accessToken;
+    }
+
+    public OAuth2Authentication getAuthentication() {
+        return authentication;
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.core.token;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.token.store.redis.RedisTokenStoreSerializationStrategy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 令牌索引清理
+ * RedisTokenStore 按客户端（client_id_to_access:）和用户（uname_to_access:）维护访问令牌列表，
+ * 每发放一个令牌整个列表的过期时间都会延长，活跃客户端的列表永远不会过期，其中早已过期的令牌一直占用内存，
+ * 也拖慢 findTokensByClientId / findTokensByClientIdAndUserName
+ * 清理器用 SCAN 游标逐页找到索引键，每一步只处理一页键或一个键的 batchSize 个元素：
+ * 读取元素、流水线 EXISTS 检查 access: 键是否还在，对已不存在的元素流水线 LREM，然后暂停 pauseMillis 再继续下一步
+ * 列表按发放顺序追加，但过期的元素不一定集中在头部：同一客户端的令牌有效期可能不同，撤销的令牌也可能在列表中间，
+ * 因此每个键都从头到尾按 batchSize 分批检查，批与批之间同样暂停 pauseMillis，没有过期元素的批次不会提前结束这个键
+ * 所有命令都在清理线程上执行、每次只占用一个连接很短的时间，不阻塞令牌发放；一轮结束后等待 intervalMillis 开始下一轮
+ * 令牌存储分片时依次清理每个分片上的索引，列表元素是否过期由令牌存储到令牌所在的分片检查
+ */
+public class TokenIndexSweeper {
+
+    private static Logger logger = LoggerFactory.getLogger(TokenIndexSweeper.class);
+
+    private static final String[] INDEXES = {"client_id_to_access:", "uname_to_access:"};
+    private static final byte[] SCAN_START = "0".getBytes(StandardCharsets.US_ASCII);
+    private static final long ERROR_DELAY_MILLIS = 5000;
+
+    private final RedisBackedTokenStore tokenStore;                             // 令牌存储，检查令牌是否还在
+    private final List<RedisConnectionFactory> connectionFactories;            // 令牌存储的各个 Redis 节点
+    private final RedisTokenStoreSerializationStrategy serializationStrategy;   // 与令牌存储相同的序列化方式
+    private final String prefix;                                                // 与令牌存储相同的键前缀
+    private final ScheduledExecutorService scheduler;                           // 执行清理的线程
+    private int scanCount = 100;                                                // 每次 SCAN 的 COUNT
+    private int batchSize = 100;                                                // 每一步检查的列表元素数
+    private long pauseMillis = 20;                                              // 两步之间的暂停时间
+    private long intervalMillis = 600000;                                       // 两轮之间的间隔
+
+    private final Deque<byte[]> keys = new ArrayDeque<>();  // 当前一页 SCAN 结果中尚未处理的键
+    private int shard;                                      // 正在清理的节点（connectionFactories 下标）
+    private int index;                                      // 正在扫描的索引（INDEXES 下标）
+    private byte[] cursor = SCAN_START;                     // 当前索引的 SCAN 游标
+    private boolean scanStarted;                            // 当前索引是否已发出第一次 SCAN
+    private byte[] key;                                     // 正在清理的键
+    private long offset;                                    // 正在清理的键中下一批的起始位置
+    private volatile boolean stopped;
+
+    private final LongAdder scanned = new LongAdder();          // 检查过的列表元素数
+    private final LongAdder removed = new LongAdder();          // 删除的列表元素数
+    private final LongAdder reclaimedBytes = new LongAdder();   // 删除的元素和键名的字节数
+    private final LongAdder reclaimedKeys = new LongAdder();    // 清空后被 Redis 删除的索引键数
+    private final LongAdder passes = new LongAdder();           // 完成的轮数
+
+    /**
+     * @param tokenStore 令牌存储，键名前缀、序列化方式和 Redis 节点与它一致
+     * @param scheduler 执行清理的线程
+     */
+    public TokenIndexSweeper(RedisBackedTokenStore tokenStore, ScheduledExecutorService scheduler) {
+        this.tokenStore = tokenStore;
+        this.connectionFactories = tokenStore.getConnectionFactories();
+        this.serializationStrategy = tokenStore.getSerializationStrategy();
+        this.prefix = tokenStore.getPrefix();
+        this.scheduler = scheduler;
+    }
+
+    public void setScanCount(int scanCount) {
+        this.scanCount = scanCount;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setPauseMillis(long pauseMillis) {
+        this.pauseMillis = pauseMillis;
+    }
+
+    public void setIntervalMillis(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * 等待 initialDelayMillis 后开始第一轮
+     * @param initialDelayMillis 第一轮开始前的等待时间（毫秒）
+     */
+    public void start(long initialDelayMillis) {
+        scheduler.schedule(this::run, initialDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * 执行一步：处理一批列表元素，或取下一页键
+     * @return 本轮是否还有剩余的工作，false 表示一轮刚刚结束
+     */
+    public synchronized boolean step() {
+        if (key != null) {
+            sweepBatch();
+            return true;
+        }
+        if (!keys.isEmpty()) {
+            key = keys.poll();
+            offset = 0;
+            return true;
+        }
+        if (!scanStarted || !isScanDone()) {
+            scan();
+            return true;
+        }
+        if (++index < INDEXES.length) {
+            cursor = SCAN_START;
+            scanStarted = false;
+            return true;
+        }
+        if (++shard < connectionFactories.size()) {
+            index = 0;
+            cursor = SCAN_START;
+            scanStarted = false;
+            return true;
+        }
+        shard = 0;
+        index = 0;
+        cursor = SCAN_START;
+        scanStarted = false;
+        passes.increment();
+        return false;
+    }
+
+    public long getScanned() {
+        return scanned.sum();
+    }
+
+    public long getRemoved() {
+        return removed.sum();
+    }
+
+    public long getReclaimedBytes() {
+        return reclaimedBytes.sum();
+    }
+
+    public long getReclaimedKeys() {
+        return reclaimedKeys.sum();
+    }
+
+    public long getPasses() {
+        return passes.sum();
+    }
+
+    /**
+     * 清理线程上执行一步并安排下一步：一轮未结束时暂停 pauseMillis，结束后等待 intervalMillis，出错时稍后重试
+     */
+    private void run() {
+        if (stopped) {
+            return;
+        }
+        long delay;
+        try {
+            delay = step() ? pauseMillis : intervalMillis;
+        } catch (RuntimeException e) {
+            logger.warn("Token index sweep failed, retrying: {}", e.toString());
+            delay = ERROR_DELAY_MILLIS;
+        }
+        if (!stopped) {
+            scheduler.schedule(this::run, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean isScanDone() {
+        return cursor.length == 1 && cursor[0] == '0';
+    }
+
+    /**
+     * SCAN 当前索引的下一页，游标保存在两步之间
+     */
+    @SuppressWarnings("unchecked")
+    private void scan() {
+        byte[] pattern = serializationStrategy.serialize(prefix + INDEXES[index] + "*");
+        RedisConnection conn = connectionFactories.get(shard).getConnection();
+        try {
+            List<Object> reply = (List<Object>) conn.execute("SCAN", cursor, "MATCH".getBytes(StandardCharsets.US_ASCII), pattern,
+                    "COUNT".getBytes(StandardCharsets.US_ASCII), Integer.toString(scanCount).getBytes(StandardCharsets.US_ASCII));
+            cursor = (byte[]) reply.get(0);
+            keys.addAll((List<byte[]>) reply.get(1));
+            scanStarted = true;
+        } finally {
+            conn.close();
+        }
+    }
+
+    /**
+     * 检查当前键的下一批元素并删除 access: 键已不存在的元素
+     */
+    private void sweepBatch() {
+        RedisConnection conn = connectionFactories.get(shard).getConnection();
+        try {
+            List<byte[]> members = conn.lRange(key, offset, offset + batchSize - 1);
+            if (members == null || members.isEmpty()) {
+                key = null;
+                return;
+            }
+            scanned.add(members.size());
+            List<byte[]> checked = new ArrayList<>(members.size());
+            List<String> tokenValues = new ArrayList<>(members.size());
+            for (byte[] member : members) {
+                OAuth2AccessToken token;
+                try {
+                    token = serializationStrategy.deserialize(member, OAuth2AccessToken.class);
+                } catch (RuntimeException e) {
+                    continue;   // 无法读取的元素保留，由令牌存储自己处理
+                }
+                tokenValues.add(token.getValue());
+                checked.add(member);
+            }
+            List<Boolean> exists = tokenStore.accessTokensExist(tokenValues);
+            List<byte[]> dangling = new ArrayList<>();
+            for (int i = 0; i < checked.size(); i++) {
+                if (!exists.get(i)) {
+                    dangling.add(checked.get(i));
+                }
+            }
+            if (dangling.isEmpty()) {
+                offset += members.size();
+                if (members.size() < batchSize) {
+                    key = null;
+                }
+                return;
+            }
+            conn.openPipeline();
+            for (byte[] member : dangling) {
+                conn.lRem(key, 1, member);
+            }
+            conn.exists(key);
+            List<Object> results = conn.closePipeline();
+            int count = 0;
+            for (int i = 0; i < dangling.size(); i++) {
+                if (((Number) results.get(i)).longValue() > 0) {
+                    count++;
+                    reclaimedBytes.add(dangling.get(i).length);
+                }
+            }
+            removed.add(count);
+            if (!Boolean.TRUE.equals(results.get(dangling.size()))) {
+                reclaimedKeys.increment();
+                reclaimedBytes.add(key.length);
+                key = null;
+                return;
+            }
+            offset += members.size() - count;
+            if (members.size() < batchSize) {
+                key = null;
+            }
+        } finally {
+            conn.close();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.core.token;
+
+import com.example.core.revocation.RevokedTokenFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已撤销令牌登记
+ * 访问令牌从令牌存储中删除（撤销、刷新后替换、注销）时记录它的指纹，flushDelayMillis 内的撤销合并为一批：
+ * 一个 Redis 流水线写入有序集合 revoked_tokens（分值为保留截止时间）并递增 revoked_tokens:version，
+ * 再把版本号和这一批指纹通过 {@link Publisher} 广播（消息总线上的 TokenRevokedEvent）
+ * 新加入的网关和资源服务先通过 {@link #snapshot()}（/oauth/revocations）取得完整的过滤器，之后只接收增量；
+ * 快照按版本缓存 snapshotMaxAgeMillis，多个节点同时启动时只构建一次
+ * 多个认证服务节点共用同一个 Redis，版本号全局递增
+ */
+public class TokenRevocationRegistry {
+
+    private static Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    private static final byte[] REVOKED = "revoked_tokens".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] VERSION = "revoked_tokens:version".getBytes(StandardCharsets.UTF_8);
+
+    private final RedisConnectionFactory connectionFactory;                     // redis连接工厂
+    private final Publisher publisher;                                          // 广播撤销增量
+    private final ScheduledExecutorService scheduler;                           // 执行合并后的写入
+    private final long retentionMillis;                                         // 指纹的保留时间（不短于访问令牌的有效期）
+    private final ConcurrentLinkedQueue<Long> pending = new ConcurrentLinkedQueue<>();    // 尚未写入的指纹
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private final LongAdder revoked = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private long flushDelayMillis = 100;                                        // 合并撤销的等待时间
+    private int minCapacity = 10000;                                            // 快照过滤器的最小容量
+    private double falsePositiveRate = 0.01;                                    // 快照过滤器的误判率
+    private long snapshotMaxAgeMillis = 10000;                                  // 快照的缓存时间
+    private volatile CachedSnapshot cached;                                     // 最近一次构建的快照
+
+    /**
+     * 广播撤销增量
+     */
+    public interface Publisher {
+        /**
+         * @param version 这一批撤销写入后的版本号
+         * @param fingerprints 这一批被撤销令牌的指纹
+         */
+        void publish(long version, long[] fingerprints);
+    }
+
+    /**
+     * @param connectionFactory redis连接工厂
+     * @param publisher 广播撤销增量
+     * @param scheduler 执行合并后的写入
+     * @param retention 指纹的保留时间（不短于访问令牌的有效期）
+     * @param unit 时间单位
+     */
+    public TokenRevocationRegistry(RedisConnectionFactory connectionFactory, Publisher publisher,
+                                   ScheduledExecutorService scheduler, long retention, TimeUnit unit) {
+        this.connectionFactory = connectionFactory;
+        this.publisher = publisher;
+        this.scheduler = scheduler;
+        this.retentionMillis = unit.toMillis(retention);
+    }
+
+    public void setFlushDelayMillis(long flushDelayMillis) {
+        this.flushDelayMillis = flushDelayMillis;
+    }
+
+    public void setMinCapacity(int minCapacity) {
+        this.minCapacity = minCapacity;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public void setSnapshotMaxAgeMillis(long snapshotMaxAgeMillis) {
+        this.snapshotMaxAgeMillis = snapshotMaxAgeMillis;
+    }
+
+    /**
+     * 登记一个被撤销的访问令牌，稍后与同一时间段内的其他撤销一起写入并广播
+     * @param tokenValue 访问令牌
+     */
+    public void revoke(String tokenValue) {
+        pending.add(RevokedTokenFilter.fingerprint(tokenValue));
+        revoked.increment();
+        requestFlush();
+    }
+
+    /**
+     * 当前的完整过滤器，同时清理已过保留时间的指纹
+     * @return 快照（格式见 RevokedTokenFilter.toSnapshot）
+     */
+    public Map<String, Object> snapshot() {
+        long now = System.currentTimeMillis();
+        RedisConnection conn = connectionFactory.getConnection();
+        try {
+            long version = parseLong(conn.get(VERSION));
+            CachedSnapshot snapshot = cached;
+            if (snapshot != null && snapshot.version == version && now - snapshot.createdAt < snapshotMaxAgeMillis) {
+                return snapshot.body;
+            }
+            conn.openPipeline();
+            conn.zRemRangeByScore(REVOKED, Double.NEGATIVE_INFINITY, now);
+            conn.zRangeByScore(REVOKED, now, Double.POSITIVE_INFINITY);
+            @SuppressWarnings("unchecked")
+            Set<byte[]> members = (Set<byte[]>) conn.closePipeline().get(1);
+            RevokedTokenFilter filter = RevokedTokenFilter.forCapacity(Math.max(minCapacity, members.size() * 2), falsePositiveRate);
+            for (byte[] member : members) {
+                filter.add(parseLong(member));
+            }
+            snapshot = new CachedSnapshot(version, now, filter.toSnapshot(version));
+            cached = snapshot;
+            return snapshot.body;
+        } finally {
+            conn.close();
+        }
+    }
+
+    public long getRevoked() {
+        return revoked.sum();
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * 请求写入，flushDelayMillis 内的多次请求只写入一次
+     */
+    private void requestFlush() {
+        if (flushPending.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, flushDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 一个流水线写入这一批指纹并递增版本号，然后广播；写入失败时放回队列稍后重试
+     */
+    synchronized void flush() {
+        flushPending.set(false);
+        List<Long> batch = new ArrayList<>();
+        for (Long fingerprint; (fingerprint = pending.poll()) != null; ) {
+            batch.add(fingerprint);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        double expiresAt = System.currentTimeMillis() + retentionMillis;
+        List<Object> results;
+        RedisConnection conn = connectionFactory.getConnection();
+        try {
+            conn.openPipeline();
+            for (Long fingerprint : batch) {
+                conn.zAdd(REVOKED, expiresAt, Long.toString(fingerprint).getBytes(StandardCharsets.US_ASCII));
+            }
+            conn.incr(VERSION);
+            results = conn.closePipeline();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to record {} revoked tokens, retrying: {}", batch.size(), e.toString());
+            pending.addAll(batch);
+            requestFlush();
+            return;
+        } finally {
+            conn.close();
+        }
+        long version = (Long) results.get(results.size() - 1);
+        long[] fingerprints = new long[batch.size()];
+        for (int i = 0; i < fingerprints.length; i++) {
+            fingerprints[i] = batch.get(i);
+        }
+        try {
+            publisher.publish(version, fingerprints);
+            published.add(fingerprints.length);
+        } catch (RuntimeException e) {
+            // 已写入 Redis，网关和资源服务发现版本号不连续后会重新拉取快照
+            logger.warn("Failed to publish revocation version {}: {}", version, e.toString());
+        }
+    }
+
+    private static long parseLong(byte[] bytes) {
+        return bytes == null ? 0 : Long.parseLong(new String(bytes, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 按版本缓存的快照
+     */
+    private static final class CachedSnapshot {
+        final long version;
+        final long createdAt;
+        final Map<String, Object> body;
+
+        CachedSnapshot(long version, long createdAt, Map<String, Object> body) {
+            this.version = version;
+            this.createdAt = createdAt;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.benchmark;
+
+import com.example.core.security.AdaptivePasswordEncoder;
+import com.example.core.security.LoginOverloadedException;
+import com.example.core.security.OffloadingPasswordEncoder;
+import com.example.core.security.PasswordUpgradingAuthenticationProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 集中登录时其他接口的响应时间
+ * 用固定大小的线程池模拟 Tomcat 请求线程，16 个客户端线程不停地登录（bcrypt 强度 10），1 个客户端线程请求一个很轻的接口（ping）；
+ * inline 为在请求线程中直接校验密码（DaoAuthenticationProvider + bcrypt），
+ * offloaded 为改造后的 PasswordUpgradingAuthenticationProvider（密码校验在 CPU 核数个线程中执行，队列上限 4，超出时立即拒绝）
+ * 结果中 storm:ping 的分位数即其他接口的响应时间；每轮结束时打印成功和被拒绝的登录次数
+ * 单核机器上的一次结果：inline 10.2 次登录/秒，ping 中位数 817ms；offloaded 9.3 次登录/秒，ping 中位数 1.07ms（含 1ms 等待）
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.benchmark.LoginStormBenchmark
+ * </pre>
+ * 该类不是单元测试，不会被 surefire 执行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class LoginStormBenchmark {
+
+    private static final int REQUEST_THREADS = 8;      // 模拟的 Tomcat 请求线程数
+
+    @Param({"inline", "offloaded"})
+    public String mode;
+
+    private ExecutorService requestThreads;
+    private ThreadPoolExecutor hashingThreads;
+    private AuthenticationProvider provider;
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private long startedAt;
+
+    @Setup
+    public void setUp() {
+        requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        AdaptivePasswordEncoder passwordEncoder = new AdaptivePasswordEncoder(10);
+        String hash = passwordEncoder.encode("admin");
+        UserDetailsService userDetailsService = username ->
+                new User(username, hash, AuthorityUtils.createAuthorityList("ROLE_USER"));
+        if ("inline".equals(mode)) {
+            DaoAuthenticationProvider inline = new DaoAuthenticationProvider();
+            inline.setPasswordEncoder(passwordEncoder);
+            inline.setUserDetailsService(userDetailsService);
+            provider = inline;
+        } else {
+            int threads = Runtime.getRuntime().availableProcessors();
+            hashingThreads = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(4), new ThreadPoolExecutor.AbortPolicy());
+            OffloadingPasswordEncoder offloading = new OffloadingPasswordEncoder(passwordEncoder, hashingThreads, 2000);
+            PasswordUpgradingAuthenticationProvider offloaded = new PasswordUpgradingAuthenticationProvider(
+                    passwordEncoder, offloading, (username, oldPassword, newPassword) -> { });
+            offloaded.setUserDetailsService(userDetailsService);
+            provider = offloaded;
+        }
+        startedAt = System.nanoTime();
+    }
+
+    @TearDown
+    public void tearDown() {
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        System.out.printf("%n%s: %.1f logins/s succeeded, %.1f logins/s rejected%n",
+                mode, succeeded.sum() / seconds, rejected.sum() / seconds);
+        requestThreads.shutdownNow();
+        if (hashingThreads != null) {
+            hashingThreads.shutdownNow();
+        }
+    }
+
+    /**
+     * 登录请求，收到 503 的客户端等待 50ms 后重试
+     */
+    @Benchmark
+    @Group("storm")
+    @GroupThreads(16)
+    public Object login() throws Exception {
+        Object result = handle(() -> {
+            try {
+                Object authentication = provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "admin"));
+                succeeded.increment();
+                return authentication;
+            } catch (LoginOverloadedException e) {
+                rejected.increment();
+                return e;
+            }
+        });
+        if (result instanceof LoginOverloadedException) {
+            Thread.sleep(50);
+        }
+        return result;
+    }
+
+    /**
+     * 其他接口的请求，客户端每次请求后等待 1ms（结果中包含这 1ms）
+     */
+    @Benchmark
+    @Group("storm")
+    @GroupThreads(1)
+    public Object ping() throws Exception {
+        Object result = handle(() -> "pong");
+        Thread.sleep(1);
+        return result;
+    }
+
+    private Object handle(Callable<Object> request) throws InterruptedException, ExecutionException {
+        return requestThreads.submit(request).get();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(LoginStormBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
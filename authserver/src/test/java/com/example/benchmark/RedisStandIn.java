@@ -0,0 +1,435 @@
+package com.example.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内的 Redis 替身，只实现令牌存储（包括分片迁移）、令牌失效通知、已撤销令牌登记和令牌索引清理用到的命令（RESP 协议，走本机 TCP）
+ * 用于在没有 Redis 的环境下对比令牌存储的读取开销：每次读取仍然经过 Jedis 连接池、一次网络往返和 JDK 反序列化，
+ * 只是没有真实网络的延迟，实际部署中 Redis 往返的代价只会更高
+ */
+public class RedisStandIn implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final Map<ByteBuffer, Object> data = new ConcurrentHashMap<>();     // 键 -> byte[] 或 List<byte[]>
+    private final Map<ByteBuffer, Long> expirations = new ConcurrentHashMap<>();
+    private final Map<Long, String> scanCursors = new ConcurrentHashMap<>();    // SCAN 游标 -> 上一页的最后一个键
+    private final AtomicLong nextCursor = new AtomicLong();
+    private volatile boolean closed;
+
+    public RedisStandIn() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "redis-stand-in");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return 当前保存的所有值（字符串和列表元素）的字节数，不含键
+     */
+    public long getStoredBytes() {
+        long bytes = 0;
+        for (Object value : data.values()) {
+            if (value instanceof byte[]) {
+                bytes += ((byte[]) value).length;
+            } else if (value instanceof List) {
+                for (byte[] element : snapshot((List<?>) value)) {
+                    bytes += element.length;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @param prefix 键名前缀
+     * @return 当前以 prefix 开头且未过期的键数
+     */
+    public int countKeys(String prefix) {
+        int count = 0;
+        for (ByteBuffer key : data.keySet()) {
+            if (new String(key.array(), StandardCharsets.UTF_8).startsWith(prefix) && read(key.array()) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread worker = new Thread(() -> serve(socket), "redis-stand-in-connection");
+                worker.setDaemon(true);
+                worker.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             InputStream in = new BufferedInputStream(s.getInputStream());
+             OutputStream out = new BufferedOutputStream(s.getOutputStream())) {
+            while (!closed) {
+                List<byte[]> command = readCommand(in);
+                execute(command, out);
+                if (in.available() == 0) {
+                    out.flush();    // 流水线中的命令一起返回
+                }
+            }
+        } catch (IOException e) {
+            // 客户端断开
+        }
+    }
+
+    private void execute(List<byte[]> command, OutputStream out) throws IOException {
+        String name = new String(command.get(0), StandardCharsets.US_ASCII).toUpperCase();
+        switch (name) {
+            case "PING":
+                simple(out, "PONG");
+                break;
+            case "SELECT":
+            case "CLIENT":
+                simple(out, "OK");
+                break;
+            case "GET": {
+                Object value = read(command.get(1));
+                bulk(out, value instanceof byte[] ? (byte[]) value : null);
+                break;
+            }
+            case "MGET": {
+                List<byte[]> values = new ArrayList<>();
+                for (int i = 1; i < command.size(); i++) {
+                    Object value = read(command.get(i));
+                    values.add(value instanceof byte[] ? (byte[]) value : null);
+                }
+                array(out, values);
+                break;
+            }
+            case "SET":
+                data.put(key(command.get(1)), command.get(2));
+                expirations.remove(key(command.get(1)));
+                simple(out, "OK");
+                break;
+            case "DEL": {
+                int removed = 0;
+                for (int i = 1; i < command.size(); i++) {
+                    expirations.remove(key(command.get(i)));
+                    if (data.remove(key(command.get(i))) != null) {
+                        removed++;
+                    }
+                }
+                integer(out, removed);
+                break;
+            }
+            case "EXPIRE": {
+                boolean exists = read(command.get(1)) != null;
+                if (exists) {
+                    long seconds = Long.parseLong(new String(command.get(2), StandardCharsets.US_ASCII));
+                    expirations.put(key(command.get(1)), System.currentTimeMillis() + seconds * 1000);
+                }
+                integer(out, exists ? 1 : 0);
+                break;
+            }
+            case "PEXPIRE": {
+                boolean exists = read(command.get(1)) != null;
+                if (exists) {
+                    long millis = Long.parseLong(new String(command.get(2), StandardCharsets.US_ASCII));
+                    expirations.put(key(command.get(1)), System.currentTimeMillis() + millis);
+                }
+                integer(out, exists ? 1 : 0);
+                break;
+            }
+            case "PTTL": {
+                Object value = read(command.get(1));
+                Long expiration = expirations.get(key(command.get(1)));
+                integer(out, value == null ? -2 : expiration == null ? -1 : Math.max(expiration - System.currentTimeMillis(), 0));
+                break;
+            }
+            case "RPUSH": {
+                @SuppressWarnings("unchecked")
+                List<byte[]> list = (List<byte[]>) data.computeIfAbsent(key(command.get(1)),
+                        k -> Collections.synchronizedList(new ArrayList<byte[]>()));
+                list.addAll(command.subList(2, command.size()));
+                integer(out, list.size());
+                break;
+            }
+            case "LRANGE": {
+                List<byte[]> list = snapshot(command.get(1));
+                int start = index(command.get(2), list.size());
+                int stop = Math.min(index(command.get(3), list.size()), list.size() - 1);
+                array(out, start <= stop ? list.subList(start, stop + 1) : Collections.<byte[]>emptyList());
+                break;
+            }
+            case "LREM": {
+                Object value = read(command.get(1));
+                int removed = 0;
+                if (value instanceof List) {
+                    long count = Long.parseLong(new String(command.get(2), StandardCharsets.US_ASCII));
+                    ByteBuffer element = key(command.get(3));
+                    synchronized (value) {
+                        for (Iterator<?> it = ((List<?>) value).iterator(); it.hasNext() && (count == 0 || removed < count); ) {
+                            if (key((byte[]) it.next()).equals(element)) {
+                                it.remove();
+                                removed++;
+                            }
+                        }
+                        if (((List<?>) value).isEmpty()) {
+                            data.remove(key(command.get(1)), value);    // 与 Redis 相同，空列表被删除
+                        }
+                    }
+                }
+                integer(out, removed);
+                break;
+            }
+            case "EXISTS":
+                integer(out, read(command.get(1)) != null ? 1 : 0);
+                break;
+            case "SCAN": {
+                // 按键名顺序遍历，游标对应上一页的最后一个键（与 Redis 相同，遍历期间一直存在的键都会返回）；只支持 MATCH 前缀*
+                long cursor = Long.parseLong(new String(command.get(1), StandardCharsets.US_ASCII));
+                String last = cursor == 0 ? null : scanCursors.remove(cursor);
+                List<String> keys = new ArrayList<>();
+                for (ByteBuffer key : data.keySet()) {
+                    String keyName = new String(key.array(), StandardCharsets.UTF_8);
+                    if (last == null || keyName.compareTo(last) > 0) {
+                        keys.add(keyName);
+                    }
+                }
+                Collections.sort(keys);
+                String pattern = "*";
+                int count = 10;
+                for (int i = 2; i + 1 < command.size(); i += 2) {
+                    String option = new String(command.get(i), StandardCharsets.US_ASCII).toUpperCase();
+                    if (option.equals("MATCH")) {
+                        pattern = new String(command.get(i + 1), StandardCharsets.UTF_8);
+                    } else if (option.equals("COUNT")) {
+                        count = Integer.parseInt(new String(command.get(i + 1), StandardCharsets.US_ASCII));
+                    }
+                }
+                String keyPrefix = pattern.substring(0, pattern.length() - 1);
+                List<byte[]> matched = new ArrayList<>();
+                int end = Math.min(keys.size(), count);
+                for (int i = 0; i < end; i++) {
+                    byte[] raw = keys.get(i).getBytes(StandardCharsets.UTF_8);
+                    if (keys.get(i).startsWith(keyPrefix) && read(raw) != null) {
+                        matched.add(raw);
+                    }
+                }
+                long next = 0;
+                if (end < keys.size()) {
+                    next = nextCursor.incrementAndGet();
+                    scanCursors.put(next, keys.get(end - 1));
+                }
+                out.write("*2\r\n".getBytes(StandardCharsets.US_ASCII));
+                bulk(out, Long.toString(next).getBytes(StandardCharsets.US_ASCII));
+                array(out, matched);
+                break;
+            }
+            case "INCR": {
+                Object value = read(command.get(1));
+                long next = (value instanceof byte[] ? Long.parseLong(new String((byte[]) value, StandardCharsets.US_ASCII)) : 0) + 1;
+                data.put(key(command.get(1)), Long.toString(next).getBytes(StandardCharsets.US_ASCII));
+                integer(out, next);
+                break;
+            }
+            case "ZADD": {
+                @SuppressWarnings("unchecked")
+                Map<ByteBuffer, Double> set = (Map<ByteBuffer, Double>) data.computeIfAbsent(key(command.get(1)),
+                        k -> new ConcurrentHashMap<ByteBuffer, Double>());
+                int added = 0;
+                for (int i = 2; i + 1 < command.size(); i += 2) {
+                    if (set.put(key(command.get(i + 1)), score(command.get(i))) == null) {
+                        added++;
+                    }
+                }
+                integer(out, added);
+                break;
+            }
+            case "ZRANGEBYSCORE": {
+                double min = score(command.get(2));
+                double max = score(command.get(3));
+                List<Map.Entry<ByteBuffer, Double>> members = new ArrayList<>(sortedSet(command.get(1)).entrySet());
+                members.sort(Map.Entry.comparingByValue());
+                List<byte[]> values = new ArrayList<>();
+                for (Map.Entry<ByteBuffer, Double> member : members) {
+                    if (member.getValue() >= min && member.getValue() <= max) {
+                        values.add(member.getKey().array());
+                    }
+                }
+                array(out, values);
+                break;
+            }
+            case "ZREMRANGEBYSCORE": {
+                double min = score(command.get(2));
+                double max = score(command.get(3));
+                Map<ByteBuffer, Double> set = sortedSet(command.get(1));
+                int before = set.size();
+                set.values().removeIf(score -> score >= min && score <= max);
+                integer(out, before - set.size());
+                break;
+            }
+            case "PUBLISH":
+                integer(out, 0);
+                break;
+            default:
+                out.write(("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private Object read(byte[] rawKey) {
+        ByteBuffer key = key(rawKey);
+        Long expiration = expirations.get(key);
+        if (expiration != null && System.currentTimeMillis() >= expiration) {
+            data.remove(key);
+            expirations.remove(key);
+            return null;
+        }
+        return data.get(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<ByteBuffer, Double> sortedSet(byte[] rawKey) {
+        Object value = read(rawKey);
+        return value instanceof Map ? (Map<ByteBuffer, Double>) value : new ConcurrentHashMap<ByteBuffer, Double>();
+    }
+
+    /**
+     * LRANGE 的下标，负数从列表末尾算起
+     */
+    private static int index(byte[] raw, int size) {
+        long index = Long.parseLong(new String(raw, StandardCharsets.US_ASCII));
+        return (int) Math.max(0, index < 0 ? size + index : Math.min(index, Integer.MAX_VALUE));
+    }
+
+    private static double score(byte[] raw) {
+        String score = new String(raw, StandardCharsets.US_ASCII);
+        switch (score.toLowerCase()) {
+            case "+inf":
+            case "inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                return Double.parseDouble(score);
+        }
+    }
+
+    private List<byte[]> snapshot(byte[] rawKey) {
+        Object value = read(rawKey);
+        if (!(value instanceof List)) {
+            return Collections.emptyList();
+        }
+        return snapshot((List<?>) value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<byte[]> snapshot(List<?> list) {
+        synchronized (list) {
+            return new ArrayList<>((List<byte[]>) list);
+        }
+    }
+
+    private static ByteBuffer key(byte[] raw) {
+        return ByteBuffer.wrap(raw);
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            throw new EOFException();
+        }
+        if (type != '*') {
+            throw new IOException("Inline commands are not supported");
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<byte[]> command = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Bulk string expected");
+            }
+            int length = Integer.parseInt(readLine(in));
+            byte[] bytes = new byte[length];
+            int read = 0;
+            while (read < length) {
+                int n = in.read(bytes, read, length - read);
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                read += n;
+            }
+            in.read();  // \r
+            in.read();  // \n
+            command.add(bytes);
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c < 0) {
+                throw new EOFException();
+            }
+            line.append((char) c);
+        }
+        in.read();  // \n
+        return line.toString();
+    }
+
+    private static void simple(OutputStream out, String value) throws IOException {
+        out.write(('+' + value + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void integer(OutputStream out, long value) throws IOException {
+        out.write((":" + value + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void bulk(OutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(value);
+        out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void array(OutputStream out, List<byte[]> values) throws IOException {
+        out.write(("*" + values.size() + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (byte[] value : values) {
+            bulk(out, value);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+    }
+}
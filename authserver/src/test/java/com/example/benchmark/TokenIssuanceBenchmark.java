@@ -0,0 +1,148 @@
+package com.example.benchmark;
+
+import com.example.core.token.CompactSerializationStrategy;
+import com.example.core.token.GrantBatchingTokenServices;
+import com.example.core.token.PipelinedRedisTokenStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.store.redis.RedisTokenStore;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌发放吞吐量测试：模拟放票时的集中登录，每次操作为一个新用户发放访问令牌和刷新令牌
+ * standard 为改造前的 DefaultTokenServices + RedisTokenStore（JDK 序列化，访问令牌和刷新令牌各一次流水线），
+ * batched 为改造后的 GrantBatchingTokenServices + PipelinedRedisTokenStore（紧凑序列化，一次授权一个流水线）；
+ * 每轮结束时打印平均每个令牌在 Redis 中占用的字节数
+ * Redis 使用进程内替身 RedisStandIn，结果不含真实网络延迟，实际部署中少一次往返的收益只会更大
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.benchmark.TokenIssuanceBenchmark
+ * </pre>
+ * 该类不是单元测试，不会被 surefire 执行
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenIssuanceBenchmark {
+
+    private static final List<GrantedAuthority> AUTHORITIES = AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER");
+
+    private RedisStandIn standardRedis;
+    private RedisStandIn batchedRedis;
+    private JedisConnectionFactory standardConnectionFactory;
+    private JedisConnectionFactory batchedConnectionFactory;
+    private DefaultTokenServices standardTokenServices;
+    private DefaultTokenServices batchedTokenServices;
+    private long standardIssued;
+    private long batchedIssued;
+
+    @Setup
+    public void setUp() throws Exception {
+        standardRedis = new RedisStandIn();
+        standardConnectionFactory = connectionFactory(standardRedis);
+        standardTokenServices = tokenServices(new DefaultTokenServices(), new RedisTokenStore(standardConnectionFactory));
+
+        batchedRedis = new RedisStandIn();
+        batchedConnectionFactory = connectionFactory(batchedRedis);
+        PipelinedRedisTokenStore store = new PipelinedRedisTokenStore(batchedConnectionFactory);
+        store.setSerializationStrategy(new CompactSerializationStrategy());
+        batchedTokenServices = tokenServices(new GrantBatchingTokenServices(store), store);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (standardIssued > 0) {
+            System.out.printf("%nstandard: %d bytes per token%n", standardRedis.getStoredBytes() / standardIssued);
+        }
+        if (batchedIssued > 0) {
+            System.out.printf("%nbatched: %d bytes per token%n", batchedRedis.getStoredBytes() / batchedIssued);
+        }
+        standardConnectionFactory.destroy();
+        batchedConnectionFactory.destroy();
+        standardRedis.close();
+        batchedRedis.close();
+    }
+
+    /**
+     * 改造前
+     */
+    @Benchmark
+    public OAuth2AccessToken standard() {
+        return standardTokenServices.createAccessToken(authentication("user" + standardIssued++));
+    }
+
+    /**
+     * 改造后
+     */
+    @Benchmark
+    public OAuth2AccessToken batched() {
+        return batchedTokenServices.createAccessToken(authentication("user" + batchedIssued++));
+    }
+
+    private static JedisConnectionFactory connectionFactory(RedisStandIn redis) {
+        JedisConnectionFactory connectionFactory = new JedisConnectionFactory();
+        connectionFactory.setHostName("127.0.0.1");
+        connectionFactory.setPort(redis.getPort());
+        connectionFactory.afterPropertiesSet();
+        return connectionFactory;
+    }
+
+    private static DefaultTokenServices tokenServices(DefaultTokenServices tokenServices, RedisTokenStore store) {
+        tokenServices.setTokenStore(store);
+        tokenServices.setSupportRefreshToken(true);
+        tokenServices.setReuseRefreshToken(true);
+        return tokenServices;
+    }
+
+    /**
+     * 与密码模式发放令牌时的认证信息相同：主体为 User（密码已擦除），details 为请求参数
+     */
+    private static OAuth2Authentication authentication(String userName) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("grant_type", "password");
+        parameters.put("scope", "xx");
+        parameters.put("username", userName);
+        OAuth2Request request = new OAuth2Request(parameters, "android", AUTHORITIES, true,
+                Collections.singleton("xx"), null, null, null, null);
+        UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken(
+                new User(userName, "", AUTHORITIES), null, AUTHORITIES);
+        user.setDetails(parameters);
+        OAuth2Authentication authentication = new OAuth2Authentication(request, user);
+        authentication.eraseCredentials();
+        return authentication;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TokenIssuanceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
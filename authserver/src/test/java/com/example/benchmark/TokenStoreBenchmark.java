@@ -0,0 +1,128 @@
+package com.example.benchmark;
+
+import com.example.core.token.NearCacheTokenStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.redis.RedisTokenStore;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌存储读取测试：模拟 check_token 和 /user 的读取（readAccessToken + readAuthentication）
+ * redis 为改造前直接使用 RedisTokenStore，nearCache 为改造后的本地缓存 + RedisTokenStore；
+ * Redis 使用进程内替身 RedisStandIn，结果不含真实网络延迟
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.benchmark.TokenStoreBenchmark
+ * </pre>
+ * （JMH 需要在独立进程中运行，exec:java 的类加载器下找不到 ForkedMain）
+ * 该类不是单元测试，不会被 surefire 执行
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenStoreBenchmark {
+
+    private static final int TOKENS = 1000;
+
+    private RedisStandIn redis;
+    private JedisConnectionFactory connectionFactory;
+    private TokenStore redisTokenStore;
+    private TokenStore nearCacheTokenStore;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        redis = new RedisStandIn();
+        connectionFactory = new JedisConnectionFactory();
+        connectionFactory.setHostName("127.0.0.1");
+        connectionFactory.setPort(redis.getPort());
+        connectionFactory.afterPropertiesSet();
+        redisTokenStore = new RedisTokenStore(connectionFactory);
+        nearCacheTokenStore = new NearCacheTokenStore(redisTokenStore, message -> { }, TOKENS * 2, 300, TimeUnit.SECONDS);
+
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER");
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            String userName = "user" + i;
+            OAuth2Request request = new OAuth2Request(Collections.singletonMap("grant_type", "password"), "android",
+                    authorities, true, Collections.singleton("xx"), null, null, null, null);
+            UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken(
+                    new User(userName, "", authorities), null, authorities);
+            DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(UUID.randomUUID().toString());
+            token.setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+            token.setRefreshToken(new DefaultOAuth2RefreshToken(UUID.randomUUID().toString()));
+            token.setScope(Collections.singleton("xx"));
+            redisTokenStore.storeAccessToken(token, new OAuth2Authentication(request, user));
+            tokens[i] = token.getValue();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        connectionFactory.destroy();
+        redis.close();
+    }
+
+    /**
+     * 改造前：每次读取都访问 Redis 并反序列化
+     */
+    @Benchmark
+    public Object redis() {
+        return read(redisTokenStore);
+    }
+
+    /**
+     * 改造后：本地缓存命中（所有令牌都已缓存）
+     */
+    @Benchmark
+    public Object nearCache() {
+        return read(nearCacheTokenStore);
+    }
+
+    private Object read(TokenStore tokenStore) {
+        String token = tokens[next];
+        next = (next + 1) % TOKENS;
+        OAuth2AccessToken accessToken = tokenStore.readAccessToken(token);
+        OAuth2Authentication authentication = tokenStore.readAuthentication(accessToken);
+        return authentication.getName();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TokenStoreBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
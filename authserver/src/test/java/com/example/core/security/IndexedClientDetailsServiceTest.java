@@ -0,0 +1,94 @@
+package com.example.core.security;
+
+import com.example.core.entity.OAuthClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 客户端索引测试，客户端来源为内存列表
+ */
+public class IndexedClientDetailsServiceTest {
+
+    private final List<OAuthClient> clients = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger loads = new AtomicInteger();
+    private volatile boolean failing;
+    private ScheduledExecutorService scheduler;
+    private IndexedClientDetailsService service;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        service = new IndexedClientDetailsService(() -> {
+            loads.incrementAndGet();
+            if (failing) {
+                throw new IllegalStateException("mongo down");
+            }
+            return new ArrayList<>(clients);
+        }, scheduler, 100);
+        clients.add(client("android", "password", "refresh_token"));
+        service.reload();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void looksUpClientsFromTheIndex() {
+        ClientDetails details = service.loadClientByClientId("android");
+        assertEquals("android", details.getClientSecret());
+        assertTrue(details.getAuthorizedGrantTypes().contains("password"));
+        assertTrue(details.getScope().contains("xx"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test(expected = NoSuchClientException.class)
+    public void unknownClientIsRejected() {
+        service.loadClientByClientId("nobody");
+    }
+
+    @Test
+    public void reloadRequestsAreCoalesced() throws Exception {
+        clients.add(client("webapp", "implicit"));
+        for (int i = 0; i < 50; i++) {
+            service.requestReload();
+        }
+        scheduler.schedule(() -> { }, 300, TimeUnit.MILLISECONDS).get();
+        assertEquals(2, loads.get());
+        assertEquals(2, service.size());
+        assertTrue(service.loadClientByClientId("webapp").getAuthorizedGrantTypes().contains("implicit"));
+    }
+
+    @Test
+    public void failedReloadKeepsTheIndex() {
+        failing = true;
+        assertFalse(service.reload());
+        assertEquals("android", service.loadClientByClientId("android").getClientId());
+        assertEquals(1, service.getReloads());
+    }
+
+    private static OAuthClient client(String clientId, String... grantTypes) {
+        OAuthClient client = new OAuthClient();
+        client.setClientId(clientId);
+        client.setClientSecret(clientId);
+        client.setScopes(new String[]{"xx"});
+        client.setAuthorizedGrantTypes(grantTypes);
+        return client;
+    }
+}
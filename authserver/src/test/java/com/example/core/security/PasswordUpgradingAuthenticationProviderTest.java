@@ -0,0 +1,120 @@
+package com.example.core.security;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 密码校验线程池和密码升级测试
+ */
+public class PasswordUpgradingAuthenticationProviderTest {
+
+    private final Map<String, String> passwords = new ConcurrentHashMap<>();   // 模拟 MongoDB 中的账户
+    private final AdaptivePasswordEncoder passwordEncoder = new AdaptivePasswordEncoder(4);
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+    private final OffloadingPasswordEncoder offloadingEncoder = new OffloadingPasswordEncoder(passwordEncoder, executor, 2000);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void legacyPasswordIsUpgradedOnLogin() throws Exception {
+        passwords.put("admin", "admin");
+        CountDownLatch upgraded = new CountDownLatch(1);
+        PasswordUpgradingAuthenticationProvider provider = provider((username, oldPassword, newPassword) -> {
+            passwords.replace(username, oldPassword, newPassword);
+            upgraded.countDown();
+        });
+
+        assertEquals("admin", provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "admin")).getName());
+        assertTrue(upgraded.await(5, TimeUnit.SECONDS));
+        assertTrue(passwords.get("admin").startsWith("$2a$04$"));
+        assertFalse(passwordEncoder.upgradeEncoding(passwords.get("admin")));
+
+        // 升级后用同一个密码仍然可以登录，错误密码仍然被拒绝
+        assertEquals("admin", provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "admin")).getName());
+        try {
+            provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "wrong"));
+            fail("wrong password must be rejected");
+        } catch (BadCredentialsException expected) {
+        }
+    }
+
+    @Test
+    public void weakerHashesAreUpgraded() {
+        String weak = new AdaptivePasswordEncoder(4).encode("secret");
+        AdaptivePasswordEncoder stronger = new AdaptivePasswordEncoder(5);
+        assertTrue(stronger.matches("secret", weak));
+        assertTrue(stronger.upgradeEncoding(weak));
+        assertTrue(stronger.upgradeEncoding("secret"));
+        assertFalse(stronger.upgradeEncoding(stronger.encode("secret")));
+        int strength = AdaptivePasswordEncoder.tuneStrength(1, 4, 6);
+        assertTrue(strength >= 4 && strength <= 6);
+    }
+
+    @Test
+    public void loginsBeyondQueueDepthFailFast() throws Exception {
+        passwords.put("admin", passwordEncoder.encode("admin"));
+        PasswordUpgradingAuthenticationProvider provider = provider((username, oldPassword, newPassword) -> { });
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // 占满唯一的哈希线程和队列
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> { });
+        long start = System.nanoTime();
+        try {
+            provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "admin"));
+            fail("login must be rejected while the hashing pool is full");
+        } catch (LoginOverloadedException expected) {
+            assertEquals(503, expected.getHttpErrorCode());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertEquals(1, offloadingEncoder.getRejected());
+        release.countDown();
+        // 等待队列中的任务执行完，否则下一次登录仍可能被拒绝
+        while (!executor.getQueue().isEmpty()) {
+            Thread.sleep(1);
+        }
+        assertEquals("admin", provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "admin")).getName());
+    }
+
+    private PasswordUpgradingAuthenticationProvider provider(PasswordUpgradingAuthenticationProvider.PasswordUpdater updater) {
+        PasswordUpgradingAuthenticationProvider provider = new PasswordUpgradingAuthenticationProvider(
+                passwordEncoder, offloadingEncoder, updater);
+        provider.setUserDetailsService(username -> {
+            String password = passwords.get(username);
+            if (password == null) {
+                throw new UsernameNotFoundException(username);
+            }
+            return new User(username, password, AuthorityUtils.createAuthorityList("ROLE_USER"));
+        });
+        return provider;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.core.security;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 用户信息缓存测试：两个节点共用同一个账户库，失效消息直接转发给对方
+ */
+public class UserDetailsCacheTest {
+
+    private final Map<String, String> passwords = new ConcurrentHashMap<>();   // 模拟 MongoDB 中的账户
+    private final AtomicInteger queries = new AtomicInteger();
+    private final Function<String, UserDetails> repository = username -> {
+        queries.incrementAndGet();
+        String password = passwords.get(username);
+        if (password == null) {
+            throw new UsernameNotFoundException(username);
+        }
+        return new User(username, password, AuthorityUtils.createAuthorityList("ROLE_USER"));
+    };
+    private UserDetailsCache node1;
+    private UserDetailsCache node2;
+
+    @Before
+    public void setUp() {
+        passwords.put("admin", "admin");
+        UserDetailsCache[] nodes = new UserDetailsCache[2];
+        nodes[0] = new UserDetailsCache(message -> nodes[1].evictLocal(message), 100, 300, TimeUnit.SECONDS);
+        nodes[1] = new UserDetailsCache(message -> nodes[0].evictLocal(message), 100, 300, TimeUnit.SECONDS);
+        node1 = nodes[0];
+        node2 = nodes[1];
+    }
+
+    @Test
+    public void repeatLoginsAreServedLocally() {
+        for (int i = 0; i < 5; i++) {
+            UserDetails user = node1.get("admin", repository);
+            // 认证成功后 ProviderManager 擦除密码，不能影响缓存
+            new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()).eraseCredentials();
+        }
+        assertEquals("admin", node1.get("admin", repository).getPassword());
+        assertEquals(1, queries.get());
+        assertEquals(5, node1.getHits());
+    }
+
+    @Test
+    public void accountUpdateInvalidatesAllNodes() {
+        node1.get("admin", repository);
+        node2.get("admin", repository);
+        passwords.put("admin", "changed");
+        node1.invalidate("admin");
+        assertEquals("changed", node1.get("admin", repository).getPassword());
+        assertEquals("changed", node2.get("admin", repository).getPassword());
+
+        node2.invalidate(UserDetailsCache.ALL);
+        assertEquals(0, node1.size());
+    }
+
+    @Test
+    public void missingUsersAreNotCached() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                node1.get("nobody", repository);
+                fail("unknown user must be rejected");
+            } catch (UsernameNotFoundException expected) {
+            }
+        }
+        assertEquals(2, queries.get());
+        assertEquals(0, node1.size());
+    }
+
+    @Test
+    public void entriesExpire() throws Exception {
+        UserDetailsCache cache = new UserDetailsCache(message -> { }, 100, 20, TimeUnit.MILLISECONDS);
+        cache.get("admin", repository);
+        Thread.sleep(40);
+        cache.get("admin", repository);
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    public void concurrentMissesLoadOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, UserDetails> slowRepository = username -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return repository.apply(username);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<UserDetails>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> node1.get("admin", slowRepository)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<UserDetails> result : results) {
+                assertEquals("admin", result.get(5, TimeUnit.SECONDS).getPassword());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, queries.get());
+        assertEquals(1, node1.getLoads());
+    }
+}
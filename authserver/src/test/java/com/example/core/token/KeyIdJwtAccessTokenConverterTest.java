@@ -0,0 +1,117 @@
+package com.example.core.token;
+
+import com.example.benchmark.RedisStandIn;
+import org.junit.Test;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 带 kid 的 JWT 访问令牌测试
+ */
+public class KeyIdJwtAccessTokenConverterTest {
+
+    private static final KeyPair OLD_KEY = JwtSigningKeys.generateKeyPair();
+    private static final KeyPair NEW_KEY = JwtSigningKeys.generateKeyPair();
+
+    @Test
+    public void tokensSignedBeforeRotationStillVerify() {
+        KeyIdJwtAccessTokenConverter before = new KeyIdJwtAccessTokenConverter(signingKeys("k1"));
+        KeyIdJwtAccessTokenConverter after = new KeyIdJwtAccessTokenConverter(signingKeys("k2"));
+        DefaultTokenServices tokenServices = new DefaultTokenServices();
+        tokenServices.setTokenStore(new JwtTokenStore(before));
+        tokenServices.setTokenEnhancer(before);
+        OAuth2AccessToken token = tokenServices.createAccessToken(authentication("alice"));
+
+        assertEquals("k1", JwtHelper.headers(token.getValue()).get("kid"));
+        assertEquals("alice", new JwtTokenStore(after).readAuthentication(token.getValue()).getName());
+        assertEquals("k2", after.getKey().get("kid"));
+
+        KeyIdJwtAccessTokenConverter other = new KeyIdJwtAccessTokenConverter(
+                new JwtSigningKeys(Collections.singletonMap("k1", JwtSigningKeys.generateKeyPair()), "k1"));
+        try {
+            new JwtTokenStore(other).readAuthentication(token.getValue());
+            fail("token signed by another key must be rejected");
+        } catch (InvalidTokenException expected) {
+        }
+    }
+
+    @Test
+    public void keySetPublishesAllKeysActiveFirst() {
+        Map<String, Object> jwkSet = signingKeys("k2").toJwkSet();
+        List<?> keys = (List<?>) jwkSet.get("keys");
+        assertEquals(2, keys.size());
+        Map<?, ?> active = (Map<?, ?>) keys.get(0);
+        assertEquals("k2", active.get("kid"));
+        assertEquals("RS256", active.get("alg"));
+        BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode((String) active.get("n")));
+        assertEquals(((RSAPublicKey) NEW_KEY.getPublic()).getModulus(), modulus);
+        assertEquals("k1", ((Map<?, ?>) keys.get(1)).get("kid"));
+    }
+
+    @Test
+    public void refreshTokenStaysOpaqueAndReusable() throws Exception {
+        try (RedisStandIn redis = new RedisStandIn()) {
+            JedisConnectionFactory connectionFactory = new JedisConnectionFactory();
+            connectionFactory.setHostName("127.0.0.1");
+            connectionFactory.setPort(redis.getPort());
+            connectionFactory.afterPropertiesSet();
+            PipelinedRedisTokenStore store = new PipelinedRedisTokenStore(connectionFactory);
+            store.setSerializationStrategy(new CompactSerializationStrategy());
+            GrantBatchingTokenServices tokenServices = new GrantBatchingTokenServices(store);
+            tokenServices.setTokenStore(store);
+            tokenServices.setSupportRefreshToken(true);
+            tokenServices.setReuseRefreshToken(true);
+            tokenServices.setTokenEnhancer(new KeyIdJwtAccessTokenConverter(signingKeys("k1")));
+
+            OAuth2AccessToken token = tokenServices.createAccessToken(authentication("alice"));
+            assertFalse(token.getRefreshToken().getValue().contains("."));
+            TokenRequest request = new TokenRequest(Collections.<String, String>emptyMap(), "android", null, "refresh_token");
+            OAuth2AccessToken first = tokenServices.refreshAccessToken(token.getRefreshToken().getValue(), request);
+            OAuth2AccessToken second = tokenServices.refreshAccessToken(first.getRefreshToken().getValue(), request);
+            assertEquals(token.getRefreshToken().getValue(), second.getRefreshToken().getValue());
+            assertNotEquals(first.getValue(), second.getValue());
+            assertEquals("alice", tokenServices.loadAuthentication(second.getValue()).getName());
+            connectionFactory.destroy();
+        }
+    }
+
+    private static JwtSigningKeys signingKeys(String activeKeyId) {
+        Map<String, KeyPair> keys = new LinkedHashMap<>();
+        keys.put("k1", OLD_KEY);
+        keys.put("k2", NEW_KEY);
+        return new JwtSigningKeys(keys, activeKeyId);
+    }
+
+    private static OAuth2Authentication authentication(String userName) {
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_USER");
+        OAuth2Request request = new OAuth2Request(Collections.<String, String>emptyMap(), "android", authorities, true,
+                Collections.singleton("xx"), null, null, null, null);
+        return new OAuth2Authentication(request,
+                new UsernamePasswordAuthenticationToken(new User(userName, "", authorities), null, authorities));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.core.token;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.store.InMemoryTokenStore;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 两级令牌存储测试：两个节点共用同一个后端存储，失效消息直接转发给对方
+ */
+public class NearCacheTokenStoreTest {
+
+    private final AtomicInteger reads = new AtomicInteger();
+    private InMemoryTokenStore redis;
+    private NearCacheTokenStore node1;
+    private NearCacheTokenStore node2;
+
+    @Before
+    public void setUp() {
+        redis = new InMemoryTokenStore() {
+            @Override
+            public OAuth2AccessToken readAccessToken(String tokenValue) {
+                reads.incrementAndGet();
+                return super.readAccessToken(tokenValue);
+            }
+        };
+        NearCacheTokenStore[] nodes = new NearCacheTokenStore[2];
+        nodes[0] = new NearCacheTokenStore(redis, message -> nodes[1].evictLocal(message), 100, 300, TimeUnit.SECONDS);
+        nodes[1] = new NearCacheTokenStore(redis, message -> nodes[0].evictLocal(message), 100, 300, TimeUnit.SECONDS);
+        node1 = nodes[0];
+        node2 = nodes[1];
+    }
+
+    @Test
+    public void secondReadIsServedLocally() {
+        OAuth2AccessToken token = store("t1", "r1", 3600);
+        assertNotNull(node1.readAccessToken(token.getValue()));
+        assertEquals("user", node1.readAuthentication(token.getValue()).getName());
+        assertNotNull(node1.readAccessToken(token.getValue()));
+        assertEquals("user", node1.readAuthentication(token.getValue()).getName());
+        assertEquals(1, reads.get());
+        assertEquals(2, node1.getHits());
+    }
+
+    @Test
+    public void removalOnOneNodeEvictsTheOther() {
+        OAuth2AccessToken token = store("t1", "r1", 3600);
+        node2.readAccessToken(token.getValue());
+        node1.removeAccessToken(token);
+        assertEquals(0, node2.size());
+        assertNull(node2.readAccessToken(token.getValue()));
+    }
+
+    @Test
+    public void refreshTokenRevocationEvictsItsAccessToken() {
+        OAuth2AccessToken token = store("t1", "r1", 3600);
+        node2.readAccessToken(token.getValue());
+        node1.removeAccessTokenUsingRefreshToken(token.getRefreshToken());
+        assertNull(node2.readAccessToken(token.getValue()));
+    }
+
+    @Test
+    public void entryExpiresWithTheToken() throws InterruptedException {
+        OAuth2AccessToken token = store("t1", "r1", 0);
+        ((DefaultOAuth2AccessToken) token).setExpiration(new Date(System.currentTimeMillis() + 50));
+        redis.storeAccessToken(token, authentication());
+        node1.readAccessToken(token.getValue());
+        Thread.sleep(100);
+        node1.readAccessToken(token.getValue());
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void callersReceiveCopies() {
+        OAuth2AccessToken token = store("t1", "r1", 3600);
+        node1.readAccessToken(token.getValue());
+        node1.readAuthentication(token.getValue()).setDetails("changed");
+        assertNull(node1.readAuthentication(token.getValue()).getDetails());
+    }
+
+    @Test
+    public void batchReadFetchesOnlyMissingTokens() {
+        store("t1", "r1", 3600);
+        store("t2", "r2", 3600);
+        node1.readAccessToken("t1");
+        node1.readAuthentication("t1");
+        reads.set(0);
+        Map<String, StoredAccessToken> tokens = node1.readAccessTokens(Arrays.asList("t1", "t2", "unknown"));
+        assertEquals(2, tokens.size());
+        assertEquals("user", tokens.get("t2").getAuthentication().getName());
+        assertEquals(2, reads.get());
+        // 批量读取的令牌已写入本地
+        node1.readAccessTokens(Arrays.asList("t1", "t2"));
+        assertEquals(2, reads.get());
+    }
+
+    private OAuth2AccessToken store(String value, String refreshToken, int seconds) {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(value);
+        token.setExpiration(new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds)));
+        token.setRefreshToken(new DefaultOAuth2RefreshToken(refreshToken));
+        node1.storeAccessToken(token, authentication());
+        return token;
+    }
+
+    private static OAuth2Authentication authentication() {
+        OAuth2Request request = new OAuth2Request(Collections.<String, String>emptyMap(), "android",
+                AuthorityUtils.createAuthorityList("ROLE_USER"), true, Collections.singleton("xx"), null, null, null, null);
+        return new OAuth2Authentication(request, new UsernamePasswordAuthenticationToken("user", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.core.token;
+
+import com.example.benchmark.RedisStandIn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.store.redis.JdkSerializationStrategy;
+import org.springframework.security.oauth2.provider.token.store.redis.RedisTokenStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 合并写入和紧凑序列化测试，Redis 使用进程内替身
+ */
+public class PipelinedRedisTokenStoreTest {
+
+    private final AtomicInteger connections = new AtomicInteger();   // 每次取连接对应一次 Redis 往返（单条命令或一个流水线）
+    private RedisStandIn redis;
+    private JedisConnectionFactory connectionFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        redis = new RedisStandIn();
+        connectionFactory = new JedisConnectionFactory() {
+            @Override
+            public RedisConnection getConnection() {
+                connections.incrementAndGet();
+                return super.getConnection();
+            }
+        };
+        connectionFactory.setHostName("127.0.0.1");
+        connectionFactory.setPort(redis.getPort());
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connectionFactory.destroy();
+        redis.close();
+    }
+
+    @Test
+    public void issuingATokenWritesOnce() {
+        RedisTokenStore standardStore = new RedisTokenStore(connectionFactory);
+        DefaultTokenServices standard = tokenServices(new DefaultTokenServices(), standardStore);
+        connections.set(0);
+        standard.createAccessToken(authentication("alice"));
+        int standardRoundTrips = connections.get();
+
+        PipelinedRedisTokenStore store = compactStore();
+        DefaultTokenServices batched = tokenServices(new GrantBatchingTokenServices(store), store);
+        connections.set(0);
+        OAuth2AccessToken token = batched.createAccessToken(authentication("bob"));
+
+        // 一次读取已有令牌 + 一个写入流水线
+        assertEquals(2, connections.get());
+        assertTrue(connections.get() < standardRoundTrips);
+        assertEquals("bob", batched.loadAuthentication(token.getValue()).getName());
+        assertNotNull(store.readRefreshToken(token.getRefreshToken().getValue()));
+        assertEquals("bob", store.readAuthenticationForRefreshToken(token.getRefreshToken()).getName());
+    }
+
+    @Test
+    public void refreshingATokenStillWorks() {
+        PipelinedRedisTokenStore store = compactStore();
+        DefaultTokenServices tokenServices = tokenServices(new GrantBatchingTokenServices(store), store);
+        OAuth2AccessToken token = tokenServices.createAccessToken(authentication("alice"));
+        OAuth2AccessToken refreshed = tokenServices.refreshAccessToken(token.getRefreshToken().getValue(),
+                new TokenRequest(Collections.<String, String>emptyMap(), "android", null, "refresh_token"));
+        assertNotEquals(token.getValue(), refreshed.getValue());
+        assertEquals(null, store.readAccessToken(token.getValue()));
+        assertEquals("alice", tokenServices.loadAuthentication(refreshed.getValue()).getName());
+    }
+
+    @Test
+    public void compactFormatRoundTripsAndIsSmaller() {
+        CompactSerializationStrategy compact = new CompactSerializationStrategy();
+        JdkSerializationStrategy jdk = new JdkSerializationStrategy();
+        OAuth2Authentication authentication = authentication("alice");
+        authentication.eraseCredentials();
+
+        byte[] bytes = compact.serialize(authentication);
+        assertEquals(authentication, compact.deserialize(bytes, OAuth2Authentication.class));
+        assertTrue(bytes.length * 3 < jdk.serialize(authentication).length);
+
+        // 切换前写入的 JDK 序列化数据仍然可以读取
+        assertEquals(authentication, compact.deserialize(jdk.serialize(authentication), OAuth2Authentication.class));
+
+        OAuth2AccessToken token = tokenServices(new DefaultTokenServices(), compactStore()).createAccessToken(authentication);
+        OAuth2AccessToken copy = compact.deserialize(compact.serialize(token), OAuth2AccessToken.class);
+        assertEquals(token.getValue(), copy.getValue());
+        assertEquals(token.getExpiration(), copy.getExpiration());
+        assertEquals(token.getScope(), copy.getScope());
+        assertEquals(token.getRefreshToken().getValue(), copy.getRefreshToken().getValue());
+    }
+
+    @Test
+    public void readsManyTokensInOneRoundTrip() {
+        PipelinedRedisTokenStore store = compactStore();
+        DefaultTokenServices tokenServices = tokenServices(new GrantBatchingTokenServices(store), store);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            values.add(tokenServices.createAccessToken(authentication("user" + i)).getValue());
+        }
+        values.add("unknown");
+        connections.set(0);
+        Map<String, StoredAccessToken> tokens = store.readAccessTokens(values);
+        assertEquals(1, connections.get());
+        assertEquals(20, tokens.size());
+        assertEquals("user7", tokens.get(values.get(7)).getAuthentication().getName());
+        assertEquals(values.get(7), tokens.get(values.get(7)).getAccessToken().getValue());
+    }
+
+    private PipelinedRedisTokenStore compactStore() {
+        PipelinedRedisTokenStore store = new PipelinedRedisTokenStore(connectionFactory);
+        store.setSerializationStrategy(new CompactSerializationStrategy());
+        return store;
+    }
+
+    private static DefaultTokenServices tokenServices(DefaultTokenServices tokenServices, RedisTokenStore store) {
+        tokenServices.setTokenStore(store);
+        tokenServices.setSupportRefreshToken(true);
+        tokenServices.setReuseRefreshToken(true);
+        return tokenServices;
+    }
+
+    /**
+     * 与密码模式发放令牌时的认证信息相同：主体为 User，details 为请求参数
+     */
+    private static OAuth2Authentication authentication(String userName) {
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_USER");
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("grant_type", "password");
+        parameters.put("username", userName);
+        OAuth2Request request = new OAuth2Request(parameters, "android", authorities, true,
+                Collections.singleton("xx"), null, null, null, null);
+        UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken(
+                new User(userName, "secret", authorities), null, authorities);
+        user.setDetails(parameters);
+        return new OAuth2Authentication(request, user);
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.core.token;
+
+import com.example.benchmark.RedisStandIn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 分片令牌存储测试，三个分片各使用一个进程内 Redis 替身
+ */
+public class ShardedRedisTokenStoreTest {
+
+    private final Map<String, RedisStandIn> redis = new LinkedHashMap<>();
+    private final Map<String, JedisConnectionFactory> connectionFactories = new LinkedHashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        for (String name : Arrays.asList("a", "b", "c")) {
+            RedisStandIn standIn = new RedisStandIn();
+            JedisConnectionFactory connectionFactory = new JedisConnectionFactory();
+            connectionFactory.setHostName("127.0.0.1");
+            connectionFactory.setPort(standIn.getPort());
+            connectionFactory.afterPropertiesSet();
+            redis.put(name, standIn);
+            connectionFactories.put(name, connectionFactory);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (JedisConnectionFactory connectionFactory : connectionFactories.values()) {
+            connectionFactory.destroy();
+        }
+        for (RedisStandIn standIn : redis.values()) {
+            standIn.close();
+        }
+    }
+
+    @Test
+    public void spreadsTokensAndKeepsEachUsersIndexesOnOneShard() {
+        ShardedRedisTokenStore store = store(Arrays.asList("a", "b", "c"));
+        List<String> removed = new ArrayList<>();
+        store.setAccessTokenRemovalListener(removed::add);
+        DefaultTokenServices tokenServices = tokenServices(store);
+        List<OAuth2AccessToken> tokens = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tokens.add(tokenServices.createAccessToken(authentication(userName(i))));
+        }
+
+        int total = 0;
+        for (RedisStandIn standIn : redis.values()) {
+            int count = standIn.countKeys("access:");
+            assertTrue("unbalanced shard: " + count, count > 60 && count < 140);
+            total += count;
+        }
+        assertEquals(300, total);
+        for (int i = 0; i < 300; i++) {
+            String token = tokens.get(i).getValue();
+            String refreshToken = tokens.get(i).getRefreshToken().getValue();
+            String approvalKey = "android:" + userName(i);
+            assertEquals(1, redis.get(store.shardFor(token)).countKeys("auth:" + token));
+            assertEquals(1, redis.get(store.shardFor(refreshToken)).countKeys("refresh_auth:" + refreshToken));
+            for (String shard : redis.keySet()) {
+                int expected = shard.equals(store.shardFor(approvalKey)) ? 1 : 0;
+                assertEquals(expected, redis.get(shard).countKeys("uname_to_access:" + approvalKey));
+            }
+        }
+
+        assertEquals(300, store.findTokensByClientId("android").size());
+        assertEquals(tokens.get(7), store.findTokensByClientIdAndUserName("android", userName(7)).iterator().next());
+        assertEquals(tokens.get(7), store.getAccessToken(authentication(userName(7))));
+        List<String> values = new ArrayList<>();
+        for (OAuth2AccessToken token : tokens) {
+            values.add(token.getValue());
+        }
+        values.add("missing");
+        Map<String, StoredAccessToken> stored = store.readAccessTokens(values);
+        assertEquals(300, stored.size());
+        assertEquals(userName(42), stored.get(tokens.get(42).getValue()).getAuthentication().getName());
+
+        // 刷新：旧的访问令牌经 refresh_to_access 找到并删除，刷新令牌保留
+        OAuth2AccessToken refreshed = tokenServices.refreshAccessToken(tokens.get(0).getRefreshToken().getValue(), refreshRequest());
+        assertNotEquals(tokens.get(0).getValue(), refreshed.getValue());
+        assertNull(store.readAccessToken(tokens.get(0).getValue()));
+        assertEquals(userName(0), store.readAuthentication(refreshed).getName());
+        assertEquals(Collections.singletonList(tokens.get(0).getValue()), removed);
+
+        tokenServices.revokeToken(tokens.get(1).getValue());
+        assertNull(store.readAccessToken(tokens.get(1).getValue()));
+        assertNull(store.readRefreshToken(tokens.get(1).getRefreshToken().getValue()));
+        assertTrue(store.findTokensByClientIdAndUserName("android", userName(1)).isEmpty());
+        assertEquals(299, store.findTokensByClientId("android").size());
+        assertEquals(Arrays.asList(false, true, true),
+                store.accessTokensExist(Arrays.asList(tokens.get(1).getValue(), tokens.get(2).getValue(), refreshed.getValue())));
+    }
+
+    @Test
+    public void addingAShardMovesTokensAsTheyAreRead() {
+        ShardedRedisTokenStore before = store(Arrays.asList("a", "b"));
+        DefaultTokenServices beforeServices = tokenServices(before);
+        List<OAuth2AccessToken> tokens = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tokens.add(beforeServices.createAccessToken(authentication(userName(i))));
+        }
+        ShardedRedisTokenStore after = store(Arrays.asList("a", "b", "c"));
+        after.setPreviousShards(Arrays.asList("a", "b"));
+        DefaultTokenServices afterServices = tokenServices(after);
+
+        // 一致性哈希：只有归属新分片 c 的令牌改变位置，约占 1/3
+        List<Integer> changed = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String token = tokens.get(i).getValue();
+            if (!before.shardFor(token).equals(after.shardFor(token))) {
+                assertEquals("c", after.shardFor(token));
+                changed.add(i);
+            }
+        }
+        assertTrue("changed: " + changed.size(), changed.size() > 60 && changed.size() < 140);
+        assertEquals(0, redis.get("c").countKeys("access:"));
+
+        // 读取一半改变位置的令牌，读到的令牌连同剩余过期时间迁移到 c，其余仍在原来的分片
+        List<Integer> read = changed.subList(0, changed.size() / 2);
+        for (int i : read) {
+            String token = tokens.get(i).getValue();
+            assertEquals(tokens.get(i), after.readAccessToken(token));
+            assertEquals(userName(i), after.readAuthentication(token).getName());
+            assertEquals(1, redis.get("c").countKeys("access:" + token));
+            assertEquals(0, redis.get(before.shardFor(token)).countKeys("access:" + token));
+            long ttl = pTtl("c", "auth:" + token);
+            assertTrue("ttl: " + ttl, ttl > 0 && ttl <= TimeUnit.HOURS.toMillis(12));   // 默认有效期 12 小时
+        }
+        assertEquals(read.size(), after.getMoved());
+        assertEquals(read.size(), after.getFallbackReads());
+        assertEquals(read.size(), redis.get("c").countKeys("access:"));
+        for (int i : changed.subList(changed.size() / 2, changed.size())) {
+            assertEquals(1, redis.get(before.shardFor(tokens.get(i).getValue())).countKeys("access:" + tokens.get(i).getValue()));
+        }
+
+        // 迁移期间：批量读取、按客户端和用户查找、查找已有令牌和刷新都能找到原来分片上的数据
+        List<String> values = new ArrayList<>();
+        for (OAuth2AccessToken token : tokens) {
+            values.add(token.getValue());
+        }
+        assertEquals(300, after.readAccessTokens(values).size());
+        assertEquals(300, after.findTokensByClientId("android").size());
+        for (int i = 0; i < 300; i++) {
+            assertEquals(1, after.findTokensByClientIdAndUserName("android", userName(i)).size());
+        }
+        int unread = changed.get(changed.size() - 1);
+        assertEquals(tokens.get(unread), after.getAccessToken(authentication(userName(unread))));
+        OAuth2AccessToken refreshed = afterServices.refreshAccessToken(tokens.get(unread).getRefreshToken().getValue(), refreshRequest());
+        assertNull(after.readAccessToken(tokens.get(unread).getValue()));
+        assertNotNull(after.readAuthentication(refreshed.getValue()));
+        assertEquals(Collections.singletonList(refreshed), new ArrayList<>(after.findTokensByClientIdAndUserName("android", userName(unread))));
+        assertEquals(300, after.findTokensByClientId("android").size());
+    }
+
+    @Test
+    public void singleRedisBecomesTheFirstShard() {
+        PipelinedRedisTokenStore single = new PipelinedRedisTokenStore(connectionFactories.get("a"));
+        single.setSerializationStrategy(new CompactSerializationStrategy());
+        DefaultTokenServices singleServices = tokenServices(single);
+        List<OAuth2AccessToken> tokens = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tokens.add(singleServices.createAccessToken(authentication(userName(i))));
+        }
+        ShardedRedisTokenStore sharded = store(Arrays.asList("a", "b"));
+        sharded.setPreviousShards(Collections.singletonList("a"));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(userName(i), sharded.readAuthentication(tokens.get(i).getValue()).getName());
+        }
+        int onB = 0;
+        for (OAuth2AccessToken token : tokens) {
+            if (sharded.shardFor(token.getValue()).equals("b")) {
+                onB++;
+            }
+        }
+        assertTrue(onB > 0);
+        assertEquals(onB, redis.get("b").countKeys("access:"));
+        assertEquals(100 - onB, redis.get("a").countKeys("access:"));
+
+        // 用户索引仍在 a 上，删除时两个分片都处理
+        OAuth2AccessToken first = tokens.get(0);
+        sharded.removeAccessToken(first);
+        assertNull(sharded.readAccessToken(first.getValue()));
+        assertTrue(sharded.findTokensByClientIdAndUserName("android", userName(0)).isEmpty());
+        assertEquals(99, sharded.findTokensByClientId("android").size());
+        assertFalse(sharded.accessTokensExist(Collections.singletonList(first.getValue())).get(0));
+    }
+
+    @Test
+    public void sweeperChecksIndexEntriesOnTheTokensShard() {
+        ShardedRedisTokenStore store = store(Arrays.asList("a", "b", "c"));
+        DefaultTokenServices tokenServices = tokenServices(store);
+        for (int i = 0; i < 100; i++) {
+            OAuth2AccessToken token = tokenServices.createAccessToken(authentication(userName(i)));
+            if (i % 2 == 0) {
+                // 删除 access: 键模拟令牌过期，索引在用户所在的分片上
+                RedisConnection conn = connectionFactories.get(store.shardFor(token.getValue())).getConnection();
+                try {
+                    conn.del(("access:" + token.getValue()).getBytes(StandardCharsets.UTF_8));
+                } finally {
+                    conn.close();
+                }
+            }
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            TokenIndexSweeper sweeper = new TokenIndexSweeper(store, scheduler);
+            while (sweeper.step()) {
+            }
+            assertEquals(100, sweeper.getRemoved());
+            assertEquals(1, sweeper.getPasses());
+        } finally {
+            scheduler.shutdownNow();
+        }
+        assertEquals(50, store.findTokensByClientId("android").size());
+        assertTrue(store.findTokensByClientIdAndUserName("android", userName(0)).isEmpty());
+        assertEquals(1, store.findTokensByClientIdAndUserName("android", userName(1)).size());
+    }
+
+    private ShardedRedisTokenStore store(List<String> names) {
+        Map<String, RedisConnectionFactory> shards = new LinkedHashMap<>();
+        for (String name : names) {
+            shards.put(name, connectionFactories.get(name));
+        }
+        ShardedRedisTokenStore store = new ShardedRedisTokenStore(shards, 160);
+        store.setSerializationStrategy(new CompactSerializationStrategy());
+        return store;
+    }
+
+    private static DefaultTokenServices tokenServices(RedisBackedTokenStore store) {
+        DefaultTokenServices tokenServices = new GrantBatchingTokenServices(store);
+        tokenServices.setTokenStore(store);
+        tokenServices.setSupportRefreshToken(true);
+        tokenServices.setReuseRefreshToken(true);
+        return tokenServices;
+    }
+
+    private long pTtl(String shard, String key) {
+        RedisConnection conn = connectionFactories.get(shard).getConnection();
+        try {
+            return conn.pTtl(key.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            conn.close();
+        }
+    }
+
+    private static String userName(int i) {
+        return String.format("user%03d", i);
+    }
+
+    private static TokenRequest refreshRequest() {
+        return new TokenRequest(Collections.<String, String>emptyMap(), "android", Collections.singleton("xx"), "refresh_token");
+    }
+
+    private static OAuth2Authentication authentication(String userName) {
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_USER");
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("grant_type", "password");
+        parameters.put("username", userName);
+        OAuth2Request request = new OAuth2Request(parameters, "android", authorities, true,
+                Collections.singleton("xx"), null, null, null, null);
+        UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken(
+                new User(userName, "", authorities), null, authorities);
+        user.setDetails(parameters);
+        return new OAuth2Authentication(request, user);
+    }
+}
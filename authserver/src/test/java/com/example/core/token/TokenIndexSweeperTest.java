@@ -0,0 +1,162 @@
+package com.example.core.token;
+
+import com.example.benchmark.RedisStandIn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 令牌索引清理测试，Redis 使用进程内替身；删除 access: 键模拟令牌在 Redis 中过期
+ */
+public class TokenIndexSweeperTest {
+
+    private RedisStandIn redis;
+    private JedisConnectionFactory connectionFactory;
+    private ScheduledExecutorService scheduler;
+    private PipelinedRedisTokenStore store;
+    private DefaultTokenServices tokenServices;
+    private TokenIndexSweeper sweeper;
+
+    @Before
+    public void setUp() throws Exception {
+        redis = new RedisStandIn();
+        connectionFactory = new JedisConnectionFactory();
+        connectionFactory.setHostName("127.0.0.1");
+        connectionFactory.setPort(redis.getPort());
+        connectionFactory.afterPropertiesSet();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        store = new PipelinedRedisTokenStore(connectionFactory);
+        store.setSerializationStrategy(new CompactSerializationStrategy());
+        tokenServices = new GrantBatchingTokenServices(store);
+        tokenServices.setTokenStore(store);
+        tokenServices.setSupportRefreshToken(true);
+        tokenServices.setReuseRefreshToken(true);
+        sweeper = new TokenIndexSweeper(store, scheduler);
+        sweeper.setScanCount(3);
+        sweeper.setBatchSize(10);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sweeper.stop();
+        scheduler.shutdownNow();
+        connectionFactory.destroy();
+        redis.close();
+    }
+
+    @Test
+    public void removesExpiredEntriesAndReportsReclaimedMemory() {
+        List<OAuth2AccessToken> expired = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            expired.add(tokenServices.createAccessToken(authentication("old" + i)));
+        }
+        for (int i = 0; i < 50; i++) {
+            tokenServices.createAccessToken(authentication("live" + i));
+        }
+        expire(expired);
+        long storedBefore = redis.getStoredBytes();
+
+        while (sweeper.step()) {
+        }
+
+        assertEquals(50, store.findTokensByClientId("android").size());
+        assertEquals(1, store.findTokensByClientIdAndUserName("android", "live0").size());
+        assertTrue(store.findTokensByClientIdAndUserName("android", "old0").isEmpty());
+        // 客户端列表和用户列表中各 200 个，只有过期令牌的 200 个用户列表被清空
+        assertEquals(400, sweeper.getRemoved());
+        assertEquals(200, sweeper.getReclaimedKeys());
+        assertTrue(sweeper.getReclaimedBytes() >= storedBefore - redis.getStoredBytes());
+        assertEquals(1, sweeper.getPasses());
+    }
+
+    @Test
+    public void continuesPastBatchesWithoutExpiredEntries() {
+        List<OAuth2AccessToken> expired = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            OAuth2AccessToken token = tokenServices.createAccessToken(authentication("user" + i));
+            if (i >= 50 && i < 60) {
+                expired.add(token);
+            }
+        }
+        expire(expired);
+
+        while (sweeper.step()) {
+        }
+
+        // 过期的令牌在客户端列表中间，前 5 批没有过期元素；整个列表和 100 个用户列表都被检查
+        assertEquals(100 + 100, sweeper.getScanned());
+        assertEquals(10 + 10, sweeper.getRemoved());
+        assertEquals(90, store.findTokensByClientId("android").size());
+        assertEquals(1, sweeper.getPasses());
+    }
+
+    @Test
+    public void sweepsInTheBackgroundWhileTokensAreIssued() throws Exception {
+        sweeper.setPauseMillis(1);
+        sweeper.setIntervalMillis(10);
+        sweeper.start(0);
+        List<OAuth2AccessToken> expired = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            OAuth2AccessToken token = tokenServices.createAccessToken(authentication("user" + i));
+            if (i < 200) {
+                expired.add(token);
+            }
+            if (i == 199) {
+                expire(expired);
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (sweeper.getRemoved() < 400 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(400, sweeper.getRemoved());
+        assertEquals(100, store.findTokensByClientId("android").size());
+    }
+
+    private void expire(List<OAuth2AccessToken> tokens) {
+        RedisConnection conn = connectionFactory.getConnection();
+        try {
+            for (OAuth2AccessToken token : tokens) {
+                conn.del(("access:" + token.getValue()).getBytes(StandardCharsets.UTF_8));
+            }
+        } finally {
+            conn.close();
+        }
+    }
+
+    private static OAuth2Authentication authentication(String userName) {
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_USER");
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("grant_type", "password");
+        parameters.put("username", userName);
+        OAuth2Request request = new OAuth2Request(parameters, "android", authorities, true,
+                Collections.singleton("xx"), null, null, null, null);
+        UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken(
+                new User(userName, "", authorities), null, authorities);
+        user.setDetails(parameters);
+        return new OAuth2Authentication(request, user);
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.core.token;
+
+import com.example.benchmark.RedisStandIn;
+import com.example.core.revocation.InProcessBus;
+import com.example.core.revocation.RevokedTokenFilter;
+import com.example.core.revocation.RevokedTokens;
+import com.example.core.revocation.TokenRevokedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 已撤销令牌登记测试，Redis 和消息总线都使用进程内替身
+ */
+public class TokenRevocationRegistryTest {
+
+    private static final String AUTH_SERVER = "auth-server:9040";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private RedisStandIn redis;
+    private JedisConnectionFactory connectionFactory;
+    private ScheduledExecutorService scheduler;
+    private InProcessBus bus;
+
+    @Before
+    public void setUp() throws Exception {
+        redis = new RedisStandIn();
+        connectionFactory = new JedisConnectionFactory();
+        connectionFactory.setHostName("127.0.0.1");
+        connectionFactory.setPort(redis.getPort());
+        connectionFactory.afterPropertiesSet();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        bus = new InProcessBus(TokenRevokedEvent.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        scheduler.shutdownNow();
+        connectionFactory.destroy();
+        redis.close();
+    }
+
+    @Test
+    public void revocationsReachSubscribersAsOneIncrement() throws Exception {
+        TokenRevocationRegistry registry = registry(1, TimeUnit.HOURS);
+        registry.setFlushDelayMillis(500);     // 三次撤销落在同一批
+        DefaultTokenServices tokenServices = tokenServices(registry);
+        RevokedTokenFilter gateway = RevokedTokenFilter.fromSnapshot(overHttp(registry.snapshot()));
+        bus.subscribe("gateway:9030", event -> {
+            for (long fingerprint : ((TokenRevokedEvent) event).getFingerprints()) {
+                gateway.add(fingerprint);
+            }
+        });
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tokens.add(tokenServices.createAccessToken(authentication("user" + i)).getValue());
+        }
+        for (int i = 0; i < 3; i++) {
+            assertTrue(tokenServices.revokeToken(tokens.get(i)));
+        }
+        awaitMessages(1);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(gateway.mightContain(tokens.get(i), 0, tokens.get(i).length()));
+        }
+        assertFalse(gateway.mightContain(tokens.get(3), 0, tokens.get(3).length()));
+        assertFalse(gateway.mightContain(tokens.get(4), 0, tokens.get(4).length()));
+        assertEquals(1, bus.getMessages().size());
+        Map<?, ?> message = mapper.readValue(bus.getMessages().get(0), Map.class);
+        assertEquals("TokenRevokedEvent", message.get("type"));
+        assertEquals(1, message.get("version"));
+        assertEquals(3, ((List<?>) message.get("fingerprints")).size());
+        assertEquals(3, registry.getPublished());
+    }
+
+    @Test
+    public void snapshotCoversEarlierRevocations() throws Exception {
+        TokenRevocationRegistry registry = registry(1, TimeUnit.HOURS);
+        DefaultTokenServices tokenServices = tokenServices(registry);
+        OAuth2AccessToken token = tokenServices.createAccessToken(authentication("alice"));
+        // 刷新令牌后旧的访问令牌被删除
+        tokenServices.refreshAccessToken(token.getRefreshToken().getValue(),
+                new TokenRequest(Collections.<String, String>emptyMap(), "android", null, "refresh_token"));
+        awaitMessages(1);
+
+        Map<String, Object> snapshot = overHttp(registry.snapshot());
+        assertEquals(1, ((Number) snapshot.get("version")).intValue());
+        assertTrue(RevokedTokenFilter.fromSnapshot(snapshot).mightContain(RevokedTokenFilter.fingerprint(token.getValue())));
+    }
+
+    @Test
+    public void expiredRevocationsLeaveTheSnapshot() throws Exception {
+        TokenRevocationRegistry registry = registry(100, TimeUnit.MILLISECONDS);
+        registry.setSnapshotMaxAgeMillis(0);
+        registry.revoke("expired-token");
+        awaitMessages(1);
+        assertTrue(RevokedTokenFilter.fromSnapshot(registry.snapshot()).mightContain(RevokedTokenFilter.fingerprint("expired-token")));
+        Thread.sleep(150);
+        assertFalse(RevokedTokenFilter.fromSnapshot(registry.snapshot()).mightContain(RevokedTokenFilter.fingerprint("expired-token")));
+    }
+
+    @Test
+    public void consumersDecodeTheSnapshotAndFollowIncrements() throws Exception {
+        TokenRevocationRegistry registry = registry(1, TimeUnit.HOURS);
+        registry.revoke("before-snapshot");
+        awaitMessages(1);
+
+        // 网关和资源服务使用的 RevokedTokens：经 HTTP 拉取认证服务的快照，之后应用消息总线上的增量
+        RevokedTokens consumer = new RevokedTokens(() -> {
+            try {
+                return overHttp(registry.snapshot());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, 300000);
+        bus.subscribe("gateway:9030", event -> {
+            TokenRevokedEvent revocation = (TokenRevokedEvent) event;
+            consumer.apply(revocation.getVersion(), revocation.getFingerprints());
+        });
+        consumer.maintain();
+        assertFalse(consumer.hasGap());
+        assertEquals(1, consumer.getVersion());
+        assertTrue(consumer.mightBeRevoked("before-snapshot"));
+
+        registry.revoke("after-snapshot");
+        awaitMessages(2);
+        assertFalse(consumer.hasGap());
+        assertEquals(2, consumer.getVersion());
+        assertTrue(consumer.mightBeRevoked("Bearer after-snapshot", 7, 21));
+        assertFalse(consumer.mightBeRevoked("live-token"));
+    }
+
+    @Test
+    public void filterMatchesTokenSlicesAndKeepsItsFalsePositiveRate() {
+        String token = UUID.randomUUID().toString();
+        String header = "Bearer " + token;
+        assertEquals(RevokedTokenFilter.fingerprint(token), RevokedTokenFilter.fingerprint(header, 7, header.length()));
+
+        RevokedTokenFilter filter = RevokedTokenFilter.forCapacity(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.add(RevokedTokenFilter.fingerprint("revoked-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain(RevokedTokenFilter.fingerprint("live-" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue("false positives: " + falsePositives, falsePositives < 2000);
+        RevokedTokenFilter copy = RevokedTokenFilter.fromSnapshot(filter.toSnapshot(7));
+        assertTrue(copy.mightContain(RevokedTokenFilter.fingerprint("revoked-42")));
+    }
+
+    private TokenRevocationRegistry registry(long retention, TimeUnit unit) {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(connectionFactory,
+                (version, fingerprints) -> bus.publish(new TokenRevokedEvent(this, AUTH_SERVER, version, fingerprints)),
+                scheduler, retention, unit);
+        registry.setFlushDelayMillis(20);
+        return registry;
+    }
+
+    private DefaultTokenServices tokenServices(TokenRevocationRegistry registry) {
+        PipelinedRedisTokenStore store = new PipelinedRedisTokenStore(connectionFactory);
+        store.setSerializationStrategy(new CompactSerializationStrategy());
+        store.setAccessTokenRemovalListener(registry::revoke);
+        DefaultTokenServices tokenServices = new GrantBatchingTokenServices(store);
+        tokenServices.setTokenStore(store);
+        tokenServices.setSupportRefreshToken(true);
+        tokenServices.setReuseRefreshToken(true);
+        return tokenServices;
+    }
+
+    /**
+     * 与网关和资源服务通过 HTTP 取得的快照相同：经过一次 JSON 序列化
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> overHttp(Map<String, Object> snapshot) throws Exception {
+        return mapper.readValue(mapper.writeValueAsString(snapshot), LinkedHashMap.class);
+    }
+
+    private void awaitMessages(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bus.getMessages().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, bus.getMessages().size());
+    }
+
+    private static OAuth2Authentication authentication(String userName) {
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_USER");
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("grant_type", "password");
+        parameters.put("username", userName);
+        OAuth2Request request = new OAuth2Request(parameters, "android", authorities, true,
+                Collections.singleton("xx"), null, null, null, null);
+        UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken(
+                new User(userName, "", authorities), null, authorities);
+        user.setDetails(parameters);
+        return new OAuth2Authentication(request, user);
+    }
+}
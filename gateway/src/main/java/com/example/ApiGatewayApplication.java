@@ -1,6 +1,10 @@
 package com.example;
 
+import com.example.core.config.TokenCacheProperties;
 import com.example.core.filter.AccessFilter;
+import com.example.core.security.TokenAuthenticator;
+import com.example.core.security.TokenValidationCache;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.security.oauth2.client.EnableOAuth2Sso;
@@ -20,6 +24,21 @@ public class ApiGatewayApplication {
         SpringApplication.run(ApiGatewayApplication.class, args);
     }
 
+    /**
+     * 令牌认证，资源过滤器、聚合接口和非阻塞路由共用
+     * @param tokenValidationCache 令牌校验缓存（未启用本地校验时为空）
+     * @param tokenCacheProperties 令牌校验缓存配置（未启用本地校验时为空）
+     * @return 令牌认证
+     */
+    @Bean
+    public TokenAuthenticator tokenAuthenticator(ObjectProvider<TokenValidationCache> tokenValidationCache,
+                                                 ObjectProvider<TokenCacheProperties> tokenCacheProperties) {
+        TokenCacheProperties properties = tokenCacheProperties.getIfAvailable();
+        return new TokenAuthenticator(tokenValidationCache.getIfAvailable(),
+                properties == null ? 0 : properties.getLookupTimeoutMillis(),
+                properties == null ? null : properties.getOtherSchemeRoutes());
+    }
+
     /**
      * 资源过滤器
      * @return 资源过滤器
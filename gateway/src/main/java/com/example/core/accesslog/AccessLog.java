@@ -0,0 +1,80 @@
+package com.example.core.accesslog;
+
+import com.example.core.ratelimit.TokenBucket;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 访问日志
+ * 请求线程只负责采样、限速并把定长记录写入环形缓冲区，文件写入由 AccessLogWriter 在后台完成，请求线程从不阻塞
+ */
+public class AccessLog {
+
+    private final AccessLogRingBuffer buffer;   // 环形缓冲区
+    private final double sampleRate;            // 采样比例（0 - 1）
+    private final boolean alwaysLogErrors;      // 状态码 >= 400 的请求是否不参与采样
+    private final TokenBucket rateCap;          // 每秒记录数上限，为空表示不限
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param buffer 环形缓冲区
+     * @param sampleRate 采样比例（0 - 1）
+     * @param alwaysLogErrors 状态码 >= 400 的请求是否全部记录
+     * @param maxRecordsPerSecond 每秒记录数上限，0 表示不限
+     */
+    public AccessLog(AccessLogRingBuffer buffer, double sampleRate, boolean alwaysLogErrors, int maxRecordsPerSecond) {
+        this.buffer = buffer;
+        this.sampleRate = sampleRate;
+        this.alwaysLogErrors = alwaysLogErrors;
+        this.rateCap = maxRecordsPerSecond > 0 ? new TokenBucket(maxRecordsPerSecond, maxRecordsPerSecond, System.nanoTime()) : null;
+    }
+
+    /**
+     * 是否记录一个请求（采样），先判断再收集字段，未采中的请求不做任何额外工作
+     * @param status 响应状态码
+     * @return 是否记录
+     */
+    public boolean isSampled(int status) {
+        if ((alwaysLogErrors && status >= 400) || sampleRate >= 1.0
+                || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            return true;
+        }
+        sampledOut.increment();
+        return false;
+    }
+
+    /**
+     * 写入一条记录，超出速率上限或缓冲区已满时丢弃
+     */
+    public void record(long timestamp, int status, long durationMicros, String method, String route, String uri, String client, String user) {
+        if (rateCap != null && rateCap.tryAcquire(System.nanoTime()) != 0) {
+            throttled.increment();
+            return;
+        }
+        if (buffer.offer(timestamp, status, durationMicros, method, route, uri, client, user)) {
+            accepted.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getSampledOut() {
+        return sampledOut.sum();
+    }
+
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
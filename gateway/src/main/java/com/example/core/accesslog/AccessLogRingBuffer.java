@@ -0,0 +1,131 @@
+package com.example.core.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 访问日志环形缓冲区
+ * 预先分配固定数量、固定大小的记录槽，多个请求线程无锁写入，单个后台线程读取；
+ * 写入时只把字符逐个复制到槽内的字节数组，不分配对象，缓冲区满时直接丢弃，不阻塞请求线程
+ * 实现参考 Vyukov 有界队列：每个槽的序号表示它当前可写（== 写位置）还是可读（== 写位置 + 1）
+ */
+public class AccessLogRingBuffer {
+
+    static final int METHOD_BYTES = 8;      // 请求方法最大长度
+    static final int ROUTE_BYTES = 32;      // 路由最大长度
+    static final int URI_BYTES = 256;       // 请求路径最大长度，超出部分截断
+    static final int CLIENT_BYTES = 46;     // 客户端地址最大长度（IPv6）
+    static final int USER_BYTES = 64;       // 用户名最大长度
+
+    private final Record[] records;         // 记录槽
+    private final int mask;                 // 容量 - 1
+    private final AtomicLong tail = new AtomicLong();  // 下一个写位置
+    private long head;                      // 下一个读位置（只有后台线程访问）
+
+    /**
+     * @param capacity 容量，向上取整为 2 的幂
+     */
+    public AccessLogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.records = new Record[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            records[i] = new Record(i);
+        }
+    }
+
+    /**
+     * 写入一条记录
+     * @return 是否写入成功，缓冲区已满时返回 false
+     */
+    public boolean offer(long timestamp, int status, long durationMicros, String method, String route, String uri, String client, String user) {
+        Record record;
+        long position;
+        while (true) {
+            position = tail.get();
+            record = records[(int) position & mask];
+            long difference = record.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false;   // 后台线程还没有读走这个槽，缓冲区已满
+            }
+        }
+        record.timestamp = timestamp;
+        record.status = status;
+        record.durationMicros = durationMicros;
+        record.methodLength = copy(method, record.method);
+        record.routeLength = copy(route, record.route);
+        record.uriLength = copy(uri, record.uri);
+        record.clientLength = copy(client, record.client);
+        record.userLength = copy(user, record.user);
+        record.sequence = position + 1;    // 发布给后台线程
+        return true;
+    }
+
+    /**
+     * 读取一条记录，处理完成后必须调用 release
+     * 只能由一个线程调用
+     * @return 记录，没有可读记录时返回 null
+     */
+    public Record poll() {
+        Record record = records[(int) head & mask];
+        return record.sequence == head + 1 ? record : null;
+    }
+
+    /**
+     * 释放 poll 得到的记录，槽可以被再次写入
+     * @param record 记录
+     */
+    public void release(Record record) {
+        record.sequence = head + records.length;
+        head++;
+    }
+
+    /**
+     * @return 缓冲区容量
+     */
+    public int capacity() {
+        return records.length;
+    }
+
+    /**
+     * 按 ASCII 复制字符串，超出长度的部分截断，非 ASCII 字符写为 ?
+     */
+    private static int copy(String value, byte[] target) {
+        if (value == null) {
+            return 0;
+        }
+        int length = Math.min(value.length(), target.length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            target[i] = c < 0x80 && c > 0x20 ? (byte) c : (byte) '?';
+        }
+        return length;
+    }
+
+    /**
+     * 定长访问记录
+     */
+    public static final class Record {
+        volatile long sequence;             // 槽序号
+        long timestamp;                     // 请求时间（毫秒）
+        int status;                         // 响应状态码
+        long durationMicros;                // 耗时（微秒）
+        final byte[] method = new byte[METHOD_BYTES];
+        int methodLength;
+        final byte[] route = new byte[ROUTE_BYTES];
+        int routeLength;
+        final byte[] uri = new byte[URI_BYTES];
+        int uriLength;
+        final byte[] client = new byte[CLIENT_BYTES];
+        int clientLength;
+        final byte[] user = new byte[USER_BYTES];
+        int userLength;
+
+        Record(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
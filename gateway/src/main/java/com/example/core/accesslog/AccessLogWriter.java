@@ -0,0 +1,259 @@
+package com.example.core.accesslog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 访问日志后台写入线程
+ * 从环形缓冲区读取记录，按紧凑的制表符分隔文本写入文件，文件超过大小上限时滚动：
+ * access.log -> access.log.1 -> access.log.2 ...，超出保留数量的旧文件删除
+ * 每行格式：时间戳(毫秒) 状态码 耗时(微秒) 方法 路由 路径 客户端地址 用户
+ * 写入、刷新或滚动失败时丢弃输出缓冲中的记录并关闭文件，退避后重新打开（100ms 起，每次翻倍，最长 5s），
+ * 线程不会因为一次 IO 异常而停止；退避期间缓冲区写满后由 AccessLog 计入丢弃
+ */
+public class AccessLogWriter implements Runnable {
+
+    private static Logger logger = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final AccessLogRingBuffer buffer;   // 环形缓冲区
+    private final File file;                    // 日志文件
+    private final long maxFileBytes;            // 单个文件大小上限
+    private final int maxFiles;                 // 保留的历史文件数
+    private final byte[] out = new byte[64 * 1024];     // 输出缓冲
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failures = new LongAdder();     // IO 失败次数
+    private final LongAdder dropped = new LongAdder();      // 因 IO 失败丢弃的记录数
+    private int position;                       // 输出缓冲已用字节数
+    private int bufferedLines;                  // 输出缓冲中尚未写入文件的记录数
+    private long backoffNanos = MIN_BACKOFF_NANOS;  // 下次失败后的退避时间
+    private OutputStream stream;
+    private long fileBytes;
+    private volatile boolean running = true;
+    private Thread thread;
+
+    public AccessLogWriter(AccessLogRingBuffer buffer, File file, long maxFileBytes, int maxFiles) {
+        this.buffer = buffer;
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * 启动后台线程
+     */
+    public synchronized void start() {
+        thread = new Thread(this, "access-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 写完缓冲区中剩余的记录后停止
+     * @throws InterruptedException 等待时被中断
+     */
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * @return 已写入文件的记录数
+     */
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * @return 打开、写入、刷新或滚动文件失败的次数
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * @return 因 IO 失败丢弃的记录数
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                try {
+                    if (stream == null) {
+                        open();
+                    }
+                    if (drain() == 0) {
+                        flush();
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    backoffNanos = MIN_BACKOFF_NANOS;
+                } catch (IOException e) {
+                    fail(e);
+                    LockSupport.parkNanos(this, backoffNanos);
+                    backoffNanos = Math.min(backoffNanos * 2, MAX_BACKOFF_NANOS);
+                }
+            }
+            try {
+                if (stream == null) {
+                    open();
+                }
+                drain();
+                flush();
+            } catch (IOException e) {
+                fail(e);
+            }
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    /**
+     * 丢弃输出缓冲并关闭文件，下一轮重新打开
+     */
+    private void fail(IOException e) {
+        failures.increment();
+        dropped.add(bufferedLines);
+        logger.warn("Access log write to {} failed, dropped {} records, retrying in {}ms: {}",
+                file, bufferedLines, TimeUnit.NANOSECONDS.toMillis(backoffNanos), e.toString());
+        position = 0;
+        bufferedLines = 0;
+        closeQuietly();
+        stream = null;
+    }
+
+    private int drain() throws IOException {
+        int count = 0;
+        AccessLogRingBuffer.Record record;
+        while ((record = buffer.poll()) != null) {
+            try {
+                format(record);
+            } finally {
+                buffer.release(record);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private void format(AccessLogRingBuffer.Record record) throws IOException {
+        // 一行最长约 500 字节，剩余空间不足时先输出
+        if (out.length - position < 1024) {
+            flush();
+        }
+        writeLong(record.timestamp);
+        out[position++] = '\t';
+        writeLong(record.status);
+        out[position++] = '\t';
+        writeLong(record.durationMicros);
+        writeField(record.method, record.methodLength);
+        writeField(record.route, record.routeLength);
+        writeField(record.uri, record.uriLength);
+        writeField(record.client, record.clientLength);
+        writeField(record.user, record.userLength);
+        out[position++] = '\n';
+        bufferedLines++;
+        if (fileBytes + position >= maxFileBytes) {
+            flush();
+            roll();
+        }
+    }
+
+    private void writeField(byte[] value, int length) {
+        out[position++] = '\t';
+        if (length == 0) {
+            out[position++] = '-';
+            return;
+        }
+        System.arraycopy(value, 0, out, position, length);
+        position += length;
+    }
+
+    private void writeLong(long value) {
+        if (value < 0) {
+            out[position++] = '-';
+            value = -value;
+        }
+        int start = position;
+        do {
+            out[position++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            byte b = out[i];
+            out[i] = out[j];
+            out[j] = b;
+        }
+    }
+
+    private void flush() throws IOException {
+        if (position == 0) {
+            return;
+        }
+        stream.write(out, 0, position);
+        stream.flush();
+        fileBytes += position;
+        position = 0;
+        written.add(bufferedLines);
+        bufferedLines = 0;
+    }
+
+    private void open() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create access log directory " + parent);
+        }
+        stream = new FileOutputStream(file, true);
+        fileBytes = file.length();
+    }
+
+    private void roll() throws IOException {
+        OutputStream current = stream;
+        stream = null;      // 滚动中途失败时下一轮按追加方式重新打开
+        current.close();
+        for (int i = maxFiles; i >= 1; i--) {
+            File source = i == 1 ? file : new File(file.getPath() + '.' + (i - 1));
+            File target = new File(file.getPath() + '.' + i);
+            if (source.exists()) {
+                if (target.exists() && !target.delete()) {
+                    logger.warn("Cannot delete old access log {}", target);
+                }
+                if (!source.renameTo(target)) {
+                    logger.warn("Cannot rename access log {} to {}", source, target);
+                }
+            }
+        }
+        if (maxFiles <= 0 && !file.delete()) {
+            logger.warn("Cannot delete access log {}", file);
+        }
+        stream = new FileOutputStream(file, false);
+        fileBytes = 0;
+    }
+
+    private void closeQuietly() {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close access log", e);
+            }
+        }
+    }
+}
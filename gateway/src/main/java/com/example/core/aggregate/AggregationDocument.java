@@ -0,0 +1,64 @@
+package com.example.core.aggregate;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * 逐段生成聚合响应文档
+ * 文档是一个 JSON 对象，子请求按完成顺序依次写入，每个子请求完成后立即输出一段：
+ * <pre>
+ * {"orders":{"status":200,"body":[...]},"profile":{"status":504,"error":"Deadline exceeded"}}
+ * </pre>
+ * JSON 类型的响应体原样嵌入，其他类型的响应体作为字符串嵌入
+ * 本类不是线程安全的，由调用方保证顺序调用
+ */
+public class AggregationDocument {
+
+    private boolean started;    // 是否已输出文档开头
+
+    /**
+     * 一个子请求结果对应的片段
+     * @param part 子请求结果
+     * @return 片段
+     */
+    public String part(PartResult part) {
+        StringBuilder out = new StringBuilder(128 + (part.getBody() == null ? 0 : part.getBody().length));
+        out.append(started ? ',' : '{');
+        started = true;
+        appendString(out, part.getName());
+        out.append(":{\"status\":").append(part.getStatus());
+        if (part.getError() != null) {
+            out.append(",\"error\":");
+            appendString(out, part.getError());
+        } else if (part.getBody() != null && part.getBody().length > 0) {
+            String body = new String(part.getBody(), StandardCharsets.UTF_8);
+            out.append(",\"body\":");
+            if (isJson(part.getContentType())) {
+                out.append(body);
+            } else {
+                appendString(out, body);
+            }
+        }
+        return out.append('}').toString();
+    }
+
+    /**
+     * 文档结尾
+     * @return 片段
+     */
+    public String end() {
+        return started ? "}" : "{}";
+    }
+
+    private static boolean isJson(String contentType) {
+        return contentType != null && contentType.toLowerCase(Locale.ENGLISH).contains("json");
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        JsonStringEncoder.getInstance().quoteAsString(value, out);
+        out.append('"');
+    }
+}
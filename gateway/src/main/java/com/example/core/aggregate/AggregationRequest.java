@@ -0,0 +1,32 @@
+package com.example.core.aggregate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 聚合请求
+ * <pre>
+ * {"timeoutMillis": 2000, "requests": {"profile": "/auth/user", "orders": "/producer/orders?page=1"}}
+ * </pre>
+ * requests 的键为子请求名称（也是响应文档中的键），值为网关上的 GET 路径
+ */
+public class AggregationRequest {
+    private long timeoutMillis;                                 // 整体超时时间，0 表示使用默认值
+    private Map<String, String> requests = new LinkedHashMap<>();   // 子请求名称 -> 路径
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public Map<String, String> getRequests() {
+        return requests;
+    }
+
+    public void setRequests(Map<String, String> requests) {
+        this.requests = requests;
+    }
+}
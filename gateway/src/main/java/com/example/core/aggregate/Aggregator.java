@@ -0,0 +1,359 @@
+package com.example.core.aggregate;
+
+import com.example.core.circuit.CircuitBreaker;
+import com.example.core.circuit.CircuitBreakerRegistry;
+import com.example.core.concurrency.ConcurrencyLimiter;
+import com.example.core.concurrency.ConcurrencyLimiterRegistry;
+import com.example.core.config.RateLimitProperties;
+import com.example.core.netty.NettyUpstreamClient;
+import com.example.core.netty.RouteTargets;
+import com.example.core.security.BearerTokens;
+import com.example.core.security.PrincipalHeaderSigner;
+import com.example.core.ratelimit.RateLimiterRegistry;
+import com.example.core.security.TokenPrincipal;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoopGroup;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 并行聚合执行器
+ * 按 zuul.routes 解析每个子请求，通过非阻塞上游客户端同时发出，整体共用一个截止时间；
+ * 每个子请求完成（或截止时间到达）时立即回调，调用方可以边收边输出，不占用等待线程
+ * 回调交给 callbackExecutor 串行执行，向客户端写响应等阻塞操作不会占用事件循环
+ * 子请求不经过 Zuul 的 pre 过滤器，限流、熔断和并发准入在这里按子请求的路由逐个检查，被拒绝的子请求
+ * 记为 429 或 503，不影响其他子请求；并发准入不排队，避免在请求线程上逐个等待
+ */
+public class Aggregator {
+
+    private static Logger logger = LoggerFactory.getLogger(Aggregator.class);
+
+    private final RouteLocator routeLocator;                // Zuul 路由定位器
+    private final ZuulProperties zuulProperties;            // Zuul 配置
+    private final LoadBalancerClient loadBalancerClient;    // 负载均衡客户端
+    private final NettyUpstreamClient upstreamClient;       // 非阻塞上游客户端
+    private final EventLoopGroup timer;                     // 调度截止时间的事件循环
+    private final PrincipalHeaderSigner signer;             // 签名用户头生成器（可为空）
+    private final String principalHeaderName;               // 签名用户头名称
+    private final Executor callbackExecutor;                // 执行结果回调的线程池
+    private RateLimiterRegistry rateLimiterRegistry;        // 限流器注册表（未启用时为空）
+    private CircuitBreakerRegistry circuitBreakerRegistry;  // 熔断器注册表（未启用时为空）
+    private ConcurrencyLimiterRegistry concurrencyLimiterRegistry; // 并发准入注册表（未启用时为空）
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder parts = new LongAdder();
+    private final LongAdder deadlineExceeded = new LongAdder();
+
+    public Aggregator(RouteLocator routeLocator, ZuulProperties zuulProperties, LoadBalancerClient loadBalancerClient,
+                      NettyUpstreamClient upstreamClient, EventLoopGroup timer, PrincipalHeaderSigner signer, String principalHeaderName,
+                      Executor callbackExecutor) {
+        this.routeLocator = routeLocator;
+        this.zuulProperties = zuulProperties;
+        this.loadBalancerClient = loadBalancerClient;
+        this.upstreamClient = upstreamClient;
+        this.timer = timer;
+        this.signer = signer;
+        this.principalHeaderName = principalHeaderName;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public void setRateLimiterRegistry(RateLimiterRegistry rateLimiterRegistry) {
+        this.rateLimiterRegistry = rateLimiterRegistry;
+    }
+
+    public void setCircuitBreakerRegistry(CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+    }
+
+    public void setConcurrencyLimiterRegistry(ConcurrencyLimiterRegistry concurrencyLimiterRegistry) {
+        this.concurrencyLimiterRegistry = concurrencyLimiterRegistry;
+    }
+
+    /**
+     * 结果回调，在 callbackExecutor 的线程上调用，每个聚合请求的回调按顺序执行、不会并发
+     */
+    public interface Listener {
+
+        /**
+         * 一个子请求完成
+         * @param part 结果
+         */
+        void onPart(PartResult part);
+
+        /**
+         * 所有子请求都已完成或截止时间已到，之后不再回调
+         */
+        void onComplete();
+    }
+
+    /**
+     * 并行执行子请求
+     * @param requests 子请求名称 -> 网关上的 GET 路径
+     * @param headers 转发给上游的请求头（按路由的敏感头过滤）
+     * @param principal 已校验的用户信息，非 Bearer 令牌时为 null（不为空时 headers 中的 Authorization 是对应的 Bearer 令牌）
+     * @param clientKey 限流使用的客户端标识
+     * @param timeoutMillis 整体超时时间
+     * @param listener 结果回调
+     */
+    public void execute(Map<String, String> requests, Map<String, String> headers, TokenPrincipal principal,
+                        String clientKey, long timeoutMillis, Listener listener) {
+        this.requests.increment();
+        this.parts.add(requests.size());
+        Execution execution = new Execution(requests.size(), listener, callbackExecutor);
+        List<Part> parts = new ArrayList<>(requests.size());
+        for (Map.Entry<String, String> entry : requests.entrySet()) {
+            parts.add(new Part(entry.getKey()));
+        }
+        execution.deadline = timer.next().schedule(() -> {
+            for (Part part : parts) {
+                if (part.done.compareAndSet(false, true)) {
+                    deadlineExceeded.increment();   // 先计数再回调，onComplete 时指标已经一致
+                    execution.deliver(PartResult.failure(part.name, 504, "Deadline exceeded"));
+                }
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        String principalHeader = signer != null && principal != null
+                ? signer.sign(principal, BearerTokens.extract(headers.get("Authorization")), System.currentTimeMillis()) : null;
+        ConcurrencyLimiter.Priority priority = principal != null ? ConcurrencyLimiter.Priority.HIGH : ConcurrencyLimiter.Priority.LOW;
+        int i = 0;
+        for (String path : requests.values()) {
+            send(execution, parts.get(i++), path, headers, principalHeader, clientKey, priority);
+        }
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getParts() {
+        return parts.sum();
+    }
+
+    public long getDeadlineExceeded() {
+        return deadlineExceeded.sum();
+    }
+
+    private void send(Execution execution, Part part, String uri, Map<String, String> headers, String principalHeader,
+                      String clientKey, ConcurrencyLimiter.Priority priority) {
+        int queryIndex = uri.indexOf('?');
+        String path = queryIndex < 0 ? uri : uri.substring(0, queryIndex);
+        String query = queryIndex < 0 ? "" : uri.substring(queryIndex);
+        Route route = routeLocator.getMatchingRoute(path);
+        if (route == null) {
+            execution.finish(part, PartResult.failure(part.name, 404, "No route for " + path));
+            return;
+        }
+        PartResult rejected = admit(part, route.getId(), clientKey, priority);
+        if (rejected != null) {
+            execution.finish(part, rejected);
+            return;
+        }
+        URI target = RouteTargets.resolve(loadBalancerClient, route.getLocation());
+        if (target == null) {
+            part.release(true);
+            execution.finish(part, PartResult.failure(part.name, 503, "No instance available for " + route.getLocation()));
+            return;
+        }
+        String basePath = target.getRawPath() == null ? "" : target.getRawPath();
+        if (basePath.endsWith("/")) {
+            basePath = basePath.substring(0, basePath.length() - 1);
+        }
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+                basePath + route.getPath() + query, Unpooled.EMPTY_BUFFER);
+        Set<String> sensitiveHeaders = route.isCustomSensitiveHeaders() ? route.getSensitiveHeaders() : zuulProperties.getSensitiveHeaders();
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (!containsIgnoreCase(sensitiveHeaders, header.getKey()) && !containsIgnoreCase(zuulProperties.getIgnoredHeaders(), header.getKey())) {
+                request.headers().set(header.getKey(), header.getValue());
+            }
+        }
+        if (principalHeader != null) {
+            request.headers().set(principalHeaderName, principalHeader);
+        }
+        HttpHeaders.setHost(request, target.getHost() + ':' + target.getPort());
+        HttpHeaders.setContentLength(request, 0);
+
+        upstreamClient.execute(target.getHost(), target.getPort(), request).whenComplete((response, error) -> {
+            int status = error != null ? 0 : response.getStatus().code();
+            part.release(error != null || status >= 500);
+            if (error != null) {
+                logger.debug("Aggregated request {} to {} failed: {}", part.name, route.getLocation(), error.toString());
+                int failure = error instanceof TimeoutException ? 504 : 502;
+                execution.finish(part, PartResult.failure(part.name, failure, failure == 504 ? "Upstream timed out" : "Upstream unavailable"));
+                return;
+            }
+            try {
+                if (!part.done.get()) {
+                    byte[] body = new byte[response.content().readableBytes()];
+                    response.content().readBytes(body);
+                    execution.finish(part, PartResult.response(part.name, status,
+                            response.headers().get(HttpHeaders.Names.CONTENT_TYPE), body));
+                }
+            } finally {
+                response.release();
+            }
+        });
+    }
+
+    /**
+     * 按子请求的路由依次检查限流、熔断和并发准入，与 RateLimitFilter、CircuitBreakerFilter、ConcurrencyLimitFilter 一致
+     * @return 被拒绝时的结果，放行时返回 null（占用的熔断探测和并发名额记录在 part 上）
+     */
+    private PartResult admit(Part part, String routeId, String clientKey, ConcurrencyLimiter.Priority priority) {
+        if (rateLimiterRegistry != null) {
+            RateLimitProperties.Limit limit = rateLimiterRegistry.getLimit(routeId);
+            if (limit != null && rateLimiterRegistry.tryAcquire(routeId, clientKey, limit, System.nanoTime()) > 0) {
+                return PartResult.failure(part.name, 429, "Too many requests");
+            }
+        }
+        if (circuitBreakerRegistry != null) {
+            CircuitBreaker breaker = circuitBreakerRegistry.getRouteBreaker(routeId);
+            if (breaker != null) {
+                part.call = breaker.acquire(System.nanoTime());
+                if (part.call == null) {
+                    return PartResult.failure(part.name, 503, "Service unavailable, circuit open");
+                }
+            }
+        }
+        if (concurrencyLimiterRegistry != null) {
+            ConcurrencyLimiter limiter = concurrencyLimiterRegistry.getLimiter(routeId);
+            if (limiter != null) {
+                try {
+                    part.permit = limiter.acquire(priority, 0);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (part.permit == null) {
+                    if (part.call != null) {
+                        part.call.cancel();
+                        part.call = null;
+                    }
+                    return PartResult.failure(part.name, 503, "Service overloaded");
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean containsIgnoreCase(Set<String> names, String name) {
+        if (names == null || names.isEmpty()) {
+            return false;
+        }
+        for (String candidate : names) {
+            if (candidate.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 一个子请求
+     */
+    private static final class Part {
+        private final String name;                              // 子请求名称
+        private final AtomicBoolean done = new AtomicBoolean(); // 是否已回调（响应和截止时间只取先到的一个）
+        private CircuitBreaker.Call call;                       // 熔断器放行的调用（未启用熔断时为空）
+        private ConcurrencyLimiter.Permit permit;               // 占用的并发名额（未启用并发准入时为空）
+
+        Part(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 上游调用结束（截止时间之后也会结束），回报熔断器并归还并发名额
+         * @param failure 是否失败（连接失败、超时或状态码 >= 500）
+         */
+        void release(boolean failure) {
+            if (call != null) {
+                call.complete(failure, System.nanoTime());
+            }
+            if (permit != null) {
+                permit.release(failure);
+            }
+        }
+    }
+
+    /**
+     * 一次聚合请求的执行状态
+     */
+    private static final class Execution {
+        private final AtomicInteger remaining;      // 尚未完成的子请求数
+        private final Listener listener;            // 结果回调
+        private final Executor executor;            // 执行回调的线程池
+        private final ConcurrentLinkedQueue<PartResult> results = new ConcurrentLinkedQueue<>();  // 待回调的结果
+        private final AtomicInteger queued = new AtomicInteger();    // 待回调的结果数，从 0 变为 1 的线程负责提交回调任务
+        private volatile ScheduledFuture<?> deadline;
+
+        Execution(int parts, Listener listener, Executor executor) {
+            this.remaining = new AtomicInteger(parts);
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        /**
+         * 完成一个子请求，响应和截止时间只取先到的一个
+         */
+        void finish(Part part, PartResult result) {
+            if (part.done.compareAndSet(false, true)) {
+                deliver(result);
+            }
+        }
+
+        /**
+         * 把已经抢到完成权的子请求结果交给回调线程池，同一个聚合请求同时只有一个回调任务在执行
+         */
+        void deliver(PartResult result) {
+            results.add(result);
+            if (queued.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        /**
+         * 按到达顺序回调，直到没有待回调的结果
+         */
+        private void drain() {
+            do {
+                PartResult result = results.poll();
+                try {
+                    listener.onPart(result);
+                } catch (RuntimeException e) {
+                    logger.warn("Aggregation listener failed on part {}: {}", result.getName(), e.toString());
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    ScheduledFuture<?> timeout = deadline;
+                    if (timeout != null) {
+                        timeout.cancel(false);
+                    }
+                    try {
+                        listener.onComplete();
+                    } catch (RuntimeException e) {
+                        logger.warn("Aggregation listener failed on completion: {}", e.toString());
+                    }
+                }
+            } while (queued.decrementAndGet() != 0);
+        }
+    }
+}
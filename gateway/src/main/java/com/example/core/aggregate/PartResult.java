@@ -0,0 +1,64 @@
+package com.example.core.aggregate;
+
+/**
+ * 聚合请求中一个子请求的结果
+ */
+public final class PartResult {
+
+    private final String name;          // 子请求名称
+    private final int status;           // 状态码
+    private final String contentType;   // 响应类型，失败时为 null
+    private final byte[] body;          // 响应体，失败时为 null
+    private final String error;         // 失败原因，成功时为 null
+
+    private PartResult(String name, int status, String contentType, byte[] body, String error) {
+        this.name = name;
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+        this.error = error;
+    }
+
+    /**
+     * 上游返回的响应（任意状态码）
+     * @param name 子请求名称
+     * @param status 状态码
+     * @param contentType 响应类型
+     * @param body 响应体
+     * @return 结果
+     */
+    public static PartResult response(String name, int status, String contentType, byte[] body) {
+        return new PartResult(name, status, contentType, body, null);
+    }
+
+    /**
+     * 网关侧的失败（无路由、无可用实例、上游超时等）
+     * @param name 子请求名称
+     * @param status 状态码
+     * @param error 失败原因
+     * @return 结果
+     */
+    public static PartResult failure(String name, int status, String error) {
+        return new PartResult(name, status, null, null, error);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.core.cache;
+
+import java.util.Locale;
+
+/**
+ * Cache-Control 头解析
+ */
+public final class CacheControl {
+
+    private boolean noStore;        // 不允许缓存
+    private boolean noCache;        // 使用前必须重新校验
+    private boolean isPrivate;      // 只允许私有缓存
+    private boolean isPublic;       // 允许共享缓存（包括带 Authorization 的请求）
+    private long maxAge = -1;       // 最大存活时间（秒），-1 表示未指定
+    private long sharedMaxAge = -1; // 共享缓存的最大存活时间（秒），-1 表示未指定
+
+    private CacheControl() {
+    }
+
+    /**
+     * 解析 Cache-Control 头
+     * @param value 头的值，可为空
+     * @return 解析结果
+     */
+    public static CacheControl parse(String value) {
+        CacheControl cacheControl = new CacheControl();
+        if (value == null) {
+            return cacheControl;
+        }
+        for (String part : value.split(",")) {
+            String directive = part.trim().toLowerCase(Locale.ENGLISH);
+            if (directive.equals("no-store")) {
+                cacheControl.noStore = true;
+            } else if (directive.startsWith("no-cache")) {
+                cacheControl.noCache = true;
+            } else if (directive.startsWith("private")) {
+                cacheControl.isPrivate = true;
+            } else if (directive.equals("public")) {
+                cacheControl.isPublic = true;
+            } else if (directive.startsWith("max-age=")) {
+                cacheControl.maxAge = parseSeconds(directive.substring("max-age=".length()));
+            } else if (directive.startsWith("s-maxage=")) {
+                cacheControl.sharedMaxAge = parseSeconds(directive.substring("s-maxage=".length()));
+            }
+        }
+        return cacheControl;
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value.replace("\"", "").trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public boolean isNoStore() {
+        return noStore;
+    }
+
+    public boolean isNoCache() {
+        return noCache;
+    }
+
+    public boolean isPrivate() {
+        return isPrivate;
+    }
+
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    public long getSharedMaxAge() {
+        return sharedMaxAge;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.core.cache;
+
+import com.example.core.http.BufferedResponse;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 网关响应缓存
+ * 按字节数限制容量的 LRU 缓存，分成多个段分别加锁，降低并发请求之间的锁竞争
+ */
+public class ResponseCache {
+
+    private final Segment[] segments;           // 缓存分段
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * @param maxBytes 缓存总容量（字节）
+     * @param segmentCount 分段数
+     */
+    public ResponseCache(long maxBytes, int segmentCount) {
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(Math.max(1, maxBytes / segmentCount));
+        }
+    }
+
+    /**
+     * 读取未过期的缓存条目
+     * @param key 缓存键
+     * @param now 当前时间（毫秒）
+     * @return 缓存条目，未命中时返回 null
+     */
+    public Entry get(String key, long now) {
+        Entry entry = segmentFor(key).get(key, now);
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * 写入缓存
+     * @param key 缓存键
+     * @param response 缓冲的响应
+     * @param storedAt 写入时间（毫秒）
+     * @param ttlMillis 存活时间（毫秒）
+     */
+    public void put(String key, BufferedResponse response, long storedAt, long ttlMillis) {
+        Segment segment = segmentFor(key);
+        if (response.weight() > segment.maxBytes) {
+            return;     // 单个响应超过分段容量，不缓存
+        }
+        segment.put(key, new Entry(response, storedAt, storedAt + ttlMillis));
+        stores.increment();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * @return 缓存条目数
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return 缓存占用的字节数
+     */
+    public long bytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.bytes();
+        }
+        return bytes;
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[(hash & 0x7fffffff) % segments.length];
+    }
+
+    /**
+     * 缓存条目
+     */
+    public static final class Entry {
+        private final BufferedResponse response;    // 缓冲的响应
+        private final long storedAt;                // 写入时间（毫秒）
+        private final long expiresAt;               // 过期时间（毫秒）
+
+        Entry(BufferedResponse response, long storedAt, long expiresAt) {
+            this.response = response;
+            this.storedAt = storedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public BufferedResponse getResponse() {
+            return response;
+        }
+
+        public long getStoredAt() {
+            return storedAt;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    /**
+     * 缓存分段：按访问顺序排列的 LinkedHashMap，超出容量时淘汰最久未访问的条目
+     */
+    private final class Segment {
+        private final long maxBytes;
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long bytes;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized Entry get(String key, long now) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt <= now) {
+                entries.remove(key);
+                bytes -= entry.response.weight();
+                return null;
+            }
+            return entry;
+        }
+
+        synchronized void put(String key, Entry entry) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                bytes -= previous.response.weight();
+            }
+            bytes += entry.response.weight();
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (bytes > maxBytes && iterator.hasNext()) {
+                Entry eldest = iterator.next().getValue();
+                iterator.remove();
+                bytes -= eldest.response.weight();
+                evictions.increment();
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            bytes = 0;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.core.circuit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 熔断器
+ * 按滑动时间窗口（每秒一个桶）统计请求数、失败数和慢请求数，请求数达到下限且失败率或慢请求率超过阈值时打开；
+ * 打开期间直接拒绝请求，等待时间过后进入半开状态，只放行有限个探测请求：
+ * 探测全部成功时关闭并清空窗口，任何一个探测失败或变慢时重新打开，连续打开时等待时间成倍增加
+ * 关闭状态下申请只读取一个 volatile 字段，不加锁
+ */
+public class CircuitBreaker {
+
+    private static Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED,     // 正常放行
+        OPEN,       // 直接拒绝
+        HALF_OPEN   // 放行有限个探测请求
+    }
+
+    private final String name;                  // 名称（路由id 或 实例 host:port）
+    private final int minimumRequests;          // 窗口内请求数达到多少后才判断是否打开
+    private final int failureRatePercent;       // 失败率阈值（%）
+    private final long slowCallNanos;           // 超过多长时间算慢请求
+    private final int slowCallRatePercent;      // 慢请求率阈值（%）
+    private final long openNanos;               // 打开后等待多长时间进入半开
+    private final long maxOpenNanos;            // 连续打开时等待时间的上限
+    private final int halfOpenProbes;           // 半开状态放行的探测请求数
+    private final long[] bucketSeconds;         // 每个桶对应的秒
+    private final int[] calls;                  // 每个桶的请求数
+    private final int[] failures;               // 每个桶的失败数
+    private final int[] slowCalls;              // 每个桶的慢请求数
+    private volatile State state = State.CLOSED;
+    private volatile long openUntil;            // 打开状态的截止时间（纳秒）
+    private volatile int probesStarted;         // 本次半开已放行的探测数（在锁内修改）
+    private int probesSucceeded;                // 本次半开已成功的探测数
+    private int consecutiveOpens;               // 连续打开次数，关闭后清零
+    private long generation;                    // 每次状态变化加一，旧状态下发出的探测结果不再参与判断
+    private volatile long lastActivity;         // 最近一次申请的时间（纳秒）
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    /**
+     * @param name 名称
+     * @param windowSeconds 滑动窗口长度（秒）
+     * @param minimumRequests 窗口内请求数达到多少后才判断是否打开
+     * @param failureRatePercent 失败率阈值（%）
+     * @param slowCallNanos 超过多长时间算慢请求
+     * @param slowCallRatePercent 慢请求率阈值（%）
+     * @param openNanos 打开后等待多长时间进入半开
+     * @param maxOpenNanos 连续打开时等待时间的上限
+     * @param halfOpenProbes 半开状态放行的探测请求数
+     */
+    public CircuitBreaker(String name, int windowSeconds, int minimumRequests, int failureRatePercent, long slowCallNanos,
+                          int slowCallRatePercent, long openNanos, long maxOpenNanos, int halfOpenProbes) {
+        this.name = name;
+        this.minimumRequests = Math.max(1, minimumRequests);
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallNanos = slowCallNanos;
+        this.slowCallRatePercent = slowCallRatePercent;
+        this.openNanos = openNanos;
+        this.maxOpenNanos = Math.max(openNanos, maxOpenNanos);
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        int buckets = Math.max(1, windowSeconds);
+        this.bucketSeconds = new long[buckets];
+        this.calls = new int[buckets];
+        this.failures = new int[buckets];
+        this.slowCalls = new int[buckets];
+        this.lastActivity = System.nanoTime();
+    }
+
+    /**
+     * 申请发出一个请求，成功后必须调用 Call.complete 或 Call.cancel
+     * @param now 当前时间（纳秒）
+     * @return 请求，熔断器打开或探测名额已满时返回 null
+     */
+    public Call acquire(long now) {
+        lastActivity = now;
+        State current = state;
+        if (current == State.CLOSED) {
+            return new Call(false, 0, now);
+        }
+        if (current == State.OPEN && now - openUntil < 0) {
+            rejected.increment();
+            return null;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (now - openUntil < 0) {
+                    rejected.increment();
+                    return null;
+                }
+                halfOpen();
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesStarted >= halfOpenProbes) {
+                    rejected.increment();
+                    return null;
+                }
+                probesStarted++;
+                return new Call(true, generation, now);
+            }
+            return new Call(false, 0, now);
+        }
+    }
+
+    /**
+     * 是否可以发出请求，只做判断不占用探测名额（负载均衡选择实例时使用）
+     * @param now 当前时间（纳秒）
+     * @return 是否可以发出请求
+     */
+    public boolean isAvailable(long now) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                return now - openUntil >= 0;
+            default:
+                return probesStarted < halfOpenProbes;
+        }
+    }
+
+    private synchronized void complete(Call call, boolean failure, long now) {
+        boolean slow = now - call.startNanos >= slowCallNanos;
+        record(now, failure, slow);
+        if (call.probe) {
+            if (state != State.HALF_OPEN || call.generation != generation) {
+                return;
+            }
+            if (failure || slow) {
+                open(now, failure ? "probe failed" : "probe was slow");
+            } else if (++probesSucceeded >= halfOpenProbes) {
+                close();
+            }
+        } else if (state == State.CLOSED && (failure || slow)) {
+            evaluate(now);      // 只在失败或慢请求时判断，旧的成功请求移出窗口不会让一次成功请求触发打开
+        }
+    }
+
+    private synchronized void cancel(Call call) {
+        if (call.probe && state == State.HALF_OPEN && call.generation == generation) {
+            probesStarted--;
+        }
+    }
+
+    /**
+     * 窗口内请求数达到下限且失败率或慢请求率超过阈值时打开
+     */
+    private void evaluate(long now) {
+        long second = Math.floorDiv(now, BUCKET_NANOS);
+        int total = 0;
+        int failed = 0;
+        int slow = 0;
+        for (int i = 0; i < bucketSeconds.length; i++) {
+            if (second - bucketSeconds[i] < bucketSeconds.length) {
+                total += calls[i];
+                failed += failures[i];
+                slow += slowCalls[i];
+            }
+        }
+        if (total < minimumRequests) {
+            return;
+        }
+        if (failed * 100L >= (long) failureRatePercent * total) {
+            open(now, failed + " of " + total + " requests failed");
+        } else if (slow * 100L >= (long) slowCallRatePercent * total) {
+            open(now, slow + " of " + total + " requests were slow");
+        }
+    }
+
+    private void record(long now, boolean failure, boolean slow) {
+        long second = Math.floorDiv(now, BUCKET_NANOS);
+        int index = (int) Math.floorMod(second, (long) bucketSeconds.length);
+        if (bucketSeconds[index] != second) {
+            bucketSeconds[index] = second;
+            calls[index] = 0;
+            failures[index] = 0;
+            slowCalls[index] = 0;
+        }
+        calls[index]++;
+        if (failure) {
+            failures[index]++;
+        }
+        if (slow) {
+            slowCalls[index]++;
+        }
+    }
+
+    private void open(long now, String reason) {
+        consecutiveOpens++;
+        long wait = openNanos;
+        for (int i = 1; i < consecutiveOpens && wait < maxOpenNanos; i++) {
+            wait *= 2;
+        }
+        openUntil = now + Math.min(wait, maxOpenNanos);
+        generation++;
+        state = State.OPEN;
+        opened.increment();
+        logger.warn("Circuit breaker {} opened for {}ms: {}", name, TimeUnit.NANOSECONDS.toMillis(Math.min(wait, maxOpenNanos)), reason);
+    }
+
+    private void halfOpen() {
+        probesStarted = 0;
+        probesSucceeded = 0;
+        generation++;
+        state = State.HALF_OPEN;
+    }
+
+    private void close() {
+        consecutiveOpens = 0;
+        for (int i = 0; i < bucketSeconds.length; i++) {
+            calls[i] = 0;
+            failures[i] = 0;
+            slowCalls[i] = 0;
+        }
+        generation++;
+        state = State.CLOSED;
+        logger.info("Circuit breaker {} closed after {} successful probes", name, halfOpenProbes);
+    }
+
+    /**
+     * 距离进入半开状态的剩余时间
+     * @param now 当前时间（纳秒）
+     * @return 剩余时间（秒，向上取整），未打开时返回 0
+     */
+    public long getRetryAfterSeconds(long now) {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        long remaining = openUntil - now;
+        return remaining <= 0 ? 0 : (remaining + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * 当前状态和窗口内的统计
+     * @param now 当前时间（纳秒）
+     * @return 状态
+     */
+    public synchronized Map<String, Object> snapshot(long now) {
+        long second = Math.floorDiv(now, BUCKET_NANOS);
+        int total = 0;
+        int failed = 0;
+        int slow = 0;
+        for (int i = 0; i < bucketSeconds.length; i++) {
+            if (second - bucketSeconds[i] < bucketSeconds.length) {
+                total += calls[i];
+                failed += failures[i];
+                slow += slowCalls[i];
+            }
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("state", state.name());
+        snapshot.put("calls", total);
+        snapshot.put("failures", failed);
+        snapshot.put("slowCalls", slow);
+        if (state == State.OPEN) {
+            snapshot.put("retryAfterMillis", Math.max(0, TimeUnit.NANOSECONDS.toMillis(openUntil - now)));
+        } else if (state == State.HALF_OPEN) {
+            snapshot.put("probesStarted", probesStarted);
+            snapshot.put("probesSucceeded", probesSucceeded);
+        }
+        snapshot.put("rejected", rejected.sum());
+        snapshot.put("opened", opened.sum());
+        return snapshot;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getOpened() {
+        return opened.sum();
+    }
+
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    /**
+     * 已放行的请求
+     */
+    public final class Call {
+        private final boolean probe;        // 是否为半开状态的探测请求
+        private final long generation;      // 放行时的状态版本
+        private final long startNanos;      // 放行时间
+        private boolean done;               // 是否已回报结果
+
+        Call(boolean probe, long generation, long startNanos) {
+            this.probe = probe;
+            this.generation = generation;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * 回报请求结果，耗时超过阈值的请求计为慢请求；重复调用无效
+         * @param failure 是否失败
+         * @param now 当前时间（纳秒）
+         */
+        public void complete(boolean failure, long now) {
+            if (!done) {
+                done = true;
+                CircuitBreaker.this.complete(this, failure, now);
+            }
+        }
+
+        /**
+         * 请求没有发往上游（被其他过滤器拦截），不计入统计并归还探测名额；重复调用无效
+         */
+        public void cancel() {
+            if (!done) {
+                done = true;
+                CircuitBreaker.this.cancel(this);
+            }
+        }
+
+        public boolean isProbe() {
+            return probe;
+        }
+    }
+}
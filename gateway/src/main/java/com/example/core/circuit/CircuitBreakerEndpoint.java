@@ -0,0 +1,40 @@
+package com.example.core.circuit;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 熔断器端点 /circuitbreakers
+ * 输出每个路由和上游实例熔断器的状态、窗口内的请求数、失败数、慢请求数，以及累计的拒绝次数和打开次数
+ */
+@ConfigurationProperties(prefix = "endpoints.circuitbreakers")
+public class CircuitBreakerEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    private final CircuitBreakerRegistry registry;  // 熔断器注册表
+
+    public CircuitBreakerEndpoint(CircuitBreakerRegistry registry) {
+        super("circuitbreakers");
+        this.registry = registry;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+        long now = System.nanoTime();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("routes", snapshot(registry.getRouteBreakers(), now));
+        result.put("instances", snapshot(registry.getInstanceBreakers(), now));
+        return result;
+    }
+
+    private static Map<String, Object> snapshot(Map<String, CircuitBreaker> breakers, long now) {
+        Map<String, Object> snapshot = new TreeMap<>();
+        for (Map.Entry<String, CircuitBreaker> entry : breakers.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().snapshot(now));
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.core.circuit;
+
+import com.example.core.config.CircuitBreakerProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 熔断器注册表
+ * 每个路由一个熔断器，在路由之前快速失败；每个上游实例一个熔断器，负载均衡选择实例时跳过打开的实例，
+ * 一个实例故障时同一路由的其他实例照常服务，整个服务故障时路由熔断器打开，请求不再占用线程和连接
+ */
+public class CircuitBreakerRegistry implements InstanceBreakers {
+
+    private static final int MAX_IDLE_INSTANCES = 1024;  // 实例熔断器超过该数量时清理长时间无请求的实例
+
+    private final CircuitBreakerProperties properties;  // 熔断配置
+    private final ConcurrentHashMap<String, CircuitBreaker> routeBreakers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CircuitBreaker> instanceBreakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerRegistry(CircuitBreakerProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 路由对应的熔断器
+     * @param routeId 路由id（zuul.routes 的键）
+     * @return 熔断器，路由不参与熔断时返回 null
+     */
+    public CircuitBreaker getRouteBreaker(String routeId) {
+        if (routeId == null) {
+            return null;
+        }
+        CircuitBreaker breaker = routeBreakers.get(routeId);
+        if (breaker == null) {
+            if (!properties.getRoutes().isEmpty() && !properties.getRoutes().contains(routeId)) {
+                return null;
+            }
+            breaker = routeBreakers.computeIfAbsent(routeId, this::create);
+        }
+        return breaker;
+    }
+
+    @Override
+    public CircuitBreaker getInstanceBreaker(String instanceId) {
+        if (!properties.isInstanceEnabled() || instanceId == null) {
+            return null;
+        }
+        CircuitBreaker breaker = instanceBreakers.get(instanceId);
+        if (breaker == null) {
+            if (instanceBreakers.size() >= MAX_IDLE_INSTANCES) {
+                purgeIdleInstances(System.nanoTime());
+            }
+            breaker = instanceBreakers.computeIfAbsent(instanceId, this::create);
+        }
+        return breaker;
+    }
+
+    /**
+     * 已创建的路由熔断器
+     * @return 路由id -> 熔断器
+     */
+    public Map<String, CircuitBreaker> getRouteBreakers() {
+        return routeBreakers;
+    }
+
+    /**
+     * 已创建的实例熔断器
+     * @return 实例标识 -> 熔断器
+     */
+    public Map<String, CircuitBreaker> getInstanceBreakers() {
+        return instanceBreakers;
+    }
+
+    /**
+     * 清除已关闭且超过一个窗口没有请求的实例熔断器（实例下线或地址变化后不再使用）
+     */
+    private void purgeIdleInstances(long now) {
+        long idleNanos = TimeUnit.SECONDS.toNanos(properties.getWindowSeconds());
+        instanceBreakers.values().removeIf(breaker ->
+                breaker.getState() == CircuitBreaker.State.CLOSED && now - breaker.getLastActivity() > idleNanos);
+    }
+
+    private CircuitBreaker create(String name) {
+        return new CircuitBreaker(name, properties.getWindowSeconds(), properties.getMinimumRequests(),
+                properties.getFailureRatePercent(), TimeUnit.MILLISECONDS.toNanos(properties.getSlowCallMillis()),
+                properties.getSlowCallRatePercent(), TimeUnit.MILLISECONDS.toNanos(properties.getOpenMillis()),
+                TimeUnit.MILLISECONDS.toNanos(properties.getMaxOpenMillis()), properties.getHalfOpenProbes());
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.core.circuit;
+
+/**
+ * 上游实例的熔断器来源，供负载均衡规则在选择实例时使用
+ */
+public interface InstanceBreakers {
+
+    /**
+     * 实例对应的熔断器
+     * @param instanceId 实例标识（host:port）
+     * @return 熔断器，未启用实例熔断时返回 null
+     */
+    CircuitBreaker getInstanceBreaker(String instanceId);
+}
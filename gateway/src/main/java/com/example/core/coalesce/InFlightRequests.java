@@ -0,0 +1,137 @@
+package com.example.core.coalesce;
+
+import com.example.core.http.BufferedResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进行中的上游请求表
+ * 相同标识的请求同一时刻只有一个（leader）发往上游，其余请求（follower）等待 leader 的响应
+ * 每个请求的等待者数量有上限，超出上限的请求不再等待，直接发往上游
+ */
+public class InFlightRequests {
+
+    private final ConcurrentHashMap<String, Call> calls = new ConcurrentHashMap<>();
+    private final int maxWaiters;               // 每个请求的等待者上限
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * @param maxWaiters 每个请求的等待者上限
+     */
+    public InFlightRequests(int maxWaiters) {
+        this.maxWaiters = maxWaiters;
+    }
+
+    /**
+     * 尝试成为 leader：没有相同标识的进行中请求时登记一个新请求
+     * @param key 请求标识
+     * @return 登记的请求，已有进行中的请求时返回 null；调用方负责发往上游并调用 complete
+     */
+    public Call lead(String key) {
+        Call call = new Call(key);
+        if (calls.putIfAbsent(key, call) != null) {
+            return null;
+        }
+        leaders.increment();
+        return call;
+    }
+
+    /**
+     * 作为 follower 等待相同标识的进行中请求，等待结束后调用 Call.leave
+     * @param key 请求标识
+     * @return 进行中的请求，请求已完成或等待者已满时返回 null
+     */
+    public Call follow(String key) {
+        Call call = calls.get(key);
+        if (call == null) {
+            return null;
+        }
+        if (call.waiters.incrementAndGet() > maxWaiters) {
+            call.waiters.decrementAndGet();
+            overflows.increment();
+            return null;
+        }
+        followers.increment();
+        return call;
+    }
+
+    /**
+     * leader 完成请求，把响应分发给所有等待者
+     * @param call leader 加入的请求
+     * @param response 缓冲的响应，无法共享时为 null（等待者各自发往上游）
+     */
+    public void complete(Call call, BufferedResponse response) {
+        calls.remove(call.key, call);
+        call.future.complete(response);
+    }
+
+    /**
+     * 记录一次等待超时
+     */
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * @return 进行中的请求数
+     */
+    public int size() {
+        return calls.size();
+    }
+
+    public long getLeaders() {
+        return leaders.sum();
+    }
+
+    public long getFollowers() {
+        return followers.sum();
+    }
+
+    public long getOverflows() {
+        return overflows.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * 进行中的请求
+     */
+    public final class Call {
+        private final String key;                   // 请求标识
+        private final CompletableFuture<BufferedResponse> future = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        private Call(String key) {
+            this.key = key;
+        }
+
+        /**
+         * follower 结束等待
+         */
+        public void leave() {
+            waiters.decrementAndGet();
+        }
+
+        /**
+         * @return leader 的响应，完成后可用
+         */
+        public CompletableFuture<BufferedResponse> getFuture() {
+            return future;
+        }
+
+        /**
+         * @return 等待者数量
+         */
+        public int getWaiters() {
+            return waiters.get();
+        }
+    }
+}
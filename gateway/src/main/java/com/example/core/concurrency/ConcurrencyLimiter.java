@@ -0,0 +1,187 @@
+package com.example.core.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单个路由的并发准入控制
+ * 并发上限由 GradientLimit 根据请求延迟自适应调整；未超出上限时无锁放行，
+ * 超出上限后高优先级请求短暂排队等待空位，低优先级请求只能使用上限的一部分，超出时立即拒绝
+ */
+public class ConcurrencyLimiter {
+
+    /**
+     * 请求优先级
+     */
+    public enum Priority {
+        HIGH,   // 已认证的用户请求，可以使用全部并发并排队
+        LOW     // 其他请求（客户端凭据、匿名轮询），只能使用部分并发，不排队
+    }
+
+    private final GradientLimit limit;                  // 自适应并发上限
+    private final double lowPriorityShare;              // 低优先级请求可使用的上限比例
+    private final int maxQueue;                         // 排队请求数上限
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private volatile int waiting;                       // 正在排队的请求数（在锁内修改）
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * @param limit 自适应并发上限
+     * @param lowPriorityShare 低优先级请求可使用的上限比例
+     * @param maxQueue 排队请求数上限
+     */
+    public ConcurrencyLimiter(GradientLimit limit, double lowPriorityShare, int maxQueue) {
+        this.limit = limit;
+        this.lowPriorityShare = lowPriorityShare;
+        this.maxQueue = maxQueue;
+    }
+
+    /**
+     * 申请一个并发名额，成功后必须调用 Permit.release
+     * @param priority 优先级
+     * @param maxWaitNanos 高优先级请求最长排队时间，0 表示不排队
+     * @return 名额，被拒绝时返回 null
+     * @throws InterruptedException 排队时线程被中断
+     */
+    public Permit acquire(Priority priority, long maxWaitNanos) throws InterruptedException {
+        int current = tryIncrement(priority);
+        if (current < 0 && priority == Priority.HIGH && maxWaitNanos > 0) {
+            current = await(priority, maxWaitNanos);
+        }
+        if (current < 0) {
+            rejected.increment();
+            return null;
+        }
+        accepted.increment();
+        return new Permit(current, System.nanoTime());
+    }
+
+    /**
+     * 排队等待空位
+     * @return 获得名额时的并发数，超时或队列已满时返回 -1
+     */
+    private int await(Priority priority, long maxWaitNanos) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (waiting >= maxQueue) {
+                return -1;
+            }
+            waiting++;
+            queued.increment();
+            try {
+                long remaining = maxWaitNanos;
+                int current;
+                while ((current = tryIncrement(priority)) < 0) {
+                    if (remaining <= 0) {
+                        timeouts.increment();
+                        return -1;
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+                return current;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 未超出对应优先级的上限时占用一个名额
+     * @return 占用后的并发数，超出上限时返回 -1
+     */
+    private int tryIncrement(Priority priority) {
+        int max = limit.getLimit();
+        if (priority == Priority.LOW) {
+            max = Math.max(1, (int) (max * lowPriorityShare));
+        }
+        while (true) {
+            int current = inFlight.get();
+            if (current >= max) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private void release(Permit permit, boolean dropped) {
+        inFlight.decrementAndGet();
+        limit.onSample(System.nanoTime() - permit.startNanos, permit.inFlight, dropped);
+        if (waiting > 0) {
+            lock.lock();
+            try {
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public long getLongRttMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(limit.getLongRttNanos());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getQueued() {
+        return queued.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * 已占用的并发名额
+     */
+    public class Permit {
+        private final int inFlight;         // 占用时的并发数
+        private final long startNanos;      // 占用时间
+        private boolean released;           // 是否已归还
+
+        Permit(int inFlight, long startNanos) {
+            this.inFlight = inFlight;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * 请求结束后归还名额，并把耗时作为调整上限的样本；重复调用无效
+         * @param dropped 是否超时或被上游拒绝
+         */
+        public void release(boolean dropped) {
+            if (!released) {
+                released = true;
+                ConcurrencyLimiter.this.release(this, dropped);
+            }
+        }
+    }
+}
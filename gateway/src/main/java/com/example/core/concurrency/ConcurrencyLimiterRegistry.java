@@ -0,0 +1,50 @@
+package com.example.core.concurrency;
+
+import com.example.core.config.ConcurrencyLimitProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 并发准入控制注册表
+ * 每个路由一个 ConcurrencyLimiter，各自学习上游能承受的并发数，一个路由过载不会占满其他路由的线程
+ */
+public class ConcurrencyLimiterRegistry {
+
+    private final ConcurrencyLimitProperties properties;    // 准入控制配置
+    private final ConcurrentHashMap<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiterRegistry(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 路由对应的准入控制
+     * @param routeId 路由id（zuul.routes 的键）
+     * @return 准入控制，路由不参与准入控制时返回 null
+     */
+    public ConcurrencyLimiter getLimiter(String routeId) {
+        if (routeId == null) {
+            return null;
+        }
+        ConcurrencyLimiter limiter = limiters.get(routeId);
+        if (limiter == null) {
+            if (!properties.getRoutes().isEmpty() && !properties.getRoutes().contains(routeId)) {
+                return null;
+            }
+            limiter = limiters.computeIfAbsent(routeId, k -> new ConcurrencyLimiter(
+                    new GradientLimit(properties.getInitialLimit(), properties.getMinLimit(), properties.getMaxLimit(),
+                            properties.getSmoothing(), properties.getTolerance(), properties.getLongWindow()),
+                    properties.getLowPriorityShare(), properties.getMaxQueue()));
+        }
+        return limiter;
+    }
+
+    /**
+     * 已创建的准入控制
+     * @return 路由id -> 准入控制
+     */
+    public Map<String, ConcurrencyLimiter> getLimiters() {
+        return limiters;
+    }
+}
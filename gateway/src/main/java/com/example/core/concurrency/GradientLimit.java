@@ -0,0 +1,87 @@
+package com.example.core.concurrency;
+
+/**
+ * 按延迟梯度自适应调整的并发上限
+ * 用长期延迟均值作为无排队时的基准，单个请求的延迟作为当前值：
+ * 当前延迟不超过 基准 * 容忍倍数 时上限按 sqrt(limit) 增长，延迟变大时按 基准 / 当前 的比例收缩（最多减半）
+ * 新上限与旧上限按平滑系数混合，避免抖动；上游超时或过载（丢弃）时直接乘以 0.9
+ */
+public class GradientLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;             // 并发上限的下界
+    private final int maxLimit;             // 并发上限的上界
+    private final double smoothing;         // 新上限所占的权重
+    private final double tolerance;         // 当前延迟相对基准的容忍倍数
+    private final double longRttAlpha;      // 长期延迟均值的衰减系数
+    private double limit;                   // 当前上限（带小数，避免取整后无法增长）
+    private double longRtt;                 // 长期延迟均值（纳秒）
+    private volatile int estimate;          // 对外发布的整数上限
+
+    /**
+     * @param initialLimit 初始上限
+     * @param minLimit 上限的下界
+     * @param maxLimit 上限的上界
+     * @param smoothing 新上限所占的权重（0-1）
+     * @param tolerance 当前延迟相对基准的容忍倍数
+     * @param longWindow 长期延迟均值的样本窗口
+     */
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, double tolerance, int longWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.longRttAlpha = 2.0 / (longWindow + 1);
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.estimate = (int) limit;
+    }
+
+    /**
+     * 当前的并发上限
+     * @return 并发上限
+     */
+    public int getLimit() {
+        return estimate;
+    }
+
+    /**
+     * 长期延迟均值
+     * @return 纳秒，尚无样本时为 0
+     */
+    public synchronized long getLongRttNanos() {
+        return (long) longRtt;
+    }
+
+    /**
+     * 记录一个请求的结果
+     * @param rttNanos 请求耗时
+     * @param inFlight 请求开始时的并发数
+     * @param dropped 是否超时或被上游拒绝
+     */
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            estimate = (int) limit;
+            return;
+        }
+        if (longRtt == 0) {
+            longRtt = rttNanos;
+        } else {
+            longRtt += (rttNanos - longRtt) * longRttAlpha;
+        }
+        // 延迟明显低于基准（例如上游扩容），让基准更快地回落
+        if (longRtt > 2.0 * rttNanos) {
+            longRtt *= 0.95;
+        }
+        // 并发数远低于上限时延迟不能说明上限是否合适，不调整
+        if (inFlight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / Math.max(1, rttNanos)));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, limit));
+        estimate = (int) limit;
+    }
+}
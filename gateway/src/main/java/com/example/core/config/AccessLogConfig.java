@@ -0,0 +1,100 @@
+package com.example.core.config;
+
+import com.example.core.accesslog.AccessLog;
+import com.example.core.accesslog.AccessLogRingBuffer;
+import com.example.core.accesslog.AccessLogWriter;
+import com.example.core.filter.AccessLogFilter;
+import com.example.core.filter.LatencyTimingFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 访问日志配置
+ * 丢弃、限速、写入失败等计数通过 /metrics 暴露，前缀为 gateway.access-log
+ */
+@Configuration
+@EnableConfigurationProperties(AccessLogProperties.class)
+@ConditionalOnProperty(prefix = "gateway.access-log", name = "enabled", matchIfMissing = true)
+public class AccessLogConfig {
+
+    @Autowired
+    private AccessLogProperties properties; // 访问日志配置
+
+    /**
+     * 环形缓冲区
+     * @return 环形缓冲区
+     */
+    @Bean
+    public AccessLogRingBuffer accessLogRingBuffer() {
+        return new AccessLogRingBuffer(properties.getBufferSize());
+    }
+
+    /**
+     * 访问日志
+     * @return 访问日志
+     */
+    @Bean
+    public AccessLog accessLog() {
+        return new AccessLog(accessLogRingBuffer(), properties.getSampleRate(), properties.isAlwaysLogErrors(),
+                properties.getMaxRecordsPerSecond());
+    }
+
+    /**
+     * 后台写入线程
+     * @return 写入线程
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public AccessLogWriter accessLogWriter() {
+        return new AccessLogWriter(accessLogRingBuffer(), new File(properties.getFile()),
+                properties.getMaxFileBytes(), properties.getMaxFiles());
+    }
+
+    /**
+     * 访问日志过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public AccessLogFilter accessLogFilter() {
+        return new AccessLogFilter(accessLog());
+    }
+
+    /**
+     * 关闭延迟统计时仍需记录请求开始时间
+     * @return 过滤器
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.latency", name = "enabled", havingValue = "false")
+    public LatencyTimingFilter accessLogStartFilter() {
+        return new LatencyTimingFilter(LatencyTimingFilter.Stage.START, null);
+    }
+
+    /**
+     * 访问日志指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics accessLogMetrics() {
+        AccessLog accessLog = accessLog();
+        AccessLogWriter writer = accessLogWriter();
+        return () -> {
+            List<Metric<?>> metrics = new ArrayList<>(7);
+            metrics.add(new Metric<>("gateway.access-log.accepted", accessLog.getAccepted()));
+            metrics.add(new Metric<>("gateway.access-log.written", writer.getWritten()));
+            metrics.add(new Metric<>("gateway.access-log.sampled-out", accessLog.getSampledOut()));
+            metrics.add(new Metric<>("gateway.access-log.throttled", accessLog.getThrottled()));
+            metrics.add(new Metric<>("gateway.access-log.dropped", accessLog.getDropped()));
+            metrics.add(new Metric<>("gateway.access-log.write-failures", writer.getFailures()));
+            metrics.add(new Metric<>("gateway.access-log.write-dropped", writer.getDropped()));
+            return metrics;
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 访问日志配置
+ * 对应 gateway.access-log 前缀
+ */
+@ConfigurationProperties(prefix = "gateway.access-log")
+public class AccessLogProperties {
+    private boolean enabled = true;                     // 是否启用访问日志
+    private String file = "logs/gateway-access.log";    // 日志文件
+    private int bufferSize = 65536;                     // 环形缓冲区记录数（取 2 的幂）
+    private double sampleRate = 1.0;                    // 采样比例（0 - 1）
+    private boolean alwaysLogErrors = true;             // 状态码 >= 400 的请求是否全部记录
+    private int maxRecordsPerSecond = 0;                // 每秒记录数上限，0 表示不限
+    private long maxFileBytes = 100L * 1024 * 1024;     // 单个文件大小上限，超出后滚动
+    private int maxFiles = 5;                           // 保留的历史文件数
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public boolean isAlwaysLogErrors() {
+        return alwaysLogErrors;
+    }
+
+    public void setAlwaysLogErrors(boolean alwaysLogErrors) {
+        this.alwaysLogErrors = alwaysLogErrors;
+    }
+
+    public int getMaxRecordsPerSecond() {
+        return maxRecordsPerSecond;
+    }
+
+    public void setMaxRecordsPerSecond(int maxRecordsPerSecond) {
+        this.maxRecordsPerSecond = maxRecordsPerSecond;
+    }
+
+    public long getMaxFileBytes() {
+        return maxFileBytes;
+    }
+
+    public void setMaxFileBytes(long maxFileBytes) {
+        this.maxFileBytes = maxFileBytes;
+    }
+
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+
+    public void setMaxFiles(int maxFiles) {
+        this.maxFiles = maxFiles;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.core.config;
+
+import com.example.core.aggregate.Aggregator;
+import com.example.core.circuit.CircuitBreakerRegistry;
+import com.example.core.concurrency.ConcurrencyLimiterRegistry;
+import com.example.core.netty.NettyUpstreamClient;
+import com.example.core.ratelimit.RateLimiterRegistry;
+import com.example.core.security.PrincipalHeaderSigner;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 聚合接口配置
+ * 子请求与 Zuul 共用路由表和负载均衡，通过独立的事件循环非阻塞地发往上游
+ * 子请求同样受限流、熔断和并发准入控制（对应功能启用时），结果在独立的回调线程池上写给客户端
+ */
+@Configuration
+@EnableConfigurationProperties(AggregationProperties.class)
+@ConditionalOnProperty(prefix = "gateway.aggregation", name = "enabled", matchIfMissing = true)
+public class AggregationConfig {
+
+    @Autowired
+    private AggregationProperties properties;           // 聚合接口配置
+
+    @Autowired(required = false)
+    private PrincipalHeaderSigner principalHeaderSigner; // 签名用户头生成器
+
+    @Autowired(required = false)
+    private PrincipalHeaderProperties principalHeaderProperties; // 签名用户头配置
+
+    @Autowired(required = false)
+    private RateLimiterRegistry rateLimiterRegistry;    // 限流器注册表
+
+    @Autowired(required = false)
+    private CircuitBreakerRegistry circuitBreakerRegistry;  // 熔断器注册表
+
+    @Autowired(required = false)
+    private ConcurrencyLimiterRegistry concurrencyLimiterRegistry;  // 并发准入注册表
+
+    /**
+     * 子请求的事件循环
+     * @return 事件循环
+     */
+    @Bean
+    public EventLoopGroup aggregationEventLoopGroup() {
+        return new NioEventLoopGroup(properties.getWorkerThreads(), new CustomizableThreadFactory("aggregation-"));
+    }
+
+    /**
+     * 子请求的非阻塞上游客户端，读取超时取最长整体超时时间，实际由聚合的截止时间控制
+     * @return 上游客户端
+     */
+    @Bean
+    public NettyUpstreamClient aggregationUpstreamClient() {
+        return new NettyUpstreamClient(aggregationEventLoopGroup(), properties.getConnectTimeoutMillis(),
+                (int) properties.getMaxTimeoutMillis(), properties.getMaxContentLength(), properties.getMaxIdleConnectionsPerHost());
+    }
+
+    /**
+     * 结果回调线程池，向客户端写响应时可能阻塞，不能放在事件循环上
+     * @return 线程池
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService aggregationCallbackExecutor() {
+        int threads = properties.getCallbackThreads() > 0 ? properties.getCallbackThreads() : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new CustomizableThreadFactory("aggregation-callback-"));
+    }
+
+    /**
+     * 并行聚合执行器
+     * @param routeLocator Zuul 路由定位器
+     * @param zuulProperties Zuul 配置
+     * @param loadBalancerClient 负载均衡客户端
+     * @return 聚合执行器
+     */
+    @Bean
+    public Aggregator aggregator(RouteLocator routeLocator, ZuulProperties zuulProperties, LoadBalancerClient loadBalancerClient) {
+        Aggregator aggregator = new Aggregator(routeLocator, zuulProperties, loadBalancerClient, aggregationUpstreamClient(),
+                aggregationEventLoopGroup(), principalHeaderSigner,
+                principalHeaderProperties == null ? null : principalHeaderProperties.getName(), aggregationCallbackExecutor());
+        aggregator.setRateLimiterRegistry(rateLimiterRegistry);
+        aggregator.setCircuitBreakerRegistry(circuitBreakerRegistry);
+        aggregator.setConcurrencyLimiterRegistry(concurrencyLimiterRegistry);
+        return aggregator;
+    }
+
+    /**
+     * 聚合接口指标
+     * @param aggregator 聚合执行器
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics aggregationMetrics(Aggregator aggregator) {
+        return () -> {
+            List<Metric<?>> metrics = new ArrayList<>(3);
+            metrics.add(new Metric<>("gateway.aggregation.requests", aggregator.getRequests()));
+            metrics.add(new Metric<>("gateway.aggregation.parts", aggregator.getParts()));
+            metrics.add(new Metric<>("gateway.aggregation.deadline-exceeded", aggregator.getDeadlineExceeded()));
+            return metrics;
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 聚合接口配置
+ * 对应 gateway.aggregation 前缀，子请求使用独立的非阻塞上游客户端
+ */
+@ConfigurationProperties(prefix = "gateway.aggregation")
+public class AggregationProperties {
+    private boolean enabled = true;             // 是否启用聚合接口
+    private int maxRequests = 10;               // 一次聚合最多的子请求数
+    private long defaultTimeoutMillis = 2000;   // 未指定时的整体超时时间
+    private long maxTimeoutMillis = 10000;      // 客户端可指定的最长整体超时时间
+    private int workerThreads = 0;              // 事件循环线程数，0 表示 CPU 核数 * 2
+    private int callbackThreads = 0;            // 向客户端写结果的线程数，0 表示 CPU 核数
+    private int connectTimeoutMillis = 1000;    // 连接上游服务的超时时间
+    private int maxContentLength = 1048576;     // 单个子请求响应体的最大长度（字节）
+    private int maxIdleConnectionsPerHost = 32; // 每个上游实例保留的空闲连接数
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public void setMaxRequests(int maxRequests) {
+        this.maxRequests = maxRequests;
+    }
+
+    public long getDefaultTimeoutMillis() {
+        return defaultTimeoutMillis;
+    }
+
+    public void setDefaultTimeoutMillis(long defaultTimeoutMillis) {
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
+
+    public long getMaxTimeoutMillis() {
+        return maxTimeoutMillis;
+    }
+
+    public void setMaxTimeoutMillis(long maxTimeoutMillis) {
+        this.maxTimeoutMillis = maxTimeoutMillis;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public int getCallbackThreads() {
+        return callbackThreads;
+    }
+
+    public void setCallbackThreads(int callbackThreads) {
+        this.callbackThreads = callbackThreads;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public int getMaxContentLength() {
+        return maxContentLength;
+    }
+
+    public void setMaxContentLength(int maxContentLength) {
+        this.maxContentLength = maxContentLength;
+    }
+
+    public int getMaxIdleConnectionsPerHost() {
+        return maxIdleConnectionsPerHost;
+    }
+
+    public void setMaxIdleConnectionsPerHost(int maxIdleConnectionsPerHost) {
+        this.maxIdleConnectionsPerHost = maxIdleConnectionsPerHost;
+    }
+}
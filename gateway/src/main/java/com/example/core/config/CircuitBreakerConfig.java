@@ -0,0 +1,88 @@
+package com.example.core.config;
+
+import com.example.core.circuit.CircuitBreaker;
+import com.example.core.circuit.CircuitBreakerEndpoint;
+import com.example.core.circuit.CircuitBreakerRegistry;
+import com.example.core.filter.CircuitBreakerFilter;
+import com.example.core.filter.CircuitBreakerResultFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 熔断配置
+ * 路由和上游实例熔断器的详细状态通过 /circuitbreakers 端点查看，
+ * 路由熔断器的状态（0 关闭、1 打开、2 半开）和拒绝次数通过 /metrics 暴露，前缀为 gateway.circuit-breaker.&lt;路由id&gt;
+ */
+@Configuration
+@EnableConfigurationProperties(CircuitBreakerProperties.class)
+@ConditionalOnProperty(prefix = "gateway.circuit-breaker", name = "enabled", matchIfMissing = true)
+public class CircuitBreakerConfig {
+
+    @Autowired
+    private CircuitBreakerProperties properties;    // 熔断配置
+
+    /**
+     * 熔断器注册表，同时提供给各服务 Ribbon 子容器中的 LatencyAwareRule
+     * @return 熔断器注册表
+     */
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry() {
+        return new CircuitBreakerRegistry(properties);
+    }
+
+    /**
+     * 检查路由熔断器的前置过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public CircuitBreakerFilter circuitBreakerFilter() {
+        return new CircuitBreakerFilter(circuitBreakerRegistry());
+    }
+
+    /**
+     * 回报路由请求结果的后置过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public CircuitBreakerResultFilter circuitBreakerResultFilter() {
+        return new CircuitBreakerResultFilter();
+    }
+
+    /**
+     * 熔断器端点
+     * @return 端点
+     */
+    @Bean
+    public CircuitBreakerEndpoint circuitBreakerEndpoint() {
+        return new CircuitBreakerEndpoint(circuitBreakerRegistry());
+    }
+
+    /**
+     * 路由熔断器指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics circuitBreakerMetrics() {
+        CircuitBreakerRegistry registry = circuitBreakerRegistry();
+        return () -> {
+            List<Metric<?>> metrics = new ArrayList<>();
+            for (Map.Entry<String, CircuitBreaker> entry : registry.getRouteBreakers().entrySet()) {
+                String prefix = "gateway.circuit-breaker." + entry.getKey() + '.';
+                CircuitBreaker breaker = entry.getValue();
+                metrics.add(new Metric<>(prefix + "state", breaker.getState().ordinal()));
+                metrics.add(new Metric<>(prefix + "rejected", breaker.getRejected()));
+                metrics.add(new Metric<>(prefix + "opened", breaker.getOpened()));
+            }
+            return metrics;
+        };
+    }
+}
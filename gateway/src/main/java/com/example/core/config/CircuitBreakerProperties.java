@@ -0,0 +1,113 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 熔断配置
+ * 对应 gateway.circuit-breaker 前缀，路由和上游实例使用相同的阈值，各自独立统计
+ */
+@ConfigurationProperties(prefix = "gateway.circuit-breaker")
+public class CircuitBreakerProperties {
+    private boolean enabled = true;                 // 是否启用熔断
+    private List<String> routes = new ArrayList<>();    // 参与熔断的路由（与 zuul.routes 的键一致），为空时所有路由都参与
+    private boolean instanceEnabled = true;         // 是否同时按上游实例熔断（负载均衡跳过打开的实例）
+    private int windowSeconds = 10;                 // 滑动窗口长度（秒）
+    private int minimumRequests = 20;               // 窗口内请求数达到多少后才判断是否打开
+    private int failureRatePercent = 50;            // 失败率阈值（%）
+    private long slowCallMillis = 3000;             // 超过多长时间算慢请求
+    private int slowCallRatePercent = 80;           // 慢请求率阈值（%）
+    private long openMillis = 5000;                 // 打开后等待多长时间进入半开
+    private long maxOpenMillis = 60000;             // 连续打开时等待时间的上限
+    private int halfOpenProbes = 3;                 // 半开状态放行的探测请求数，全部成功后关闭
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<String> routes) {
+        this.routes = routes;
+    }
+
+    public boolean isInstanceEnabled() {
+        return instanceEnabled;
+    }
+
+    public void setInstanceEnabled(boolean instanceEnabled) {
+        this.instanceEnabled = instanceEnabled;
+    }
+
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void setWindowSeconds(int windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+
+    public int getMinimumRequests() {
+        return minimumRequests;
+    }
+
+    public void setMinimumRequests(int minimumRequests) {
+        this.minimumRequests = minimumRequests;
+    }
+
+    public int getFailureRatePercent() {
+        return failureRatePercent;
+    }
+
+    public void setFailureRatePercent(int failureRatePercent) {
+        this.failureRatePercent = failureRatePercent;
+    }
+
+    public long getSlowCallMillis() {
+        return slowCallMillis;
+    }
+
+    public void setSlowCallMillis(long slowCallMillis) {
+        this.slowCallMillis = slowCallMillis;
+    }
+
+    public int getSlowCallRatePercent() {
+        return slowCallRatePercent;
+    }
+
+    public void setSlowCallRatePercent(int slowCallRatePercent) {
+        this.slowCallRatePercent = slowCallRatePercent;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+    public void setOpenMillis(long openMillis) {
+        this.openMillis = openMillis;
+    }
+
+    public long getMaxOpenMillis() {
+        return maxOpenMillis;
+    }
+
+    public void setMaxOpenMillis(long maxOpenMillis) {
+        this.maxOpenMillis = maxOpenMillis;
+    }
+
+    public int getHalfOpenProbes() {
+        return halfOpenProbes;
+    }
+
+    public void setHalfOpenProbes(int halfOpenProbes) {
+        this.halfOpenProbes = halfOpenProbes;
+    }
+}
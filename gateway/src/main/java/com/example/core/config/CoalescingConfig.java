@@ -0,0 +1,83 @@
+package com.example.core.config;
+
+import com.example.core.coalesce.InFlightRequests;
+import com.example.core.filter.CoalescingCompleteFilter;
+import com.example.core.filter.CoalescingErrorFilter;
+import com.example.core.filter.CoalescingFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 请求合并配置
+ * 合并效果通过 /metrics 暴露，前缀为 gateway.coalescing
+ */
+@Configuration
+@EnableConfigurationProperties(CoalescingProperties.class)
+@ConditionalOnProperty(prefix = "gateway.coalescing", name = "enabled", matchIfMissing = true)
+public class CoalescingConfig {
+
+    @Autowired
+    private CoalescingProperties properties;    // 请求合并配置
+
+    /**
+     * 进行中的请求表
+     * @return 进行中的请求表
+     */
+    @Bean
+    public InFlightRequests inFlightRequests() {
+        return new InFlightRequests(properties.getMaxWaiters());
+    }
+
+    /**
+     * 合并相同请求的前置过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public CoalescingFilter coalescingFilter() {
+        return new CoalescingFilter(inFlightRequests(), properties);
+    }
+
+    /**
+     * 分发响应的后置过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public CoalescingCompleteFilter coalescingCompleteFilter() {
+        return new CoalescingCompleteFilter(inFlightRequests(), properties);
+    }
+
+    /**
+     * post 过滤器异常时完成请求的错误过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public CoalescingErrorFilter coalescingErrorFilter() {
+        return new CoalescingErrorFilter(inFlightRequests());
+    }
+
+    /**
+     * 请求合并指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics coalescingMetrics() {
+        InFlightRequests inFlight = inFlightRequests();
+        return () -> {
+            List<Metric<?>> metrics = new ArrayList<>(5);
+            metrics.add(new Metric<>("gateway.coalescing.leaders", inFlight.getLeaders()));
+            metrics.add(new Metric<>("gateway.coalescing.followers", inFlight.getFollowers()));
+            metrics.add(new Metric<>("gateway.coalescing.overflows", inFlight.getOverflows()));
+            metrics.add(new Metric<>("gateway.coalescing.timeouts", inFlight.getTimeouts()));
+            metrics.add(new Metric<>("gateway.coalescing.in-flight", inFlight.size()));
+            return metrics;
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 请求合并配置
+ * 对应 gateway.coalescing 前缀，只有在 routes 中列出的路由才会合并相同的 GET 请求
+ */
+@ConfigurationProperties(prefix = "gateway.coalescing")
+public class CoalescingProperties {
+    private boolean enabled = true;                 // 是否启用请求合并
+    private int maxWaiters = 1000;                  // 每个上游请求的等待者上限，超出的请求直接发往上游
+    private long waitTimeoutMillis = 3000;          // 等待 leader 响应的最长时间，超时后自行发往上游
+    private int maxEntryBytes = 1024 * 1024;        // 可分发的响应最大字节数
+    private List<String> routes = new ArrayList<>();    // 开启合并的路由（与 zuul.routes 的键一致）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxWaiters() {
+        return maxWaiters;
+    }
+
+    public void setMaxWaiters(int maxWaiters) {
+        this.maxWaiters = maxWaiters;
+    }
+
+    public long getWaitTimeoutMillis() {
+        return waitTimeoutMillis;
+    }
+
+    public void setWaitTimeoutMillis(long waitTimeoutMillis) {
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void setMaxEntryBytes(int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public List<String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<String> routes) {
+        this.routes = routes;
+    }
+}
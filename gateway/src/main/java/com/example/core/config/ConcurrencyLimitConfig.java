@@ -0,0 +1,82 @@
+package com.example.core.config;
+
+import com.example.core.concurrency.ConcurrencyLimiter;
+import com.example.core.concurrency.ConcurrencyLimiterRegistry;
+import com.example.core.filter.ConcurrencyLimitFilter;
+import com.example.core.filter.ConcurrencyLimitReleaseFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 自适应并发准入控制配置
+ * 每个路由的当前上限和拒绝情况通过 /metrics 暴露，前缀为 gateway.concurrency-limit.&lt;路由id&gt;
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "gateway.concurrency-limit", name = "enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Autowired
+    private ConcurrencyLimitProperties properties;  // 准入控制配置
+
+    /**
+     * 准入控制注册表
+     * @return 准入控制注册表
+     */
+    @Bean
+    public ConcurrencyLimiterRegistry concurrencyLimiterRegistry() {
+        return new ConcurrencyLimiterRegistry(properties);
+    }
+
+    /**
+     * 申请并发名额的前置过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter() {
+        return new ConcurrencyLimitFilter(concurrencyLimiterRegistry(), properties);
+    }
+
+    /**
+     * 归还并发名额的后置过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public ConcurrencyLimitReleaseFilter concurrencyLimitReleaseFilter() {
+        return new ConcurrencyLimitReleaseFilter();
+    }
+
+    /**
+     * 准入控制指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics concurrencyLimitMetrics() {
+        ConcurrencyLimiterRegistry registry = concurrencyLimiterRegistry();
+        return () -> {
+            List<Metric<?>> metrics = new ArrayList<>();
+            for (Map.Entry<String, ConcurrencyLimiter> entry : registry.getLimiters().entrySet()) {
+                String prefix = "gateway.concurrency-limit." + entry.getKey() + '.';
+                ConcurrencyLimiter limiter = entry.getValue();
+                metrics.add(new Metric<>(prefix + "limit", limiter.getLimit()));
+                metrics.add(new Metric<>(prefix + "in-flight", limiter.getInFlight()));
+                metrics.add(new Metric<>(prefix + "waiting", limiter.getWaiting()));
+                metrics.add(new Metric<>(prefix + "rtt-millis", limiter.getLongRttMillis()));
+                metrics.add(new Metric<>(prefix + "accepted", limiter.getAccepted()));
+                metrics.add(new Metric<>(prefix + "rejected", limiter.getRejected()));
+                metrics.add(new Metric<>(prefix + "queued", limiter.getQueued()));
+                metrics.add(new Metric<>(prefix + "timeouts", limiter.getTimeouts()));
+            }
+            return metrics;
+        };
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 自适应并发准入控制配置
+ * 对应 gateway.concurrency-limit 前缀，routes 为空时所有路由都参与准入控制，上限按路由分别学习
+ */
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;                 // 是否启用准入控制
+    private int initialLimit = 20;                  // 初始并发上限
+    private int minLimit = 4;                       // 并发上限的下界
+    private int maxLimit = 200;                     // 并发上限的上界（不超过 Zuul 的线程数）
+    private double smoothing = 0.2;                 // 新上限所占的权重
+    private double tolerance = 1.5;                 // 延迟相对基准的容忍倍数
+    private int longWindow = 600;                   // 长期延迟均值的样本窗口
+    private double lowPriorityShare = 0.5;          // 低优先级请求可使用的上限比例
+    private int maxQueue = 50;                      // 每个路由的排队请求数上限
+    private long maxWaitMillis = 50;                // 高优先级请求的最长排队时间
+    private List<String> routes = new ArrayList<>();    // 参与准入控制的路由（与 zuul.routes 的键一致）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public int getLongWindow() {
+        return longWindow;
+    }
+
+    public void setLongWindow(int longWindow) {
+        this.longWindow = longWindow;
+    }
+
+    public double getLowPriorityShare() {
+        return lowPriorityShare;
+    }
+
+    public void setLowPriorityShare(double lowPriorityShare) {
+        this.lowPriorityShare = lowPriorityShare;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public void setMaxQueue(int maxQueue) {
+        this.maxQueue = maxQueue;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public List<String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<String> routes) {
+        this.routes = routes;
+    }
+}
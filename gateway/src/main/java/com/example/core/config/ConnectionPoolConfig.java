@@ -0,0 +1,91 @@
+package com.example.core.config;
+
+import com.example.core.pool.ConnectionPoolRegistry;
+import com.example.core.pool.RouteConnectionPool;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.netflix.ribbon.RibbonClients;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上游连接池配置
+ * 通过 Ribbon 的默认客户端配置为每个服务（auth-server、producer-service 等）创建独立的连接池，
+ * 一个服务变慢占满连接时不会影响其他服务的请求
+ * 连接池的占用、等待和超时情况通过 /metrics 暴露，前缀为 gateway.connection-pool.&lt;serviceId&gt;
+ * 需要在启动时预热连接时开启 zuul.ribbon.eager-load.enabled，否则 Ribbon 子容器在第一个请求到达时才创建
+ */
+@Configuration
+@EnableConfigurationProperties(ConnectionPoolProperties.class)
+@ConditionalOnProperty(prefix = "gateway.connection-pool", name = "enabled", matchIfMissing = true)
+@RibbonClients(defaultConfiguration = ConnectionPoolRibbonConfiguration.class)
+public class ConnectionPoolConfig {
+
+    @Autowired
+    private ConnectionPoolProperties properties;    // 连接池配置
+
+    @Autowired
+    private ZuulProperties zuulProperties;          // Zuul 配置
+
+    /**
+     * 清理空闲连接和预热连接的线程池
+     * @return 线程池
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService connectionPoolScheduler() {
+        return new ScheduledThreadPoolExecutor(2, new CustomizableThreadFactory("connection-pool-"));
+    }
+
+    /**
+     * 连接池注册表，同时提供给各服务的 Ribbon 子容器
+     * @return 连接池注册表
+     */
+    @Bean
+    public ConnectionPoolRegistry connectionPoolRegistry() {
+        ScheduledExecutorService scheduler = connectionPoolScheduler();
+        ConnectionPoolRegistry registry = new ConnectionPoolRegistry(properties, zuulProperties, scheduler);
+        scheduler.scheduleWithFixedDelay(registry::evict,
+                properties.getEvictionIntervalSeconds(), properties.getEvictionIntervalSeconds(), TimeUnit.SECONDS);
+        return registry;
+    }
+
+    /**
+     * 连接池指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics connectionPoolMetrics() {
+        ConnectionPoolRegistry registry = connectionPoolRegistry();
+        return () -> {
+            List<Metric<?>> metrics = new ArrayList<>();
+            for (Map.Entry<String, RouteConnectionPool> entry : registry.getPools().entrySet()) {
+                String prefix = "gateway.connection-pool." + entry.getKey() + '.';
+                RouteConnectionPool pool = entry.getValue();
+                PoolStats stats = pool.getStats();
+                metrics.add(new Metric<>(prefix + "leased", stats.getLeased()));
+                metrics.add(new Metric<>(prefix + "available", stats.getAvailable()));
+                metrics.add(new Metric<>(prefix + "pending", stats.getPending()));
+                metrics.add(new Metric<>(prefix + "max", stats.getMax()));
+                metrics.add(new Metric<>(prefix + "leases", pool.getLeases()));
+                metrics.add(new Metric<>(prefix + "lease-timeouts", pool.getLeaseTimeouts()));
+                metrics.add(new Metric<>(prefix + "wait-millis-mean", pool.getMeanWaitMillis()));
+                metrics.add(new Metric<>(prefix + "wait-millis-max", pool.getMaxWaitMillis()));
+                metrics.add(new Metric<>(prefix + "warmed-connections", pool.getWarmedConnections()));
+            }
+            return metrics;
+        };
+    }
+}
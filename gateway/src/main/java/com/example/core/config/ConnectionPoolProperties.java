@@ -0,0 +1,156 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 上游连接池配置
+ * 对应 gateway.connection-pool 前缀，每个路由（按 serviceId 对应的 Ribbon 客户端）使用独立的连接池，
+ * routes 中可以按路由覆盖连接数、等待时间和预热连接数，未配置的路由使用默认值
+ */
+@ConfigurationProperties(prefix = "gateway.connection-pool")
+public class ConnectionPoolProperties {
+    private boolean enabled = true;                 // 是否启用按路由隔离的连接池
+    private int maxTotal = 200;                     // 每个路由连接池的最大连接数
+    private int maxPerHost = 50;                    // 每个路由连接池中每个实例的最大连接数
+    private long maxWaitMillis = 1000;              // 从连接池获取连接的最长等待时间，超时后请求失败，不无限占用线程
+    private long idleTimeoutSeconds = 30;           // 空闲多长时间的连接被关闭
+    private long timeToLiveSeconds = 900;           // 连接的最长存活时间
+    private int validateAfterInactivityMillis = 2000;   // 空闲超过该时间的连接在复用前先检查是否已被上游关闭
+    private long evictionIntervalSeconds = 5;       // 清理空闲和过期连接的间隔
+    private int warmupConnections = 2;              // 启动时和发现新实例时，每个实例预先建立的连接数，0 表示不预热
+    private int warmupConnectTimeoutMillis = 2000;  // 预热时建立连接的超时时间
+    private Map<String, Route> routes = new LinkedHashMap<>();  // 按路由覆盖的配置（键与 zuul.routes 一致）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    public void setMaxPerHost(int maxPerHost) {
+        this.maxPerHost = maxPerHost;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public long getIdleTimeoutSeconds() {
+        return idleTimeoutSeconds;
+    }
+
+    public void setIdleTimeoutSeconds(long idleTimeoutSeconds) {
+        this.idleTimeoutSeconds = idleTimeoutSeconds;
+    }
+
+    public long getTimeToLiveSeconds() {
+        return timeToLiveSeconds;
+    }
+
+    public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+        this.timeToLiveSeconds = timeToLiveSeconds;
+    }
+
+    public int getValidateAfterInactivityMillis() {
+        return validateAfterInactivityMillis;
+    }
+
+    public void setValidateAfterInactivityMillis(int validateAfterInactivityMillis) {
+        this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+    }
+
+    public long getEvictionIntervalSeconds() {
+        return evictionIntervalSeconds;
+    }
+
+    public void setEvictionIntervalSeconds(long evictionIntervalSeconds) {
+        this.evictionIntervalSeconds = evictionIntervalSeconds;
+    }
+
+    public int getWarmupConnections() {
+        return warmupConnections;
+    }
+
+    public void setWarmupConnections(int warmupConnections) {
+        this.warmupConnections = warmupConnections;
+    }
+
+    public int getWarmupConnectTimeoutMillis() {
+        return warmupConnectTimeoutMillis;
+    }
+
+    public void setWarmupConnectTimeoutMillis(int warmupConnectTimeoutMillis) {
+        this.warmupConnectTimeoutMillis = warmupConnectTimeoutMillis;
+    }
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * 单个路由的连接池配置，未设置的项使用默认值
+     */
+    public static class Route {
+        private Integer maxTotal;                   // 最大连接数
+        private Integer maxPerHost;                 // 每个实例的最大连接数
+        private Long maxWaitMillis;                 // 获取连接的最长等待时间
+        private Integer warmupConnections;          // 每个实例预先建立的连接数
+
+        public Integer getMaxTotal() {
+            return maxTotal;
+        }
+
+        public void setMaxTotal(Integer maxTotal) {
+            this.maxTotal = maxTotal;
+        }
+
+        public Integer getMaxPerHost() {
+            return maxPerHost;
+        }
+
+        public void setMaxPerHost(Integer maxPerHost) {
+            this.maxPerHost = maxPerHost;
+        }
+
+        public Long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public void setMaxWaitMillis(Long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public Integer getWarmupConnections() {
+            return warmupConnections;
+        }
+
+        public void setWarmupConnections(Integer warmupConnections) {
+            this.warmupConnections = warmupConnections;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.core.config;
+
+import com.example.core.metrics.TimedConnectionManager;
+import com.example.core.pool.ConnectionPoolRegistry;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerListChangeListener;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.springframework.cloud.netflix.ribbon.ServerIntrospector;
+import org.springframework.context.annotation.Bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ribbon 客户端的连接池配置，在每个服务的 Ribbon 子容器中加载
+ * 不加 @Configuration 注解，避免被组件扫描加载到网关的主容器中
+ */
+public class ConnectionPoolRibbonConfiguration {
+
+    /**
+     * 替换 Ribbon 默认的连接管理器，每个服务使用注册表中独立的连接池
+     * 外层的 TimedConnectionManager 把获取和建立连接的耗时记入请求的延迟统计
+     * @param config Ribbon 客户端配置
+     * @param registry 连接池注册表（来自主容器）
+     * @return 连接管理器
+     */
+    @Bean
+    public HttpClientConnectionManager httpClientConnectionManager(IClientConfig config, ConnectionPoolRegistry registry) {
+        return new TimedConnectionManager(registry.create(config.getClientName()));
+    }
+
+    /**
+     * 为当前的实例预先建立连接，之后实例列表变化（例如 Eureka 发现新实例）时为新增的实例预先建立连接
+     * @param config Ribbon 客户端配置
+     * @param loadBalancer 负载均衡器
+     * @param introspector 判断实例是否使用 https
+     * @param registry 连接池注册表（来自主容器）
+     * @return 实例列表变化监听器
+     */
+    @Bean
+    public ServerListChangeListener connectionPoolWarmup(IClientConfig config, ILoadBalancer loadBalancer,
+                                                         ServerIntrospector introspector, ConnectionPoolRegistry registry) {
+        String serviceId = config.getClientName();
+        ServerListChangeListener listener = (oldList, newList) -> {
+            List<Server> added = new ArrayList<>(newList);
+            added.removeAll(oldList);
+            if (!added.isEmpty()) {
+                registry.warmup(serviceId, added, introspector);
+            }
+        };
+        if (loadBalancer instanceof BaseLoadBalancer) {
+            ((BaseLoadBalancer) loadBalancer).addServerListChangeListener(listener);
+        }
+        registry.warmup(serviceId, loadBalancer.getAllServers(), introspector);
+        return listener;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.core.config;
+
+import com.example.core.filter.HedgedRoutingFilter;
+import com.example.core.hedge.HedgeBudget;
+import com.example.core.hedge.Hedger;
+import com.example.core.hedge.LatencyPercentile;
+import org.apache.http.client.config.RequestConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对冲请求配置
+ * 对冲次数和各路由当前的对冲延迟通过 /metrics 暴露，前缀为 gateway.hedging
+ */
+@Configuration
+@EnableConfigurationProperties(HedgingProperties.class)
+@ConditionalOnProperty(prefix = "gateway.hedging", name = "enabled", matchIfMissing = true)
+public class HedgingConfig {
+
+    @Autowired
+    private HedgingProperties properties;       // 对冲配置
+
+    @Autowired
+    private SpringClientFactory clientFactory;  // Ribbon 客户端工厂
+
+    @Autowired
+    private ProxyRequestHelper proxyRequestHelper;
+
+    /**
+     * 执行上游请求的线程池，不排队，已满时由请求线程直接执行主请求
+     * @return 线程池
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor hedgeExecutor() {
+        return new ThreadPoolExecutor(0, properties.getMaxThreads(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new CustomizableThreadFactory("hedge-"));
+    }
+
+    /**
+     * 对冲请求的超时设置，请求本身使用各服务 Ribbon 子容器中的 HttpClient 和连接池
+     * @return 请求设置
+     */
+    @Bean
+    public RequestConfig hedgeRequestConfig() {
+        return RequestConfig.custom()
+                .setConnectTimeout(properties.getConnectTimeoutMillis())
+                .setSocketTimeout(properties.getReadTimeoutMillis())
+                .setConnectionRequestTimeout(properties.getConnectTimeoutMillis())
+                .setRedirectsEnabled(false)
+                .build();
+    }
+
+    /**
+     * 对冲执行器，所有路由共享一个预算
+     * @return 对冲执行器
+     */
+    @Bean
+    public Hedger hedger() {
+        return new Hedger(hedgeExecutor(), new HedgeBudget(properties.getBudgetPercent() / 100, properties.getMaxBurst()));
+    }
+
+    /**
+     * 各路由最近的延迟分位数
+     * @return 路由id -> 延迟分位数
+     */
+    @Bean
+    public Map<String, LatencyPercentile> hedgeDelays() {
+        Map<String, LatencyPercentile> delays = new LinkedHashMap<>();
+        for (String route : properties.getRoutes()) {
+            delays.put(route, new LatencyPercentile(properties.getPercentile(),
+                    TimeUnit.SECONDS.toNanos(properties.getIntervalSeconds()), properties.getMinSamples(),
+                    TimeUnit.MINUTES.toMicros(1)));
+        }
+        return delays;
+    }
+
+    /**
+     * 对冲路由过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public HedgedRoutingFilter hedgedRoutingFilter() {
+        return new HedgedRoutingFilter(hedger(), hedgeDelays(), TimeUnit.MILLISECONDS.toNanos(properties.getMinDelayMillis()),
+                hedgeRequestConfig(), clientFactory, proxyRequestHelper);
+    }
+
+    /**
+     * 对冲指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics hedgingMetrics() {
+        Hedger hedger = hedger();
+        Map<String, LatencyPercentile> delays = hedgeDelays();
+        return () -> {
+            List<Metric<?>> metrics = new ArrayList<>();
+            metrics.add(new Metric<>("gateway.hedging.requests", hedger.getRequests()));
+            metrics.add(new Metric<>("gateway.hedging.hedges", hedger.getHedges()));
+            metrics.add(new Metric<>("gateway.hedging.hedge-wins", hedger.getHedgeWins()));
+            metrics.add(new Metric<>("gateway.hedging.throttled", hedger.getBudget().getThrottled()));
+            metrics.add(new Metric<>("gateway.hedging.budget", hedger.getBudget().getTokens()));
+            for (Map.Entry<String, LatencyPercentile> entry : delays.entrySet()) {
+                long nanos = entry.getValue().getNanos();
+                metrics.add(new Metric<>("gateway.hedging." + entry.getKey() + ".delay-millis",
+                        nanos < 0 ? -1 : nanos / 1000000.0));
+            }
+            return metrics;
+        };
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 对冲请求配置
+ * 对应 gateway.hedging 前缀，只有在 routes 中列出的路由（GET 请求需要是幂等的）才会对冲
+ */
+@ConfigurationProperties(prefix = "gateway.hedging")
+public class HedgingProperties {
+    private boolean enabled = true;                 // 是否启用对冲
+    private List<String> routes = new ArrayList<>();    // 开启对冲的路由（与 zuul.routes 的键一致）
+    private double percentile = 95;                 // 主请求超过最近延迟的该分位数后对冲
+    private long minDelayMillis = 5;                // 对冲延迟的下限
+    private long intervalSeconds = 10;              // 延迟分位数的统计周期
+    private int minSamples = 50;                    // 统计周期内至少需要的样本数，不足时沿用上一周期的结果
+    private double budgetPercent = 5;               // 对冲请求占请求总数的最大比例（%）
+    private int maxBurst = 10;                      // 空闲后最多连续对冲的次数
+    private int maxThreads = 200;                   // 执行上游请求的最大线程数，已满时不对冲
+    private int connectTimeoutMillis = 1000;        // 连接超时（与 Ribbon 默认值一致）
+    private int readTimeoutMillis = 1000;           // 读取超时（与 Ribbon 默认值一致）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<String> routes) {
+        this.routes = routes;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public long getMinDelayMillis() {
+        return minDelayMillis;
+    }
+
+    public void setMinDelayMillis(long minDelayMillis) {
+        this.minDelayMillis = minDelayMillis;
+    }
+
+    public long getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    public void setIntervalSeconds(long intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public double getBudgetPercent() {
+        return budgetPercent;
+    }
+
+    public void setBudgetPercent(double budgetPercent) {
+        this.budgetPercent = budgetPercent;
+    }
+
+    public int getMaxBurst() {
+        return maxBurst;
+    }
+
+    public void setMaxBurst(int maxBurst) {
+        this.maxBurst = maxBurst;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public void setReadTimeoutMillis(int readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+}
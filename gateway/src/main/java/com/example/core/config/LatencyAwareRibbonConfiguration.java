@@ -0,0 +1,40 @@
+package com.example.core.config;
+
+import com.example.core.circuit.CircuitBreakerRegistry;
+import com.example.core.loadbalance.LatencyAwareRule;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.IRule;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Ribbon 客户端的默认配置，在每个服务的 Ribbon 子容器中加载
+ * 不加 @Configuration 注解，避免被组件扫描加载到网关的主容器中
+ */
+public class LatencyAwareRibbonConfiguration {
+
+    /**
+     * 按延迟和负载选择实例的规则，每个服务一个实例
+     * 参数写入 Ribbon 客户端配置，ZoneAwareLoadBalancer 为各可用区复制的规则也能读到
+     * @param config Ribbon 客户端配置
+     * @param properties 负载均衡配置（来自主容器）
+     * @param circuitBreakers 熔断器注册表（来自主容器，未启用熔断时为空）
+     * @return 规则
+     */
+    @Bean
+    public IRule ribbonRule(IClientConfig config, LoadBalancerProperties properties,
+                            ObjectProvider<CircuitBreakerRegistry> circuitBreakers) {
+        config.set(LatencyAwareRule.FAILURE_THRESHOLD, properties.getFailureThreshold());
+        config.set(LatencyAwareRule.BASE_EJECTION_SECONDS, properties.getBaseEjectionSeconds());
+        config.set(LatencyAwareRule.MAX_EJECTION_SECONDS, properties.getMaxEjectionSeconds());
+        config.set(LatencyAwareRule.MAX_EJECTION_PERCENT, properties.getMaxEjectionPercent());
+        config.set(LatencyAwareRule.DECAY_SECONDS, properties.getDecaySeconds());
+        CircuitBreakerRegistry registry = circuitBreakers.getIfAvailable();
+        if (registry != null) {
+            config.set(LatencyAwareRule.INSTANCE_BREAKERS, registry);
+        }
+        LatencyAwareRule rule = new LatencyAwareRule();
+        rule.initWithNiwsConfig(config);
+        return rule;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.core.config;
+
+import com.example.core.filter.LatencyTimingFilter;
+import com.example.core.metrics.LatencyEndpoint;
+import com.example.core.metrics.LatencyHistograms;
+import com.example.core.metrics.TimedConnectionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.commons.httpclient.ApacheHttpClientConnectionManagerFactory;
+import org.springframework.cloud.commons.httpclient.DefaultApacheHttpClientConnectionManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 延迟统计配置
+ * 替换默认的 Apache HttpClient 连接管理器工厂，Ribbon 与 SimpleHost 路由创建的连接池都会记录连接耗时
+ */
+@Configuration
+@EnableConfigurationProperties(LatencyProperties.class)
+@ConditionalOnProperty(prefix = "gateway.latency", name = "enabled", matchIfMissing = true)
+public class LatencyConfig {
+
+    @Autowired
+    private LatencyProperties properties;   // 延迟统计配置
+
+    /**
+     * 延迟直方图
+     * @return 延迟直方图
+     */
+    @Bean
+    public LatencyHistograms latencyHistograms() {
+        return new LatencyHistograms(TimeUnit.MILLISECONDS.toMicros(properties.getHighestTrackableMillis()),
+                properties.getSignificantDigits());
+    }
+
+    /**
+     * 延迟直方图端点
+     * @return 端点
+     */
+    @Bean
+    public LatencyEndpoint latencyEndpoint() {
+        return new LatencyEndpoint(latencyHistograms());
+    }
+
+    /**
+     * 记录连接耗时的连接管理器工厂
+     * @return 连接管理器工厂
+     */
+    @Bean
+    public ApacheHttpClientConnectionManagerFactory timedConnectionManagerFactory() {
+        DefaultApacheHttpClientConnectionManagerFactory delegate = new DefaultApacheHttpClientConnectionManagerFactory();
+        return (disableSslValidation, maxTotalConnections, maxConnectionsPerRoute, timeToLive, timeUnit, registryBuilder) ->
+                new TimedConnectionManager(delegate.newConnectionManager(disableSslValidation, maxTotalConnections,
+                        maxConnectionsPerRoute, timeToLive, timeUnit, registryBuilder));
+    }
+
+    /**
+     * 请求开始计时
+     * @return 过滤器
+     */
+    @Bean
+    public LatencyTimingFilter latencyStartFilter() {
+        return new LatencyTimingFilter(LatencyTimingFilter.Stage.START, latencyHistograms());
+    }
+
+    /**
+     * pre 阶段结束计时
+     * @return 过滤器
+     */
+    @Bean
+    public LatencyTimingFilter latencyRouteFilter() {
+        return new LatencyTimingFilter(LatencyTimingFilter.Stage.ROUTE, latencyHistograms());
+    }
+
+    /**
+     * 收到上游响应计时
+     * @return 过滤器
+     */
+    @Bean
+    public LatencyTimingFilter latencyRoutedFilter() {
+        return new LatencyTimingFilter(LatencyTimingFilter.Stage.ROUTED, latencyHistograms());
+    }
+
+    /**
+     * 响应输出结束，写入直方图
+     * @return 过滤器
+     */
+    @Bean
+    public LatencyTimingFilter latencyEndFilter() {
+        return new LatencyTimingFilter(LatencyTimingFilter.Stage.END, latencyHistograms());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 延迟统计配置
+ * 对应 gateway.latency 前缀
+ */
+@ConfigurationProperties(prefix = "gateway.latency")
+public class LatencyProperties {
+    private boolean enabled = true;                 // 是否启用延迟统计
+    private long highestTrackableMillis = 60000;    // 可记录的最大延迟（毫秒）
+    private int significantDigits = 2;              // 直方图有效数字位数（2 位即误差 1%）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getHighestTrackableMillis() {
+        return highestTrackableMillis;
+    }
+
+    public void setHighestTrackableMillis(long highestTrackableMillis) {
+        this.highestTrackableMillis = highestTrackableMillis;
+    }
+
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    public void setSignificantDigits(int significantDigits) {
+        this.significantDigits = significantDigits;
+    }
+}
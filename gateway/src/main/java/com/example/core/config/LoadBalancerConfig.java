@@ -0,0 +1,28 @@
+package com.example.core.config;
+
+import com.example.core.filter.LoadBalancerFeedbackFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.netflix.ribbon.RibbonClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 负载均衡配置
+ * 通过 Ribbon 的默认客户端配置把所有服务（producer-service、auth-server 等）的规则替换为 LatencyAwareRule
+ */
+@Configuration
+@EnableConfigurationProperties(LoadBalancerProperties.class)
+@ConditionalOnProperty(prefix = "gateway.load-balancer", name = "enabled", matchIfMissing = true)
+@RibbonClients(defaultConfiguration = LatencyAwareRibbonConfiguration.class)
+public class LoadBalancerConfig {
+
+    /**
+     * 负载均衡反馈过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public LoadBalancerFeedbackFilter loadBalancerFeedbackFilter() {
+        return new LoadBalancerFeedbackFilter();
+    }
+}
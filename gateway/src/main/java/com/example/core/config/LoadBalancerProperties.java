@@ -0,0 +1,65 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 负载均衡配置
+ * 对应 gateway.load-balancer 前缀，对所有 Ribbon 客户端生效
+ */
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LoadBalancerProperties {
+    private boolean enabled = true;             // 是否使用按延迟和负载选择实例的规则
+    private int failureThreshold = 5;           // 连续失败多少次后摘除实例
+    private int baseEjectionSeconds = 30;       // 基础摘除时长（秒），连续摘除时成倍增加
+    private int maxEjectionSeconds = 300;       // 最长摘除时长（秒）
+    private int maxEjectionPercent = 50;        // 最多摘除的实例比例（%）
+    private int decaySeconds = 10;              // 延迟均值的衰减时间常数（秒）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public int getBaseEjectionSeconds() {
+        return baseEjectionSeconds;
+    }
+
+    public void setBaseEjectionSeconds(int baseEjectionSeconds) {
+        this.baseEjectionSeconds = baseEjectionSeconds;
+    }
+
+    public int getMaxEjectionSeconds() {
+        return maxEjectionSeconds;
+    }
+
+    public void setMaxEjectionSeconds(int maxEjectionSeconds) {
+        this.maxEjectionSeconds = maxEjectionSeconds;
+    }
+
+    public int getMaxEjectionPercent() {
+        return maxEjectionPercent;
+    }
+
+    public void setMaxEjectionPercent(int maxEjectionPercent) {
+        this.maxEjectionPercent = maxEjectionPercent;
+    }
+
+    public int getDecaySeconds() {
+        return decaySeconds;
+    }
+
+    public void setDecaySeconds(int decaySeconds) {
+        this.decaySeconds = decaySeconds;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.core.config;
+
+import com.example.core.netty.NettyRoutingServer;
+import com.example.core.netty.NettyUpstreamClient;
+import com.example.core.netty.RoutingHandler;
+import com.example.core.security.PrincipalHeaderSigner;
+import com.example.core.security.TokenAuthenticator;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * 非阻塞路由模式配置
+ * 通过 gateway.netty-routing.enabled 开启，与 Zuul 共用路由表、负载均衡和令牌认证
+ */
+@Configuration
+@EnableConfigurationProperties(NettyRoutingProperties.class)
+@ConditionalOnProperty(prefix = "gateway.netty-routing", name = "enabled")
+public class NettyRoutingConfig {
+
+    @Autowired
+    private NettyRoutingProperties properties;          // 非阻塞路由配置
+
+    @Autowired
+    private TokenAuthenticator tokenAuthenticator;      // 令牌认证
+
+    @Autowired(required = false)
+    private PrincipalHeaderSigner principalHeaderSigner; // 签名用户头生成器
+
+    @Autowired(required = false)
+    private PrincipalHeaderProperties principalHeaderProperties; // 签名用户头配置
+
+    /**
+     * 处理读写的事件循环，服务端与上游客户端共用
+     * @return 事件循环
+     */
+    @Bean
+    public EventLoopGroup nettyRoutingWorkerGroup() {
+        return new NioEventLoopGroup(properties.getWorkerThreads(), new CustomizableThreadFactory("netty-routing-"));
+    }
+
+    /**
+     * 非阻塞上游客户端
+     * @return 上游客户端
+     */
+    @Bean
+    public NettyUpstreamClient nettyUpstreamClient() {
+        return new NettyUpstreamClient(nettyRoutingWorkerGroup(), properties.getConnectTimeoutMillis(),
+                properties.getReadTimeoutMillis(), properties.getMaxContentLength(), properties.getMaxIdleConnectionsPerHost());
+    }
+
+    /**
+     * 非阻塞路由服务
+     * @param routeLocator Zuul 路由定位器
+     * @param zuulProperties Zuul 配置
+     * @param loadBalancerClient 负载均衡客户端
+     * @return 非阻塞路由服务
+     */
+    @Bean
+    public NettyRoutingServer nettyRoutingServer(RouteLocator routeLocator, ZuulProperties zuulProperties, LoadBalancerClient loadBalancerClient) {
+        RoutingHandler routingHandler = new RoutingHandler(routeLocator, zuulProperties, loadBalancerClient, nettyUpstreamClient(),
+                tokenAuthenticator, principalHeaderSigner, principalHeaderProperties == null ? null : principalHeaderProperties.getName());
+        return new NettyRoutingServer(new NioEventLoopGroup(1, new CustomizableThreadFactory("netty-routing-boss-")),
+                nettyRoutingWorkerGroup(), routingHandler, nettyUpstreamClient(), properties.getPort(), properties.getMaxContentLength());
+    }
+}
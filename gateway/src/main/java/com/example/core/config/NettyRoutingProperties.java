@@ -0,0 +1,74 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 非阻塞路由模式配置
+ * 对应 gateway.netty-routing 前缀，默认关闭，开启后在独立端口上提供与 zuul.routes 相同的路由
+ */
+@ConfigurationProperties(prefix = "gateway.netty-routing")
+public class NettyRoutingProperties {
+    private boolean enabled = false;            // 是否启用非阻塞路由模式
+    private int port = 9031;                    // 监听端口
+    private int workerThreads = 0;              // 事件循环线程数，0 表示 CPU 核数 * 2
+    private int maxContentLength = 1048576;     // 请求/响应体的最大长度（字节）
+    private int connectTimeoutMillis = 2000;    // 连接上游服务的超时时间
+    private int readTimeoutMillis = 10000;      // 等待上游响应的超时时间
+    private int maxIdleConnectionsPerHost = 64; // 每个上游实例保留的空闲连接数
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public int getMaxContentLength() {
+        return maxContentLength;
+    }
+
+    public void setMaxContentLength(int maxContentLength) {
+        this.maxContentLength = maxContentLength;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public void setReadTimeoutMillis(int readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    public int getMaxIdleConnectionsPerHost() {
+        return maxIdleConnectionsPerHost;
+    }
+
+    public void setMaxIdleConnectionsPerHost(int maxIdleConnectionsPerHost) {
+        this.maxIdleConnectionsPerHost = maxIdleConnectionsPerHost;
+    }
+}
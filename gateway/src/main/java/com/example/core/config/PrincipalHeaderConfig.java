@@ -0,0 +1,40 @@
+package com.example.core.config;
+
+import com.example.core.filter.PrincipalHeaderFilter;
+import com.example.core.security.PrincipalHeaderSigner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 签名用户头配置
+ * 依赖网关本地的令牌校验（TokenCacheConfig）
+ */
+@Configuration
+@EnableConfigurationProperties(PrincipalHeaderProperties.class)
+@ConditionalOnProperty(prefix = "gateway.principal-header", name = "enabled")
+public class PrincipalHeaderConfig {
+
+    @Autowired
+    private PrincipalHeaderProperties properties;   // 签名头配置
+
+    /**
+     * 签名用户头生成器
+     * @return 签名用户头生成器
+     */
+    @Bean
+    public PrincipalHeaderSigner principalHeaderSigner() {
+        return new PrincipalHeaderSigner(properties.getSecret());
+    }
+
+    /**
+     * 签名用户头过滤器
+     * @return 签名用户头过滤器
+     */
+    @Bean
+    public PrincipalHeaderFilter principalHeaderFilter() {
+        return new PrincipalHeaderFilter(principalHeaderSigner(), properties.getName());
+    }
+}
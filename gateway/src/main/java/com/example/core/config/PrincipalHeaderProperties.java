@@ -0,0 +1,38 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 签名用户头配置
+ * 对应 gateway.principal-header 前缀，密钥需与下游服务一致
+ */
+@ConfigurationProperties(prefix = "gateway.principal-header")
+public class PrincipalHeaderProperties {
+    private boolean enabled = false;            // 是否向下游转发签名用户头
+    private String name = "X-Auth-Principal";   // 请求头名称
+    private String secret;                      // 签名密钥
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+}
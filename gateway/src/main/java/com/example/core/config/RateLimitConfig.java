@@ -0,0 +1,79 @@
+package com.example.core.config;
+
+import com.example.core.filter.AddressRateLimitFilter;
+import com.example.core.filter.RateLimitFilter;
+import com.example.core.ratelimit.RateLimiterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流配置
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "gateway.rate-limit", name = "enabled", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Autowired
+    private RateLimitProperties properties; // 限流配置
+
+    /**
+     * 限流器注册表
+     * @return 限流器注册表
+     */
+    @Bean
+    public RateLimiterRegistry rateLimiterRegistry() {
+        return new RateLimiterRegistry(properties);
+    }
+
+    /**
+     * 定时回收空闲令牌桶
+     * @return 定时任务线程池
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService rateLimitPurgeScheduler() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("rate-limit-purge-"));
+        scheduler.scheduleWithFixedDelay(rateLimiterRegistry()::purge,
+                properties.getPurgeIntervalSeconds(), properties.getPurgeIntervalSeconds(), TimeUnit.SECONDS);
+        return scheduler;
+    }
+
+    /**
+     * 限流过滤器
+     * @return 限流过滤器
+     */
+    @Bean
+    public RateLimitFilter rateLimitFilter() {
+        return new RateLimitFilter(rateLimiterRegistry());
+    }
+
+    /**
+     * 校验令牌之前按客户端地址限流的过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public AddressRateLimitFilter addressRateLimitFilter() {
+        return new AddressRateLimitFilter(rateLimiterRegistry());
+    }
+
+    /**
+     * 限流指标：客户端数达到上限后淘汰的令牌桶数
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics rateLimitMetrics() {
+        RateLimiterRegistry registry = rateLimiterRegistry();
+        return () -> Collections.<Metric<?>>singletonList(new Metric<>("gateway.rate-limit.evicted", registry.getEvicted()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 限流配置
+ * 对应 gateway.rate-limit 前缀，routes 的键与 zuul.routes 的键一致
+ */
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;                         // 是否启用限流
+    private Limit defaultLimit;                             // 未单独配置的路由使用的规则（为空表示不限流）
+    private Limit addressLimit;                             // 校验令牌之前按客户端地址限流的规则（为空表示不限流）
+    private Map<String, Limit> routes = new LinkedHashMap<>(); // 按路由配置的规则
+    private int maxClientsPerRoute = 100000;                // 每个路由最多跟踪的客户端数
+    private long purgeIntervalSeconds = 60;                 // 回收空闲令牌桶的间隔
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limit getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(Limit defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public Limit getAddressLimit() {
+        return addressLimit;
+    }
+
+    public void setAddressLimit(Limit addressLimit) {
+        this.addressLimit = addressLimit;
+    }
+
+    public Map<String, Limit> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Limit> routes) {
+        this.routes = routes;
+    }
+
+    public int getMaxClientsPerRoute() {
+        return maxClientsPerRoute;
+    }
+
+    public void setMaxClientsPerRoute(int maxClientsPerRoute) {
+        this.maxClientsPerRoute = maxClientsPerRoute;
+    }
+
+    public long getPurgeIntervalSeconds() {
+        return purgeIntervalSeconds;
+    }
+
+    public void setPurgeIntervalSeconds(long purgeIntervalSeconds) {
+        this.purgeIntervalSeconds = purgeIntervalSeconds;
+    }
+
+    /**
+     * 限流规则
+     */
+    public static class Limit {
+        private double ratePerSecond = 50;  // 每个客户端每秒允许的请求数
+        private int burst = 100;            // 允许的突发请求数
+
+        public double getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public void setRatePerSecond(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+}
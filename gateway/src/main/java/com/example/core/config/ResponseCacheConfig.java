@@ -0,0 +1,74 @@
+package com.example.core.config;
+
+import com.example.core.cache.ResponseCache;
+import com.example.core.filter.ResponseCacheFilter;
+import com.example.core.filter.ResponseCacheStoreFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 响应缓存配置
+ * 命中率等指标通过 /metrics 暴露，前缀为 gateway.response-cache
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnProperty(prefix = "gateway.response-cache", name = "enabled", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Autowired
+    private ResponseCacheProperties properties; // 响应缓存配置
+
+    /**
+     * 响应缓存
+     * @return 响应缓存
+     */
+    @Bean
+    public ResponseCache responseCache() {
+        return new ResponseCache(properties.getMaxBytes(), properties.getSegments());
+    }
+
+    /**
+     * 读取缓存的前置过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public ResponseCacheFilter responseCacheFilter() {
+        return new ResponseCacheFilter(responseCache(), properties);
+    }
+
+    /**
+     * 写入缓存的后置过滤器
+     * @return 过滤器
+     */
+    @Bean
+    public ResponseCacheStoreFilter responseCacheStoreFilter() {
+        return new ResponseCacheStoreFilter(responseCache(), properties);
+    }
+
+    /**
+     * 缓存指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics responseCacheMetrics() {
+        ResponseCache cache = responseCache();
+        return () -> {
+            List<Metric<?>> metrics = new ArrayList<>(6);
+            metrics.add(new Metric<>("gateway.response-cache.hits", cache.getHits()));
+            metrics.add(new Metric<>("gateway.response-cache.misses", cache.getMisses()));
+            metrics.add(new Metric<>("gateway.response-cache.evictions", cache.getEvictions()));
+            metrics.add(new Metric<>("gateway.response-cache.stores", cache.getStores()));
+            metrics.add(new Metric<>("gateway.response-cache.size", cache.size()));
+            metrics.add(new Metric<>("gateway.response-cache.bytes", cache.bytes()));
+            return metrics;
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 响应缓存配置
+ * 对应 gateway.response-cache 前缀，只有在 routes 中列出的路由才会缓存（按路由开启）
+ */
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;                 // 是否启用响应缓存
+    private long maxBytes = 64L * 1024 * 1024;      // 缓存总容量（字节）
+    private int segments = 16;                      // 缓存分段数
+    private int maxEntryBytes = 1024 * 1024;        // 单个响应的最大字节数
+    private Map<String, Route> routes = new LinkedHashMap<>(); // 开启缓存的路由（键与 zuul.routes 一致）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public void setSegments(int segments) {
+        this.segments = segments;
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void setMaxEntryBytes(int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * 路由的缓存规则
+     */
+    public static class Route {
+        private long defaultTtlSeconds = 0;     // 上游未指定 max-age 时的缓存时间，0 表示不缓存
+
+        public long getDefaultTtlSeconds() {
+            return defaultTtlSeconds;
+        }
+
+        public void setDefaultTtlSeconds(long defaultTtlSeconds) {
+            this.defaultTtlSeconds = defaultTtlSeconds;
+        }
+    }
+}
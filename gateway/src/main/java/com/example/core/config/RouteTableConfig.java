@@ -0,0 +1,112 @@
+package com.example.core.config;
+
+import com.example.core.route.RouteTable;
+import com.example.core.route.RouteTableHandlerMapping;
+import com.example.core.route.RouteTableLocator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ErrorController;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.bind.PropertiesConfigurationFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.discovery.ServiceRouteMapper;
+import org.springframework.cloud.netflix.zuul.web.ZuulController;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.validation.BindException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 路由表配置
+ * zuul.routes 可以放在配置中心的 api-gateway.yml 中，修改后通过 /bus/refresh（或本实例的 /refresh）下发；
+ * 刷新时从当前配置重新读取一份 zuul 配置编译成新的路由表并整体替换，请求线程不加锁，删除的路由也会生效
+ * 路由表的版本、路由数和编译耗时通过 /metrics 暴露，前缀为 gateway.route-table
+ */
+@Configuration
+@EnableConfigurationProperties(RouteTableProperties.class)
+@ConditionalOnProperty(prefix = "gateway.route-table", name = "enabled", matchIfMissing = true)
+public class RouteTableConfig {
+
+    @Autowired
+    private ConfigurableEnvironment environment;    // 当前配置（包括配置中心下发的配置）
+
+    @Autowired
+    private ZuulProperties zuulProperties;          // Zuul 配置
+
+    @Autowired
+    private ServerProperties server;                // 服务器配置
+
+    @Autowired(required = false)
+    private Registration registration;              // 网关自身的注册信息
+
+    @Autowired(required = false)
+    private ErrorController errorController;        // 错误页
+
+    /**
+     * 路由定位器，替换 Zuul 默认的 DiscoveryClientRouteLocator
+     * @param discovery 服务发现客户端
+     * @param serviceRouteMapper 服务id -> 路由路径
+     * @return 路由定位器
+     */
+    @Bean
+    public RouteTableLocator routeTableLocator(DiscoveryClient discovery, ServiceRouteMapper serviceRouteMapper) {
+        return new RouteTableLocator(server.getServletPrefix(), discovery, zuulProperties, serviceRouteMapper,
+                registration, this::bindZuulProperties);
+    }
+
+    /**
+     * 按路由表把请求交给 Zuul 的 HandlerMapping
+     * @param routeTableLocator 路由定位器
+     * @param zuulController Zuul 处理器
+     * @return HandlerMapping
+     */
+    @Bean
+    public RouteTableHandlerMapping routeTableHandlerMapping(RouteTableLocator routeTableLocator, ZuulController zuulController) {
+        return new RouteTableHandlerMapping(routeTableLocator, zuulController, errorController);
+    }
+
+    /**
+     * 路由表指标
+     * @param routeTableLocator 路由定位器
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics routeTableMetrics(RouteTableLocator routeTableLocator) {
+        return () -> {
+            List<Metric<?>> metrics = new ArrayList<>();
+            RouteTable table = routeTableLocator.getTable();
+            metrics.add(new Metric<>("gateway.route-table.version", table.getVersion()));
+            metrics.add(new Metric<>("gateway.route-table.routes", table.getRoutes().size()));
+            metrics.add(new Metric<>("gateway.route-table.reloads", routeTableLocator.getReloads()));
+            metrics.add(new Metric<>("gateway.route-table.compile-millis", routeTableLocator.getLastCompileMillis()));
+            return metrics;
+        };
+    }
+
+    /**
+     * 从当前配置绑定一份新的 zuul 配置
+     * ZuulProperties bean 刷新时只会把新配置合并进原来的 routes，删除的路由仍然保留，所以这里每次重新绑定
+     * @return zuul 配置快照
+     */
+    private ZuulProperties bindZuulProperties() {
+        ZuulProperties snapshot = new ZuulProperties();
+        PropertiesConfigurationFactory<ZuulProperties> factory = new PropertiesConfigurationFactory<>(snapshot);
+        factory.setPropertySources(environment.getPropertySources());
+        factory.setTargetName("zuul");
+        try {
+            factory.bindPropertiesToTarget();
+        } catch (BindException e) {
+            throw new IllegalStateException("Invalid zuul configuration: " + e.getMessage(), e);
+        }
+        snapshot.init();
+        return snapshot;
+    }
+}
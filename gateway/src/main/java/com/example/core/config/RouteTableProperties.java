@@ -0,0 +1,20 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 路由表配置
+ * 对应 gateway.route-table 前缀，路由本身仍然在 zuul.routes 中配置（本地 application.yml 或配置中心的 api-gateway.yml）
+ */
+@ConfigurationProperties(prefix = "gateway.route-table")
+public class RouteTableProperties {
+    private boolean enabled = true;                 // 是否使用编译路由表（关闭时使用 Zuul 默认的路由定位器）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
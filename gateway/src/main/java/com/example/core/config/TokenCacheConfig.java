@@ -0,0 +1,72 @@
+package com.example.core.config;
+
+import com.example.core.revocation.RevokedTokens;
+import com.example.core.security.AuthServerTokenIntrospector;
+import com.example.core.security.TokenValidationCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌校验缓存配置
+ * 网关在本地校验 Bearer 令牌，只有缓存未命中时才访问认证服务
+ */
+@Configuration
+@EnableConfigurationProperties(TokenCacheProperties.class)
+@ConditionalOnProperty(prefix = "gateway.token-cache", name = "enabled", matchIfMissing = true)
+public class TokenCacheConfig {
+
+    @Autowired
+    private TokenCacheProperties properties;    // 缓存配置
+
+    /**
+     * 访问认证服务的请求模板
+     * @ LoadBalanced 按服务id从注册中心获取服务地址
+     * @return 请求模板
+     */
+    @Bean
+    @LoadBalanced
+    public RestTemplate authRestTemplate() {
+        return new RestTemplate();
+    }
+
+    /**
+     * 查询认证服务的线程池
+     * @return 有界线程池
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService tokenLoaderExecutor() {
+        return new ThreadPoolExecutor(properties.getLoaderThreads(), properties.getLoaderThreads(),
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(properties.getLoaderQueueSize()),
+                new CustomizableThreadFactory("token-loader-"));
+    }
+
+    /**
+     * 令牌校验缓存
+     * @param revokedTokens 已撤销令牌过滤器（TokenRevocationConfig，未启用时为空）
+     * @return 令牌校验缓存对象
+     */
+    @Bean
+    public TokenValidationCache tokenValidationCache(ObjectProvider<RevokedTokens> revokedTokens) {
+        TokenValidationCache cache = new TokenValidationCache(
+                new AuthServerTokenIntrospector(authRestTemplate(), properties.getUserInfoUri()),
+                tokenLoaderExecutor(),
+                properties.getMaxSize(),
+                properties.getTtlSeconds(),
+                properties.getNegativeTtlSeconds(),
+                TimeUnit.SECONDS);
+        cache.setRevokedTokens(revokedTokens.getIfAvailable());
+        return cache;
+    }
+}
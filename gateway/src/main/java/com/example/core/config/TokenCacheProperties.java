@@ -0,0 +1,96 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 令牌校验缓存配置
+ * 对应 gateway.token-cache 前缀
+ */
+@ConfigurationProperties(prefix = "gateway.token-cache")
+public class TokenCacheProperties {
+    private boolean enabled = true;                       // 是否在网关本地校验令牌
+    private String userInfoUri = "http://auth-server/user"; // 认证服务的用户信息地址（按服务id负载均衡）
+    private int maxSize = 10000;                          // 最大缓存条目数
+    private long ttlSeconds = 60;                         // 有效令牌的缓存时间（不超过令牌本身的剩余有效期）
+    private long negativeTtlSeconds = 5;                  // 无效令牌的缓存时间
+    private long lookupTimeoutMillis = 2000;              // 未命中时等待认证服务的最长时间
+    private int loaderThreads = 8;                        // 查询认证服务的线程数
+    private int loaderQueueSize = 1000;                   // 查询排队上限
+    private List<String> otherSchemeRoutes = new ArrayList<>(Collections.singletonList("auth"));  // 允许非 Bearer 认证方案的路由（只检查 Authorization 存在）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUserInfoUri() {
+        return userInfoUri;
+    }
+
+    public void setUserInfoUri(String userInfoUri) {
+        this.userInfoUri = userInfoUri;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public long getNegativeTtlSeconds() {
+        return negativeTtlSeconds;
+    }
+
+    public void setNegativeTtlSeconds(long negativeTtlSeconds) {
+        this.negativeTtlSeconds = negativeTtlSeconds;
+    }
+
+    public long getLookupTimeoutMillis() {
+        return lookupTimeoutMillis;
+    }
+
+    public void setLookupTimeoutMillis(long lookupTimeoutMillis) {
+        this.lookupTimeoutMillis = lookupTimeoutMillis;
+    }
+
+    public int getLoaderThreads() {
+        return loaderThreads;
+    }
+
+    public void setLoaderThreads(int loaderThreads) {
+        this.loaderThreads = loaderThreads;
+    }
+
+    public int getLoaderQueueSize() {
+        return loaderQueueSize;
+    }
+
+    public void setLoaderQueueSize(int loaderQueueSize) {
+        this.loaderQueueSize = loaderQueueSize;
+    }
+
+    public List<String> getOtherSchemeRoutes() {
+        return otherSchemeRoutes;
+    }
+
+    public void setOtherSchemeRoutes(List<String> otherSchemeRoutes) {
+        this.otherSchemeRoutes = otherSchemeRoutes;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.core.config;
+
+import com.example.core.revocation.RevokedTokens;
+import com.example.core.revocation.TokenRevokedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已撤销令牌过滤器配置
+ * 依赖网关本地的令牌校验（TokenCacheConfig）：启动时通过 authRestTemplate 拉取认证服务的完整快照，
+ * 之后接收消息总线上的 TokenRevokedEvent 增量；令牌校验缓存命中时先检查过滤器，可能已撤销的令牌重新访问认证服务确认
+ * 指标通过 /metrics 暴露，前缀为 gateway.token-revocation
+ */
+@Configuration
+@EnableConfigurationProperties(TokenRevocationProperties.class)
+@ConditionalOnProperty(prefix = "gateway", name = {"token-cache.enabled", "token-revocation.enabled"}, matchIfMissing = true)
+@RemoteApplicationEventScan(basePackageClasses = TokenRevokedEvent.class)
+public class TokenRevocationConfig {
+
+    @Autowired
+    private TokenRevocationProperties properties;   // 过滤器配置
+
+    @Autowired
+    private RestTemplate authRestTemplate;          // 访问认证服务的请求模板
+
+    /**
+     * 已撤销令牌过滤器
+     * @return 过滤器
+     */
+    @Bean
+    @SuppressWarnings("unchecked")
+    public RevokedTokens revokedTokens() {
+        return new RevokedTokens(() -> authRestTemplate.getForObject(properties.getSnapshotUri(), Map.class),
+                TimeUnit.SECONDS.toMillis(properties.getRefreshSeconds()));
+    }
+
+    /**
+     * 定时检查版本号是否连续，必要时重新拉取快照（启动后立即拉取第一次）
+     * @return 定时任务线程池
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService revokedTokensScheduler() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("revoked-tokens-"));
+        scheduler.scheduleWithFixedDelay(revokedTokens()::maintain, 0, properties.getCheckSeconds(), TimeUnit.SECONDS);
+        return scheduler;
+    }
+
+    /**
+     * 接收认证服务广播的撤销增量（使用匿名类，以便按泛型参数只接收 TokenRevokedEvent）
+     * @return 事件监听者
+     */
+    @Bean
+    public ApplicationListener<TokenRevokedEvent> tokenRevokedListener() {
+        RevokedTokens revokedTokens = revokedTokens();
+        return new ApplicationListener<TokenRevokedEvent>() {
+            @Override
+            public void onApplicationEvent(TokenRevokedEvent event) {
+                revokedTokens.apply(event.getVersion(), event.getFingerprints());
+            }
+        };
+    }
+
+    /**
+     * 过滤器指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics tokenRevocationMetrics() {
+        RevokedTokens revokedTokens = revokedTokens();
+        return () -> Arrays.<Metric<?>>asList(
+                new Metric<>("gateway.token-revocation.version", revokedTokens.getVersion()),
+                new Metric<>("gateway.token-revocation.refreshes", revokedTokens.getRefreshes()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 已撤销令牌过滤器配置
+ * 对应 gateway.token-revocation 前缀
+ */
+@ConfigurationProperties(prefix = "gateway.token-revocation")
+public class TokenRevocationProperties {
+    private boolean enabled = true;                                         // 是否接收令牌撤销广播
+    private String snapshotUri = "http://auth-server/oauth/revocations";    // 认证服务的完整快照地址（按服务id负载均衡）
+    private long checkSeconds = 5;                                          // 检查版本号是否连续的间隔
+    private long refreshSeconds = 300;                                      // 快照的最长使用时间
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getSnapshotUri() {
+        return snapshotUri;
+    }
+
+    public void setSnapshotUri(String snapshotUri) {
+        this.snapshotUri = snapshotUri;
+    }
+
+    public long getCheckSeconds() {
+        return checkSeconds;
+    }
+
+    public void setCheckSeconds(long checkSeconds) {
+        this.checkSeconds = checkSeconds;
+    }
+
+    public long getRefreshSeconds() {
+        return refreshSeconds;
+    }
+
+    public void setRefreshSeconds(long refreshSeconds) {
+        this.refreshSeconds = refreshSeconds;
+    }
+}
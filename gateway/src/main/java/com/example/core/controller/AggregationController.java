@@ -0,0 +1,168 @@
+package com.example.core.controller;
+
+import com.example.core.aggregate.AggregationDocument;
+import com.example.core.aggregate.AggregationRequest;
+import com.example.core.aggregate.Aggregator;
+import com.example.core.aggregate.PartResult;
+import com.example.core.config.AggregationProperties;
+import com.example.core.config.RateLimitProperties;
+import com.example.core.filter.RateLimitFilter;
+import com.example.core.ratelimit.RateLimiterRegistry;
+import com.example.core.security.TokenAuthenticator;
+import com.example.core.security.TokenPrincipal;
+import com.example.core.security.TokenRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 聚合接口
+ * 客户端一次请求多个子请求（例如 auth-server 的用户信息和 producer-service 的订单），网关并行发出，
+ * 整体共用一个截止时间，每个子请求完成后立即把结果写给客户端，截止时间到达时未完成的子请求记为 504
+ * 校验令牌之前按客户端地址限流，令牌由与 AccessFilter 相同的 TokenAuthenticator 校验，并向上游附加签名用户头；
+ * 启用本地校验时聚合请求只接受 Bearer 令牌
+ * 子请求不经过 Zuul 过滤器，限流、熔断和并发准入由 Aggregator 按子请求的路由检查；结果在聚合的回调线程池上写出
+ */
+@RestController
+@ConditionalOnProperty(prefix = "gateway.aggregation", name = "enabled", matchIfMissing = true)
+public class AggregationController {
+
+    private static Logger logger = LoggerFactory.getLogger(AggregationController.class);
+
+    private static final MediaType JSON_UTF8 = new MediaType("application", "json", StandardCharsets.UTF_8);
+
+    private static final MediaType TEXT_UTF8 = new MediaType("text", "plain", StandardCharsets.UTF_8);
+
+    @Autowired
+    private Aggregator aggregator;                      // 并行聚合执行器
+
+    @Autowired
+    private AggregationProperties properties;           // 聚合接口配置
+
+    @Autowired
+    private ZuulProperties zuulProperties;              // Zuul 配置
+
+    @Autowired
+    private TokenAuthenticator tokenAuthenticator;      // 令牌认证
+
+    @Autowired(required = false)
+    private RateLimiterRegistry rateLimiterRegistry;    // 限流器注册表（未启用时为空）
+
+    /**
+     * 并行执行子请求，按完成顺序流式返回一个 JSON 文档
+     * @param body 聚合请求
+     * @param request 客户端请求
+     * @return 流式响应
+     */
+    @PostMapping(value = "/aggregate", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> aggregate(@RequestBody AggregationRequest body, HttpServletRequest request) {
+        Map<String, String> requests = body.getRequests();
+        if (requests == null || requests.isEmpty() || requests.size() > properties.getMaxRequests()) {
+            return reject(HttpStatus.BAD_REQUEST, "Between 1 and " + properties.getMaxRequests() + " requests are required");
+        }
+        for (String path : requests.values()) {
+            if (path == null || !path.startsWith("/")) {
+                return reject(HttpStatus.BAD_REQUEST, "Request paths must start with /");
+            }
+        }
+        RateLimitProperties.Limit addressLimit = rateLimiterRegistry == null ? null : rateLimiterRegistry.getAddressLimit();
+        if (addressLimit != null) {
+            long waitNanos = rateLimiterRegistry.tryAcquire(RateLimiterRegistry.ADDRESS_ROUTE,
+                    RateLimitFilter.clientKey(null, request), addressLimit, System.nanoTime());
+            if (waitNanos > 0) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header("Retry-After", String.valueOf(RateLimitFilter.retryAfterSeconds(waitNanos)))
+                        .contentType(TEXT_UTF8).body(message("Too many requests"));
+            }
+        }
+        String authorization = request.getHeader("Authorization");
+        TokenPrincipal principal;
+        try {
+            // 聚合请求不属于任何路由，启用本地校验时只接受 Bearer 令牌
+            principal = tokenAuthenticator.authenticate(authorization, () -> null);
+        } catch (TokenRejectedException e) {
+            return reject(HttpStatus.valueOf(e.getStatus()), e.getMessage());
+        }
+
+        long timeoutMillis = body.getTimeoutMillis() > 0
+                ? Math.min(body.getTimeoutMillis(), properties.getMaxTimeoutMillis()) : properties.getDefaultTimeoutMillis();
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMillis + 1000);
+        Aggregator.Listener listener = new Aggregator.Listener() {
+            private final AggregationDocument document = new AggregationDocument();
+
+            @Override
+            public void onPart(PartResult part) {
+                send(emitter, document.part(part));
+            }
+
+            @Override
+            public void onComplete() {
+                send(emitter, document.end());
+                emitter.complete();
+            }
+        };
+        aggregator.execute(requests, forwardedHeaders(request, authorization), principal, RateLimitFilter.clientKey(principal, request),
+                timeoutMillis, listener);
+        return ResponseEntity.ok().contentType(JSON_UTF8).body(emitter);
+    }
+
+    /**
+     * 转发给子请求的请求头：认证信息、语言和代理头
+     */
+    private Map<String, String> forwardedHeaders(HttpServletRequest request, String authorization) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Authorization", authorization);
+        String language = request.getHeader("Accept-Language");
+        if (language != null) {
+            headers.put("Accept-Language", language);
+        }
+        if (zuulProperties.isAddProxyHeaders()) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            headers.put("X-Forwarded-For", forwardedFor == null ? request.getRemoteAddr() : forwardedFor + ", " + request.getRemoteAddr());
+            String host = request.getHeader("Host");
+            if (host != null) {
+                headers.put("X-Forwarded-Host", host);
+            }
+            headers.put("X-Forwarded-Proto", request.getScheme());
+        }
+        return headers;
+    }
+
+    private static void send(ResponseBodyEmitter emitter, String fragment) {
+        try {
+            emitter.send(fragment, JSON_UTF8);
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Client went away while streaming aggregated response: {}", e.toString());
+        }
+    }
+
+    private static ResponseEntity<ResponseBodyEmitter> reject(HttpStatus status, String message) {
+        return ResponseEntity.status(status).contentType(TEXT_UTF8).body(message(message));
+    }
+
+    private static ResponseBodyEmitter message(String message) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        try {
+            emitter.send(message, TEXT_UTF8);
+        } catch (IOException e) {
+            logger.debug("Failed to write aggregation error: {}", e.toString());
+        }
+        emitter.complete();
+        return emitter;
+    }
+}
@@ -1,21 +1,46 @@
 package com.example.core.filter;
 
+import com.example.core.security.TokenAuthenticator;
+import com.example.core.security.TokenPrincipal;
+import com.example.core.security.TokenRejectedException;
 import com.netflix.zuul.ZuulFilter;
 import com.netflix.zuul.context.RequestContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.web.util.UrlPathHelper;
 
-import javax.servlet.http.HttpServletRequest;
+import java.util.function.Supplier;
 
 /**
  * 资源过滤器
  * 所有的资源请求在路由之前进行前置过滤
  * 如果请求头不包含 Authorization参数值，直接拦截不再路由
+ * 令牌的校验由 TokenAuthenticator 完成（与聚合接口、非阻塞路由相同）：Bearer 令牌先在本地令牌缓存中校验，缓存未命中时才访问认证服务；
+ * 启用本地校验时，其他认证方案只允许用于 gateway.token-cache.other-scheme-routes 中的路由（例如认证服务的 Basic 客户端凭据），否则返回 401
+ * 缓存命中时不截取字符串、不同步写日志，请求记录由 AccessLogFilter 异步写入访问日志
  */
 public class AccessFilter extends ZuulFilter {
 
     private static Logger logger = LoggerFactory.getLogger(AccessFilter.class);
 
+    /**
+     * 校验通过的用户信息在 RequestContext 中的键
+     */
+    public static final String PRINCIPAL_KEY = "tokenPrincipal";
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final Supplier<String> currentRouteId = this::currentRouteId;  // 当前请求的路由id，只在不是 Bearer 令牌时查找
+
+    @Autowired
+    private TokenAuthenticator tokenAuthenticator;      // 令牌认证
+
+    @Autowired(required = false)
+    private RouteLocator routeLocator;                  // Zuul 路由定位器，判断请求是否允许非 Bearer 认证方案
+
     /**
      * 过滤器的类型 pre表示请求在路由之前被过滤
      * @return 类型
@@ -50,19 +75,29 @@ public class AccessFilter extends ZuulFilter {
     @Override
     public Object run() {
         RequestContext requestContext = RequestContext.getCurrentContext();
-        HttpServletRequest request = requestContext.getRequest();
-
-        logger.info("send {} request to {}",request.getMethod(),request.getRequestURL().toString());
-
-        Object accessToken = request.getHeader("Authorization");
-        if (accessToken==null){
-            logger.warn("Authorization token is empty");
+        try {
+            TokenPrincipal principal = tokenAuthenticator.authenticate(requestContext.getRequest().getHeader("Authorization"), currentRouteId);
+            if (principal != null) {
+                requestContext.set(PRINCIPAL_KEY, principal);
+            }
+        } catch (TokenRejectedException e) {
+            logger.debug(e.getMessage());
             requestContext.setSendZuulResponse(false);
-            requestContext.setResponseStatusCode(401);
-            requestContext.setResponseBody("Authorization token is empty");
-            return null;
+            requestContext.setResponseStatusCode(e.getStatus());
+            requestContext.setResponseBody(e.getMessage());
         }
-        logger.info("Authorization token is ok");
         return null;
     }
+
+    /**
+     * 当前请求的路由id（PreDecorationFilter 尚未执行，按请求路径查找）
+     * @return 路由id，没有匹配的路由时为 null
+     */
+    private String currentRouteId() {
+        if (routeLocator == null) {
+            return null;
+        }
+        Route route = routeLocator.getMatchingRoute(urlPathHelper.getPathWithinApplication(RequestContext.getCurrentContext().getRequest()));
+        return route == null ? null : route.getId();
+    }
 }
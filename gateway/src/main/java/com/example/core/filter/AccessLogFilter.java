@@ -0,0 +1,64 @@
+package com.example.core.filter;
+
+import com.example.core.accesslog.AccessLog;
+import com.example.core.metrics.RequestTimings;
+import com.example.core.security.TokenPrincipal;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 访问日志过滤器
+ * 在响应输出之后把请求写入访问日志缓冲区，耗时从 RequestTimings 记录的请求开始时间算起
+ */
+public class AccessLogFilter extends ZuulFilter {
+
+    private final AccessLog accessLog;      // 访问日志
+
+    public AccessLogFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    /**
+     * 过滤器的类型 post表示在路由之后执行
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    /**
+     * 在 SendResponseFilter 和延迟统计之后执行
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return FilterConstants.SEND_RESPONSE_FILTER_ORDER + 2;
+    }
+
+    /**
+     * 未被采样的请求不执行
+     * @return 是否执行
+     */
+    @Override
+    public boolean shouldFilter() {
+        return accessLog.isSampled(RequestContext.getCurrentContext().getResponseStatusCode());
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        HttpServletRequest request = requestContext.getRequest();
+        TokenPrincipal principal = (TokenPrincipal) requestContext.get(AccessFilter.PRINCIPAL_KEY);
+        long start = RequestTimings.current().getStart();
+        accessLog.record(System.currentTimeMillis(), requestContext.getResponseStatusCode(),
+                start == 0 ? -1 : TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+                request.getMethod(), (String) requestContext.get(FilterConstants.PROXY_KEY), request.getRequestURI(),
+                request.getRemoteAddr(), principal == null ? null : principal.getName());
+        return null;
+    }
+}
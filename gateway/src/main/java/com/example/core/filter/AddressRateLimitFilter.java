@@ -0,0 +1,68 @@
+package com.example.core.filter;
+
+import com.example.core.config.RateLimitProperties;
+import com.example.core.ratelimit.RateLimiterRegistry;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * 按客户端地址限流的过滤器
+ * 在 AccessFilter 校验令牌之前执行，携带大量伪造令牌的请求在访问认证服务之前就被限制；
+ * 规则对所有路由共用，应比按用户的规则宽松（多个用户可能共用一个出口地址）
+ */
+public class AddressRateLimitFilter extends ZuulFilter {
+
+    private static Logger logger = LoggerFactory.getLogger(AddressRateLimitFilter.class);
+
+    private final RateLimiterRegistry registry; // 限流器注册表
+
+    public AddressRateLimitFilter(RateLimiterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 过滤器的类型 pre表示请求在路由之前被过滤
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    /**
+     * 在 AccessFilter（0）之前执行
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return -1;
+    }
+
+    /**
+     * 配置了按地址限流的规则时执行
+     * @return 是否执行
+     */
+    @Override
+    public boolean shouldFilter() {
+        return registry.getAddressLimit() != null && RequestContext.getCurrentContext().sendZuulResponse();
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        RateLimitProperties.Limit limit = registry.getAddressLimit();
+        if (limit == null) {
+            return null;
+        }
+        String clientKey = RateLimitFilter.clientKey(null, requestContext.getRequest());
+        long waitNanos = registry.tryAcquire(RateLimiterRegistry.ADDRESS_ROUTE, clientKey, limit, System.nanoTime());
+        if (waitNanos > 0) {
+            logger.debug("Address rate limit exceeded for {}", clientKey);
+            RateLimitFilter.reject(requestContext, waitNanos);
+        }
+        return null;
+    }
+}
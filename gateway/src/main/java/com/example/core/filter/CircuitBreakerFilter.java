@@ -0,0 +1,82 @@
+package com.example.core.filter;
+
+import com.example.core.circuit.CircuitBreaker;
+import com.example.core.circuit.CircuitBreakerRegistry;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * 路由熔断过滤器
+ * 路由到上游之前检查路由的熔断器：打开时直接返回 503 和 Retry-After，不占用 Zuul 线程等待上游超时；
+ * 半开时只放行有限个探测请求，其余请求同样快速失败
+ * 请求结果由 CircuitBreakerResultFilter 在路由结束后回报
+ */
+public class CircuitBreakerFilter extends ZuulFilter {
+
+    /**
+     * 放行的请求在 RequestContext 中的键
+     */
+    public static final String CALL_KEY = "circuitBreakerCall";
+
+    private static Logger logger = LoggerFactory.getLogger(CircuitBreakerFilter.class);
+
+    private final CircuitBreakerRegistry registry;  // 熔断器注册表
+
+    public CircuitBreakerFilter(CircuitBreakerRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 过滤器的类型 pre表示请求在路由之前被过滤
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    /**
+     * 在响应缓存和请求合并之后、并发准入之前执行，命中缓存的请求不受熔断影响，被熔断的请求不占用并发名额
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return FilterConstants.PRE_DECORATION_FILTER_ORDER + 4;
+    }
+
+    /**
+     * 只处理仍需路由到上游的请求
+     * @return 是否执行
+     */
+    @Override
+    public boolean shouldFilter() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        return requestContext.sendZuulResponse()
+                && (requestContext.get(FilterConstants.SERVICE_ID_KEY) != null || requestContext.getRouteHost() != null);
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        String routeId = (String) requestContext.get(FilterConstants.PROXY_KEY);
+        CircuitBreaker breaker = registry.getRouteBreaker(routeId);
+        if (breaker == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        CircuitBreaker.Call call = breaker.acquire(now);
+        if (call == null) {
+            logger.debug("Circuit breaker of route {} is {}, failing fast", routeId, breaker.getState());
+            requestContext.setSendZuulResponse(false);
+            requestContext.setResponseStatusCode(503);
+            requestContext.addZuulResponseHeader("Retry-After", String.valueOf(Math.max(1, breaker.getRetryAfterSeconds(now))));
+            requestContext.setResponseBody("Service unavailable, circuit open");
+            return null;
+        }
+        requestContext.set(CALL_KEY, call);
+        return null;
+    }
+}
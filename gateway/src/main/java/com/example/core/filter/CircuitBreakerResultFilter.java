@@ -0,0 +1,49 @@
+package com.example.core.filter;
+
+import com.example.core.circuit.CircuitBreaker;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * 路由熔断过滤器（回报结果）
+ * 路由结束后把结果回报给路由的熔断器：抛出异常或状态码 >= 500 计为失败，耗时超过阈值计为慢请求；
+ * 放行后又被其他 pre 过滤器拦截（例如并发准入拒绝）的请求没有发往上游，不计入统计
+ */
+public class CircuitBreakerResultFilter extends ZuulFilter {
+
+    /**
+     * 过滤器的类型 post表示在路由之后执行
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    /**
+     * 在所有 post 过滤器之前执行，耗时只算到收到上游响应为止
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return -93;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().get(CircuitBreakerFilter.CALL_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        CircuitBreaker.Call call = (CircuitBreaker.Call) requestContext.remove(CircuitBreakerFilter.CALL_KEY);
+        if (!requestContext.sendZuulResponse() && requestContext.getThrowable() == null) {
+            call.cancel();
+            return null;
+        }
+        call.complete(requestContext.getThrowable() != null || requestContext.getResponseStatusCode() >= 500, System.nanoTime());
+        return null;
+    }
+}
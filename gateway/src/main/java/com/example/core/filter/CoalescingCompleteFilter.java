@@ -0,0 +1,81 @@
+package com.example.core.filter;
+
+import com.example.core.coalesce.InFlightRequests;
+import com.example.core.config.CoalescingProperties;
+import com.example.core.http.BufferedResponse;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import java.io.IOException;
+
+/**
+ * 请求合并过滤器（分发）
+ * leader 收到上游响应后把响应缓冲并分发给所有等待者；只共享真正发往上游并得到 2xx 或 304 的响应，
+ * 路由失败、被熔断或并发准入拦截、上游返回其他状态码或响应过大时，通知等待者各自发往上游
+ * post 过滤器在路由异常时也会执行；之前的 post 过滤器抛出异常时由 CoalescingErrorFilter 完成，保证等待者不会一直阻塞到超时
+ */
+public class CoalescingCompleteFilter extends ZuulFilter {
+
+    private static Logger logger = LoggerFactory.getLogger(CoalescingCompleteFilter.class);
+
+    private final InFlightRequests inFlight;            // 进行中的请求
+    private final CoalescingProperties properties;      // 合并配置
+
+    public CoalescingCompleteFilter(InFlightRequests inFlight, CoalescingProperties properties) {
+        this.inFlight = inFlight;
+        this.properties = properties;
+    }
+
+    /**
+     * 过滤器的类型 post表示在路由之后执行
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    /**
+     * 在响应缓存写入之后、SendResponseFilter 之前执行
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return FilterConstants.SEND_RESPONSE_FILTER_ORDER - 90;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().get(CoalescingFilter.CALL_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        InFlightRequests.Call call = (InFlightRequests.Call) requestContext.remove(CoalescingFilter.CALL_KEY);
+        BufferedResponse response = null;
+        try {
+            if (shareable(requestContext) && call.getWaiters() > 0) {
+                response = BufferedResponse.capture(requestContext, properties.getMaxEntryBytes());
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to buffer response for coalesced requests: {}", e.toString());
+        } finally {
+            inFlight.complete(call, response);
+        }
+        return null;
+    }
+
+    /**
+     * @return leader 的响应是否可以共享：已发往上游、没有异常、状态码为 2xx 或 304
+     */
+    private static boolean shareable(RequestContext requestContext) {
+        int status = requestContext.getResponseStatusCode();
+        return requestContext.sendZuulResponse()
+                && requestContext.getThrowable() == null
+                && (status >= 200 && status < 300 || status == 304);
+    }
+}
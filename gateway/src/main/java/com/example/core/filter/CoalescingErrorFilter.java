@@ -0,0 +1,50 @@
+package com.example.core.filter;
+
+import com.example.core.coalesce.InFlightRequests;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * 请求合并过滤器（异常）
+ * post 过滤器抛出异常时 Zuul 只执行 error 过滤器，排在后面的 CoalescingCompleteFilter 不会执行；
+ * 此时在这里完成 leader 登记的请求，等待者各自发往上游，进行中的请求表不会留下无人完成的条目
+ */
+public class CoalescingErrorFilter extends ZuulFilter {
+
+    private final InFlightRequests inFlight;    // 进行中的请求
+
+    public CoalescingErrorFilter(InFlightRequests inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * 过滤器的类型 error表示处理过程中出现异常时执行
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.ERROR_TYPE;
+    }
+
+    /**
+     * 在 SendErrorFilter 输出错误响应之前执行
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return FilterConstants.SEND_ERROR_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().get(CoalescingFilter.CALL_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        InFlightRequests.Call call = (InFlightRequests.Call) RequestContext.getCurrentContext().remove(CoalescingFilter.CALL_KEY);
+        inFlight.complete(call, null);
+        return null;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.core.filter;
+
+import com.example.core.coalesce.InFlightRequests;
+import com.example.core.config.CoalescingProperties;
+import com.example.core.http.BufferedResponse;
+import com.example.core.http.RequestKeys;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 请求合并过滤器
+ * 相同的 GET 请求（路由、路径、查询参数、用户身份、Accept 和条件请求头相同）同时到达时，只有第一个请求发往上游，
+ * 其余请求等待并共享它的响应；等待超时、等待者已满或 leader 失败时，请求照常发往上游
+ */
+public class CoalescingFilter extends ZuulFilter {
+
+    /**
+     * leader 登记的请求在 RequestContext 中的键，由 CoalescingCompleteFilter 分发响应
+     */
+    public static final String CALL_KEY = "coalescedCall";
+
+    private static Logger logger = LoggerFactory.getLogger(CoalescingFilter.class);
+
+    private final InFlightRequests inFlight;            // 进行中的请求
+    private final CoalescingProperties properties;      // 合并配置
+
+    public CoalescingFilter(InFlightRequests inFlight, CoalescingProperties properties) {
+        this.inFlight = inFlight;
+        this.properties = properties;
+    }
+
+    /**
+     * 过滤器的类型 pre表示请求在路由之前被过滤
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    /**
+     * 在响应缓存过滤器之后执行，缓存命中的请求不再合并
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return FilterConstants.PRE_DECORATION_FILTER_ORDER + 3;
+    }
+
+    /**
+     * 只处理开启合并的路由上仍需路由到上游的 GET 请求
+     * @return 是否执行
+     */
+    @Override
+    public boolean shouldFilter() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        return requestContext.sendZuulResponse()
+                && (requestContext.get(FilterConstants.SERVICE_ID_KEY) != null || requestContext.getRouteHost() != null)
+                && "GET".equals(requestContext.getRequest().getMethod())
+                && properties.getRoutes().contains(requestContext.get(FilterConstants.PROXY_KEY));
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        String key = RequestKeys.of(requestContext, "Accept", "Accept-Encoding", "If-None-Match", "If-Modified-Since");
+        InFlightRequests.Call call = inFlight.lead(key);
+        if (call != null) {
+            requestContext.set(CALL_KEY, call);
+            return null;
+        }
+        call = inFlight.follow(key);
+        if (call == null) {
+            return null;
+        }
+        try {
+            BufferedResponse response = call.getFuture().get(properties.getWaitTimeoutMillis(), TimeUnit.MILLISECONDS);
+            if (response != null) {
+                response.replay(requestContext);
+                requestContext.remove(ResponseCacheFilter.CACHE_KEY);   // leader 已写入缓存
+                requestContext.addZuulResponseHeader("X-Gateway-Coalesced", "true");
+            }
+        } catch (TimeoutException e) {
+            inFlight.recordTimeout();
+            logger.debug("Timed out waiting for coalesced request {}, routing on its own", key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.debug("Coalesced request {} failed, routing on its own", key);
+        } finally {
+            call.leave();
+        }
+        return null;
+    }
+}
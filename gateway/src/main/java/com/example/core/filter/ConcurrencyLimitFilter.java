@@ -0,0 +1,95 @@
+package com.example.core.filter;
+
+import com.example.core.concurrency.ConcurrencyLimiter;
+import com.example.core.concurrency.ConcurrencyLimiterRegistry;
+import com.example.core.config.ConcurrencyLimitProperties;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应并发准入过滤器
+ * 路由到上游之前按路由申请并发名额，超出自适应上限时高优先级请求短暂排队，其余请求直接返回 503，
+ * 上游变慢时 Zuul 线程不会全部阻塞在同一个路由上
+ * 通过 AccessFilter 校验的 Bearer 令牌请求为高优先级，其他请求（客户端凭据等）为低优先级
+ * 名额由 ConcurrencyLimitReleaseFilter 在路由结束后归还
+ */
+public class ConcurrencyLimitFilter extends ZuulFilter {
+
+    /**
+     * 占用的并发名额在 RequestContext 中的键
+     */
+    public static final String PERMIT_KEY = "concurrencyPermit";
+
+    private static Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final ConcurrencyLimiterRegistry registry;  // 准入控制注册表
+    private final long maxWaitNanos;                    // 高优先级请求的最长排队时间
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiterRegistry registry, ConcurrencyLimitProperties properties) {
+        this.registry = registry;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMaxWaitMillis());
+    }
+
+    /**
+     * 过滤器的类型 pre表示请求在路由之前被过滤
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    /**
+     * 在响应缓存、请求合并和熔断之后执行，命中缓存、等待合并结果或被熔断的请求不占用名额
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return FilterConstants.PRE_DECORATION_FILTER_ORDER + 5;
+    }
+
+    /**
+     * 只处理仍需路由到上游的请求
+     * @return 是否执行
+     */
+    @Override
+    public boolean shouldFilter() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        return requestContext.sendZuulResponse()
+                && (requestContext.get(FilterConstants.SERVICE_ID_KEY) != null || requestContext.getRouteHost() != null);
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        String routeId = (String) requestContext.get(FilterConstants.PROXY_KEY);
+        ConcurrencyLimiter limiter = registry.getLimiter(routeId);
+        if (limiter == null) {
+            return null;
+        }
+        ConcurrencyLimiter.Priority priority = requestContext.get(AccessFilter.PRINCIPAL_KEY) != null
+                ? ConcurrencyLimiter.Priority.HIGH : ConcurrencyLimiter.Priority.LOW;
+        ConcurrencyLimiter.Permit permit = null;
+        try {
+            permit = limiter.acquire(priority, maxWaitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (permit == null) {
+            logger.debug("Concurrency limit {} exceeded on route {}, shedding {} priority request",
+                    limiter.getLimit(), routeId, priority);
+            requestContext.setSendZuulResponse(false);
+            requestContext.setResponseStatusCode(503);
+            requestContext.addZuulResponseHeader("Retry-After", "1");
+            requestContext.setResponseBody("Service overloaded");
+            return null;
+        }
+        requestContext.set(PERMIT_KEY, permit);
+        return null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.core.filter;
+
+import com.example.core.concurrency.ConcurrencyLimiter;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * 自适应并发准入过滤器（归还名额）
+ * 路由结束后归还 ConcurrencyLimitFilter 占用的名额，耗时作为调整上限的样本；
+ * 路由异常、上游返回 503 或 504 时计为丢弃，上限直接收缩
+ * post 过滤器在路由异常时也会执行，名额不会泄漏
+ */
+public class ConcurrencyLimitReleaseFilter extends ZuulFilter {
+
+    /**
+     * 过滤器的类型 post表示在路由之后执行
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    /**
+     * 在所有 post 过滤器之前执行，耗时只算到收到上游响应为止
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return -95;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().get(ConcurrencyLimitFilter.PERMIT_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        ConcurrencyLimiter.Permit permit = (ConcurrencyLimiter.Permit) requestContext.remove(ConcurrencyLimitFilter.PERMIT_KEY);
+        int status = requestContext.getResponseStatusCode();
+        permit.release(requestContext.getThrowable() != null || status == 503 || status == 504);
+        return null;
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.core.filter;
+
+import com.example.core.hedge.HedgedCall;
+import com.example.core.hedge.Hedger;
+import com.example.core.hedge.LatencyPercentile;
+import com.example.core.loadbalance.LatencyAwareRule;
+import com.example.core.metrics.RequestTimings;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.Server;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.ribbon.ServerIntrospector;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.cloud.netflix.zuul.util.ZuulRuntimeException;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 对冲路由过滤器
+ * 开启对冲的路由上的 GET 请求不经过 RibbonRoutingFilter：主请求超过该路由最近的延迟分位数仍未返回时，
+ * 在预算允许的情况下向另一个实例再发一次请求，使用先返回的响应并中止另一个请求
+ * 主实例仍由 Ribbon 负载均衡选择（LoadBalancerFeedbackFilter 照常回报结果），对冲实例由 LatencyAwareRule
+ * 在其他实例中选择，跳过被摘除和熔断的实例；未使用 LatencyAwareRule 时从其他可达实例中随机选择
+ * 请求使用该服务 Ribbon 子容器中的 HttpClient，即与 RibbonRoutingFilter 相同的路由连接池，连接池的上限和指标同样生效；
+ * 这些请求不经过 Hystrix 和 Ribbon 重试，超时按请求设置
+ * 调用在工作线程上执行，连接耗时在工作线程上测量后记入请求线程的 RequestTimings
+ */
+public class HedgedRoutingFilter extends ZuulFilter {
+
+    private static Logger logger = LoggerFactory.getLogger(HedgedRoutingFilter.class);
+
+    private final Hedger hedger;                                // 对冲执行器
+    private final Map<String, LatencyPercentile> delays;        // 路由id -> 最近的延迟分位数
+    private final long minDelayNanos;                           // 对冲延迟的下限
+    private final RequestConfig requestConfig;                  // 对冲请求的超时设置
+    private final SpringClientFactory clientFactory;            // Ribbon 客户端工厂
+    private final ProxyRequestHelper helper;                    // 构造请求头、写入响应
+
+    public HedgedRoutingFilter(Hedger hedger, Map<String, LatencyPercentile> delays, long minDelayNanos,
+                               RequestConfig requestConfig, SpringClientFactory clientFactory, ProxyRequestHelper helper) {
+        this.hedger = hedger;
+        this.delays = delays;
+        this.minDelayNanos = minDelayNanos;
+        this.requestConfig = requestConfig;
+        this.clientFactory = clientFactory;
+        this.helper = helper;
+    }
+
+    /**
+     * 过滤器的类型 route表示路由到上游
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.ROUTE_TYPE;
+    }
+
+    /**
+     * 在 RibbonRoutingFilter 之前执行，处理后移除 serviceId，RibbonRoutingFilter 不再执行
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return FilterConstants.RIBBON_ROUTING_FILTER_ORDER - 1;
+    }
+
+    /**
+     * 只处理开启对冲的路由上需要经过 Ribbon 路由的 GET 请求
+     * @return 是否执行
+     */
+    @Override
+    public boolean shouldFilter() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        return requestContext.sendZuulResponse()
+                && requestContext.getRouteHost() == null
+                && requestContext.get(FilterConstants.SERVICE_ID_KEY) != null
+                && "GET".equals(requestContext.getRequest().getMethod())
+                && delays.containsKey(requestContext.get(FilterConstants.PROXY_KEY));
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        String serviceId = (String) requestContext.get(FilterConstants.SERVICE_ID_KEY);
+        ILoadBalancer loadBalancer = clientFactory.getLoadBalancer(serviceId);
+        Object key = requestContext.get(FilterConstants.LOAD_BALANCER_KEY);
+        CloseableHttpClient httpClient = clientFactory.getInstance(serviceId, CloseableHttpClient.class);
+        if (loadBalancer == null || httpClient == null) {
+            return null;    // 交给 RibbonRoutingFilter 按原有方式处理
+        }
+        Server primary = loadBalancer.chooseServer(key == null ? "default" : key);
+        if (primary == null) {
+            return null;    // 交给 RibbonRoutingFilter 按原有方式报错
+        }
+        LatencyPercentile latency = delays.get(requestContext.get(FilterConstants.PROXY_KEY));
+        ServerIntrospector introspector = clientFactory.getInstance(serviceId, ServerIntrospector.class);
+
+        // HttpServletRequest 不是线程安全的，请求在当前线程上构造好再交给工作线程
+        HttpServletRequest request = requestContext.getRequest();
+        MultiValueMap<String, String> params = helper.buildZuulRequestQueryParams(request);
+        String uri = helper.buildZuulRequestURI(request).replace("//", "/") + helper.getQueryString(params);
+        Header[] headers = convertHeaders(helper.buildZuulRequestHeaders(request));
+
+        long percentile = latency.getNanos();
+        long delayNanos = percentile < 0 ? -1 : Math.max(minDelayNanos, percentile);
+        UpstreamCall primaryCall = new UpstreamCall(httpClient, httpHost(primary, introspector), uri, headers, latency);
+        UpstreamCall winner;
+        try {
+            winner = hedger.execute(primaryCall, () -> {
+                Server other = pickOther(loadBalancer, primary);
+                return other == null ? null : new UpstreamCall(httpClient, httpHost(other, introspector), uri, headers, latency);
+            }, delayNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ZuulRuntimeException(new ZuulException(e, 500, "Interrupted while routing"));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new ZuulRuntimeException(cause instanceof Exception ? (Exception) cause : e);
+        }
+        if (winner.thread != Thread.currentThread()) {
+            // 在请求线程上直接执行时 TimedConnectionManager 已经记录；延迟直方图按实际返回响应的实例统计
+            RequestTimings.current().addConnect(winner.host, winner.connectNanos);
+        }
+        try {
+            setResponse(requestContext, winner.response);
+        } catch (IOException e) {
+            throw new ZuulRuntimeException(e);
+        }
+        requestContext.remove(FilterConstants.SERVICE_ID_KEY);
+        return null;
+    }
+
+    private void setResponse(RequestContext requestContext, CloseableHttpResponse response) throws IOException {
+        MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+        for (Header header : response.getAllHeaders()) {
+            headers.add(header.getName(), header.getValue());
+        }
+        requestContext.set("zuulResponse", response);
+        helper.setResponse(response.getStatusLine().getStatusCode(),
+                response.getEntity() == null ? null : response.getEntity().getContent(), headers);
+    }
+
+    /**
+     * 选择主实例以外的一个可用实例，使用 LatencyAwareRule 时与主实例经过相同的摘除和熔断检查
+     */
+    private static Server pickOther(ILoadBalancer loadBalancer, Server primary) {
+        IRule rule = loadBalancer instanceof BaseLoadBalancer ? ((BaseLoadBalancer) loadBalancer).getRule() : null;
+        if (rule instanceof LatencyAwareRule) {
+            return ((LatencyAwareRule) rule).chooseOther(primary);
+        }
+        List<Server> servers = loadBalancer.getReachableServers();
+        int size = servers.size();
+        if (size < 2) {
+            return null;
+        }
+        int start = ThreadLocalRandom.current().nextInt(size);
+        for (int i = 0; i < size; i++) {
+            Server candidate = servers.get((start + i) % size);
+            if (!candidate.getId().equals(primary.getId())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static HttpHost httpHost(Server server, ServerIntrospector introspector) {
+        return new HttpHost(server.getHost(), server.getPort(), introspector.isSecure(server) ? "https" : "http");
+    }
+
+    private static Header[] convertHeaders(MultiValueMap<String, String> headers) {
+        List<Header> list = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            for (String value : entry.getValue()) {
+                list.add(new BasicHeader(entry.getKey(), value));
+            }
+        }
+        return list.toArray(new Header[0]);
+    }
+
+    /**
+     * 发往一个实例的 GET 请求，成功返回时记录延迟样本，执行结果为调用本身（携带实例和响应）
+     */
+    private final class UpstreamCall implements HedgedCall<UpstreamCall> {
+        private final CloseableHttpClient httpClient;   // 路由的 HttpClient
+        private final HttpHost host;                // 上游实例
+        private final HttpGet request;              // 请求
+        private final LatencyPercentile latency;    // 路由的延迟分位数
+        private CloseableHttpResponse response;     // 上游响应，execute 返回后可用
+        private Thread thread;                      // 执行调用的线程，execute 返回后可用
+        private long connectNanos;                  // 获取和建立连接的耗时，execute 返回后可用
+
+        UpstreamCall(CloseableHttpClient httpClient, HttpHost host, String uri, Header[] headers, LatencyPercentile latency) {
+            this.httpClient = httpClient;
+            this.host = host;
+            this.request = new HttpGet(uri);
+            this.request.setHeaders(headers);
+            this.request.setConfig(requestConfig);
+            this.latency = latency;
+        }
+
+        @Override
+        public UpstreamCall execute() throws IOException {
+            RequestTimings timings = RequestTimings.current();
+            long connectBefore = timings.getConnectNanos();
+            long start = System.nanoTime();
+            response = httpClient.execute(host, request);
+            long now = System.nanoTime();
+            latency.record(now - start, now);
+            thread = Thread.currentThread();
+            connectNanos = timings.getConnectNanos() - connectBefore;
+            return this;
+        }
+
+        @Override
+        public void cancel() {
+            request.abort();
+        }
+
+        @Override
+        public void discard(UpstreamCall call) {
+            try {
+                call.response.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close abandoned hedged response from {}: {}", host, e.toString());
+            }
+        }
+    }
+}
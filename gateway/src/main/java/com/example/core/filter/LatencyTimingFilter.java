@@ -0,0 +1,100 @@
+package com.example.core.filter;
+
+import com.example.core.metrics.LatencyHistograms;
+import com.example.core.metrics.RequestTimings;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * 请求阶段计时过滤器
+ * 同一个类按阶段注册四个实例：最先执行的 pre 过滤器记录开始时间，最先执行的 route 过滤器记录 pre 阶段结束，
+ * 最先执行的 post 过滤器记录收到上游响应，SendResponseFilter 之后的 post 过滤器把各阶段耗时写入直方图
+ */
+public class LatencyTimingFilter extends ZuulFilter {
+
+    /**
+     * 计时阶段
+     */
+    public enum Stage {
+        START(FilterConstants.PRE_TYPE, -100),
+        ROUTE(FilterConstants.ROUTE_TYPE, FilterConstants.RIBBON_ROUTING_FILTER_ORDER - 2),
+        ROUTED(FilterConstants.POST_TYPE, -100),
+        END(FilterConstants.POST_TYPE, FilterConstants.SEND_RESPONSE_FILTER_ORDER + 1);
+
+        private final String type;
+        private final int order;
+
+        Stage(String type, int order) {
+            this.type = type;
+            this.order = order;
+        }
+    }
+
+    private final Stage stage;                      // 计时阶段
+    private final LatencyHistograms histograms;     // 延迟直方图
+
+    public LatencyTimingFilter(Stage stage, LatencyHistograms histograms) {
+        this.stage = stage;
+        this.histograms = histograms;
+    }
+
+    @Override
+    public String filterType() {
+        return stage.type;
+    }
+
+    @Override
+    public int filterOrder() {
+        return stage.order;
+    }
+
+    /**
+     * 基类在构造时按 filterType() 生成禁用开关的名称，此时 stage 尚未赋值，四个阶段共用一个开关
+     * @return 禁用开关名称
+     */
+    @Override
+    public String disablePropertyName() {
+        return "zuul." + getClass().getSimpleName() + ".disable";
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return true;
+    }
+
+    @Override
+    public Object run() {
+        long now = System.nanoTime();
+        RequestTimings timings = RequestTimings.current();
+        switch (stage) {
+            case START:
+                timings.start(now);
+                break;
+            case ROUTE:
+                timings.markRouteStart(now);
+                break;
+            case ROUTED:
+                timings.markRouteEnd(now);
+                break;
+            case END:
+                record(timings, now);
+                break;
+            default:
+                break;
+        }
+        return null;
+    }
+
+    /**
+     * pre 阶段失败时没有路由阶段，路由开始和结束都按 post 阶段开始计算
+     */
+    private void record(RequestTimings timings, long now) {
+        long routeEnd = timings.getRouteEnd() == 0 ? now : timings.getRouteEnd();
+        long routeStart = timings.getRouteStart() == 0 ? routeEnd : timings.getRouteStart();
+        long connect = timings.getConnectNanos();
+        histograms.record((String) RequestContext.getCurrentContext().get(FilterConstants.PROXY_KEY), timings.getInstance(),
+                now - timings.getStart(), routeStart - timings.getStart(), connect,
+                Math.max(0, routeEnd - routeStart - connect), now - routeEnd);
+    }
+}
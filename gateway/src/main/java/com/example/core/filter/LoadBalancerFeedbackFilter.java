@@ -0,0 +1,43 @@
+package com.example.core.filter;
+
+import com.example.core.loadbalance.LatencyAwareRule;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * 负载均衡反馈过滤器
+ * 路由结束后把请求结果回报给 LatencyAwareRule：抛出异常或状态码 >= 500 计为失败
+ */
+public class LoadBalancerFeedbackFilter extends ZuulFilter {
+
+    /**
+     * 过滤器的类型 post表示在路由之后执行
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    /**
+     * 在所有 post 过滤器之前执行，延迟只算到收到上游响应为止
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return -90;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return true;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        LatencyAwareRule.complete(requestContext.getThrowable() == null && requestContext.getResponseStatusCode() < 500);
+        return null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.core.filter;
+
+import com.example.core.security.BearerTokens;
+import com.example.core.security.PrincipalHeaderSigner;
+import com.example.core.security.TokenPrincipal;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+
+/**
+ * 签名用户头过滤器
+ * 在 AccessFilter 校验令牌通过后，把用户名和角色以签名请求头的形式转发给下游服务
+ * 下游服务据此在本地完成认证，不再经网关回调认证服务的 /user 接口
+ * 客户端自带的同名请求头通过 zuul.ignored-headers 过滤，避免伪造
+ */
+public class PrincipalHeaderFilter extends ZuulFilter {
+
+    private final PrincipalHeaderSigner signer;     // 签名生成器
+    private final String headerName;                // 请求头名称
+
+    public PrincipalHeaderFilter(PrincipalHeaderSigner signer, String headerName) {
+        this.signer = signer;
+        this.headerName = headerName;
+    }
+
+    /**
+     * 过滤器的类型 pre表示请求在路由之前被过滤
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return "pre";
+    }
+
+    /**
+     * 在 AccessFilter 之后执行
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return 1;
+    }
+
+    /**
+     * 只有令牌校验通过的请求才添加签名头
+     * @return 是否执行
+     */
+    @Override
+    public boolean shouldFilter() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        return requestContext.sendZuulResponse() && requestContext.get(AccessFilter.PRINCIPAL_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        TokenPrincipal principal = (TokenPrincipal) requestContext.get(AccessFilter.PRINCIPAL_KEY);
+        // 有用户信息时 AccessFilter 已确认是 Bearer 令牌
+        String accessToken = BearerTokens.extract(requestContext.getRequest().getHeader("Authorization"));
+        requestContext.addZuulRequestHeader(headerName, signer.sign(principal, accessToken, System.currentTimeMillis()));
+        return null;
+    }
+}
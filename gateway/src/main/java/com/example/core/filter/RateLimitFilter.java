@@ -0,0 +1,107 @@
+package com.example.core.filter;
+
+import com.example.core.config.RateLimitProperties;
+import com.example.core.ratelimit.RateLimiterRegistry;
+import com.example.core.security.TokenPrincipal;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流过滤器
+ * 按 路由 + 客户端 使用令牌桶限流，超出限制直接返回 429 和 Retry-After，不占用任何上游连接
+ * 客户端标识：AccessFilter 校验通过的用户名，没有时使用客户端地址；
+ * 不使用请求中未经校验的令牌或 Basic 认证的 client id，否则每次换一个值就能绕过限制
+ */
+public class RateLimitFilter extends ZuulFilter {
+
+    private static Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimiterRegistry registry; // 限流器注册表
+
+    public RateLimitFilter(RateLimiterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 过滤器的类型 pre表示请求在路由之前被过滤
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    /**
+     * 在 PreDecorationFilter 确定路由之后执行
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return FilterConstants.PRE_DECORATION_FILTER_ORDER + 1;
+    }
+
+    /**
+     * 已被拦截的请求不再计数
+     * @return 是否执行
+     */
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().sendZuulResponse();
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        String routeId = (String) requestContext.get(FilterConstants.PROXY_KEY);
+        RateLimitProperties.Limit limit = registry.getLimit(routeId);
+        if (limit == null) {
+            return null;
+        }
+        String clientKey = clientKey((TokenPrincipal) requestContext.get(AccessFilter.PRINCIPAL_KEY), requestContext.getRequest());
+        long waitNanos = registry.tryAcquire(routeId, clientKey, limit, System.nanoTime());
+        if (waitNanos > 0) {
+            logger.debug("Rate limit exceeded on route {}", routeId);
+            reject(requestContext, waitNanos);
+        }
+        return null;
+    }
+
+    /**
+     * 返回 429 和 Retry-After
+     * @param requestContext 请求上下文
+     * @param waitNanos 需要等待的纳秒数
+     */
+    static void reject(RequestContext requestContext, long waitNanos) {
+        requestContext.setSendZuulResponse(false);
+        requestContext.setResponseStatusCode(429);
+        requestContext.addZuulResponseHeader("Retry-After", String.valueOf(retryAfterSeconds(waitNanos)));
+        requestContext.setResponseBody("Too many requests");
+    }
+
+    /**
+     * @param waitNanos 需要等待的纳秒数
+     * @return Retry-After 的秒数，至少 1 秒
+     */
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (TimeUnit.NANOSECONDS.toMillis(waitNanos) + 999) / 1000);
+    }
+
+    /**
+     * 解析客户端标识
+     * @param principal 已校验的用户信息，没有时为 null
+     * @param request 请求
+     * @return 客户端标识
+     */
+    public static String clientKey(TokenPrincipal principal, HttpServletRequest request) {
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.core.filter;
+
+import com.example.core.cache.CacheControl;
+import com.example.core.cache.ResponseCache;
+import com.example.core.config.ResponseCacheProperties;
+import com.example.core.http.BufferedResponse;
+import com.example.core.http.RequestKeys;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 响应缓存过滤器（读取）
+ * 对开启缓存的路由上的 GET 请求先查网关缓存，命中时直接返回缓存的响应，不再路由到上游
+ * 客户端带有匹配的 If-None-Match 时返回 304
+ * 缓存键包含用户身份，不同用户的响应互不共享
+ */
+public class ResponseCacheFilter extends ZuulFilter {
+
+    /**
+     * 未命中时缓存键在 RequestContext 中的键，由 ResponseCacheStoreFilter 写入缓存
+     */
+    public static final String CACHE_KEY = "responseCacheKey";
+
+    private final ResponseCache cache;                  // 响应缓存
+    private final ResponseCacheProperties properties;   // 缓存配置
+
+    public ResponseCacheFilter(ResponseCache cache, ResponseCacheProperties properties) {
+        this.cache = cache;
+        this.properties = properties;
+    }
+
+    /**
+     * 过滤器的类型 pre表示请求在路由之前被过滤
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    /**
+     * 在限流过滤器之后执行
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return FilterConstants.PRE_DECORATION_FILTER_ORDER + 2;
+    }
+
+    /**
+     * 只处理开启缓存的路由上的 GET 请求
+     * @return 是否执行
+     */
+    @Override
+    public boolean shouldFilter() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        return requestContext.sendZuulResponse()
+                && "GET".equals(requestContext.getRequest().getMethod())
+                && properties.getRoutes().containsKey(requestContext.get(FilterConstants.PROXY_KEY));
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        HttpServletRequest request = requestContext.getRequest();
+        CacheControl requestCacheControl = CacheControl.parse(request.getHeader("Cache-Control"));
+        if (requestCacheControl.isNoStore()) {
+            return null;
+        }
+        String key = RequestKeys.of(requestContext);
+        long now = System.currentTimeMillis();
+        ResponseCache.Entry entry = requestCacheControl.isNoCache() ? null : cache.get(key, now);
+        if (entry == null) {
+            requestContext.set(CACHE_KEY, key);
+            return null;
+        }
+
+        BufferedResponse response = entry.getResponse();
+        String etag = response.getHeader("ETag");
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (etag != null && ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            BufferedResponse.skipRouting(requestContext);
+            requestContext.setResponseStatusCode(304);
+            requestContext.addZuulResponseHeader("ETag", etag);
+        } else {
+            response.replay(requestContext);
+        }
+        requestContext.addZuulResponseHeader("Age", String.valueOf(Math.max(0, (now - entry.getStoredAt()) / 1000)));
+        requestContext.addZuulResponseHeader("X-Gateway-Cache", "HIT");
+        return null;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if ("*".equals(ifNoneMatch.trim())) {
+            return true;
+        }
+        String weakless = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(weakless)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
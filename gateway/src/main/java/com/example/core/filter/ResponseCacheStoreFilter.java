@@ -0,0 +1,115 @@
+package com.example.core.filter;
+
+import com.example.core.cache.CacheControl;
+import com.example.core.cache.ResponseCache;
+import com.example.core.config.ResponseCacheProperties;
+import com.example.core.http.BufferedResponse;
+import com.example.core.http.OriginHeaders;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应缓存过滤器（写入）
+ * 缓存未命中的请求在上游返回后，按上游的 Cache-Control 决定是否写入缓存：
+ * no-store、no-cache、private、Set-Cookie 以及 Vary 了 Accept-Encoding 以外请求头的响应不缓存，
+ * 带 Authorization 的请求只有上游明确给出 public 或 s-maxage 时才缓存（RFC 7234 3.2），
+ * 存活时间优先取 s-maxage，其次 max-age，都没有时使用路由配置的默认值
+ */
+public class ResponseCacheStoreFilter extends ZuulFilter {
+
+    private static Logger logger = LoggerFactory.getLogger(ResponseCacheStoreFilter.class);
+
+    private final ResponseCache cache;                  // 响应缓存
+    private final ResponseCacheProperties properties;   // 缓存配置
+
+    public ResponseCacheStoreFilter(ResponseCache cache, ResponseCacheProperties properties) {
+        this.cache = cache;
+        this.properties = properties;
+    }
+
+    /**
+     * 过滤器的类型 post表示在路由之后执行
+     * @return 类型
+     */
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    /**
+     * 在 SendResponseFilter 输出响应之前执行
+     * @return 顺序
+     */
+    @Override
+    public int filterOrder() {
+        return FilterConstants.SEND_RESPONSE_FILTER_ORDER - 100;
+    }
+
+    /**
+     * 只处理缓存未命中、上游返回 200 的请求
+     * @return 是否执行
+     */
+    @Override
+    public boolean shouldFilter() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        return requestContext.get(ResponseCacheFilter.CACHE_KEY) != null
+                && requestContext.getThrowable() == null
+                && requestContext.getResponseStatusCode() == 200;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext requestContext = RequestContext.getCurrentContext();
+        long ttlMillis = ttlMillis(requestContext, properties);
+        if (ttlMillis <= 0) {
+            return null;
+        }
+        try {
+            BufferedResponse response = BufferedResponse.capture(requestContext, properties.getMaxEntryBytes());
+            if (response != null) {
+                cache.put((String) requestContext.get(ResponseCacheFilter.CACHE_KEY), response, System.currentTimeMillis(), ttlMillis);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to buffer response for caching: {}", e.toString());
+        }
+        return null;
+    }
+
+    static long ttlMillis(RequestContext requestContext, ResponseCacheProperties properties) {
+        if (OriginHeaders.get(requestContext, "Set-Cookie") != null) {
+            return 0;
+        }
+        String vary = OriginHeaders.get(requestContext, "Vary");
+        if (vary != null) {
+            for (String header : vary.split(",")) {
+                String name = header.trim().toLowerCase(Locale.ENGLISH);
+                if (!name.isEmpty() && !"accept-encoding".equals(name)) {
+                    return 0;
+                }
+            }
+        }
+        CacheControl cacheControl = CacheControl.parse(OriginHeaders.get(requestContext, "Cache-Control"));
+        if (cacheControl.isNoStore() || cacheControl.isNoCache() || cacheControl.isPrivate()) {
+            return 0;
+        }
+        if (requestContext.getRequest().getHeader("Authorization") != null
+                && !cacheControl.isPublic() && cacheControl.getSharedMaxAge() < 0) {
+            return 0;
+        }
+        if (cacheControl.getSharedMaxAge() >= 0) {
+            return TimeUnit.SECONDS.toMillis(cacheControl.getSharedMaxAge());
+        }
+        if (cacheControl.getMaxAge() >= 0) {
+            return TimeUnit.SECONDS.toMillis(cacheControl.getMaxAge());
+        }
+        ResponseCacheProperties.Route route = properties.getRoutes().get(requestContext.get(FilterConstants.PROXY_KEY));
+        return route == null ? 0 : TimeUnit.SECONDS.toMillis(route.getDefaultTtlSeconds());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.core.hedge;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 对冲请求的全局预算
+ * 每个可对冲的请求存入 ratio 个令牌，每次对冲消耗一个令牌，令牌数不超过 maxTokens；
+ * 对冲请求占原始请求的比例因此不超过 ratio，上游整体变慢时也不会成倍放大负载
+ */
+public class HedgeBudget {
+
+    private static final long UNIT = 1000;      // 一个令牌对应的计数单位，避免使用浮点数
+
+    private final long deposit;                 // 每个请求存入的单位数
+    private final long capacity;                // 最多积累的单位数
+    private final AtomicLong balance = new AtomicLong();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * @param ratio 对冲请求占原始请求的最大比例（例如 0.05）
+     * @param maxTokens 最多积累的对冲次数，限制空闲后的突发
+     */
+    public HedgeBudget(double ratio, int maxTokens) {
+        this.deposit = Math.max(1, Math.round(ratio * UNIT));
+        this.capacity = maxTokens * UNIT;
+    }
+
+    /**
+     * 记录一个可对冲的请求
+     */
+    public void deposit() {
+        while (true) {
+            long current = balance.get();
+            if (current >= capacity || balance.compareAndSet(current, Math.min(capacity, current + deposit))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 尝试为一次对冲扣除预算
+     * @return 是否允许对冲
+     */
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < UNIT) {
+                throttled.increment();
+                return false;
+            }
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return 当前可用的对冲次数
+     */
+    public double getTokens() {
+        return balance.get() / (double) UNIT;
+    }
+
+    /**
+     * @return 因预算不足放弃的对冲次数
+     */
+    public long getThrottled() {
+        return throttled.sum();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.core.hedge;
+
+/**
+ * 可以被对冲的一次上游调用
+ * @param <T> 响应类型
+ */
+public interface HedgedCall<T> {
+
+    /**
+     * 在工作线程上执行调用
+     * @return 响应
+     * @throws Exception 调用失败
+     */
+    T execute() throws Exception;
+
+    /**
+     * 中止进行中的调用，另一次调用已先返回时由请求线程调用
+     */
+    void cancel();
+
+    /**
+     * 释放调用完成后不再需要的响应（例如关闭连接）
+     * @param response 响应
+     */
+    void discard(T response);
+}
@@ -0,0 +1,160 @@
+package com.example.core.hedge;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 对冲请求执行器
+ * 先发出主调用，超过对冲延迟仍未返回且预算允许时再发出一次对冲调用，使用先成功返回的响应并中止另一次调用；
+ * 调用在工作线程上执行，请求线程只负责等待，工作线程已满时退回到在请求线程上直接执行主调用
+ */
+public class Hedger {
+
+    private final Executor executor;            // 执行上游调用的线程池
+    private final HedgeBudget budget;           // 全局对冲预算
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    /**
+     * @param executor 执行上游调用的线程池
+     * @param budget 全局对冲预算
+     */
+    public Hedger(Executor executor, HedgeBudget budget) {
+        this.executor = executor;
+        this.budget = budget;
+    }
+
+    /**
+     * 执行一次可对冲的调用
+     * @param primary 主调用
+     * @param hedge 创建对冲调用，没有其他可用实例时返回 null；只在需要对冲时在请求线程上调用
+     * @param delayNanos 对冲延迟，小于 0 表示不对冲
+     * @param <T> 响应类型
+     * @return 先成功返回的响应
+     * @throws ExecutionException 所有调用都失败，cause 为主调用的异常
+     * @throws InterruptedException 等待时线程被中断，已中止所有调用
+     */
+    public <T> T execute(HedgedCall<T> primary, Supplier<HedgedCall<T>> hedge, long delayNanos)
+            throws ExecutionException, InterruptedException {
+        requests.increment();
+        budget.deposit();
+        CompletableFuture<T> first = submit(primary);
+        if (first == null) {
+            return runInline(primary);
+        }
+        if (delayNanos >= 0) {
+            try {
+                return first.get(delayNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // 主调用较慢，尝试对冲
+            } catch (InterruptedException e) {
+                abandon(primary, first);
+                throw e;
+            }
+        }
+        HedgedCall<T> second = delayNanos >= 0 && !first.isDone() && budget.tryWithdraw() ? hedge.get() : null;
+        CompletableFuture<T> secondFuture = second == null ? null : submit(second);
+        if (secondFuture == null) {
+            return await(primary, first);
+        }
+        hedges.increment();
+        CompletableFuture<Boolean> winner = new CompletableFuture<>();
+        first.whenComplete((response, error) -> {
+            if (error == null) {
+                winner.complete(Boolean.TRUE);
+            } else {
+                secondFuture.whenComplete((r, e) -> winner.complete(e == null ? Boolean.FALSE : Boolean.TRUE));
+            }
+        });
+        secondFuture.whenComplete((response, error) -> {
+            if (error == null) {
+                winner.complete(Boolean.FALSE);
+            }
+        });
+        boolean primaryWon;
+        try {
+            primaryWon = winner.get();
+        } catch (InterruptedException e) {
+            abandon(primary, first);
+            abandon(second, secondFuture);
+            throw e;
+        }
+        if (primaryWon) {
+            abandon(second, secondFuture);
+            return first.get();
+        }
+        hedgeWins.increment();
+        abandon(primary, first);
+        return secondFuture.get();
+    }
+
+    private <T> CompletableFuture<T> submit(HedgedCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.execute());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+        return future;
+    }
+
+    private <T> T runInline(HedgedCall<T> call) throws ExecutionException {
+        try {
+            return call.execute();
+        } catch (Exception e) {
+            throw new ExecutionException(e);
+        }
+    }
+
+    private <T> T await(HedgedCall<T> call, CompletableFuture<T> future) throws ExecutionException, InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            abandon(call, future);
+            throw e;
+        }
+    }
+
+    /**
+     * 放弃一次调用：中止进行中的请求，已经（或稍后）返回的响应直接释放
+     */
+    private <T> void abandon(HedgedCall<T> call, CompletableFuture<T> future) {
+        if (!future.isDone()) {
+            call.cancel();
+        }
+        future.whenComplete((response, error) -> {
+            if (response != null) {
+                call.discard(response);
+            }
+        });
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    public HedgeBudget getBudget() {
+        return budget;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.core.hedge;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 最近一段时间内的延迟分位数
+ * 使用 HdrHistogram 的 Recorder 记录（微秒），每个统计周期结束时用该周期的样本重新计算分位数；
+ * 样本数不足的周期保留上一次的结果，没有任何结果之前返回 -1
+ */
+public class LatencyPercentile {
+
+    private final Recorder recorder;
+    private final long highestTrackableMicros;      // 可记录的最大值（微秒）
+    private final double percentile;                // 分位数（例如 95）
+    private final long intervalNanos;               // 统计周期
+    private final int minSamples;                   // 一个周期内至少需要的样本数
+    private final AtomicLong nextRefresh;           // 下一次重新计算的时间
+    private Histogram interval;                     // 复用的区间直方图（在 refresh 中访问）
+    private volatile long valueNanos = -1;          // 最近一次计算的分位数
+
+    /**
+     * @param percentile 分位数（0-100）
+     * @param intervalNanos 统计周期
+     * @param minSamples 一个周期内至少需要的样本数
+     * @param highestTrackableMicros 可记录的最大值（微秒）
+     */
+    public LatencyPercentile(double percentile, long intervalNanos, int minSamples, long highestTrackableMicros) {
+        this.recorder = new Recorder(highestTrackableMicros, 2);
+        this.highestTrackableMicros = highestTrackableMicros;
+        this.percentile = percentile;
+        this.intervalNanos = intervalNanos;
+        this.minSamples = minSamples;
+        this.nextRefresh = new AtomicLong(System.nanoTime() + intervalNanos);
+    }
+
+    /**
+     * 记录一个延迟样本，周期结束时由记录的线程重新计算分位数
+     * @param latencyNanos 延迟
+     * @param now 当前时间（纳秒）
+     */
+    public void record(long latencyNanos, long now) {
+        recorder.recordValue(Math.max(0, Math.min(highestTrackableMicros, TimeUnit.NANOSECONDS.toMicros(latencyNanos))));
+        long next = nextRefresh.get();
+        if (now - next >= 0 && nextRefresh.compareAndSet(next, now + intervalNanos)) {
+            refresh();
+        }
+    }
+
+    /**
+     * @return 最近的分位数（纳秒），还没有足够样本时为 -1
+     */
+    public long getNanos() {
+        return valueNanos;
+    }
+
+    private synchronized void refresh() {
+        interval = recorder.getIntervalHistogram(interval);
+        if (interval.getTotalCount() >= minSamples) {
+            valueNanos = TimeUnit.MICROSECONDS.toNanos(interval.getValueAtPercentile(percentile));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.core.http;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 缓冲的上游响应
+ * 在 post 阶段把上游响应完整读入内存，之后可以在其他请求的 pre 阶段直接回放，不再路由到上游
+ * 响应体按上游原样保存（可能是 gzip 压缩的），回放时由 SendResponseFilter 按客户端的 Accept-Encoding 处理
+ */
+public final class BufferedResponse {
+
+    private final int status;                           // 状态码
+    private final List<Pair<String, String>> headers;   // 响应头
+    private final byte[] body;                          // 响应体
+    private final boolean gzipped;                      // 响应体是否 gzip 压缩
+    private final int weight;                           // 估算的内存占用（字节）
+
+    public BufferedResponse(int status, List<Pair<String, String>> headers, byte[] body, boolean gzipped) {
+        this.status = status;
+        this.headers = Collections.unmodifiableList(new ArrayList<>(headers));
+        this.body = body;
+        this.gzipped = gzipped;
+        int weight = body.length + 64;
+        for (Pair<String, String> header : headers) {
+            weight += 2 * (header.first().length() + header.second().length()) + 32;
+        }
+        this.weight = weight;
+    }
+
+    /**
+     * 读取当前请求的上游响应，读取后把响应流恢复到上下文中，后续的 SendResponseFilter 不受影响
+     * @param context 请求上下文
+     * @param maxBytes 允许缓冲的最大字节数
+     * @return 缓冲的响应，响应体超过上限时返回 null
+     * @throws IOException 读取上游响应异常
+     */
+    public static BufferedResponse capture(RequestContext context, int maxBytes) throws IOException {
+        byte[] body;
+        if (context.getResponseBody() != null) {
+            body = context.getResponseBody().getBytes(StandardCharsets.UTF_8);
+        } else if (context.getResponseDataStream() != null) {
+            InputStream in = context.getResponseDataStream();
+            Long contentLength = context.getOriginContentLength();
+            if (contentLength != null && contentLength > maxBytes) {
+                return null;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(contentLength != null ? contentLength.intValue() : 1024);
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                if (out.size() > maxBytes) {
+                    // 超过上限：已读部分和剩余部分拼接后放回上下文，照常返回给客户端
+                    context.setResponseDataStream(new SequenceInputStream(new ByteArrayInputStream(out.toByteArray()), in));
+                    return null;
+                }
+            }
+            body = out.toByteArray();
+            context.setResponseDataStream(new ByteArrayInputStream(body));
+        } else {
+            body = new byte[0];
+        }
+        return new BufferedResponse(context.getResponseStatusCode(), context.getZuulResponseHeaders(), body, context.getResponseGZipped());
+    }
+
+    /**
+     * 把缓冲的响应写入当前请求上下文，并跳过路由阶段
+     * 不使用 setSendZuulResponse(false)，否则 SendResponseFilter 不会输出响应流
+     * @param context 请求上下文
+     */
+    public void replay(RequestContext context) {
+        skipRouting(context);
+        context.setResponseStatusCode(status);
+        for (Pair<String, String> header : headers) {
+            context.addZuulResponseHeader(header.first(), header.second());
+        }
+        context.setResponseGZipped(gzipped);
+        context.setOriginContentLength((long) body.length);
+        context.setResponseDataStream(new ByteArrayInputStream(body));
+    }
+
+    /**
+     * 跳过 Ribbon 与 SimpleHost 路由过滤器
+     * @param context 请求上下文
+     */
+    public static void skipRouting(RequestContext context) {
+        context.remove(FilterConstants.SERVICE_ID_KEY);
+        context.setRouteHost(null);
+    }
+
+    /**
+     * 读取第一个同名响应头
+     * @param name 响应头名称（不区分大小写）
+     * @return 响应头的值，不存在时返回 null
+     */
+    public String getHeader(String name) {
+        for (Pair<String, String> header : headers) {
+            if (header.first().equalsIgnoreCase(name)) {
+                return header.second();
+            }
+        }
+        return null;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public List<Pair<String, String>> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public boolean isGzipped() {
+        return gzipped;
+    }
+
+    /**
+     * @return 估算的内存占用（字节）
+     */
+    public int weight() {
+        return weight;
+    }
+}
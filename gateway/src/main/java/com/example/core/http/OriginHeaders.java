@@ -0,0 +1,46 @@
+package com.example.core.http;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.context.RequestContext;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * 读取上游原始响应头
+ * Zuul 默认忽略 Cache-Control、Expires 等安全相关的响应头（zuul.ignore-security-headers），
+ * 这些头不会出现在 getZuulResponseHeaders() 中，需要从路由过滤器保存的原始响应中读取
+ */
+public final class OriginHeaders {
+
+    /**
+     * 路由过滤器保存原始响应的键
+     */
+    private static final String ZUUL_RESPONSE_KEY = "zuulResponse";
+
+    private OriginHeaders() {
+    }
+
+    /**
+     * 读取上游原始响应头
+     * @param context 请求上下文
+     * @param name 响应头名称
+     * @return 响应头的值，不存在时返回 null
+     */
+    public static String get(RequestContext context, String name) {
+        Object response = context.get(ZUUL_RESPONSE_KEY);
+        if (response instanceof ClientHttpResponse) {      // RibbonRoutingFilter
+            return ((ClientHttpResponse) response).getHeaders().getFirst(name);
+        }
+        if (response instanceof HttpResponse) {            // SimpleHostRoutingFilter
+            Header header = ((HttpResponse) response).getFirstHeader(name);
+            return header == null ? null : header.getValue();
+        }
+        for (Pair<String, String> header : context.getZuulResponseHeaders()) {
+            if (header.first().equalsIgnoreCase(name)) {
+                return header.second();
+            }
+        }
+        return null;
+    }
+}
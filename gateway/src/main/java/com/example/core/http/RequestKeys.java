@@ -0,0 +1,47 @@
+package com.example.core.http;
+
+import com.example.core.filter.AccessFilter;
+import com.example.core.security.TokenPrincipal;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 请求标识
+ * 由 路由 + 路径 + 查询参数 + 用户身份 + 指定请求头 组成，标识相同的 GET 请求得到的响应相同，可以共享
+ */
+public final class RequestKeys {
+
+    private RequestKeys() {
+    }
+
+    /**
+     * 生成当前请求的标识
+     * 用户身份优先使用 AccessFilter 校验过的用户名，否则使用原始的 Authorization 请求头
+     * @param context 请求上下文
+     * @param varyHeaders 影响响应内容的请求头
+     * @return 请求标识
+     */
+    public static String of(RequestContext context, String... varyHeaders) {
+        HttpServletRequest request = context.getRequest();
+        StringBuilder key = new StringBuilder(128);
+        key.append(context.get(FilterConstants.PROXY_KEY)).append('|').append(request.getRequestURI());
+        if (request.getQueryString() != null) {
+            key.append('?').append(request.getQueryString());
+        }
+        key.append('|');
+        TokenPrincipal principal = (TokenPrincipal) context.get(AccessFilter.PRINCIPAL_KEY);
+        if (principal != null) {
+            key.append("user:").append(principal.getName());
+        } else {
+            String authorization = request.getHeader("Authorization");
+            key.append(authorization == null ? "-" : authorization);
+        }
+        for (String header : varyHeaders) {
+            String value = request.getHeader(header);
+            key.append('|').append(value == null ? "" : value);
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.core.loadbalance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 上游实例的实时状态
+ * 记录进行中的请求数、按时间衰减的延迟均值（对变慢敏感：新样本大于均值时直接取新样本）和连续失败次数
+ */
+public class InstanceStats {
+
+    private final String id;                // 实例标识（host:port）
+    private final AtomicInteger inFlight = new AtomicInteger();             // 进行中的请求数
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();  // 连续失败次数
+    private double latencyNanos;            // 延迟均值（纳秒）
+    private long lastUpdate;                // 上次更新延迟的时间（纳秒）
+    private volatile long ejectedUntil;     // 摘除截止时间（纳秒），0 表示未摘除
+    private int ejections;                  // 连续摘除次数，成功一次后清零
+
+    public InstanceStats(String id) {
+        this.id = id;
+    }
+
+    /**
+     * 请求开始
+     */
+    public void begin() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * 请求结束
+     * @param latency 延迟（纳秒）
+     * @param success 是否成功
+     * @param now 当前时间（纳秒）
+     * @param decayNanos 延迟均值的衰减时间常数
+     * @return 连续失败次数
+     */
+    public int complete(long latency, boolean success, long now, long decayNanos) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            if (latency > latencyNanos || lastUpdate == 0) {
+                latencyNanos = latency;
+            } else {
+                double weight = Math.exp(-(now - lastUpdate) / (double) decayNanos);
+                latencyNanos = latencyNanos * weight + latency * (1 - weight);
+            }
+            lastUpdate = now;
+            if (success) {
+                ejections = 0;
+            }
+        }
+        if (success) {
+            consecutiveFailures.set(0);
+            return 0;
+        }
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    /**
+     * 负载评分，越小越优先：(进行中的请求数 + 1) * 延迟均值
+     * @return 评分
+     */
+    public double score() {
+        double latency;
+        synchronized (this) {
+            latency = latencyNanos;
+        }
+        return (inFlight.get() + 1) * latency;
+    }
+
+    /**
+     * 摘除实例，连续摘除时时长按次数成倍增加
+     * @param now 当前时间（纳秒）
+     * @param baseNanos 基础摘除时长
+     * @param maxNanos 最长摘除时长
+     */
+    public synchronized void eject(long now, long baseNanos, long maxNanos) {
+        ejections++;
+        ejectedUntil = now + Math.min(maxNanos, baseNanos * ejections);
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * @param now 当前时间（纳秒）
+     * @return 是否处于摘除状态
+     */
+    public boolean isEjected(long now) {
+        long until = ejectedUntil;
+        return until != 0 && now - until < 0;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public synchronized double getLatencyNanos() {
+        return latencyNanos;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.core.loadbalance;
+
+import com.example.core.circuit.CircuitBreaker;
+import com.example.core.circuit.InstanceBreakers;
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.client.config.IClientConfigKey;
+import com.netflix.loadbalancer.AbstractLoadBalancerRule;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按延迟和负载选择实例的负载均衡规则
+ * 随机取两个可用实例（power of two choices），选择 (进行中的请求数 + 1) * 延迟均值 较小的一个；
+ * 连续失败达到阈值的实例被临时摘除，摘除的实例数不超过总数的一定比例，全部不可用时退回到所有实例中选择
+ * 配置了实例熔断器时，熔断器打开（或半开且探测名额已满）的实例同样不参与选择
+ * 请求结果由 LoadBalancerFeedbackFilter 在路由结束后通过 complete 回报
+ */
+public class LatencyAwareRule extends AbstractLoadBalancerRule {
+
+    private static Logger logger = LoggerFactory.getLogger(LatencyAwareRule.class);
+
+    /**
+     * 当前线程正在进行的请求，Zuul 的路由在请求线程上执行，路由结束后在同一线程上回报结果
+     */
+    private static final ThreadLocal<Pending> PENDING = ThreadLocal.withInitial(Pending::new);
+
+    /**
+     * 规则参数在 Ribbon 客户端配置中的键；ZoneAwareLoadBalancer 会为每个可用区用无参构造器复制规则，
+     * 参数需要通过 initWithNiwsConfig 从客户端配置中读取
+     */
+    public static final IClientConfigKey<Integer> FAILURE_THRESHOLD = new Key("LatencyAwareFailureThreshold");
+    public static final IClientConfigKey<Integer> BASE_EJECTION_SECONDS = new Key("LatencyAwareBaseEjectionSeconds");
+    public static final IClientConfigKey<Integer> MAX_EJECTION_SECONDS = new Key("LatencyAwareMaxEjectionSeconds");
+    public static final IClientConfigKey<Integer> MAX_EJECTION_PERCENT = new Key("LatencyAwareMaxEjectionPercent");
+    public static final IClientConfigKey<Integer> DECAY_SECONDS = new Key("LatencyAwareDecaySeconds");
+    public static final IClientConfigKey<InstanceBreakers> INSTANCE_BREAKERS = new BreakersKey("LatencyAwareInstanceBreakers");
+
+    private final ConcurrentHashMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private int failureThreshold = 5;                               // 连续失败多少次后摘除
+    private long baseEjectionNanos = TimeUnit.SECONDS.toNanos(30);  // 基础摘除时长
+    private long maxEjectionNanos = TimeUnit.SECONDS.toNanos(300);  // 最长摘除时长
+    private int maxEjectionPercent = 50;                            // 最多摘除的实例比例
+    private long decayNanos = TimeUnit.SECONDS.toNanos(10);         // 延迟均值的衰减时间常数
+    private InstanceBreakers breakers;                              // 实例熔断器（未启用时为空）
+
+    @Override
+    public void initWithNiwsConfig(IClientConfig clientConfig) {
+        failureThreshold = clientConfig.getPropertyAsInteger(FAILURE_THRESHOLD, failureThreshold);
+        baseEjectionNanos = TimeUnit.SECONDS.toNanos(clientConfig.getPropertyAsInteger(BASE_EJECTION_SECONDS,
+                (int) TimeUnit.NANOSECONDS.toSeconds(baseEjectionNanos)));
+        maxEjectionNanos = TimeUnit.SECONDS.toNanos(clientConfig.getPropertyAsInteger(MAX_EJECTION_SECONDS,
+                (int) TimeUnit.NANOSECONDS.toSeconds(maxEjectionNanos)));
+        maxEjectionPercent = clientConfig.getPropertyAsInteger(MAX_EJECTION_PERCENT, maxEjectionPercent);
+        decayNanos = TimeUnit.SECONDS.toNanos(clientConfig.getPropertyAsInteger(DECAY_SECONDS,
+                (int) TimeUnit.NANOSECONDS.toSeconds(decayNanos)));
+        breakers = clientConfig.get(INSTANCE_BREAKERS);
+    }
+
+    @Override
+    public Server choose(Object key) {
+        ILoadBalancer lb = getLoadBalancer();
+        if (lb == null) {
+            return null;
+        }
+        List<Server> servers = lb.getReachableServers();
+        if (stats.size() > 2 * servers.size() + 16) {
+            purge(lb.getAllServers());
+        }
+        Server server = choose(servers, System.nanoTime());
+        if (server != null && RequestContext.getCurrentContext().getRequest() != null) {
+            long now = System.nanoTime();
+            CircuitBreaker breaker = breakers == null ? null : breakers.getInstanceBreaker(server.getId());
+            // 全部实例不可用时退回选中的实例没有探测名额，结果不回报给熔断器
+            PENDING.get().start(this, statsFor(server), breaker == null ? null : breaker.acquire(now), now);
+        }
+        return server;
+    }
+
+    /**
+     * 在候选实例中选择
+     * @param servers 候选实例
+     * @param now 当前时间（纳秒）
+     * @return 选中的实例，没有候选实例时返回 null
+     */
+    Server choose(List<Server> servers, long now) {
+        int size = servers.size();
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return servers.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int start = random.nextInt(size);
+        Server first = nextAvailable(servers, start, null, now);
+        if (first == null) {
+            return servers.get(start);      // 全部被摘除，退回到随机选择
+        }
+        Server second = nextAvailable(servers, start + 1 + random.nextInt(size - 1), first, now);
+        if (second == null) {
+            return first;
+        }
+        return statsFor(first).score() <= statsFor(second).score() ? first : second;
+    }
+
+    /**
+     * 为对冲请求选择主实例以外的实例，与 choose 使用相同的摘除和熔断检查；
+     * 对冲在工作线程上执行，不登记为当前线程的请求
+     * @param primary 主实例
+     * @return 选中的实例，没有其他可用实例时返回 null（不退回到被摘除的实例）
+     */
+    public Server chooseOther(Server primary) {
+        ILoadBalancer lb = getLoadBalancer();
+        return lb == null ? null : chooseOther(lb.getReachableServers(), primary, System.nanoTime());
+    }
+
+    /**
+     * 在候选实例中选择主实例以外的可用实例
+     * @param servers 候选实例
+     * @param primary 主实例
+     * @param now 当前时间（纳秒）
+     * @return 选中的实例，没有时返回 null
+     */
+    Server chooseOther(List<Server> servers, Server primary, long now) {
+        int size = servers.size();
+        if (size < 2) {
+            return null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int start = random.nextInt(size);
+        Server first = nextAvailable(servers, start, primary, now);
+        if (first == null) {
+            return null;
+        }
+        Server second = nextAvailable(servers, start + 1 + random.nextInt(size - 1), primary, now);
+        if (second == null || second.equals(first)) {
+            return first;
+        }
+        return statsFor(first).score() <= statsFor(second).score() ? first : second;
+    }
+
+    /**
+     * 从指定位置开始循环查找第一个未摘除的实例
+     */
+    private Server nextAvailable(List<Server> servers, int from, Server exclude, long now) {
+        int size = servers.size();
+        for (int i = 0; i < size; i++) {
+            Server candidate = servers.get((from + i) % size);
+            if (!candidate.equals(exclude) && !statsFor(candidate).isEjected(now) && isBreakerAvailable(candidate, now)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private boolean isBreakerAvailable(Server server, long now) {
+        CircuitBreaker breaker = breakers == null ? null : breakers.getInstanceBreaker(server.getId());
+        return breaker == null || breaker.isAvailable(now);
+    }
+
+    /**
+     * 回报当前线程的请求结果
+     * @param success 是否成功（未抛出异常且状态码小于 500）
+     */
+    public static void complete(boolean success) {
+        PENDING.get().finish(success, System.nanoTime());
+    }
+
+    /**
+     * 回报一个实例的请求结果，连续失败达到阈值时摘除
+     * @param stats 实例状态
+     * @param latency 延迟（纳秒）
+     * @param success 是否成功
+     * @param now 当前时间（纳秒）
+     */
+    void complete(InstanceStats stats, long latency, boolean success, long now) {
+        int failures = stats.complete(latency, success, now, decayNanos);
+        if (failures >= failureThreshold && canEject(now)) {
+            stats.eject(now, baseEjectionNanos, maxEjectionNanos);
+            logger.warn("Ejected upstream instance {} after {} consecutive failures", stats.getId(), failures);
+        }
+    }
+
+    InstanceStats statsFor(Server server) {
+        InstanceStats instance = stats.get(server.getId());
+        if (instance == null) {
+            instance = stats.computeIfAbsent(server.getId(), InstanceStats::new);
+        }
+        return instance;
+    }
+
+    /**
+     * 清除已下线实例的状态
+     */
+    private void purge(List<Server> servers) {
+        Set<String> ids = new HashSet<>();
+        for (Server server : servers) {
+            ids.add(server.getId());
+        }
+        stats.keySet().retainAll(ids);
+    }
+
+    private boolean canEject(long now) {
+        ILoadBalancer lb = getLoadBalancer();
+        int total = lb == null ? stats.size() : lb.getAllServers().size();
+        int ejected = 0;
+        for (InstanceStats instance : stats.values()) {
+            if (instance.isEjected(now)) {
+                ejected++;
+            }
+        }
+        return (ejected + 1) * 100 <= total * maxEjectionPercent;
+    }
+
+    /**
+     * 自定义的客户端配置键
+     */
+    private static final class Key extends CommonClientConfigKey<Integer> {
+        Key(String name) {
+            super(name);
+        }
+    }
+
+    /**
+     * 实例熔断器的配置键，值为对象而不是配置项，随客户端配置传给各可用区复制的规则
+     */
+    private static final class BreakersKey extends CommonClientConfigKey<InstanceBreakers> {
+        BreakersKey(String name) {
+            super(name);
+        }
+    }
+
+    /**
+     * 当前线程正在进行的请求
+     */
+    private static final class Pending {
+        private LatencyAwareRule rule;
+        private InstanceStats stats;
+        private CircuitBreaker.Call call;
+        private long start;
+
+        void start(LatencyAwareRule rule, InstanceStats stats, CircuitBreaker.Call call, long now) {
+            finish(false, now);     // 同一请求内再次选择实例（重试），上一次按失败计
+            this.rule = rule;
+            this.stats = stats;
+            this.call = call;
+            this.start = now;
+            stats.begin();
+        }
+
+        void finish(boolean success, long now) {
+            if (stats != null) {
+                rule.complete(stats, now - start, success, now);
+                if (call != null) {
+                    call.complete(!success, now);
+                }
+                rule = null;
+                stats = null;
+                call = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.core.metrics;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * 延迟直方图端点 /latency
+ * 输出每个 路由 + 上游实例 的 total、pre、connect、upstream、write 各阶段的 count、mean、p50、p99、p999、max（毫秒）
+ */
+@ConfigurationProperties(prefix = "endpoints.latency")
+public class LatencyEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    private final LatencyHistograms histograms;     // 延迟直方图
+
+    public LatencyEndpoint(LatencyHistograms histograms) {
+        super("latency");
+        this.histograms = histograms;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+        return histograms.snapshot();
+    }
+}
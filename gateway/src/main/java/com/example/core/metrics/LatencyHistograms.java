@@ -0,0 +1,134 @@
+package com.example.core.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按 路由 + 上游实例 统计的延迟直方图
+ * 每个阶段使用 HdrHistogram 的 Recorder 记录（微秒），记录时无锁、不分配对象；
+ * 读取时把区间直方图累加到累计直方图中，分位数为网关启动以来的统计
+ */
+public class LatencyHistograms {
+
+    /**
+     * 请求阶段
+     */
+    public enum Phase {
+        TOTAL, PRE, CONNECT, UPSTREAM, WRITE;
+
+        private final String label = name().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * 没有访问上游实例的请求（被拒绝、命中缓存等）使用的实例名
+     */
+    public static final String NO_INSTANCE = "-";
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<Object, Histograms>> routes = new ConcurrentHashMap<>();
+    private final long highestTrackableMicros;      // 可记录的最大值（微秒），超出的值按最大值记录
+    private final int significantDigits;            // 有效数字位数
+
+    /**
+     * @param highestTrackableMicros 可记录的最大值（微秒）
+     * @param significantDigits 有效数字位数
+     */
+    public LatencyHistograms(long highestTrackableMicros, int significantDigits) {
+        this.highestTrackableMicros = highestTrackableMicros;
+        this.significantDigits = significantDigits;
+    }
+
+    /**
+     * 记录一个请求的各阶段耗时
+     * @param routeId 路由
+     * @param instance 上游实例，为 null 时记为 NO_INSTANCE
+     * @param totalNanos 总耗时
+     * @param preNanos pre 过滤器耗时
+     * @param connectNanos 获取上游连接耗时
+     * @param upstreamNanos 等待上游响应耗时
+     * @param writeNanos 输出响应耗时
+     */
+    public void record(String routeId, Object instance, long totalNanos, long preNanos, long connectNanos, long upstreamNanos, long writeNanos) {
+        Histograms histograms = histograms(routeId == null ? NO_INSTANCE : routeId, instance == null ? NO_INSTANCE : instance);
+        histograms.record(Phase.TOTAL, totalNanos);
+        histograms.record(Phase.PRE, preNanos);
+        histograms.record(Phase.CONNECT, connectNanos);
+        histograms.record(Phase.UPSTREAM, upstreamNanos);
+        histograms.record(Phase.WRITE, writeNanos);
+    }
+
+    /**
+     * 读取所有直方图的统计结果（毫秒）
+     * @return 路由 -> 上游实例 -> 阶段 -> 统计值
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new TreeMap<>();
+        for (Map.Entry<String, ConcurrentHashMap<Object, Histograms>> route : routes.entrySet()) {
+            Map<String, Object> instances = new TreeMap<>();
+            for (Map.Entry<Object, Histograms> instance : route.getValue().entrySet()) {
+                instances.put(instance.getKey().toString(), instance.getValue().snapshot());
+            }
+            result.put(route.getKey(), instances);
+        }
+        return result;
+    }
+
+    private Histograms histograms(String routeId, Object instance) {
+        ConcurrentHashMap<Object, Histograms> instances = routes.get(routeId);
+        if (instances == null) {
+            instances = routes.computeIfAbsent(routeId, k -> new ConcurrentHashMap<>());
+        }
+        Histograms histograms = instances.get(instance);
+        if (histograms == null) {
+            histograms = instances.computeIfAbsent(instance, k -> new Histograms());
+        }
+        return histograms;
+    }
+
+    /**
+     * 一个 路由 + 上游实例 的各阶段直方图
+     */
+    private final class Histograms {
+        private final Recorder[] recorders = new Recorder[PHASES.length];
+        private final Histogram[] accumulated = new Histogram[PHASES.length];
+        private final Histogram[] intervals = new Histogram[PHASES.length];
+
+        Histograms() {
+            for (int i = 0; i < PHASES.length; i++) {
+                recorders[i] = new Recorder(highestTrackableMicros, significantDigits);
+                accumulated[i] = new Histogram(highestTrackableMicros, significantDigits);
+            }
+        }
+
+        void record(Phase phase, long nanos) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            recorders[phase.ordinal()].recordValue(micros < 0 ? 0 : Math.min(micros, highestTrackableMicros));
+        }
+
+        synchronized Map<String, Object> snapshot() {
+            Map<String, Object> phases = new LinkedHashMap<>();
+            for (int i = 0; i < PHASES.length; i++) {
+                intervals[i] = recorders[i].getIntervalHistogram(intervals[i]);
+                accumulated[i].add(intervals[i]);
+                Histogram histogram = accumulated[i];
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("count", histogram.getTotalCount());
+                stats.put("mean", histogram.getMean() / 1000.0);
+                stats.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+                stats.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+                stats.put("p999", histogram.getValueAtPercentile(99.9) / 1000.0);
+                stats.put("max", histogram.getMaxValue() / 1000.0);
+                phases.put(PHASES[i].label, stats);
+            }
+            return phases;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.core.metrics;
+
+/**
+ * 当前请求各阶段的时间点
+ * Zuul 的过滤器和信号量隔离下的路由都在同一个 servlet 线程上执行，每个线程复用一个实例，记录时不分配对象
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = ThreadLocal.withInitial(RequestTimings::new);
+
+    private long start;             // 请求开始（第一个 pre 过滤器）
+    private long routeStart;        // 路由开始（pre 过滤器全部结束）
+    private long routeEnd;          // 路由结束（收到上游响应头）
+    private long connectNanos;      // 获取和建立上游连接的耗时
+    private Object instance;        // 上游实例（HttpHost），未访问上游时为 null
+
+    private RequestTimings() {
+    }
+
+    /**
+     * @return 当前线程的请求时间记录
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 开始记录新的请求
+     * @param now 当前时间（纳秒）
+     */
+    public void start(long now) {
+        start = now;
+        routeStart = 0;
+        routeEnd = 0;
+        connectNanos = 0;
+        instance = null;
+    }
+
+    public void markRouteStart(long now) {
+        routeStart = now;
+    }
+
+    public void markRouteEnd(long now) {
+        routeEnd = now;
+    }
+
+    /**
+     * 记录一次获取上游连接的耗时（连接池等待 + TCP 建连）
+     * @param target 上游实例
+     * @param nanos 耗时（纳秒）
+     */
+    public void addConnect(Object target, long nanos) {
+        instance = target;
+        connectNanos += nanos;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getRouteStart() {
+        return routeStart;
+    }
+
+    public long getRouteEnd() {
+        return routeEnd;
+    }
+
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    public Object getInstance() {
+        return instance;
+    }
+}
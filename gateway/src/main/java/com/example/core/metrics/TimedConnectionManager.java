@@ -0,0 +1,86 @@
+package com.example.core.metrics;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录连接耗时的连接管理器
+ * 把从连接池获取连接和建立 TCP 连接的耗时记入当前请求的 RequestTimings，并记下本次访问的上游实例
+ */
+public class TimedConnectionManager implements HttpClientConnectionManager {
+
+    private final HttpClientConnectionManager delegate;     // 实际的连接管理器
+
+    public TimedConnectionManager(HttpClientConnectionManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        final ConnectionRequest request = delegate.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return request.get(timeout, tunit);
+                } finally {
+                    RequestTimings.current().addConnect(route.getTargetHost(), System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void connect(HttpClientConnection conn, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.connect(conn, route, connectTimeout, context);
+        } finally {
+            RequestTimings.current().addConnect(route.getTargetHost(), System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection conn, Object newState, long validDuration, TimeUnit timeUnit) {
+        delegate.releaseConnection(conn, newState, validDuration, timeUnit);
+    }
+
+    @Override
+    public void upgrade(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        delegate.upgrade(conn, route, context);
+    }
+
+    @Override
+    public void routeComplete(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        delegate.routeComplete(conn, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(long idletime, TimeUnit tunit) {
+        delegate.closeIdleConnections(idletime, tunit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        delegate.closeExpiredConnections();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.core.netty;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.net.InetSocketAddress;
+
+/**
+ * 非阻塞路由服务
+ * 基于事件循环处理客户端连接，一个线程可以同时服务大量连接，不会因上游变慢而耗尽线程
+ * 与 Zuul（每个请求占用一个 servlet 线程）并存，监听独立端口
+ */
+public class NettyRoutingServer implements SmartLifecycle {
+
+    private static Logger logger = LoggerFactory.getLogger(NettyRoutingServer.class);
+
+    private final EventLoopGroup bossGroup;         // 接收连接的事件循环
+    private final EventLoopGroup workerGroup;       // 处理读写的事件循环（与上游客户端共用）
+    private final RoutingHandler routingHandler;    // 路由处理器
+    private final NettyUpstreamClient upstreamClient; // 上游客户端
+    private final int port;                         // 监听端口
+    private final int maxContentLength;             // 请求体最大长度
+
+    private volatile Channel serverChannel;
+
+    public NettyRoutingServer(EventLoopGroup bossGroup, EventLoopGroup workerGroup, RoutingHandler routingHandler,
+                              NettyUpstreamClient upstreamClient, int port, int maxContentLength) {
+        this.bossGroup = bossGroup;
+        this.workerGroup = workerGroup;
+        this.routingHandler = routingHandler;
+        this.upstreamClient = upstreamClient;
+        this.port = port;
+        this.maxContentLength = maxContentLength;
+    }
+
+    @Override
+    public void start() {
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(NioServerSocketChannel.class)
+                .option(ChannelOption.SO_BACKLOG, 4096)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                                .addLast(new HttpServerCodec())
+                                .addLast(new HttpObjectAggregator(maxContentLength))
+                                .addLast(routingHandler);
+                    }
+                });
+        serverChannel = bootstrap.bind(port).syncUninterruptibly().channel();
+        logger.info("Netty routing server started on port {}", getPort());
+    }
+
+    @Override
+    public void stop() {
+        Channel channel = serverChannel;
+        if (channel != null) {
+            channel.close().syncUninterruptibly();
+            serverChannel = null;
+        }
+        upstreamClient.closeIdleConnections();
+        bossGroup.shutdownGracefully();
+        workerGroup.shutdownGracefully();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return serverChannel != null;
+    }
+
+    /**
+     * @return 实际监听的端口（配置为 0 时由系统分配）
+     */
+    public int getPort() {
+        Channel channel = serverChannel;
+        return channel == null ? port : ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.core.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 非阻塞的上游 HTTP 客户端
+ * 连接和响应都在事件循环上处理，不为每个请求占用线程
+ * 每个上游实例保留有限数量的 keep-alive 空闲连接用于复用
+ */
+public class NettyUpstreamClient {
+
+    private static final AttributeKey<String> POOL_KEY = AttributeKey.valueOf("upstreamPoolKey");
+    private static final AttributeKey<CompletableFuture<FullHttpResponse>> PENDING = AttributeKey.valueOf("upstreamPending");
+
+    private final Bootstrap bootstrap;          // 客户端启动器
+    private final int readTimeoutMillis;        // 等待响应的超时时间
+    private final int maxIdlePerHost;           // 每个实例的空闲连接上限
+    private final ConcurrentHashMap<String, ArrayBlockingQueue<Channel>> idle = new ConcurrentHashMap<>();
+
+    public NettyUpstreamClient(EventLoopGroup group, int connectTimeoutMillis, int readTimeoutMillis, int maxContentLength, int maxIdlePerHost) {
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.maxIdlePerHost = maxIdlePerHost;
+        final ResponseHandler responseHandler = new ResponseHandler();
+        this.bootstrap = new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                                .addLast(new HttpClientCodec())
+                                .addLast(new HttpObjectAggregator(maxContentLength))
+                                .addLast(responseHandler);
+                    }
+                });
+    }
+
+    /**
+     * 向上游实例发送请求
+     * 请求对象的引用计数由本方法负责释放，响应对象由调用方负责释放
+     * @param host 实例地址
+     * @param port 实例端口
+     * @param request 请求
+     * @return 响应
+     */
+    public CompletableFuture<FullHttpResponse> execute(String host, int port, FullHttpRequest request) {
+        CompletableFuture<FullHttpResponse> future = new CompletableFuture<>();
+        String key = host + ':' + port;
+        Channel channel = pollIdle(key);
+        if (channel != null) {
+            send(channel, request, future);
+            return future;
+        }
+        bootstrap.connect(host, port).addListener((ChannelFuture connect) -> {
+            if (connect.isSuccess()) {
+                connect.channel().attr(POOL_KEY).set(key);
+                send(connect.channel(), request, future);
+            } else {
+                ReferenceCountUtil.release(request);
+                future.completeExceptionally(connect.cause());
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 关闭所有空闲连接
+     */
+    public void closeIdleConnections() {
+        for (ArrayBlockingQueue<Channel> channels : idle.values()) {
+            Channel channel;
+            while ((channel = channels.poll()) != null) {
+                channel.close();
+            }
+        }
+    }
+
+    private Channel pollIdle(String key) {
+        ArrayBlockingQueue<Channel> channels = idle.get(key);
+        if (channels == null) {
+            return null;
+        }
+        Channel channel;
+        while ((channel = channels.poll()) != null) {
+            if (channel.isActive()) {
+                return channel;
+            }
+        }
+        return null;
+    }
+
+    private void send(Channel channel, FullHttpRequest request, CompletableFuture<FullHttpResponse> future) {
+        channel.attr(PENDING).set(future);
+        ScheduledFuture<?> timeout = channel.eventLoop().schedule(() -> {
+            if (future.completeExceptionally(new TimeoutException("Upstream response timed out after " + readTimeoutMillis + "ms"))) {
+                channel.close();
+            }
+        }, readTimeoutMillis, TimeUnit.MILLISECONDS);
+        future.whenComplete((response, error) -> timeout.cancel(false));
+        channel.writeAndFlush(request).addListener((ChannelFuture write) -> {
+            if (!write.isSuccess()) {
+                future.completeExceptionally(write.cause());
+                write.channel().close();
+            }
+        });
+    }
+
+    private void release(Channel channel, boolean keepAlive) {
+        String key = channel.attr(POOL_KEY).get();
+        if (!keepAlive || key == null) {
+            channel.close();
+            return;
+        }
+        ArrayBlockingQueue<Channel> channels = idle.get(key);
+        if (channels == null) {
+            channels = idle.computeIfAbsent(key, k -> new ArrayBlockingQueue<>(maxIdlePerHost));
+        }
+        if (!channels.offer(channel)) {
+            channel.close();
+        }
+    }
+
+    /**
+     * 响应处理器，所有上游连接共享
+     */
+    @ChannelHandler.Sharable
+    private class ResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse response) {
+            CompletableFuture<FullHttpResponse> future = ctx.channel().attr(PENDING).getAndRemove();
+            if (future == null) {
+                ctx.close();    // 没有等待中的请求（例如已超时），连接状态不可信
+                return;
+            }
+            boolean keepAlive = HttpHeaders.isKeepAlive(response);
+            if (!future.complete(response.retain())) {
+                response.release();
+                ctx.close();
+                return;
+            }
+            release(ctx.channel(), keepAlive);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            fail(ctx, new ClosedChannelException());
+            String key = ctx.channel().attr(POOL_KEY).get();
+            ArrayBlockingQueue<Channel> channels = key == null ? null : idle.get(key);
+            if (channels != null) {
+                channels.remove(ctx.channel());
+            }
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            fail(ctx, cause instanceof IOException ? cause : new IOException(cause));
+            ctx.close();
+        }
+
+        private void fail(ChannelHandlerContext ctx, Throwable cause) {
+            CompletableFuture<FullHttpResponse> future = ctx.channel().attr(PENDING).getAndRemove();
+            if (future != null) {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.core.netty;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+
+import java.net.URI;
+
+/**
+ * 路由目标解析
+ * 非阻塞路由和聚合接口共用：url 路由直接使用，服务id 路由通过负载均衡选择实例
+ */
+public final class RouteTargets {
+
+    private RouteTargets() {
+    }
+
+    /**
+     * 解析路由目标
+     * @param loadBalancerClient 负载均衡客户端
+     * @param location 路由目标（url 或服务id）
+     * @return 实例地址（带端口），无可用实例时返回 null
+     */
+    public static URI resolve(LoadBalancerClient loadBalancerClient, String location) {
+        if (location.startsWith("http://") || location.startsWith("https://")) {
+            URI uri = URI.create(location);
+            return uri.getPort() > 0 ? uri : URI.create(uri.getScheme() + "://" + uri.getHost() + ":80" + uri.getRawPath());
+        }
+        ServiceInstance instance = loadBalancerClient.choose(location);
+        return instance == null ? null : URI.create("http://" + instance.getHost() + ":" + instance.getPort());
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.core.netty;
+
+import com.example.core.security.BearerTokens;
+import com.example.core.security.PrincipalHeaderSigner;
+import com.example.core.security.TokenAuthenticator;
+import com.example.core.security.TokenPrincipal;
+import com.example.core.security.TokenRejectedException;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.CharsetUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 非阻塞路由处理器
+ * 与 Zuul 使用同一个 RouteLocator（即同一份 zuul.routes），前置校验使用与 AccessFilter 相同的 TokenAuthenticator，
+ * 缓存未命中的查询不阻塞事件循环，结果返回或超时后回到事件循环继续处理
+ */
+@ChannelHandler.Sharable
+public class RoutingHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+    private static Logger logger = LoggerFactory.getLogger(RoutingHandler.class);
+
+    /**
+     * 逐跳头，不向上游或客户端转发
+     */
+    private static final Set<String> HOP_BY_HOP_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
+            "te", "trailer", "transfer-encoding", "upgrade", "content-length"));
+
+    private final RouteLocator routeLocator;                // Zuul 路由定位器
+    private final ZuulProperties zuulProperties;            // Zuul 配置
+    private final LoadBalancerClient loadBalancerClient;    // 负载均衡客户端
+    private final NettyUpstreamClient upstreamClient;       // 上游客户端
+    private final TokenAuthenticator authenticator;         // 令牌认证
+    private final PrincipalHeaderSigner signer;             // 签名用户头生成器（可为空）
+    private final String principalHeaderName;               // 签名用户头名称
+
+    public RoutingHandler(RouteLocator routeLocator, ZuulProperties zuulProperties, LoadBalancerClient loadBalancerClient,
+                          NettyUpstreamClient upstreamClient, TokenAuthenticator authenticator,
+                          PrincipalHeaderSigner signer, String principalHeaderName) {
+        super(false);   // 请求体的引用计数在转发后由上游客户端释放
+        this.routeLocator = routeLocator;
+        this.zuulProperties = zuulProperties;
+        this.loadBalancerClient = loadBalancerClient;
+        this.upstreamClient = upstreamClient;
+        this.authenticator = authenticator;
+        this.signer = signer;
+        this.principalHeaderName = principalHeaderName;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+        boolean keepAlive = HttpHeaders.isKeepAlive(request);
+        String uri = request.getUri();
+        int queryIndex = uri.indexOf('?');
+        String path = queryIndex < 0 ? uri : uri.substring(0, queryIndex);
+        String query = queryIndex < 0 ? "" : uri.substring(queryIndex);
+
+        Route route = routeLocator.getMatchingRoute(path);
+        if (route == null) {
+            request.release();
+            respond(ctx, HttpResponseStatus.NOT_FOUND, "No route for " + path, keepAlive);
+            return;
+        }
+
+        String accessToken = request.headers().get(HttpHeaders.Names.AUTHORIZATION);
+        authenticator.authenticate(accessToken, route::getId, ctx.executor()).whenComplete((principal, error) -> {
+            if (ctx.executor().inEventLoop()) {
+                onAuthenticated(ctx, request, route, query, keepAlive, principal, error);
+            } else {
+                ctx.executor().execute(() -> onAuthenticated(ctx, request, route, query, keepAlive, principal, error));
+            }
+        });
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        logger.debug("Client connection error: {}", cause.toString());
+        ctx.close();
+    }
+
+    private void onAuthenticated(ChannelHandlerContext ctx, FullHttpRequest request, Route route, String query,
+                                 boolean keepAlive, TokenPrincipal principal, Throwable error) {
+        if (error != null) {
+            request.release();
+            TokenRejectedException rejected = error instanceof TokenRejectedException
+                    ? (TokenRejectedException) error : TokenRejectedException.UNAVAILABLE;
+            respond(ctx, HttpResponseStatus.valueOf(rejected.getStatus()), rejected.getMessage(), keepAlive);
+            return;
+        }
+        forward(ctx, request, route, query, principal, keepAlive);
+    }
+
+    private void forward(ChannelHandlerContext ctx, FullHttpRequest request, Route route, String query,
+                         TokenPrincipal principal, boolean keepAlive) {
+        URI target = RouteTargets.resolve(loadBalancerClient, route.getLocation());
+        if (target == null) {
+            request.release();
+            respond(ctx, HttpResponseStatus.SERVICE_UNAVAILABLE, "No instance available for " + route.getLocation(), keepAlive);
+            return;
+        }
+        String basePath = target.getRawPath() == null ? "" : target.getRawPath();
+        if (basePath.endsWith("/")) {
+            basePath = basePath.substring(0, basePath.length() - 1);
+        }
+        Set<String> ignoredHeaders = zuulProperties.getIgnoredHeaders();
+        // 请求体直接交给上游请求，不做拷贝
+        FullHttpRequest upstream = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, request.getMethod(),
+                basePath + route.getPath() + query, request.content());
+        copyRequestHeaders(ctx, request, upstream, route, ignoredHeaders);
+        HttpHeaders.setHost(upstream, target.getHost() + ':' + target.getPort());
+        HttpHeaders.setContentLength(upstream, upstream.content().readableBytes());
+        if (signer != null && principal != null) {
+            String accessToken = BearerTokens.extract(request.headers().get(HttpHeaders.Names.AUTHORIZATION));
+            upstream.headers().set(principalHeaderName, signer.sign(principal, accessToken, System.currentTimeMillis()));
+        }
+
+        upstreamClient.execute(target.getHost(), target.getPort(), upstream).whenComplete((response, error) -> {
+            if (error != null) {
+                logger.warn("Upstream {} failed: {}", route.getLocation(), error.toString());
+                HttpResponseStatus status = error instanceof TimeoutException ? HttpResponseStatus.GATEWAY_TIMEOUT : HttpResponseStatus.BAD_GATEWAY;
+                respond(ctx, status, status.reasonPhrase(), keepAlive);
+                return;
+            }
+            FullHttpResponse out = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, response.getStatus(), response.content());
+            for (Map.Entry<String, String> header : response.headers()) {
+                String name = header.getKey().toLowerCase(Locale.ENGLISH);
+                if (!HOP_BY_HOP_HEADERS.contains(name) && !containsIgnoreCase(ignoredHeaders, name)) {
+                    out.headers().add(header.getKey(), header.getValue());
+                }
+            }
+            write(ctx, out, keepAlive);
+        });
+    }
+
+    /**
+     * 按 Zuul 的规则复制请求头：去掉逐跳头、忽略头和路由的敏感头，并添加代理头
+     */
+    private void copyRequestHeaders(ChannelHandlerContext ctx, FullHttpRequest request, FullHttpRequest upstream, Route route, Set<String> ignoredHeaders) {
+        Set<String> sensitiveHeaders = route.isCustomSensitiveHeaders() ? route.getSensitiveHeaders() : zuulProperties.getSensitiveHeaders();
+        for (Map.Entry<String, String> header : request.headers()) {
+            String name = header.getKey().toLowerCase(Locale.ENGLISH);
+            if (HOP_BY_HOP_HEADERS.contains(name) || "host".equals(name) || containsIgnoreCase(ignoredHeaders, name) || containsIgnoreCase(sensitiveHeaders, name)) {
+                continue;
+            }
+            upstream.headers().add(header.getKey(), header.getValue());
+        }
+        if (zuulProperties.isAddProxyHeaders()) {
+            InetSocketAddress remote = (InetSocketAddress) ctx.channel().remoteAddress();
+            String forwardedFor = request.headers().get("X-Forwarded-For");
+            String remoteAddress = remote.getAddress().getHostAddress();
+            upstream.headers().set("X-Forwarded-For", forwardedFor == null ? remoteAddress : forwardedFor + ", " + remoteAddress);
+            String host = request.headers().get(HttpHeaders.Names.HOST);
+            if (host != null) {
+                upstream.headers().set("X-Forwarded-Host", host);
+            }
+            upstream.headers().set("X-Forwarded-Proto", "http");
+            if (route.getPrefix() != null && !route.getPrefix().isEmpty()) {
+                upstream.headers().set("X-Forwarded-Prefix", route.getPrefix());
+            }
+        }
+    }
+
+    private static boolean containsIgnoreCase(Set<String> names, String lowerCaseName) {
+        if (names == null || names.isEmpty()) {
+            return false;
+        }
+        for (String name : names) {
+            if (name.equalsIgnoreCase(lowerCaseName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void respond(ChannelHandlerContext ctx, HttpResponseStatus status, String body, boolean keepAlive) {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status,
+                Unpooled.copiedBuffer(body, CharsetUtil.UTF_8));
+        response.headers().set(HttpHeaders.Names.CONTENT_TYPE, "text/plain;charset=UTF-8");
+        write(ctx, response, keepAlive);
+    }
+
+    private void write(ChannelHandlerContext ctx, FullHttpResponse response, boolean keepAlive) {
+        HttpHeaders.setContentLength(response, response.content().readableBytes());
+        HttpHeaders.setKeepAlive(response, keepAlive);
+        if (keepAlive) {
+            ctx.writeAndFlush(response);
+        } else {
+            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+}
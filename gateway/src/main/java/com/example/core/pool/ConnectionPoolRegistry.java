@@ -0,0 +1,119 @@
+package com.example.core.pool;
+
+import com.example.core.config.ConnectionPoolProperties;
+import com.netflix.loadbalancer.Server;
+import org.apache.http.HttpHost;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.ribbon.ServerIntrospector;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上游连接池注册表
+ * 每个 Ribbon 客户端（即每个路由的 serviceId）一个 RouteConnectionPool，由各服务的 Ribbon 子容器在创建时登记；
+ * 定期清理空闲和过期连接，并在后台为新实例预先建立连接
+ */
+public class ConnectionPoolRegistry {
+
+    private static Logger logger = LoggerFactory.getLogger(ConnectionPoolRegistry.class);
+
+    private final ConnectionPoolProperties properties;  // 连接池配置
+    private final ZuulProperties zuulProperties;        // Zuul 配置（用于把 serviceId 对应到路由）
+    private final Executor warmupExecutor;              // 执行预热的线程池
+    private final ConcurrentHashMap<String, RouteConnectionPool> pools = new ConcurrentHashMap<>();
+
+    public ConnectionPoolRegistry(ConnectionPoolProperties properties, ZuulProperties zuulProperties, Executor warmupExecutor) {
+        this.properties = properties;
+        this.zuulProperties = zuulProperties;
+        this.warmupExecutor = warmupExecutor;
+    }
+
+    /**
+     * 为一个服务创建连接池
+     * @param serviceId 服务id（Ribbon 客户端名称）
+     * @return 连接池
+     */
+    public RouteConnectionPool create(String serviceId) {
+        ConnectionPoolProperties.Route route = routeSettings(serviceId);
+        int maxTotal = route != null && route.getMaxTotal() != null ? route.getMaxTotal() : properties.getMaxTotal();
+        int maxPerHost = route != null && route.getMaxPerHost() != null ? route.getMaxPerHost() : properties.getMaxPerHost();
+        long maxWaitMillis = route != null && route.getMaxWaitMillis() != null ? route.getMaxWaitMillis() : properties.getMaxWaitMillis();
+
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(properties.getTimeToLiveSeconds(), TimeUnit.SECONDS);
+        manager.setMaxTotal(maxTotal);
+        manager.setDefaultMaxPerRoute(maxPerHost);
+        manager.setValidateAfterInactivity(properties.getValidateAfterInactivityMillis());
+        RouteConnectionPool pool = new RouteConnectionPool(serviceId, manager, maxWaitMillis);
+        RouteConnectionPool previous = pools.put(serviceId, pool);
+        if (previous != null) {
+            previous.shutdown();
+        }
+        logger.info("Created connection pool for {} with maxTotal={}, maxPerHost={}, maxWaitMillis={}",
+                serviceId, maxTotal, maxPerHost, maxWaitMillis);
+        return pool;
+    }
+
+    /**
+     * 在后台为实例预先建立连接
+     * @param serviceId 服务id
+     * @param servers 实例
+     * @param introspector 判断实例是否使用 https
+     */
+    public void warmup(String serviceId, Collection<Server> servers, ServerIntrospector introspector) {
+        RouteConnectionPool pool = pools.get(serviceId);
+        ConnectionPoolProperties.Route route = routeSettings(serviceId);
+        int connections = route != null && route.getWarmupConnections() != null ? route.getWarmupConnections() : properties.getWarmupConnections();
+        if (pool == null || connections <= 0) {
+            return;
+        }
+        for (Server server : servers) {
+            boolean secure = introspector.isSecure(server);
+            HttpHost target = new HttpHost(server.getHost(), server.getPort(), secure ? "https" : "http");
+            try {
+                warmupExecutor.execute(() -> {
+                    int opened = pool.warmup(target, secure, connections, properties.getWarmupConnectTimeoutMillis());
+                    logger.info("Pre-opened {} connections to {} for {}", opened, target, serviceId);
+                });
+            } catch (RejectedExecutionException e) {
+                logger.debug("Skipped connection warmup to {}: {}", target, e.toString());
+            }
+        }
+    }
+
+    /**
+     * 清理所有连接池中过期和空闲超时的连接
+     */
+    public void evict() {
+        for (RouteConnectionPool pool : pools.values()) {
+            pool.evict(properties.getIdleTimeoutSeconds());
+        }
+    }
+
+    /**
+     * 已创建的连接池
+     * @return serviceId -> 连接池
+     */
+    public Map<String, RouteConnectionPool> getPools() {
+        return pools;
+    }
+
+    /**
+     * 查找 serviceId 对应的路由配置
+     */
+    private ConnectionPoolProperties.Route routeSettings(String serviceId) {
+        for (ZuulProperties.ZuulRoute route : zuulProperties.getRoutes().values()) {
+            if (serviceId.equalsIgnoreCase(route.getServiceId()) && properties.getRoutes().containsKey(route.getId())) {
+                return properties.getRoutes().get(route.getId());
+            }
+        }
+        return properties.getRoutes().get(serviceId);
+    }
+}
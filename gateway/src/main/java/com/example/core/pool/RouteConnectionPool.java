@@ -0,0 +1,203 @@
+package com.example.core.pool;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个路由的上游连接池（舱壁）
+ * 每个路由独立的 PoolingHttpClientConnectionManager，连接数有上限，获取连接的等待时间有上限：
+ * 一个路由的上游变慢占满连接时，只有这个路由的请求在等待并超时失败，其他路由的连接不受影响
+ * 记录获取连接的次数、等待时间和超时次数，支持为新实例预先建立连接
+ */
+public class RouteConnectionPool implements HttpClientConnectionManager {
+
+    private static Logger logger = LoggerFactory.getLogger(RouteConnectionPool.class);
+
+    private final String name;                              // 名称（serviceId）
+    private final PoolingHttpClientConnectionManager pool;  // 实际的连接池
+    private final long maxWaitMillis;                       // 获取连接的最长等待时间
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder leaseTimeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder warmedConnections = new LongAdder();
+
+    /**
+     * @param name 名称
+     * @param pool 连接池
+     * @param maxWaitMillis 获取连接的最长等待时间
+     */
+    public RouteConnectionPool(String name, PoolingHttpClientConnectionManager pool, long maxWaitMillis) {
+        this.name = name;
+        this.pool = pool;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        final ConnectionRequest request = pool.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                // Ribbon 按请求设置的 RequestConfig 不带获取连接的超时（0 表示一直等待），这里统一加上上限
+                long waitMillis = timeout > 0 ? Math.min(tunit.toMillis(timeout), maxWaitMillis) : maxWaitMillis;
+                long start = System.nanoTime();
+                try {
+                    HttpClientConnection connection = request.get(waitMillis, TimeUnit.MILLISECONDS);
+                    leases.increment();
+                    return connection;
+                } catch (ConnectionPoolTimeoutException e) {
+                    leaseTimeouts.increment();
+                    logger.warn("Timed out after {}ms waiting for a connection to {} from pool {}", waitMillis, route.getTargetHost(), name);
+                    throw e;
+                } finally {
+                    long waited = System.nanoTime() - start;
+                    waitNanos.add(waited);
+                    maxWaitNanos.accumulateAndGet(waited, Math::max);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    /**
+     * 预先建立到一个实例的连接，建立后放回连接池供后续请求复用
+     * 同时占用多个连接再一起归还，否则每次拿到的都是同一个连接
+     * @param target 上游实例
+     * @param secure 是否使用 https
+     * @param connections 连接数（包括已有的空闲连接）
+     * @param connectTimeoutMillis 建立连接的超时时间
+     * @return 新建立的连接数
+     */
+    public int warmup(HttpHost target, boolean secure, int connections, int connectTimeoutMillis) {
+        HttpRoute route = new HttpRoute(target, null, secure);
+        List<HttpClientConnection> leased = new ArrayList<>(connections);
+        int opened = 0;
+        try {
+            for (int i = 0; i < connections; i++) {
+                HttpClientConnection connection = pool.requestConnection(route, null).get(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+                leased.add(connection);
+                if (!connection.isOpen()) {
+                    HttpContext context = new BasicHttpContext();
+                    pool.connect(connection, route, connectTimeoutMillis, context);
+                    pool.routeComplete(connection, route, context);
+                    opened++;
+                }
+            }
+        } catch (IOException | ExecutionException e) {
+            logger.info("Connection warmup to {} for pool {} stopped after {} connections: {}", target, name, opened, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (HttpClientConnection connection : leased) {
+                pool.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+            }
+        }
+        warmedConnections.add(opened);
+        return opened;
+    }
+
+    /**
+     * 清理过期和空闲超时的连接
+     * @param idleTimeoutSeconds 空闲超时时间
+     */
+    public void evict(long idleTimeoutSeconds) {
+        pool.closeExpiredConnections();
+        pool.closeIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void connect(HttpClientConnection conn, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+        pool.connect(conn, route, connectTimeout, context);
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection conn, Object newState, long validDuration, TimeUnit timeUnit) {
+        pool.releaseConnection(conn, newState, validDuration, timeUnit);
+    }
+
+    @Override
+    public void upgrade(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        pool.upgrade(conn, route, context);
+    }
+
+    @Override
+    public void routeComplete(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        pool.routeComplete(conn, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(long idletime, TimeUnit tunit) {
+        pool.closeIdleConnections(idletime, tunit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        pool.closeExpiredConnections();
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 连接池当前的已占用、空闲、等待数和上限
+     */
+    public PoolStats getStats() {
+        return pool.getTotalStats();
+    }
+
+    public long getLeases() {
+        return leases.sum();
+    }
+
+    public long getLeaseTimeouts() {
+        return leaseTimeouts.sum();
+    }
+
+    /**
+     * @return 获取连接的平均等待时间（毫秒）
+     */
+    public double getMeanWaitMillis() {
+        long count = leases.sum() + leaseTimeouts.sum();
+        return count == 0 ? 0 : waitNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return 获取连接的最长等待时间（毫秒）
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public long getWarmedConnections() {
+        return warmedConnections.sum();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.core.ratelimit;
+
+import com.example.core.config.RateLimitProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 限流器注册表
+ * 按 路由 -> 客户端 维护令牌桶，每个路由的客户端按哈希分到若干段，每段是一个按访问顺序排列的 LinkedHashMap，
+ * 段内加锁只覆盖查找和插入，扣减令牌仍是令牌桶上的一次 CAS
+ * 每个路由跟踪的客户端数达到 maxClientsPerRoute 后淘汰所在段中最久未访问的客户端，
+ * 被淘汰的客户端下次访问时得到一个新的令牌桶，新客户端不会因为其他客户端占满位置而被拒绝
+ * 令牌桶记录创建时的规则，配置刷新后规则变化的令牌桶在下次访问时重建
+ */
+public class RateLimiterRegistry {
+
+    /**
+     * 按客户端地址限流时使用的路由id，与 zuul.routes 的键不会冲突
+     */
+    public static final String ADDRESS_ROUTE = "*address";
+
+    private static final int MAX_SEGMENTS = 64;             // 每个路由的最大分段数
+
+    private static final int MIN_SEGMENT_CAPACITY = 64;     // 分段后每段的最小容量
+
+    private final RateLimitProperties properties;   // 限流配置
+    private final ConcurrentHashMap<String, Segment[]> buckets = new ConcurrentHashMap<>();  // 路由 -> 客户端令牌桶分段
+    private final LongAdder evicted = new LongAdder();     // 因客户端数达到上限而淘汰的令牌桶数
+
+    public RateLimiterRegistry(RateLimitProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 路由对应的限流规则
+     * @param routeId 路由id（zuul.routes 的键）
+     * @return 限流规则，未配置时返回 null
+     */
+    public RateLimitProperties.Limit getLimit(String routeId) {
+        RateLimitProperties.Limit limit = routeId == null ? null : properties.getRoutes().get(routeId);
+        return limit != null ? limit : properties.getDefaultLimit();
+    }
+
+    /**
+     * @return 校验令牌之前按客户端地址限流的规则，未配置时返回 null
+     */
+    public RateLimitProperties.Limit getAddressLimit() {
+        return properties.getAddressLimit();
+    }
+
+    /**
+     * 尝试为客户端获取一个令牌
+     * @param routeId 路由id
+     * @param clientKey 客户端标识
+     * @param limit 限流规则
+     * @param now 当前时间（纳秒）
+     * @return 0 表示放行，否则为需要等待的纳秒数
+     */
+    public long tryAcquire(String routeId, String clientKey, RateLimitProperties.Limit limit, long now) {
+        Segment[] segments = buckets.get(routeId);
+        if (segments == null) {
+            segments = buckets.computeIfAbsent(routeId, k -> newSegments());
+        }
+        Segment segment = segments[(clientKey.hashCode() & Integer.MAX_VALUE) % segments.length];
+        double ratePerSecond = limit.getRatePerSecond();
+        int burst = limit.getBurst();
+        TokenBucket bucket;
+        synchronized (segment) {
+            bucket = segment.get(clientKey);
+            if (bucket == null || !bucket.hasLimit(ratePerSecond, burst)) {
+                bucket = new TokenBucket(ratePerSecond, burst, now);
+                segment.put(clientKey, bucket);
+            }
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    /**
+     * @return 因客户端数达到上限而淘汰的令牌桶数
+     */
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    /**
+     * @param routeId 路由id
+     * @return 路由当前跟踪的客户端数
+     */
+    public int getClientCount(String routeId) {
+        Segment[] segments = buckets.get(routeId);
+        if (segments == null) {
+            return 0;
+        }
+        int count = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                count += segment.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 回收已补满的令牌桶，由定时任务调用
+     */
+    public void purge() {
+        long now = System.nanoTime();
+        for (Segment[] segments : buckets.values()) {
+            for (Segment segment : segments) {
+                synchronized (segment) {
+                    segment.values().removeIf(bucket -> bucket.isFull(now));
+                }
+            }
+        }
+    }
+
+    /**
+     * 按上限分段：每段至少 MIN_SEGMENT_CAPACITY 个客户端，上限较小时只有一段，淘汰的就是整个路由中最久未访问的客户端
+     */
+    private Segment[] newSegments() {
+        int maxClients = Math.max(1, properties.getMaxClientsPerRoute());
+        int count = Math.max(1, Math.min(MAX_SEGMENTS, maxClients / MIN_SEGMENT_CAPACITY));
+        Segment[] segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment((maxClients + count - 1) / count);
+        }
+        return segments;
+    }
+
+    /**
+     * 按访问顺序排列的令牌桶分段，超出容量时淘汰最久未访问的客户端，调用方持有该段的锁
+     */
+    private class Segment extends LinkedHashMap<String, TokenBucket> {
+
+        private final int capacity; // 段容量
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+            if (size() > capacity) {
+                evicted.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
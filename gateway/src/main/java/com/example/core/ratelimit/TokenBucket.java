@@ -0,0 +1,71 @@
+package com.example.core.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * 使用 GCRA（通用信元速率算法）实现，与令牌桶等价：整个状态只是一个“理论到达时间”，一次 CAS 即可完成扣减，
+ * 请求线程之间没有锁竞争，也不需要后台线程补充令牌
+ */
+public class TokenBucket {
+
+    private final double ratePerSecond;         // 每秒产生的令牌数
+    private final int burst;                    // 桶容量
+    private final long emissionIntervalNanos;   // 产生一个令牌的时间间隔
+    private final long burstToleranceNanos;     // 桶容量对应的时间
+    private final AtomicLong theoreticalArrival; // 理论到达时间（纳秒）
+
+    /**
+     * @param ratePerSecond 每秒产生的令牌数
+     * @param burst 桶容量（允许的突发请求数）
+     * @param now 当前时间（纳秒）
+     */
+    public TokenBucket(double ratePerSecond, int burst, long now) {
+        if (ratePerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / ratePerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * 尝试获取一个令牌
+     * @param now 当前时间（纳秒）
+     * @return 0 表示获取成功，否则为需要等待的纳秒数
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long newTat = Math.max(tat, now) + emissionIntervalNanos;
+            long excess = newTat - now - burstToleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 令牌桶是否按给定的规则创建，规则刷新后旧的令牌桶需要重建
+     * @param ratePerSecond 每秒产生的令牌数
+     * @param burst 桶容量
+     * @return 是否一致
+     */
+    public boolean hasLimit(double ratePerSecond, int burst) {
+        return this.ratePerSecond == ratePerSecond && this.burst == burst;
+    }
+
+    /**
+     * 令牌桶是否已经补满，补满的桶与新建的桶等价，可以回收
+     * @param now 当前时间（纳秒）
+     * @return 是否已补满
+     */
+    public boolean isFull(long now) {
+        return theoreticalArrival.get() - now <= 0;
+    }
+}
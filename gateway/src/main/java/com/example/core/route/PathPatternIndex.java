@@ -0,0 +1,187 @@
+package com.example.core.route;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 路径模式索引（按路径段组成的前缀树）
+ * 每个模式挂在它开头的字面量路径段对应的节点上，查找时沿请求路径逐段向下走，只检查经过的节点上的模式，
+ * 耗时只和请求路径的段数有关，和模式总数无关
+ * 匹配语义与 AntPathMatcher 按顺序逐个匹配完全一致：多个模式都能匹配时返回最先加入的那个；
+ * 形如 /a/b/** 的前缀模式走到节点即可确定匹配，其余模式（/a/b、/a/*、/a/{id}/** 等）再用 AntPathMatcher 确认
+ * 构建完成后不再修改，可以被多个线程同时读取
+ * @param <T> 模式对应的值
+ */
+public final class PathPatternIndex<T> {
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private static final String MULTI_SEGMENT_WILDCARD = "**";
+
+    private final Node root;            // 根节点（模式开头没有字面量路径段时挂在这里）
+    private final String[] patterns;    // 按加入顺序排列的模式
+    private final boolean[] prefixOnly; // 是否为字面量路径段 + /** 的前缀模式
+    private final List<T> values;       // 模式对应的值
+
+    private PathPatternIndex(Node root, String[] patterns, boolean[] prefixOnly, List<T> values) {
+        this.root = root;
+        this.patterns = patterns;
+        this.prefixOnly = prefixOnly;
+        this.values = values;
+    }
+
+    /**
+     * 构建索引
+     * @param entries 模式 -> 值，按匹配优先级排列
+     * @param <T> 值的类型
+     * @return 索引
+     */
+    public static <T> PathPatternIndex<T> compile(Map<String, T> entries) {
+        Builder root = new Builder();
+        String[] patterns = new String[entries.size()];
+        boolean[] prefixOnly = new boolean[entries.size()];
+        List<T> values = new ArrayList<>(entries.size());
+        int index = 0;
+        for (Map.Entry<String, T> entry : entries.entrySet()) {
+            String pattern = entry.getKey();
+            String[] segments = segments(pattern);
+            Builder node = root;
+            int literals = 0;
+            while (literals < segments.length && isLiteral(segments[literals])) {
+                node = node.children.computeIfAbsent(segments[literals], key -> new Builder());
+                literals++;
+            }
+            node.candidates.add(index);
+            patterns[index] = pattern;
+            prefixOnly[index] = pattern.startsWith("/") && literals == segments.length - 1
+                    && MULTI_SEGMENT_WILDCARD.equals(segments[literals]) && !pattern.endsWith("/");
+            values.add(entry.getValue());
+            index++;
+        }
+        return new PathPatternIndex<>(root.build(), patterns, prefixOnly, values);
+    }
+
+    /**
+     * 查找匹配的模式
+     * @param path 请求路径
+     * @return 最先加入的匹配模式对应的值，没有匹配时返回 null
+     */
+    public T match(String path) {
+        int best = find(path);
+        return best < 0 ? null : values.get(best);
+    }
+
+    /**
+     * 查找匹配的模式
+     * @param path 请求路径
+     * @return 最先加入的匹配模式，没有匹配时返回 null
+     */
+    public String matchPattern(String path) {
+        int best = find(path);
+        return best < 0 ? null : patterns[best];
+    }
+
+    public int size() {
+        return patterns.length;
+    }
+
+    private int find(String path) {
+        if (patterns.length == 0) {
+            return -1;
+        }
+        int best = Integer.MAX_VALUE;
+        Node node = root;
+        int position = 0;
+        while (true) {
+            best = check(node, path, best);
+            if (node.children.isEmpty()) {
+                break;
+            }
+            while (position < path.length() && path.charAt(position) == '/') {
+                position++;
+            }
+            if (position >= path.length()) {
+                break;
+            }
+            int end = path.indexOf('/', position);
+            if (end < 0) {
+                end = path.length();
+            }
+            node = node.children.get(path.substring(position, end));
+            if (node == null) {
+                break;
+            }
+            position = end;
+        }
+        return best == Integer.MAX_VALUE ? -1 : best;
+    }
+
+    /**
+     * 检查一个节点上的模式，候选按加入顺序排列，序号已经大于当前结果的不必再检查
+     */
+    private int check(Node node, String path, int best) {
+        for (int candidate : node.candidates) {
+            if (candidate >= best) {
+                break;
+            }
+            if ((prefixOnly[candidate] && path.startsWith("/")) || PATH_MATCHER.match(patterns[candidate], path)) {
+                return candidate;
+            }
+        }
+        return best;
+    }
+
+    private static String[] segments(String pattern) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : pattern.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    private static boolean isLiteral(String segment) {
+        return segment.indexOf('*') < 0 && segment.indexOf('?') < 0 && segment.indexOf('{') < 0;
+    }
+
+    /**
+     * 索引节点（构建后只读）
+     */
+    private static final class Node {
+        private final Map<String, Node> children;  // 下一个路径段 -> 子节点
+        private final int[] candidates;             // 挂在这个节点上的模式序号（升序）
+
+        Node(Map<String, Node> children, int[] candidates) {
+            this.children = children;
+            this.candidates = candidates;
+        }
+    }
+
+    /**
+     * 构建中的节点
+     */
+    private static final class Builder {
+        private final Map<String, Builder> children = new HashMap<>();
+        private final List<Integer> candidates = new ArrayList<>();
+
+        Node build() {
+            Map<String, Node> built = new HashMap<>(children.size() * 2);
+            for (Map.Entry<String, Builder> entry : children.entrySet()) {
+                built.put(entry.getKey(), entry.getValue().build());
+            }
+            int[] indexes = new int[candidates.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = candidates.get(i);
+            }
+            Arrays.sort(indexes);
+            return new Node(built, indexes);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.core.route;
+
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 编译后的路由表
+ * 路由和忽略路径各自编译成 PathPatternIndex，生成后不再修改；
+ * 路由变更时编译一张新表整体替换旧表，请求线程读取时不需要加锁，也不会看到只更新了一半的路由
+ */
+public final class RouteTable {
+
+    private final long version;                                     // 版本号，每次替换加一
+    private final Map<String, ZuulProperties.ZuulRoute> routes;     // 路径模式 -> 路由（按匹配优先级排列）
+    private final Set<String> ignoredPatterns;                      // 忽略的路径模式
+    private final PathPatternIndex<ZuulProperties.ZuulRoute> routeIndex;
+    private final PathPatternIndex<String> ignoredIndex;
+
+    private RouteTable(long version, Map<String, ZuulProperties.ZuulRoute> routes, Set<String> ignoredPatterns) {
+        this.version = version;
+        this.routes = routes;
+        this.ignoredPatterns = ignoredPatterns;
+        this.routeIndex = PathPatternIndex.compile(routes);
+        Map<String, String> ignored = new LinkedHashMap<>();
+        for (String pattern : ignoredPatterns) {
+            ignored.put(pattern, pattern);
+        }
+        this.ignoredIndex = PathPatternIndex.compile(ignored);
+    }
+
+    /**
+     * 编译路由表
+     * @param version 版本号
+     * @param routes 路径模式 -> 路由，按匹配优先级排列
+     * @param ignoredPatterns 忽略的路径模式
+     * @return 路由表
+     */
+    public static RouteTable compile(long version, Map<String, ZuulProperties.ZuulRoute> routes, Collection<String> ignoredPatterns) {
+        return new RouteTable(version, Collections.unmodifiableMap(new LinkedHashMap<>(routes)),
+                Collections.unmodifiableSet(new LinkedHashSet<>(ignoredPatterns)));
+    }
+
+    /**
+     * 查找请求路径对应的路由
+     * @param path 请求路径（已去掉 servlet 路径）
+     * @return 路由，路径被忽略或没有匹配的路由时返回 null
+     */
+    public ZuulProperties.ZuulRoute match(String path) {
+        if (ignoredIndex.size() > 0 && ignoredIndex.match(path) != null) {
+            return null;
+        }
+        return routeIndex.match(path);
+    }
+
+    /**
+     * 与新的路由配置比较，内容和顺序都相同时不需要替换
+     * @param routes 路径模式 -> 路由
+     * @param ignoredPatterns 忽略的路径模式
+     * @return 是否相同
+     */
+    public boolean sameAs(Map<String, ZuulProperties.ZuulRoute> routes, Collection<String> ignoredPatterns) {
+        return Objects.equals(new ArrayList<>(this.routes.entrySet()), new ArrayList<>(routes.entrySet()))
+                && Objects.equals(new ArrayList<>(this.ignoredPatterns), new ArrayList<>(ignoredPatterns));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Map<String, ZuulProperties.ZuulRoute> getRoutes() {
+        return routes;
+    }
+
+    public Set<String> getIgnoredPatterns() {
+        return ignoredPatterns;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.core.route;
+
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.boot.autoconfigure.web.ErrorController;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.cloud.netflix.zuul.web.ZuulController;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.handler.AbstractHandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 按编译路由表把请求交给 Zuul 的 HandlerMapping
+ * 排在 ZuulHandlerMapping 之前：默认的 ZuulHandlerMapping 把每个路由注册成一个 Ant 模式，请求时逐个匹配，
+ * 路由刷新后在下一个请求的线程上加锁重新注册，并且不会移除已删除的路由；
+ * 这里直接查询当前路由表，有匹配的路由就交给 ZuulController，没有匹配时再交给后面的 HandlerMapping
+ */
+public class RouteTableHandlerMapping extends AbstractHandlerMapping {
+
+    private final RouteTableLocator routeLocator;   // 路由定位器
+    private final ZuulController zuulController;    // Zuul 处理器
+    private final ErrorController errorController; // 错误页（不路由）
+
+    /**
+     * @param routeLocator 路由定位器
+     * @param zuulController Zuul 处理器
+     * @param errorController 错误页，可以为空
+     */
+    public RouteTableHandlerMapping(RouteTableLocator routeLocator, ZuulController zuulController, ErrorController errorController) {
+        this.routeLocator = routeLocator;
+        this.zuulController = zuulController;
+        this.errorController = errorController;
+        setOrder(-201);
+    }
+
+    @Override
+    protected Object getHandlerInternal(HttpServletRequest request) throws Exception {
+        String path = getUrlPathHelper().getLookupPathForRequest(request);
+        if (errorController != null && path.equals(errorController.getErrorPath())) {
+            return null;
+        }
+        if (RequestContext.getCurrentContext().containsKey(FilterConstants.FORWARD_TO_KEY)) {
+            return null;
+        }
+        return routeLocator.isRouted(path) ? zuulController : null;
+    }
+
+    /**
+     * 与 ZuulHandlerMapping 相同，没有 CORS 配置时不拦截跨域请求，交给上游处理
+     */
+    @Override
+    protected HandlerExecutionChain getCorsHandlerExecutionChain(HttpServletRequest request, HandlerExecutionChain chain, CorsConfiguration config) {
+        if (config == null) {
+            return chain;
+        }
+        return super.getCorsHandlerExecutionChain(request, chain, config);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.core.route;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.discovery.DiscoveryClientRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.discovery.ServiceRouteMapper;
+import org.springframework.cloud.netflix.zuul.util.RequestUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 基于编译路由表的路由定位器（替换默认的 DiscoveryClientRouteLocator）
+ * 路由来源与默认实现相同：zuul.routes 加上注册中心发现的服务，但 zuul.routes 每次都从当前配置（包括配置中心下发的配置）
+ * 重新读取一份快照，删除的路由也会生效；快照编译成 RouteTable 后整体替换，请求线程只读取当前的路由表
+ * 配置刷新、注册中心心跳等事件触发 refresh，编译在触发事件的线程上完成，路由没有变化时保留原来的路由表
+ */
+public class RouteTableLocator extends DiscoveryClientRouteLocator {
+
+    private static Logger logger = LoggerFactory.getLogger(RouteTableLocator.class);
+
+    private final String dispatcherServletPath;             // DispatcherServlet 路径
+    private final String zuulServletPath;                   // ZuulServlet 路径
+    private final DiscoveryClient discovery;                // 服务发现客户端
+    private final ServiceRouteMapper serviceRouteMapper;    // 服务id -> 路由路径
+    private final ServiceInstance localServiceInstance;     // 网关自身（不为自己生成路由）
+    private final Supplier<ZuulProperties> source;          // 读取当前 zuul 配置快照
+    private volatile RouteTable table;                      // 当前路由表
+    private final LongAdder reloads = new LongAdder();
+    private volatile long lastCompileNanos;                 // 最近一次编译耗时
+
+    /**
+     * @param servletPath DispatcherServlet 路径
+     * @param discovery 服务发现客户端
+     * @param properties Zuul 配置（前缀、重试等全局设置）
+     * @param serviceRouteMapper 服务id -> 路由路径
+     * @param localServiceInstance 网关自身
+     * @param source 读取当前 zuul 配置快照，每次调用返回新的对象
+     */
+    public RouteTableLocator(String servletPath, DiscoveryClient discovery, ZuulProperties properties,
+                             ServiceRouteMapper serviceRouteMapper, ServiceInstance localServiceInstance,
+                             Supplier<ZuulProperties> source) {
+        super(servletPath, discovery, properties, serviceRouteMapper, localServiceInstance);
+        this.dispatcherServletPath = StringUtils.hasText(servletPath) ? servletPath : "/";
+        this.zuulServletPath = properties.getServletPath();
+        this.discovery = discovery;
+        this.serviceRouteMapper = serviceRouteMapper;
+        this.localServiceInstance = localServiceInstance;
+        this.source = source;
+    }
+
+    @Override
+    public Route getMatchingRoute(String path) {
+        String adjustedPath = adjustPath(path);
+        return getRoute(getTable().match(adjustedPath), adjustedPath);
+    }
+
+    /**
+     * 请求路径是否有对应的路由（不生成 Route 对象）
+     * @param path 请求路径
+     * @return 是否有对应的路由
+     */
+    public boolean isRouted(String path) {
+        return getTable().match(adjustPath(path)) != null;
+    }
+
+    @Override
+    public Collection<String> getIgnoredPaths() {
+        return getTable().getIgnoredPatterns();
+    }
+
+    @Override
+    protected Map<String, ZuulProperties.ZuulRoute> getRoutesMap() {
+        return getTable().getRoutes();
+    }
+
+    /**
+     * 重新读取路由并编译，与当前路由表不同时整体替换
+     */
+    @Override
+    protected synchronized void doRefresh() {
+        long start = System.nanoTime();
+        ZuulProperties snapshot;
+        LinkedHashMap<String, ZuulProperties.ZuulRoute> routes;
+        try {
+            snapshot = source.get();
+            routes = new SnapshotLocator(snapshot).locate();
+        } catch (RuntimeException e) {
+            if (table == null) {
+                throw e;
+            }
+            logger.warn("Failed to reload routes, keeping route table v{}: {}", table.getVersion(), e.toString());
+            return;
+        }
+        RouteTable current = table;
+        if (current != null && current.sameAs(routes, snapshot.getIgnoredPatterns())) {
+            return;
+        }
+        long version = current == null ? 1 : current.getVersion() + 1;
+        RouteTable compiled = RouteTable.compile(version, routes, snapshot.getIgnoredPatterns());
+        table = compiled;
+        reloads.increment();
+        lastCompileNanos = System.nanoTime() - start;
+        logger.info("Loaded route table v{} with {} routes in {}ms", version, routes.size(),
+                TimeUnit.NANOSECONDS.toMillis(lastCompileNanos));
+    }
+
+    /**
+     * 当前路由表，首次使用前还没有编译时在这里编译
+     * @return 路由表
+     */
+    public RouteTable getTable() {
+        RouteTable current = table;
+        if (current == null) {
+            doRefresh();
+            current = table;
+        }
+        return current;
+    }
+
+    public long getReloads() {
+        return reloads.sum();
+    }
+
+    /**
+     * @return 最近一次编译耗时（毫秒）
+     */
+    public double getLastCompileMillis() {
+        return lastCompileNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 与 SimpleRouteLocator 相同，去掉 DispatcherServlet 或 ZuulServlet 的路径
+     */
+    private String adjustPath(String path) {
+        if (RequestUtils.isDispatcherServletRequest() && StringUtils.hasText(dispatcherServletPath)) {
+            if (!dispatcherServletPath.equals("/")) {
+                return path.substring(dispatcherServletPath.length());
+            }
+        } else if (RequestUtils.isZuulServletRequest() && StringUtils.hasText(zuulServletPath) && !zuulServletPath.equals("/")) {
+            return path.substring(zuulServletPath.length());
+        }
+        return path;
+    }
+
+    /**
+     * 用一份配置快照按默认规则（zuul.routes + 发现的服务）生成路由
+     */
+    private class SnapshotLocator extends DiscoveryClientRouteLocator {
+
+        SnapshotLocator(ZuulProperties snapshot) {
+            super(dispatcherServletPath, discovery, snapshot, serviceRouteMapper, localServiceInstance);
+        }
+
+        LinkedHashMap<String, ZuulProperties.ZuulRoute> locate() {
+            return locateRoutes();
+        }
+    }
+}
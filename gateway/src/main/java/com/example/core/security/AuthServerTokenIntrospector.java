@@ -0,0 +1,96 @@
+package com.example.core.security;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过认证服务的用户信息接口（/user）校验令牌
+ * 认证服务在 X-Token-Expires-In 响应头中返回令牌的剩余有效期（秒），据此得到令牌的过期时间
+ */
+public class AuthServerTokenIntrospector implements TokenIntrospector {
+
+    /**
+     * 令牌剩余有效期（秒）的响应头
+     */
+    public static final String EXPIRES_IN_HEADER = "X-Token-Expires-In";
+
+    private final RestTemplate restTemplate;    // 负载均衡的请求模板
+    private final String userInfoUri;           // 用户信息地址
+
+    public AuthServerTokenIntrospector(RestTemplate restTemplate, String userInfoUri) {
+        this.restTemplate = restTemplate;
+        this.userInfoUri = userInfoUri;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TokenPrincipal introspect(String token) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        ResponseEntity<Map> response;
+        try {
+            response = restTemplate.exchange(userInfoUri, HttpMethod.GET, new HttpEntity<Void>(headers), Map.class);
+        } catch (HttpClientErrorException e) {
+            // 401/403 表示令牌无效或已过期，其他错误交给调用方处理
+            if (e.getStatusCode() == HttpStatus.UNAUTHORIZED || e.getStatusCode() == HttpStatus.FORBIDDEN) {
+                return null;
+            }
+            throw e;
+        }
+        Map<String, Object> body = response.getBody();
+        if (body == null || body.get("name") == null) {
+            return null;
+        }
+        return new TokenPrincipal(String.valueOf(body.get("name")), readAuthorities(body.get("authorities")),
+                readExpiresAt(response.getHeaders().getFirst(EXPIRES_IN_HEADER)));
+    }
+
+    /**
+     * 读取令牌过期时间
+     * @param expiresIn 剩余有效期（秒），可为空
+     * @return 过期时间（毫秒），未返回或无法解析时为 0
+     */
+    private long readExpiresAt(String expiresIn) {
+        if (expiresIn == null) {
+            return 0;
+        }
+        try {
+            return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(expiresIn.trim())));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 读取角色列表，兼容 [{"authority":"ROLE_USER"}] 与 ["ROLE_USER"] 两种格式
+     * @param value 角色信息
+     * @return 角色列表
+     */
+    private List<String> readAuthorities(Object value) {
+        List<String> authorities = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                if (item instanceof Map) {
+                    Object authority = ((Map<?, ?>) item).get("authority");
+                    if (authority != null) {
+                        authorities.add(authority.toString());
+                    }
+                } else if (item != null) {
+                    authorities.add(item.toString());
+                }
+            }
+        }
+        return authorities;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.core.security;
+
+/**
+ * Authorization 请求头中 Bearer 令牌的解析
+ * 认证方案不区分大小写（RFC 7235 2.1），方案与令牌之间至少一个空格，令牌前后的空白忽略
+ * 按区间返回令牌位置，调用方可以直接用区间查询令牌缓存，不截取字符串
+ */
+public final class BearerTokens {
+
+    private static final String SCHEME = "Bearer";
+
+    private BearerTokens() {
+    }
+
+    /**
+     * 令牌起始位置
+     * @param authorization Authorization 请求头，可为空
+     * @return 令牌起始位置，不是 Bearer 方案或令牌为空时返回 -1
+     */
+    public static int begin(String authorization) {
+        if (authorization == null || authorization.length() <= SCHEME.length()
+                || !authorization.regionMatches(true, 0, SCHEME, 0, SCHEME.length())
+                || authorization.charAt(SCHEME.length()) != ' ') {
+            return -1;
+        }
+        int begin = SCHEME.length();
+        int end = end(authorization);
+        while (begin < end && authorization.charAt(begin) <= ' ') {
+            begin++;
+        }
+        return begin < end ? begin : -1;
+    }
+
+    /**
+     * 令牌结束位置（不含），仅在 begin 不为 -1 时有意义
+     * @param authorization Authorization 请求头
+     * @return 去掉末尾空白后的结束位置
+     */
+    public static int end(String authorization) {
+        int end = authorization.length();
+        while (end > 0 && authorization.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * @param authorization Authorization 请求头，可为空
+     * @return Bearer 令牌，不是 Bearer 方案或令牌为空时返回 null
+     */
+    public static String extract(String authorization) {
+        int begin = begin(authorization);
+        return begin < 0 ? null : authorization.substring(begin, end(authorization));
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.core.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 令牌认证
+ * AccessFilter、聚合接口和非阻塞路由共用的前置校验：
+ * 缺少 Authorization 返回 401；启用本地校验时 Bearer 令牌（方案不区分大小写）先查本地令牌缓存，
+ * 未命中时等待认证服务，超时或失败返回 503，令牌无效返回 401；
+ * 其他认证方案只允许用于 otherSchemeRoutes 中的路由，通过但没有用户信息；未启用本地校验时只检查 Authorization 存在
+ * 缓存命中时按请求头中的令牌区间查询，不截取字符串
+ */
+public class TokenAuthenticator {
+
+    private static Logger logger = LoggerFactory.getLogger(TokenAuthenticator.class);
+
+    private final TokenValidationCache cache;       // 令牌校验缓存（未启用本地校验时为空）
+    private final long lookupTimeoutMillis;         // 未命中时等待认证服务的最长时间
+    private final Set<String> otherSchemeRoutes;    // 允许非 Bearer 认证方案的路由id
+
+    /**
+     * @param cache 令牌校验缓存，为空时只检查 Authorization 存在
+     * @param lookupTimeoutMillis 未命中时等待认证服务的最长时间
+     * @param otherSchemeRoutes 允许非 Bearer 认证方案的路由id
+     */
+    public TokenAuthenticator(TokenValidationCache cache, long lookupTimeoutMillis, Collection<String> otherSchemeRoutes) {
+        this.cache = cache;
+        this.lookupTimeoutMillis = lookupTimeoutMillis;
+        this.otherSchemeRoutes = otherSchemeRoutes == null ? Collections.<String>emptySet() : new HashSet<>(otherSchemeRoutes);
+    }
+
+    /**
+     * 校验请求，缓存未命中时阻塞等待认证服务
+     * @param authorization Authorization 请求头，可为空
+     * @param routeId 请求的路由id，只在不是 Bearer 令牌时读取，没有路由时返回 null
+     * @return 用户信息，未启用本地校验或是允许的其他认证方案时为 null
+     * @throws TokenRejectedException 认证未通过
+     */
+    public TokenPrincipal authenticate(String authorization, Supplier<String> routeId) throws TokenRejectedException {
+        int begin = tokenBegin(authorization, routeId);
+        if (begin < 0) {
+            return null;
+        }
+        int end = BearerTokens.end(authorization);
+        TokenPrincipal principal = cache.getIfPresent(authorization, begin, end);
+        if (principal != null) {
+            return principal;
+        }
+        if (cache.isKnownInvalid(authorization, begin, end)) {
+            throw TokenRejectedException.INVALID;
+        }
+        try {
+            principal = cache.lookup(authorization.substring(begin, end)).get(lookupTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw TokenRejectedException.UNAVAILABLE;
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Authorization token validation failed: {}", e.toString());
+            throw TokenRejectedException.UNAVAILABLE;
+        }
+        if (principal == null) {
+            throw TokenRejectedException.INVALID;
+        }
+        return principal;
+    }
+
+    /**
+     * 校验请求，不阻塞调用线程
+     * 缓存命中或可以直接判断时返回已完成的结果，否则在认证服务返回或超时后完成
+     * @param authorization Authorization 请求头，可为空
+     * @param routeId 请求的路由id，只在不是 Bearer 令牌时读取
+     * @param timer 执行超时的调度器
+     * @return 用户信息（可为 null，含义同 authenticate），认证未通过时以 TokenRejectedException 异常完成
+     */
+    public CompletableFuture<TokenPrincipal> authenticate(String authorization, Supplier<String> routeId, ScheduledExecutorService timer) {
+        CompletableFuture<TokenPrincipal> result = new CompletableFuture<>();
+        int begin;
+        try {
+            begin = tokenBegin(authorization, routeId);
+        } catch (TokenRejectedException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        if (begin < 0) {
+            result.complete(null);
+            return result;
+        }
+        int end = BearerTokens.end(authorization);
+        TokenPrincipal principal = cache.getIfPresent(authorization, begin, end);
+        if (principal != null || cache.isKnownInvalid(authorization, begin, end)) {
+            complete(result, principal);
+            return result;
+        }
+        ScheduledFuture<?> timeout = timer.schedule(() -> {
+            if (result.completeExceptionally(TokenRejectedException.UNAVAILABLE)) {
+                logger.warn("Authorization token validation timed out after {}ms", lookupTimeoutMillis);
+            }
+        }, lookupTimeoutMillis, TimeUnit.MILLISECONDS);
+        cache.lookup(authorization.substring(begin, end)).whenComplete((loaded, error) -> {
+            timeout.cancel(false);
+            if (error != null) {
+                logger.warn("Authorization token validation failed: {}", error.toString());
+                result.completeExceptionally(TokenRejectedException.UNAVAILABLE);
+            } else {
+                complete(result, loaded);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 检查 Authorization 请求头
+     * @return Bearer 令牌的起始位置，不需要校验令牌时返回 -1
+     */
+    private int tokenBegin(String authorization, Supplier<String> routeId) throws TokenRejectedException {
+        if (authorization == null) {
+            throw TokenRejectedException.MISSING;
+        }
+        if (cache == null) {
+            return -1;
+        }
+        int begin = BearerTokens.begin(authorization);
+        if (begin < 0 && (otherSchemeRoutes.isEmpty() || !otherSchemeRoutes.contains(routeId.get()))) {
+            throw TokenRejectedException.UNSUPPORTED_SCHEME;
+        }
+        return begin;
+    }
+
+    private static void complete(CompletableFuture<TokenPrincipal> result, TokenPrincipal principal) {
+        if (principal == null) {
+            result.completeExceptionally(TokenRejectedException.INVALID);
+        } else {
+            result.complete(principal);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.core.security;
+
+/**
+ * 令牌校验接口
+ * 缓存未命中时调用，向认证服务查询令牌对应的用户信息
+ */
+public interface TokenIntrospector {
+    /**
+     * 查询令牌对应的用户信息
+     * @param token 访问令牌
+     * @return 用户信息，令牌无效时返回 null
+     * @throws Exception 认证服务不可用等异常信息（该结果不会被缓存）
+     */
+    TokenPrincipal introspect(String token) throws Exception;
+}
@@ -0,0 +1,41 @@
+package com.example.core.security;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 令牌对应的授权用户信息
+ * 由认证服务返回，在网关本地缓存
+ */
+public class TokenPrincipal {
+    private final String name;                // 用户名
+    private final List<String> authorities;   // 角色列表
+    private final long expiresAt;             // 令牌过期时间（毫秒），0 表示未知
+
+    public TokenPrincipal(String name, List<String> authorities) {
+        this(name, authorities, 0);
+    }
+
+    public TokenPrincipal(String name, List<String> authorities, long expiresAt) {
+        this.name = name;
+        this.authorities = authorities == null ? Collections.<String>emptyList() : Collections.unmodifiableList(authorities);
+        this.expiresAt = expiresAt;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getAuthorities() {
+        return authorities;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenPrincipal{name='" + name + "', authorities=" + authorities + "}";
+    }
+}
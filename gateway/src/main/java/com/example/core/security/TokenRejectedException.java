@@ -0,0 +1,39 @@
+package com.example.core.security;
+
+/**
+ * 令牌认证未通过
+ * 携带返回给客户端的状态码和说明；实例是共享的常量，不记录堆栈，大量无效令牌的请求不产生额外开销
+ */
+public class TokenRejectedException extends Exception {
+
+    /**
+     * 缺少 Authorization 请求头
+     */
+    public static final TokenRejectedException MISSING = new TokenRejectedException(401, "Authorization token is empty");
+
+    /**
+     * 路由不允许的认证方案
+     */
+    public static final TokenRejectedException UNSUPPORTED_SCHEME = new TokenRejectedException(401, "Authorization scheme is not supported");
+
+    /**
+     * 令牌无效
+     */
+    public static final TokenRejectedException INVALID = new TokenRejectedException(401, "Authorization token is invalid");
+
+    /**
+     * 认证服务超时或不可用
+     */
+    public static final TokenRejectedException UNAVAILABLE = new TokenRejectedException(503, "Authorization service unavailable");
+
+    private final int status;   // 响应状态码
+
+    private TokenRejectedException(int status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
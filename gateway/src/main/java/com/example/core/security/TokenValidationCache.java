@@ -0,0 +1,309 @@
+package com.example.core.security;
+
+import com.example.core.revocation.RevokedTokens;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 令牌校验缓存
+ * 在网关本地缓存 令牌 -> 用户信息，条目数量有上限并按存活时间过期，有效令牌的存活时间不超过令牌本身的剩余有效期
+ * 只有未命中时才访问认证服务，同一令牌的并发未命中合并为一次查询
+ * 缓存可以直接按请求头中的令牌区间查询（getIfPresent(source, begin, end)），命中时不分配对象
+ * 设置了 RevokedTokens 时，命中的有效令牌如果可能已撤销（且过滤器在缓存之后有变化）则丢弃，重新访问认证服务确认
+ * 超出上限时淘汰最久未访问的条目；命中时最多每秒更新一次条目的访问时间，热门令牌的命中不会争用同一个缓存行
+ */
+public class TokenValidationCache {
+
+    private static Logger logger = LoggerFactory.getLogger(TokenValidationCache.class);
+
+    private static final long ACCESS_GRANULARITY_NANOS = TimeUnit.SECONDS.toNanos(1);  // 访问时间的更新粒度
+
+    private final TokenIntrospector introspector;  // 令牌校验接口
+    private final Executor executor;               // 执行查询的线程池
+    private final int maxSize;                     // 最大条目数
+    private final long ttlNanos;                   // 有效令牌的存活时间
+    private final long negativeTtlNanos;           // 无效令牌的存活时间
+
+    private final ConcurrentHashMap<TokenKey, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<TokenPrincipal>> loading = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final ThreadLocal<TokenKey> probes = ThreadLocal.withInitial(TokenKey::new);   // 每个线程复用的查询键
+    private volatile RevokedTokens revokedTokens;  // 已撤销令牌过滤器（可为空）
+
+    public TokenValidationCache(TokenIntrospector introspector, Executor executor, int maxSize, long ttl, long negativeTtl, TimeUnit unit) {
+        this.introspector = introspector;
+        this.executor = executor;
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.negativeTtlNanos = unit.toNanos(negativeTtl);
+    }
+
+    public void setRevokedTokens(RevokedTokens revokedTokens) {
+        this.revokedTokens = revokedTokens;
+    }
+
+    /**
+     * 查询令牌对应的用户信息
+     * @param token 访问令牌
+     * @return 用户信息，令牌无效时结果为 null
+     */
+    public CompletableFuture<TokenPrincipal> lookup(String token) {
+        TokenPrincipal cached = getIfPresent(token);
+        if (cached != null || isKnownInvalid(token)) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<TokenPrincipal> created = new CompletableFuture<>();
+        CompletableFuture<TokenPrincipal> existing = loading.putIfAbsent(token, created);
+        if (existing != null) {
+            return existing;    // 已有相同令牌的查询在进行中，等待其结果
+        }
+        // 上一个查询可能在检查缓存之后刚刚完成
+        Entry entry = probe(token, 0, token.length());
+        if (entry != null) {
+            loading.remove(token, created);
+            created.complete(entry.principal);
+            return created;
+        }
+        try {
+            executor.execute(() -> load(token, created));
+        } catch (RejectedExecutionException e) {
+            loading.remove(token, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    /**
+     * 读取未过期的有效令牌
+     * @param token 访问令牌
+     * @return 用户信息，未缓存或令牌无效时返回 null
+     */
+    public TokenPrincipal getIfPresent(String token) {
+        return getIfPresent(token, 0, token.length());
+    }
+
+    /**
+     * 读取未过期的有效令牌，令牌为 source 中 [begin, end) 的部分（例如 Authorization 请求头去掉 Bearer 前缀）
+     * 查询时不截取字符串、不分配对象
+     * @param source 包含令牌的字符串
+     * @param begin 令牌起始位置
+     * @param end 令牌结束位置（不含）
+     * @return 用户信息，未缓存或令牌无效时返回 null
+     */
+    public TokenPrincipal getIfPresent(String source, int begin, int end) {
+        Entry entry = probe(source, begin, end);
+        return entry == null ? null : entry.principal;
+    }
+
+    /**
+     * 令牌是否已确认无效（无效结果也会缓存一段时间）
+     * @param source 包含令牌的字符串
+     * @param begin 令牌起始位置
+     * @param end 令牌结束位置（不含）
+     * @return 是否已确认无效
+     */
+    public boolean isKnownInvalid(String source, int begin, int end) {
+        Entry entry = probe(source, begin, end);
+        return entry != null && entry.principal == null;
+    }
+
+    /**
+     * 令牌失效（例如注销）时移除缓存
+     * @param token 访问令牌
+     */
+    public void invalidate(String token) {
+        entries.remove(new TokenKey(token));
+    }
+
+    /**
+     * @return 当前缓存条目数
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private boolean isKnownInvalid(String token) {
+        return isKnownInvalid(token, 0, token.length());
+    }
+
+    /**
+     * 用当前线程的查询键查找未过期的条目，过期条目和可能已撤销的有效令牌顺便移除
+     */
+    private Entry probe(String source, int begin, int end) {
+        TokenKey probe = probes.get().wrap(source, begin, end);
+        try {
+            Entry entry = entries.get(probe);
+            if (entry == null) {
+                return null;
+            }
+            long now = System.nanoTime();
+            if (entry.isExpired(now) || isPossiblyRevoked(entry, source, begin, end)) {
+                entries.remove(probe, entry);
+                return null;
+            }
+            if (now - entry.lastAccess > ACCESS_GRANULARITY_NANOS) {
+                entry.lastAccess = now;
+            }
+            return entry;
+        } finally {
+            probe.clear();
+        }
+    }
+
+    /**
+     * 有效令牌在缓存之后过滤器有变化，且过滤器判断可能已撤销；误判的令牌重新确认后到过滤器下次变化前不再丢弃
+     */
+    private boolean isPossiblyRevoked(Entry entry, String source, int begin, int end) {
+        RevokedTokens revoked = revokedTokens;
+        return revoked != null && entry.principal != null && entry.generation != revoked.generation()
+                && revoked.mightBeRevoked(source, begin, end);
+    }
+
+    private void load(String token, CompletableFuture<TokenPrincipal> future) {
+        try {
+            RevokedTokens revoked = revokedTokens;
+            long generation = revoked == null ? 0 : revoked.generation();  // 查询之前读取，查询期间的撤销会使缓存结果重新确认
+            TokenPrincipal principal = introspector.introspect(token);
+            long ttl = principal != null ? ttlNanos(principal) : negativeTtlNanos;
+            if (ttl > 0) {
+                entries.put(new TokenKey(token), new Entry(principal, System.nanoTime() + ttl, generation));
+                if (entries.size() > maxSize) {
+                    evict();
+                }
+            }
+            loading.remove(token, future);  // 先移除再完成，被唤醒的调用方再次查询时不会拿到这个已完成的查询
+            future.complete(principal);
+        } catch (Throwable e) {
+            logger.warn("Token introspection failed: {}", e.toString());
+            loading.remove(token, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 有效令牌的存活时间：配置的存活时间和令牌剩余有效期中较小的
+     */
+    private long ttlNanos(TokenPrincipal principal) {
+        if (principal.getExpiresAt() <= 0) {
+            return ttlNanos;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(principal.getExpiresAt() - System.currentTimeMillis());
+        return Math.min(ttlNanos, remaining);
+    }
+
+    /**
+     * 超出上限时先清理过期条目，仍然超出则淘汰最久未访问的条目，一次腾出上限的 1/16，之后的插入不必每次都清理
+     * 同一时刻只有一个线程执行清理，请求线程不会因此阻塞
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> entry.isExpired(now));
+            int excess = entries.size() - (maxSize - maxSize / 16);
+            if (entries.size() <= maxSize || excess <= 0) {
+                return;
+            }
+            long[] accessed = new long[entries.size()];
+            int count = 0;
+            for (Entry entry : entries.values()) {
+                if (count == accessed.length) {
+                    break;
+                }
+                accessed[count++] = entry.lastAccess - now;    // 相对时间，避免 nanoTime 溢出时比较出错
+            }
+            if (count == 0) {
+                return;
+            }
+            Arrays.sort(accessed, 0, count);
+            long threshold = accessed[Math.min(excess, count) - 1];
+            entries.values().removeIf(entry -> entry.lastAccess - now <= threshold);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * 缓存条目，principal 为 null 表示令牌无效
+     */
+    private static final class Entry {
+        final TokenPrincipal principal;
+        final long expiresAt;
+        final long generation;      // 校验时已撤销令牌过滤器的 generation
+        volatile long lastAccess;   // 最近一次命中的时间（纳秒），精度为 ACCESS_GRANULARITY_NANOS
+
+        Entry(TokenPrincipal principal, long expiresAt, long generation) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+            this.generation = generation;
+            this.lastAccess = System.nanoTime();
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * 缓存键：字符串中的一段区间
+     * 存入缓存的键持有完整的令牌字符串；查询用的键是每个线程复用的可变对象，直接引用请求头中的区间
+     */
+    private static final class TokenKey {
+        private String source;
+        private int begin;
+        private int end;
+        private int hash;
+
+        TokenKey() {
+        }
+
+        TokenKey(String token) {
+            wrap(token, 0, token.length());
+        }
+
+        TokenKey wrap(String source, int begin, int end) {
+            this.source = source;
+            this.begin = begin;
+            this.end = end;
+            int h = 0;
+            for (int i = begin; i < end; i++) {
+                h = 31 * h + source.charAt(i);
+            }
+            this.hash = h;
+            return this;
+        }
+
+        void clear() {
+            source = null;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TokenKey)) {
+                return false;
+            }
+            TokenKey other = (TokenKey) o;
+            int length = end - begin;
+            return hash == other.hash && length == other.end - other.begin
+                    && source.regionMatches(begin, other.source, other.begin, length);
+        }
+    }
+}
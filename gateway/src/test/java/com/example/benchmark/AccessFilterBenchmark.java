@@ -0,0 +1,145 @@
+package com.example.benchmark;
+
+import com.example.core.accesslog.AccessLog;
+import com.example.core.accesslog.AccessLogRingBuffer;
+import com.example.core.filter.AccessFilter;
+import com.example.core.filter.AccessLogFilter;
+import com.example.core.security.TokenAuthenticator;
+import com.example.core.security.TokenPrincipal;
+import com.example.core.security.TokenValidationCache;
+import com.netflix.zuul.context.RequestContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AccessFilter 热路径的分配量测试
+ * legacy 为改造前的做法（拼接请求 URL、截取令牌、经 CompletableFuture 查询缓存），
+ * accessFilter + accessLog 为改造后的做法；GC 分析器输出的 gc.alloc.rate.norm 即每次调用分配的字节数
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.benchmark.AccessFilterBenchmark
+ * </pre>
+ * 该类不是单元测试，不会被 surefire 执行
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessFilterBenchmark {
+
+    private static final String TOKEN = "4c3ba5e4-7d0e-4c2e-9a35-0b0f1f3c2d11";
+
+    private AccessFilter accessFilter;
+    private AccessLogFilter accessLogFilter;
+    private AccessLogRingBuffer buffer;
+    private TokenValidationCache cache;
+    private FixedRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        cache = new TokenValidationCache(token -> new TokenPrincipal("admin", Collections.singletonList("ROLE_ADMIN")),
+                Runnable::run, 1000, 1, 1, TimeUnit.HOURS);
+        cache.lookup(TOKEN).get();
+        accessFilter = new AccessFilter();
+        ReflectionTestUtils.setField(accessFilter, "tokenAuthenticator", new TokenAuthenticator(cache, 2000, null));
+
+        buffer = new AccessLogRingBuffer(1024);
+        accessLogFilter = new AccessLogFilter(new AccessLog(buffer, 1.0, true, 0));
+
+        request = new FixedRequest();
+        RequestContext context = RequestContext.getCurrentContext();
+        context.setRequest(request);
+        context.setResponse(new MockHttpServletResponse());
+        context.set("proxy", "producer");
+        context.setResponseStatusCode(200);
+    }
+
+    /**
+     * 改造前：每个请求构造完整 URL、截取令牌并经 CompletableFuture 读取缓存
+     */
+    @Benchmark
+    public Object legacy() throws Exception {
+        String url = request.getRequestURL().toString();
+        String header = request.getHeader("Authorization");
+        TokenPrincipal principal = cache.lookup(header.substring("Bearer ".length()).trim()).get(2000, TimeUnit.MILLISECONDS);
+        return url.length() + principal.getName().length();
+    }
+
+    /**
+     * 改造后：令牌缓存命中
+     */
+    @Benchmark
+    public Object accessFilter() {
+        return accessFilter.run();
+    }
+
+    /**
+     * 改造后：写入访问日志缓冲区（同一线程模拟后台线程取走记录）
+     */
+    @Benchmark
+    public Object accessLog() {
+        accessLogFilter.run();
+        AccessLogRingBuffer.Record record = buffer.poll();
+        if (record != null) {
+            buffer.release(record);
+        }
+        return record;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(AccessFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * 请求头、路径等都是固定字符串的请求，避免 MockHttpServletRequest 查询请求头时的分配干扰结果
+     */
+    private static class FixedRequest extends HttpServletRequestWrapper {
+        private final String authorization = "Bearer " + TOKEN;
+
+        FixedRequest() {
+            super(new MockHttpServletRequest("GET", "/producer/appInfo"));
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return "Authorization".equals(name) ? authorization : null;
+        }
+
+        @Override
+        public String getMethod() {
+            return "GET";
+        }
+
+        @Override
+        public String getRequestURI() {
+            return "/producer/appInfo";
+        }
+
+        @Override
+        public String getRemoteAddr() {
+            return "127.0.0.1";
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.benchmark;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpVersion;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Zuul 模式与非阻塞路由模式的并发对比测试
+ * 对两个入口分别建立相同数量的 keep-alive 长连接，每个连接串行发送请求，统计吞吐量和延迟分位数
+ *
+ * 运行前需启动注册中心、认证服务、订单服务和网关（gateway.netty-routing.enabled=true），并调大文件句柄数（ulimit -n 65535）：
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.benchmark.RoutingModeBenchmark \
+ *     -Dconnections=10000 -Dduration=60 -Dtoken=&lt;access_token&gt; \
+ *     -Dzuul=http://localhost:9030/producer/appInfo -Dnetty=http://localhost:9031/producer/appInfo
+ * </pre>
+ * 该类不是单元测试，不会被 surefire 执行
+ */
+public class RoutingModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int connections = Integer.getInteger("connections", 10000);
+        int durationSeconds = Integer.getInteger("duration", 60);
+        String token = System.getProperty("token", "");
+        String[] targets = {
+                System.getProperty("zuul", "http://localhost:9030/producer/appInfo"),
+                System.getProperty("netty", "http://localhost:9031/producer/appInfo")
+        };
+        System.out.printf("%-45s %10s %10s %10s %10s %10s %10s %8s%n",
+                "target", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)", "errors", "conns");
+        for (String target : targets) {
+            Result result = run(URI.create(target), token, connections, durationSeconds);
+            Histogram h = result.latency;
+            System.out.printf("%-45s %10.0f %10.2f %10.2f %10.2f %10.2f %10d %8d%n", target,
+                    h.getTotalCount() / (double) durationSeconds,
+                    h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                    h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0,
+                    result.errors.get(), result.connected.get());
+        }
+    }
+
+    private static Result run(URI target, String token, int connections, int durationSeconds) throws InterruptedException {
+        Result result = new Result();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        int port = target.getPort() > 0 ? target.getPort() : 80;
+        String uri = target.getRawPath() + (target.getRawQuery() == null ? "" : "?" + target.getRawQuery());
+        EventLoopGroup group = new NioEventLoopGroup();
+        try {
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(group)
+                    .channel(NioSocketChannel.class)
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000)
+                    .handler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            ch.pipeline()
+                                    .addLast(new HttpClientCodec())
+                                    .addLast(new HttpObjectAggregator(1048576))
+                                    .addLast(new LoadHandler(target.getHost(), port, uri, token, deadline, result));
+                        }
+                    });
+            // 分批建立连接，避免瞬间打满 accept 队列
+            for (int i = 0; i < connections; i++) {
+                bootstrap.connect(target.getHost(), port).addListener((ChannelFuture f) -> {
+                    if (f.isSuccess()) {
+                        result.connected.incrementAndGet();
+                    } else {
+                        result.errors.incrementAndGet();
+                    }
+                });
+                if (i % 500 == 499) {
+                    Thread.sleep(50);
+                }
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0) {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            }
+        } finally {
+            group.shutdownGracefully(0, 5, TimeUnit.SECONDS).sync();
+        }
+        return result;
+    }
+
+    /**
+     * 每个连接一个处理器：收到响应后立即发送下一个请求，直到测试结束
+     */
+    private static class LoadHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+        private final String host;
+        private final int port;
+        private final String uri;
+        private final String token;
+        private final long deadline;
+        private final Result result;
+        private long sentAt;
+
+        LoadHandler(String host, int port, String uri, String token, long deadline, Result result) {
+            this.host = host;
+            this.port = port;
+            this.uri = uri;
+            this.token = token;
+            this.deadline = deadline;
+            this.result = result;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) {
+            send(ctx);
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse response) {
+            long now = System.nanoTime();
+            if (response.getStatus().code() < 400) {
+                result.latency.recordValue(TimeUnit.NANOSECONDS.toMicros(now - sentAt));
+            } else {
+                result.errors.incrementAndGet();
+            }
+            if (now < deadline && HttpHeaders.isKeepAlive(response)) {
+                send(ctx);
+            } else {
+                ctx.close();
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            result.errors.incrementAndGet();
+            ctx.close();
+        }
+
+        private void send(ChannelHandlerContext ctx) {
+            FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+            HttpHeaders.setHost(request, host + ':' + port);
+            HttpHeaders.setKeepAlive(request, true);
+            request.headers().set(HttpHeaders.Names.AUTHORIZATION, "Bearer " + token);
+            sentAt = System.nanoTime();
+            ctx.writeAndFlush(request);
+        }
+    }
+
+    private static class Result {
+        final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong connected = new AtomicLong();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.core.accesslog;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 访问日志测试
+ */
+public class AccessLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void dropsRecordsWhenBufferIsFull() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        AccessLog accessLog = new AccessLog(buffer, 1.0, true, 0);
+        for (int i = 0; i < 6; i++) {
+            accessLog.record(i, 200, 1, "GET", "producer", "/producer/appInfo", "127.0.0.1", null);
+        }
+        assertEquals(4, accessLog.getAccepted());
+        assertEquals(2, accessLog.getDropped());
+
+        AccessLogRingBuffer.Record record = buffer.poll();
+        assertEquals(0, record.timestamp);
+        buffer.release(record);
+        assertTrue(buffer.offer(9, 200, 1, "GET", null, "/", null, null));
+        assertFalse(buffer.offer(10, 200, 1, "GET", null, "/", null, null));
+    }
+
+    @Test
+    public void samplesSuccessfulRequestsButKeepsErrors() {
+        AccessLog accessLog = new AccessLog(new AccessLogRingBuffer(16), 0.0, true, 0);
+        assertFalse(accessLog.isSampled(200));
+        assertTrue(accessLog.isSampled(503));
+        assertEquals(1, accessLog.getSampledOut());
+    }
+
+    @Test
+    public void capsRecordsPerSecond() {
+        AccessLog accessLog = new AccessLog(new AccessLogRingBuffer(16), 1.0, true, 2);
+        for (int i = 0; i < 5; i++) {
+            accessLog.record(i, 200, 1, "GET", null, "/", null, null);
+        }
+        assertEquals(2, accessLog.getAccepted());
+        assertEquals(3, accessLog.getThrottled());
+    }
+
+    @Test
+    public void writesCompactLinesAndRollsFiles() throws Exception {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(1024);
+        File file = new File(folder.getRoot(), "access.log");
+        AccessLogWriter writer = new AccessLogWriter(buffer, file, 200, 2);
+        for (int i = 0; i < 10; i++) {
+            buffer.offer(1000 + i, 200, 15, "GET", "producer", "/producer/appInfo?x=" + i, "127.0.0.1", "admin");
+        }
+        writer.start();
+        writer.stop();
+        assertEquals(10, writer.getWritten());
+        assertNull(buffer.poll());
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.US_ASCII);
+        assertEquals("1009\t200\t15\tGET\tproducer\t/producer/appInfo?x=9\t127.0.0.1\tadmin", lines.get(lines.size() - 1));
+        assertTrue(new File(file.getPath() + ".1").exists());
+        assertFalse(new File(file.getPath() + ".3").exists());
+    }
+
+    @Test
+    public void keepsRunningAfterWriteFailures() throws Exception {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(1024);
+        File file = new File(folder.getRoot(), "access.log");
+        assertTrue(file.mkdir());   // 同名目录使打开文件失败
+        AccessLogWriter writer = new AccessLogWriter(buffer, file, 1 << 20, 2);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(1000 + i, 200, 15, "GET", "producer", "/producer/appInfo", "127.0.0.1", "admin");
+        }
+        writer.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (writer.getFailures() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(writer.getFailures() > 0);
+
+        assertTrue(file.delete());
+        while (writer.getWritten() < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        writer.stop();
+        assertEquals(5, writer.getWritten());
+        assertEquals(0, writer.getDropped());
+        assertEquals(5, Files.readAllLines(file.toPath(), StandardCharsets.US_ASCII).size());
+    }
+}
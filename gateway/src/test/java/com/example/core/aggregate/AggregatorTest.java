@@ -0,0 +1,191 @@
+package com.example.core.aggregate;
+
+import com.example.core.config.RateLimitProperties;
+import com.example.core.netty.NettyUpstreamClient;
+import com.example.core.ratelimit.RateLimiterRegistry;
+import com.sun.net.httpserver.HttpServer;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.netflix.zuul.filters.SimpleRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 并行聚合测试
+ * 上游服务使用 JDK 自带的 HttpServer 模拟，/slow 开头的路径延迟 300ms 返回，/stall 开头的路径延迟 2s 返回
+ */
+public class AggregatorTest {
+
+    private HttpServer upstream;
+    private ExecutorService upstreamExecutor;
+    private NioEventLoopGroup workers;
+    private NettyUpstreamClient upstreamClient;
+    private ExecutorService callbacks;
+    private Aggregator aggregator;
+
+    @Before
+    public void setUp() throws Exception {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstreamExecutor = Executors.newCachedThreadPool();
+        upstream.setExecutor(upstreamExecutor);
+        upstream.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().toString();
+            if (path.startsWith("/slow") || path.startsWith("/stall")) {
+                try {
+                    Thread.sleep(path.startsWith("/slow") ? 300 : 2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            boolean json = path.contains("json");
+            byte[] body = (json ? "{\"path\":\"" + path + "\"}" : path + "|" + exchange.getRequestHeaders().getFirst("Authorization"))
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", json ? "application/json" : "text/plain");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+
+        ZuulProperties zuulProperties = new ZuulProperties();
+        zuulProperties.getRoutes().put("producer", new ZuulProperties.ZuulRoute("producer", "/producer/**", null,
+                "http://127.0.0.1:" + upstream.getAddress().getPort(), true, null, Collections.<String>emptySet()));
+        workers = new NioEventLoopGroup(2);
+        upstreamClient = new NettyUpstreamClient(workers, 1000, 5000, 65536, 8);
+        callbacks = Executors.newSingleThreadExecutor();
+        aggregator = new Aggregator(new SimpleRouteLocator("/", zuulProperties), zuulProperties, null,
+                upstreamClient, workers, null, null, callbacks);
+        run(Collections.singletonMap("warmup", "/producer/warmup"), 5000);    // 预热连接，避免首次建连影响计时
+    }
+
+    /**
+     * 等待事件循环真正退出：Netty 4.0.27 的 group.terminationFuture() 经由 GlobalEventExecutor 通知，
+     * 该线程在开启断言时可能因 AssertionError 退出，sync() 会一直等待，因此逐个等待子事件循环
+     */
+    @After
+    public void tearDown() throws Exception {
+        upstream.stop(0);
+        upstreamExecutor.shutdownNow();     // /stall 的处理线程
+        upstreamClient.closeIdleConnections();
+        workers.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        assertTrue(workers.awaitTermination(5, TimeUnit.SECONDS));
+        callbacks.shutdown();
+        assertTrue(callbacks.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void runsSubRequestsConcurrently() throws Exception {
+        Map<String, String> requests = new LinkedHashMap<>();
+        requests.put("a", "/producer/slow/json?x=1");
+        requests.put("b", "/producer/slow/text");
+        requests.put("c", "/producer/slow/other");
+        long start = System.nanoTime();
+        Collected collected = run(requests, 2000);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("took " + elapsedMillis + "ms", elapsedMillis < 800);
+        assertEquals(3, collected.parts.size());
+        assertEquals("{\"path\":\"/slow/json?x=1\"}", new String(collected.parts.get("a").getBody(), StandardCharsets.UTF_8));
+        assertEquals("/slow/text|Bearer t", new String(collected.parts.get("b").getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void deadlineCompletesPendingParts() throws Exception {
+        Map<String, String> requests = new LinkedHashMap<>();
+        requests.put("slow", "/producer/stall");
+        requests.put("fast", "/producer/fast");
+        requests.put("missing", "/unknown/path");
+        Collected collected = run(requests, 500);
+
+        assertEquals(200, collected.parts.get("fast").getStatus());
+        assertEquals(504, collected.parts.get("slow").getStatus());
+        assertEquals(404, collected.parts.get("missing").getStatus());
+        assertEquals(1, aggregator.getDeadlineExceeded());
+        assertEquals(4, aggregator.getParts());
+    }
+
+    @Test
+    public void deliversResultsOffTheEventLoop() throws Exception {
+        Map<String, String> requests = new LinkedHashMap<>();
+        requests.put("a", "/producer/a");
+        requests.put("b", "/producer/b");
+        Collected collected = run(requests, 2000);
+
+        assertEquals(2, collected.parts.size());
+        for (String thread : collected.threads) {
+            assertFalse(thread, thread.startsWith("nioEventLoopGroup"));
+        }
+    }
+
+    @Test
+    public void rateLimitsEachPartByRoute() throws Exception {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setRatePerSecond(0.001);
+        limit.setBurst(1);
+        properties.getRoutes().put("producer", limit);
+        aggregator.setRateLimiterRegistry(new RateLimiterRegistry(properties));
+        Map<String, String> requests = new LinkedHashMap<>();
+        requests.put("first", "/producer/first");
+        requests.put("second", "/producer/second");
+        Collected collected = run(requests, 2000);
+
+        assertEquals(200, collected.parts.get("first").getStatus());
+        assertEquals(429, collected.parts.get("second").getStatus());
+    }
+
+    @Test
+    public void documentEmbedsJsonAndQuotesText() {
+        AggregationDocument document = new AggregationDocument();
+        String json = document.part(PartResult.response("a", 200, "application/json;charset=UTF-8", "{\"x\":1}".getBytes(StandardCharsets.UTF_8)))
+                + document.part(PartResult.response("b", 200, "text/plain", "say \"hi\"".getBytes(StandardCharsets.UTF_8)))
+                + document.part(PartResult.failure("c", 504, "Deadline exceeded"))
+                + document.end();
+        assertEquals("{\"a\":{\"status\":200,\"body\":{\"x\":1}},\"b\":{\"status\":200,\"body\":\"say \\\"hi\\\"\"},"
+                + "\"c\":{\"status\":504,\"error\":\"Deadline exceeded\"}}", json);
+        assertEquals("{}", new AggregationDocument().end());
+    }
+
+    private Collected run(Map<String, String> requests, long timeoutMillis) throws InterruptedException {
+        Collected collected = new Collected();
+        aggregator.execute(requests, Collections.singletonMap("Authorization", "Bearer t"), null, "ip:127.0.0.1", timeoutMillis, collected);
+        assertTrue(collected.done.await(5, TimeUnit.SECONDS));
+        return collected;
+    }
+
+    private static class Collected implements Aggregator.Listener {
+        final Map<String, PartResult> parts = new LinkedHashMap<>();
+        final List<String> threads = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        @Override
+        public void onPart(PartResult part) {
+            parts.put(part.getName(), part);
+            threads.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.core.cache;
+
+import com.example.core.http.BufferedResponse;
+import com.netflix.util.Pair;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 响应缓存测试
+ */
+public class ResponseCacheTest {
+
+    private static BufferedResponse response(int size) {
+        return new BufferedResponse(200, Collections.<Pair<String, String>>emptyList(), new byte[size], false);
+    }
+
+    @Test
+    public void expiresEntriesAfterTtl() {
+        ResponseCache cache = new ResponseCache(10000, 1);
+        cache.put("a", response(10), 0, 1000);
+        assertNotNull(cache.get("a", 999));
+        assertNull(cache.get("a", 1000));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenOverCapacity() {
+        BufferedResponse response = response(100);
+        ResponseCache cache = new ResponseCache(response.weight() * 2, 1);
+        cache.put("a", response, 0, 60000);
+        cache.put("b", response, 0, 60000);
+        cache.get("a", 1);
+        cache.put("c", response, 0, 60000);
+        assertNotNull(cache.get("a", 2));
+        assertNull(cache.get("b", 2));
+        assertNotNull(cache.get("c", 2));
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.bytes() <= response.weight() * 2);
+    }
+
+    @Test
+    public void parsesCacheControlDirectives() {
+        CacheControl cacheControl = CacheControl.parse("public, max-age=30, s-maxage=\"60\"");
+        assertEquals(30, cacheControl.getMaxAge());
+        assertEquals(60, cacheControl.getSharedMaxAge());
+        assertTrue(CacheControl.parse("no-cache, no-store, max-age=0, must-revalidate").isNoStore());
+        assertTrue(cacheControl.isPublic());
+        assertTrue(CacheControl.parse("private, max-age=30").isPrivate());
+        assertFalse(CacheControl.parse("private, max-age=30").isPublic());
+    }
+}
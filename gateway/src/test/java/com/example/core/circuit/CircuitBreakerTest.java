@@ -0,0 +1,175 @@
+package com.example.core.circuit;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 熔断器测试
+ */
+public class CircuitBreakerTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker("test", 10, 10, 50, 100 * MILLI, 80, 5 * SECOND, 20 * SECOND, 2);
+    }
+
+    private static void call(CircuitBreaker breaker, long now, long latency, boolean failure) {
+        CircuitBreaker.Call call = breaker.acquire(now);
+        assertNotNull(call);
+        call.complete(failure, now + latency);
+    }
+
+    @Test
+    public void staysClosedBelowMinimumRequests() {
+        CircuitBreaker breaker = breaker();
+        long now = System.nanoTime();
+        for (int i = 0; i < 9; i++) {
+            call(breaker, now, MILLI, true);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void opensWhenFailureRateExceedsThresholdAndFailsFast() {
+        CircuitBreaker breaker = breaker();
+        long now = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            call(breaker, now, 0, i % 2 == 1);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.acquire(now + SECOND));
+        assertFalse(breaker.isAvailable(now + SECOND));
+        assertEquals(4, breaker.getRetryAfterSeconds(now + SECOND));
+        assertEquals(1, breaker.getRejected());
+    }
+
+    @Test
+    public void opensWhenMostRequestsAreSlow() {
+        CircuitBreaker breaker = breaker();
+        long now = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            call(breaker, now, i < 2 ? MILLI : 200 * MILLI, false);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void successDoesNotOpenWhenOldSuccessesLeaveTheWindow() {
+        CircuitBreaker breaker = breaker();
+        long now = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            call(breaker, now, 0, false);
+        }
+        for (int i = 0; i < 9; i++) {
+            call(breaker, now + 5 * SECOND, 0, true);
+        }
+        call(breaker, now + 11 * SECOND, 0, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        call(breaker, now + 11 * SECOND, 0, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void oldFailuresLeaveTheWindow() {
+        CircuitBreaker breaker = breaker();
+        long now = System.nanoTime();
+        for (int i = 0; i < 9; i++) {
+            call(breaker, now, MILLI, true);
+        }
+        for (int i = 0; i < 10; i++) {
+            call(breaker, now + 11 * SECOND, MILLI, i < 4);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenProbesCloseTheBreaker() {
+        CircuitBreaker breaker = breaker();
+        long now = System.nanoTime();
+        trip(breaker, now);
+        long later = now + 5 * SECOND;
+        assertTrue(breaker.isAvailable(later));
+        CircuitBreaker.Call first = breaker.acquire(later);
+        CircuitBreaker.Call second = breaker.acquire(later);
+        assertTrue(first.isProbe());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertNull(breaker.acquire(later));
+        assertFalse(breaker.isAvailable(later));
+
+        first.complete(false, later + MILLI);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        second.complete(false, later + MILLI);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        // 关闭时窗口已清空，打开之前的失败不会让熔断器马上再次打开
+        call(breaker, later, MILLI, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void failedProbeReopensWithLongerWait() {
+        CircuitBreaker breaker = breaker();
+        long now = System.nanoTime();
+        trip(breaker, now);
+        long later = now + 5 * SECOND;
+        breaker.acquire(later).complete(true, later + MILLI);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(10, breaker.getRetryAfterSeconds(later + MILLI));
+        assertEquals(2, breaker.getOpened());
+    }
+
+    @Test
+    public void slowProbeReopens() {
+        CircuitBreaker breaker = breaker();
+        long now = System.nanoTime();
+        trip(breaker, now);
+        long later = now + 5 * SECOND;
+        breaker.acquire(later).complete(false, later + 200 * MILLI);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void cancelledProbeReturnsItsSlot() {
+        CircuitBreaker breaker = breaker();
+        long now = System.nanoTime();
+        trip(breaker, now);
+        long later = now + 5 * SECOND;
+        breaker.acquire(later);
+        CircuitBreaker.Call cancelled = breaker.acquire(later);
+        assertNull(breaker.acquire(later));
+        cancelled.cancel();
+        cancelled.cancel();
+        assertNotNull(breaker.acquire(later));
+        assertNull(breaker.acquire(later));
+    }
+
+    @Test
+    public void resultsFromBeforeTheTripDoNotCountAsProbes() {
+        CircuitBreaker breaker = breaker();
+        long now = System.nanoTime();
+        CircuitBreaker.Call slowCall = breaker.acquire(now);
+        trip(breaker, now);
+        long later = now + 5 * SECOND;
+        CircuitBreaker.Call probe = breaker.acquire(later);
+        slowCall.complete(false, later);
+        slowCall.complete(false, later);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        probe.complete(false, later + MILLI);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    private static void trip(CircuitBreaker breaker, long now) {
+        for (int i = 0; i < 10; i++) {
+            call(breaker, now, 0, true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.core.coalesce;
+
+import com.example.core.http.BufferedResponse;
+import com.netflix.util.Pair;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 进行中请求表测试
+ */
+public class InFlightRequestsTest {
+
+    @Test
+    public void followersReceiveLeaderResponse() throws Exception {
+        InFlightRequests inFlight = new InFlightRequests(10);
+        InFlightRequests.Call leader = inFlight.lead("k");
+        assertNotNull(leader);
+        assertNull(inFlight.lead("k"));
+
+        InFlightRequests.Call follower = inFlight.follow("k");
+        assertSame(leader, follower);
+        assertEquals(1, leader.getWaiters());
+
+        BufferedResponse response = new BufferedResponse(200, Collections.<Pair<String, String>>emptyList(), new byte[1], false);
+        inFlight.complete(leader, response);
+        assertSame(response, follower.getFuture().get());
+        assertEquals(0, inFlight.size());
+        assertNull(inFlight.follow("k"));
+        assertNotNull(inFlight.lead("k"));
+    }
+
+    @Test
+    public void capsWaitersPerRequest() {
+        InFlightRequests inFlight = new InFlightRequests(2);
+        inFlight.lead("k");
+        assertNotNull(inFlight.follow("k"));
+        InFlightRequests.Call second = inFlight.follow("k");
+        assertNotNull(second);
+        assertNull(inFlight.follow("k"));
+        assertEquals(1, inFlight.getOverflows());
+
+        second.leave();
+        assertNotNull(inFlight.follow("k"));
+    }
+
+    @Test
+    public void failedLeaderReleasesFollowersWithoutResponse() throws Exception {
+        InFlightRequests inFlight = new InFlightRequests(10);
+        InFlightRequests.Call leader = inFlight.lead("k");
+        InFlightRequests.Call follower = inFlight.follow("k");
+        inFlight.complete(leader, null);
+        assertTrue(follower.getFuture().isDone());
+        assertNull(follower.getFuture().get());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.core.concurrency;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 自适应并发准入控制测试
+ */
+public class ConcurrencyLimiterTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void limitGrowsWhileLatencyIsStableAndSaturated() {
+        GradientLimit limit = new GradientLimit(10, 4, 100, 0.2, 1.5, 600);
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(10 * MILLI, limit.getLimit(), false);
+        }
+        assertEquals(100, limit.getLimit());
+    }
+
+    @Test
+    public void limitDoesNotGrowWhenUnderused() {
+        GradientLimit limit = new GradientLimit(10, 4, 100, 0.2, 1.5, 600);
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(10 * MILLI, 2, false);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void limitShrinksWhenLatencyRises() {
+        GradientLimit limit = new GradientLimit(50, 4, 100, 0.2, 1.5, 600);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLI, limit.getLimit(), false);
+        }
+        int before = limit.getLimit();
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(100 * MILLI, limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() < before / 2);
+        assertTrue(limit.getLimit() >= 4);
+    }
+
+    @Test
+    public void droppedRequestsBackOff() {
+        GradientLimit limit = new GradientLimit(50, 4, 100, 0.2, 1.5, 600);
+        limit.onSample(0, 50, true);
+        assertEquals(45, limit.getLimit());
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(0, 50, true);
+        }
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    public void lowPriorityUsesOnlyItsShare() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new GradientLimit(10, 10, 10, 0.2, 1.5, 600), 0.5, 10);
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            permits.add(limiter.acquire(ConcurrencyLimiter.Priority.LOW, 0));
+        }
+        assertNull(limiter.acquire(ConcurrencyLimiter.Priority.LOW, 0));
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(limiter.acquire(ConcurrencyLimiter.Priority.HIGH, 0));
+        }
+        assertNull(limiter.acquire(ConcurrencyLimiter.Priority.HIGH, 0));
+        assertEquals(10, limiter.getInFlight());
+        assertEquals(2, limiter.getRejected());
+
+        permits.get(0).release(false);
+        permits.get(0).release(false);
+        assertEquals(9, limiter.getInFlight());
+    }
+
+    @Test
+    public void highPriorityQueuesUntilReleased() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new GradientLimit(1, 1, 1, 0.2, 1.5, 600), 0.5, 10);
+        ConcurrencyLimiter.Permit first = limiter.acquire(ConcurrencyLimiter.Priority.HIGH, 0);
+        assertNotNull(first);
+        assertNull(limiter.acquire(ConcurrencyLimiter.Priority.LOW, TimeUnit.SECONDS.toNanos(5)));
+
+        CompletableFuture<ConcurrencyLimiter.Permit> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(ConcurrencyLimiter.Priority.HIGH, TimeUnit.SECONDS.toNanos(5));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (limiter.getWaiting() == 0) {
+            Thread.sleep(1);
+        }
+        first.release(false);
+        assertNotNull(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getQueued());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    public void queuedRequestTimesOut() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new GradientLimit(1, 1, 1, 0.2, 1.5, 600), 0.5, 10);
+        assertNotNull(limiter.acquire(ConcurrencyLimiter.Priority.HIGH, 0));
+        assertNull(limiter.acquire(ConcurrencyLimiter.Priority.HIGH, 10 * MILLI));
+        assertEquals(1, limiter.getTimeouts());
+        assertEquals(0, limiter.getWaiting());
+    }
+}
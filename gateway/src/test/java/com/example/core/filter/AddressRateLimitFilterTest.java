@@ -0,0 +1,64 @@
+package com.example.core.filter;
+
+import com.example.core.config.RateLimitProperties;
+import com.example.core.ratelimit.RateLimiterRegistry;
+import com.netflix.zuul.context.RequestContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 按客户端地址限流测试：换令牌不能绕过限制，且在 AccessFilter 之前执行
+ */
+public class AddressRateLimitFilterTest {
+
+    private AddressRateLimitFilter filter;
+
+    @Before
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setRatePerSecond(1);
+        limit.setBurst(2);
+        properties.setAddressLimit(limit);
+        filter = new AddressRateLimitFilter(new RateLimiterRegistry(properties));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContext.getCurrentContext().unset();
+    }
+
+    @Test
+    public void runsBeforeTokenValidation() {
+        assertTrue(filter.filterOrder() < new AccessFilter().filterOrder());
+    }
+
+    @Test
+    public void rejectsBogusTokensFromOneAddress() {
+        assertTrue(send("Bearer bogus-1"));
+        assertTrue(send("Bearer bogus-2"));
+        assertFalse(send("Bearer bogus-3"));
+        assertEquals(429, RequestContext.getCurrentContext().getResponseStatusCode());
+    }
+
+    private boolean send(String authorization) {
+        RequestContext.testSetCurrentContext(null);
+        RequestContext context = RequestContext.getCurrentContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/producer/orders");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("Authorization", authorization);
+        context.setRequest(request);
+        context.setResponse(new MockHttpServletResponse());
+        if (filter.shouldFilter()) {
+            filter.run();
+        }
+        return context.sendZuulResponse();
+    }
+}
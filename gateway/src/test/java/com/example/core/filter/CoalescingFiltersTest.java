@@ -0,0 +1,72 @@
+package com.example.core.filter;
+
+import com.example.core.coalesce.InFlightRequests;
+import com.example.core.config.CoalescingProperties;
+import com.netflix.zuul.context.RequestContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 请求合并过滤器测试：只共享真正发往上游的成功响应，异常时也会完成登记的请求
+ */
+public class CoalescingFiltersTest {
+
+    private final InFlightRequests inFlight = new InFlightRequests(10);
+    private final CoalescingCompleteFilter completeFilter = new CoalescingCompleteFilter(inFlight, new CoalescingProperties());
+    private final CoalescingErrorFilter errorFilter = new CoalescingErrorFilter(inFlight);
+    private RequestContext context;
+    private InFlightRequests.Call follower;
+
+    @Before
+    public void setUp() {
+        RequestContext.testSetCurrentContext(null);
+        context = RequestContext.getCurrentContext();
+        context.setRequest(new MockHttpServletRequest("GET", "/producer/orders"));
+        context.setResponse(new MockHttpServletResponse());
+        context.set(CoalescingFilter.CALL_KEY, inFlight.lead("k"));
+        follower = inFlight.follow("k");
+    }
+
+    @After
+    public void tearDown() {
+        RequestContext.getCurrentContext().unset();
+    }
+
+    @Test
+    public void doesNotShareRejectedLeader() throws Exception {
+        context.setSendZuulResponse(false);     // 例如被 CircuitBreakerFilter 拦截
+        context.setResponseStatusCode(503);
+        completeFilter.run();
+
+        assertNull(follower.getFuture().get(1, TimeUnit.SECONDS));
+        assertEquals(0, inFlight.size());
+    }
+
+    @Test
+    public void doesNotShareServerError() throws Exception {
+        context.setResponseStatusCode(502);
+        completeFilter.run();
+
+        assertNull(follower.getFuture().get(1, TimeUnit.SECONDS));
+        assertEquals(0, inFlight.size());
+    }
+
+    @Test
+    public void errorFilterCompletesWhenPostFiltersFail() throws Exception {
+        context.setResponseStatusCode(200);
+        context.setThrowable(new IllegalStateException("post filter failed"));
+        errorFilter.run();
+
+        assertNull(follower.getFuture().get(1, TimeUnit.SECONDS));
+        assertEquals(0, inFlight.size());
+        assertEquals(false, completeFilter.shouldFilter());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.core.filter;
+
+import com.example.core.cache.ResponseCache;
+import com.example.core.config.ResponseCacheProperties;
+import com.netflix.zuul.context.RequestContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.CacheControl;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 响应缓存写入规则测试：private 响应不缓存，带 Authorization 的请求需要上游明确允许共享缓存
+ */
+public class ResponseCacheStoreFilterTest {
+
+    private final ResponseCacheProperties properties = new ResponseCacheProperties();
+    private MockHttpServletRequest request;
+    private RequestContext context;
+
+    @Before
+    public void setUp() {
+        RequestContext.testSetCurrentContext(null);
+        context = RequestContext.getCurrentContext();
+        request = new MockHttpServletRequest("GET", "/producer/orders");
+        context.setRequest(request);
+    }
+
+    private void appInfoRequest() {
+        RequestContext.testSetCurrentContext(null);
+        context = RequestContext.getCurrentContext();
+        request = new MockHttpServletRequest("GET", "/producer/appInfo");
+        request.addHeader("Authorization", "Bearer t");
+        context.setRequest(request);
+        context.setResponse(new MockHttpServletResponse());
+        context.set(FilterConstants.PROXY_KEY, "producer");
+    }
+
+    @After
+    public void tearDown() {
+        RequestContext.getCurrentContext().unset();
+    }
+
+    @Test
+    public void doesNotCachePrivateResponses() {
+        context.addZuulResponseHeader("Cache-Control", "private, max-age=60");
+        assertEquals(0, ResponseCacheStoreFilter.ttlMillis(context, properties));
+    }
+
+    @Test
+    public void cachesAuthorizedRequestsOnlyWhenSharedCachingIsAllowed() {
+        request.addHeader("Authorization", "Bearer t");
+        context.addZuulResponseHeader("Cache-Control", "max-age=60");
+        assertEquals(0, ResponseCacheStoreFilter.ttlMillis(context, properties));
+
+        context.getZuulResponseHeaders().clear();
+        context.addZuulResponseHeader("Cache-Control", "public, max-age=60");
+        assertEquals(60000, ResponseCacheStoreFilter.ttlMillis(context, properties));
+
+        context.getZuulResponseHeaders().clear();
+        context.addZuulResponseHeader("Cache-Control", "s-maxage=30");
+        assertEquals(30000, ResponseCacheStoreFilter.ttlMillis(context, properties));
+    }
+
+    @Test
+    public void authorizedAppInfoIsAHitOnTheSecondCall() throws Exception {
+        properties.getRoutes().put("producer", new ResponseCacheProperties.Route());
+        ResponseCache cache = new ResponseCache(1 << 20, 1);
+        ResponseCacheFilter lookup = new ResponseCacheFilter(cache, properties);
+        ResponseCacheStoreFilter store = new ResponseCacheStoreFilter(cache, properties);
+        // 与 orderService 的 InfoController 给出的响应头相同
+        String cacheControl = CacheControl.maxAge(10, TimeUnit.SECONDS).cachePublic().getHeaderValue();
+
+        appInfoRequest();
+        lookup.run();
+        assertNotNull(context.get(ResponseCacheFilter.CACHE_KEY));
+        context.setResponseStatusCode(200);
+        context.addZuulResponseHeader("Cache-Control", cacheControl);
+        context.setResponseBody("info");
+        assertEquals(true, store.shouldFilter());
+        store.run();
+
+        RequestContext.getCurrentContext().unset();
+        appInfoRequest();
+        lookup.run();
+        assertNull(context.get(ResponseCacheFilter.CACHE_KEY));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void cachesAnonymousRequestsByMaxAge() {
+        context.addZuulResponseHeader("Cache-Control", "max-age=60");
+        assertEquals(60000, ResponseCacheStoreFilter.ttlMillis(context, properties));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.core.hedge;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 对冲请求测试
+ */
+public class HedgerTest {
+
+    private static final long DELAY = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void fastPrimaryIsNotHedged() throws Exception {
+        Hedger hedger = new Hedger(executor, new HedgeBudget(1, 10));
+        assertEquals("primary", hedger.execute(new Call("primary", 0), () -> {
+            throw new AssertionError("should not hedge");
+        }, DELAY));
+        assertEquals(0, hedger.getHedges());
+    }
+
+    @Test
+    public void slowPrimaryIsHedgedAndCancelled() throws Exception {
+        Hedger hedger = new Hedger(executor, new HedgeBudget(1, 10));
+        Call primary = new Call("primary", 5000);
+        assertEquals("hedge", hedger.execute(primary, () -> new Call("hedge", 0), DELAY));
+        assertEquals(1, hedger.getHedges());
+        assertEquals(1, hedger.getHedgeWins());
+        assertTrue(primary.cancelled.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failedHedgeFallsBackToPrimary() throws Exception {
+        Hedger hedger = new Hedger(executor, new HedgeBudget(1, 10));
+        Call hedge = new Call(null, 0);
+        assertEquals("primary", hedger.execute(new Call("primary", 100), () -> hedge, DELAY));
+        assertEquals(0, hedger.getHedgeWins());
+    }
+
+    @Test
+    public void primaryFailureIsReportedWhenBothFail() throws Exception {
+        Hedger hedger = new Hedger(executor, new HedgeBudget(1, 10));
+        try {
+            hedger.execute(new Call(null, 100), () -> new Call(null, 0), DELAY);
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals("failed after 100ms", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void budgetLimitsHedgesToShareOfRequests() throws Exception {
+        Hedger hedger = new Hedger(executor, new HedgeBudget(0.05, 1));
+        int hedged = 0;
+        for (int i = 0; i < 60; i++) {
+            if ("hedge".equals(hedger.execute(new Call("primary", 40), () -> new Call("hedge", 0), TimeUnit.MILLISECONDS.toNanos(1)))) {
+                hedged++;
+            }
+        }
+        assertEquals(3, hedged);
+        assertEquals(57, hedger.getBudget().getThrottled());
+    }
+
+    @Test
+    public void noDelayEstimateMeansNoHedge() throws Exception {
+        Hedger hedger = new Hedger(executor, new HedgeBudget(1, 10));
+        assertEquals("primary", hedger.execute(new Call("primary", 50), () -> new Call("hedge", 0), -1));
+        assertEquals(0, hedger.getHedges());
+    }
+
+    @Test
+    public void percentileIsTakenFromRecentInterval() {
+        long interval = TimeUnit.SECONDS.toNanos(1);
+        long start = System.nanoTime();
+        LatencyPercentile latency = new LatencyPercentile(95, interval, 10, TimeUnit.MINUTES.toMicros(1));
+        for (int i = 1; i <= 100; i++) {
+            latency.record(TimeUnit.MILLISECONDS.toNanos(i), start);
+        }
+        assertEquals(-1, latency.getNanos());
+        latency.record(TimeUnit.MILLISECONDS.toNanos(1), start + 2 * interval);
+        assertEquals(95, TimeUnit.NANOSECONDS.toMillis(latency.getNanos()), 1);
+        // 样本不足的周期沿用上一次的结果
+        latency.record(TimeUnit.MILLISECONDS.toNanos(500), start + 4 * interval);
+        assertEquals(95, TimeUnit.NANOSECONDS.toMillis(latency.getNanos()), 1);
+    }
+
+    /**
+     * 模拟的上游调用：等待指定时间后返回结果，结果为 null 时抛出异常
+     */
+    private static class Call implements HedgedCall<String> {
+        private final String result;
+        private final long millis;
+        private final CountDownLatch cancelled = new CountDownLatch(1);
+
+        Call(String result, long millis) {
+            this.result = result;
+            this.millis = millis;
+        }
+
+        @Override
+        public String execute() throws Exception {
+            if (cancelled.await(millis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("cancelled");
+            }
+            if (result == null) {
+                throw new IllegalStateException("failed after " + millis + "ms");
+            }
+            return result;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled.countDown();
+        }
+
+        @Override
+        public void discard(String response) {
+            assertFalse(response.isEmpty());
+        }
+    }
+}
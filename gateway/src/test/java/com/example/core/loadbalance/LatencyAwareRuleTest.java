@@ -0,0 +1,156 @@
+package com.example.core.loadbalance;
+
+import com.example.core.circuit.CircuitBreaker;
+import com.example.core.circuit.CircuitBreakerRegistry;
+import com.example.core.config.CircuitBreakerProperties;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.Server;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 按延迟和负载选择实例的规则测试
+ */
+public class LatencyAwareRuleTest {
+
+    private final Server fast = new Server("10.0.0.1", 8080);
+    private final Server slow = new Server("10.0.0.2", 8080);
+    private final Server other = new Server("10.0.0.3", 8080);
+    private final List<Server> servers = Arrays.asList(fast, slow, other);
+    private LatencyAwareRule rule;
+
+    @Before
+    public void setUp() {
+        BaseLoadBalancer lb = new BaseLoadBalancer();
+        lb.addServers(servers);
+        DefaultClientConfigImpl config = new DefaultClientConfigImpl();
+        config.set(LatencyAwareRule.FAILURE_THRESHOLD, 3);
+        rule = new LatencyAwareRule();
+        rule.initWithNiwsConfig(config);
+        rule.setLoadBalancer(lb);
+    }
+
+    @Test
+    public void prefersInstancesWithLowerLatency() {
+        long now = System.nanoTime();
+        record(fast, 5, now);
+        record(other, 5, now);
+        record(slow, 500, now);
+        int slowPicks = 0;
+        for (int i = 0; i < 3000; i++) {
+            if (rule.choose(servers, now) == slow) {
+                slowPicks++;
+            }
+        }
+        assertEquals(0, slowPicks);
+    }
+
+    @Test
+    public void prefersInstancesWithFewerRequestsInFlight() {
+        long now = System.nanoTime();
+        record(fast, 5, now);
+        record(other, 5, now);
+        record(slow, 5, now);
+        for (int i = 0; i < 10; i++) {
+            rule.statsFor(fast).begin();
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertNotEquals(fast, rule.choose(servers, now));
+        }
+    }
+
+    private void record(Server server, long latencyMillis, long now) {
+        InstanceStats stats = rule.statsFor(server);
+        stats.begin();
+        rule.complete(stats, TimeUnit.MILLISECONDS.toNanos(latencyMillis), true, now);
+    }
+
+    @Test
+    public void ejectsInstanceAfterConsecutiveFailures() {
+        long now = System.nanoTime();
+        InstanceStats stats = rule.statsFor(slow);
+        for (int i = 0; i < 3; i++) {
+            stats.begin();
+            rule.complete(stats, 1000, false, now);
+        }
+        assertTrue(stats.isEjected(now));
+        for (int i = 0; i < 1000; i++) {
+            assertNotEquals(slow, rule.choose(servers, now));
+        }
+        assertFalse(stats.isEjected(now + TimeUnit.SECONDS.toNanos(31)));
+    }
+
+    @Test
+    public void neverEjectsMoreThanConfiguredShare() {
+        long now = System.nanoTime();
+        for (Server server : servers) {
+            InstanceStats stats = rule.statsFor(server);
+            for (int i = 0; i < 3; i++) {
+                stats.begin();
+                rule.complete(stats, 1000, false, now);
+            }
+        }
+        int ejected = 0;
+        for (Server server : servers) {
+            if (rule.statsFor(server).isEjected(now)) {
+                ejected++;
+            }
+        }
+        assertEquals(1, ejected);
+    }
+
+    @Test
+    public void skipsInstancesWithOpenCircuitBreaker() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setMinimumRequests(1);
+        CircuitBreakerRegistry breakers = new CircuitBreakerRegistry(properties);
+        DefaultClientConfigImpl config = new DefaultClientConfigImpl();
+        config.set(LatencyAwareRule.INSTANCE_BREAKERS, breakers);
+        LatencyAwareRule rule = new LatencyAwareRule();
+        rule.initWithNiwsConfig(config);
+
+        long now = System.nanoTime();
+        CircuitBreaker breaker = breakers.getInstanceBreaker(slow.getId());
+        breaker.acquire(now).complete(true, now);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        for (int i = 0; i < 1000; i++) {
+            assertNotEquals(slow, rule.choose(servers, now));
+        }
+    }
+
+    @Test
+    public void hedgeSkipsPrimaryAndUnavailableInstances() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setMinimumRequests(1);
+        CircuitBreakerRegistry breakers = new CircuitBreakerRegistry(properties);
+        DefaultClientConfigImpl config = new DefaultClientConfigImpl();
+        config.set(LatencyAwareRule.FAILURE_THRESHOLD, 3);
+        config.set(LatencyAwareRule.INSTANCE_BREAKERS, breakers);
+        LatencyAwareRule rule = new LatencyAwareRule();
+        rule.initWithNiwsConfig(config);
+
+        long now = System.nanoTime();
+        breakers.getInstanceBreaker(slow.getId()).acquire(now).complete(true, now);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(other, rule.chooseOther(servers, fast, now));
+        }
+
+        InstanceStats stats = rule.statsFor(other);
+        for (int i = 0; i < 3; i++) {
+            stats.begin();
+            rule.complete(stats, 1000, false, now);
+        }
+        assertNull(rule.chooseOther(servers, fast, now));
+    }
+}
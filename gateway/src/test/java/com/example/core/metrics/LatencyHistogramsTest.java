@@ -0,0 +1,42 @@
+package com.example.core.metrics;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 延迟直方图测试
+ */
+public class LatencyHistogramsTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void reportsPercentilesPerRouteAndInstance() {
+        LatencyHistograms histograms = new LatencyHistograms(TimeUnit.SECONDS.toMicros(60), 2);
+        for (int i = 1; i <= 1000; i++) {
+            long millis = TimeUnit.MILLISECONDS.toNanos(i);
+            histograms.record("producer", "10.0.0.1:8080", millis, 0, 0, millis, 0);
+        }
+        histograms.record("producer", null, TimeUnit.MINUTES.toNanos(5), 0, 0, 0, 0);
+
+        Map<String, Object> snapshot = histograms.snapshot();
+        Map<String, Object> instances = (Map<String, Object>) snapshot.get("producer");
+        Map<String, Object> phases = (Map<String, Object>) instances.get("10.0.0.1:8080");
+        Map<String, Object> upstream = (Map<String, Object>) phases.get("upstream");
+        assertEquals(1000L, upstream.get("count"));
+        assertEquals(500, (Double) upstream.get("p50"), 5);
+        assertEquals(990, (Double) upstream.get("p99"), 10);
+
+        Map<String, Object> local = (Map<String, Object>) instances.get(LatencyHistograms.NO_INSTANCE);
+        Map<String, Object> total = (Map<String, Object>) local.get("total");
+        assertTrue((Double) total.get("max") <= 61000);
+
+        // 再次读取时累计结果不变
+        phases = (Map<String, Object>) ((Map<String, Object>) histograms.snapshot().get("producer")).get("10.0.0.1:8080");
+        assertEquals(1000L, ((Map<String, Object>) phases.get("upstream")).get("count"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.core.netty;
+
+import com.example.core.security.PrincipalHeaderSigner;
+import com.example.core.security.TokenAuthenticator;
+import com.example.core.security.TokenPrincipal;
+import com.example.core.security.TokenValidationCache;
+import com.sun.net.httpserver.HttpServer;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.netflix.zuul.filters.SimpleRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 非阻塞路由模式测试
+ * 上游服务使用 JDK 自带的 HttpServer 模拟
+ */
+public class NettyRoutingServerTest {
+
+    private HttpServer upstream;
+    private NettyRoutingServer server;
+    private ExecutorService loader;
+
+    @Before
+    public void setUp() throws Exception {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext("/", exchange -> {
+            String principal = exchange.getRequestHeaders().getFirst("X-Auth-Principal");
+            byte[] body = (exchange.getRequestURI() + "|" + (principal != null)).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+
+        ZuulProperties zuulProperties = new ZuulProperties();
+        zuulProperties.getRoutes().put("producer", new ZuulProperties.ZuulRoute("producer", "/producer/**", null,
+                "http://127.0.0.1:" + upstream.getAddress().getPort(), true, null, Collections.<String>emptySet()));
+        zuulProperties.getRoutes().put("auth", new ZuulProperties.ZuulRoute("auth", "/auth/**", null,
+                "http://127.0.0.1:" + upstream.getAddress().getPort(), true, null, Collections.<String>emptySet()));
+        SimpleRouteLocator routeLocator = new SimpleRouteLocator("/", zuulProperties);
+
+        loader = Executors.newSingleThreadExecutor();
+        TokenValidationCache cache = new TokenValidationCache(
+                token -> "good".equals(token) ? new TokenPrincipal("admin", Collections.singletonList("ROLE_ADMIN")) : null,
+                loader, 100, 60, 60, TimeUnit.SECONDS);
+
+        NioEventLoopGroup workers = new NioEventLoopGroup(2);
+        NettyUpstreamClient client = new NettyUpstreamClient(workers, 1000, 2000, 65536, 8);
+        RoutingHandler handler = new RoutingHandler(routeLocator, zuulProperties, null, client,
+                new TokenAuthenticator(cache, 1000, Collections.singletonList("auth")),
+                new PrincipalHeaderSigner("netty-routing-test-secret-0123456789"), "X-Auth-Principal");
+        server = new NettyRoutingServer(new NioEventLoopGroup(1), workers, handler, client, 0, 65536);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+        upstream.stop(0);
+        loader.shutdownNow();
+    }
+
+    @Test
+    public void rejectsRequestsWithoutAuthorization() throws Exception {
+        assertEquals(401, call("/producer/appInfo", null).status);
+    }
+
+    @Test
+    public void rejectsInvalidBearerToken() throws Exception {
+        assertEquals(401, call("/producer/appInfo", "Bearer bad").status);
+    }
+
+    @Test
+    public void proxiesValidBearerTokenWithSignedPrincipal() throws Exception {
+        Response response = call("/producer/appInfo?x=1", "Bearer good");
+        assertEquals(200, response.status);
+        assertEquals("/appInfo?x=1|true", response.body);
+    }
+
+    @Test
+    public void acceptsBearerSchemeInAnyCase() throws Exception {
+        Response response = call("/producer/appInfo", "bearer  good ");
+        assertEquals(200, response.status);
+        assertEquals("/appInfo|true", response.body);
+    }
+
+    @Test
+    public void proxiesOtherSchemesWithoutPrincipalOnAllowedRoutes() throws Exception {
+        Response response = call("/auth/oauth/token", "Basic YW5kcm9pZDphbmRyb2lk");
+        assertEquals(200, response.status);
+        assertEquals("/oauth/token|false", response.body);
+    }
+
+    @Test
+    public void rejectsOtherSchemesOnTokenRoutes() throws Exception {
+        assertEquals(401, call("/producer/resources/hello", "Basic YW5kcm9pZDphbmRyb2lk").status);
+        assertEquals(401, call("/producer/resources/hello", "Bearerjunk").status);
+        assertEquals(401, call("/producer/resources/hello", "Bearer ").status);
+    }
+
+    @Test
+    public void returnsNotFoundForUnknownRoute() throws Exception {
+        assertEquals(404, call("/unknown/path", "Bearer good").status);
+    }
+
+    private Response call(String path, String authorization) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        if (authorization != null) {
+            connection.setRequestProperty("Authorization", authorization);
+        }
+        Response response = new Response();
+        response.status = connection.getResponseCode();
+        InputStream in = response.status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        response.body = in == null ? "" : StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        return response;
+    }
+
+    private static class Response {
+        int status;
+        String body;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.core.pool;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 按路由隔离的连接池测试
+ * 上游用只接受连接的 ServerSocket 模拟，统计建立的 TCP 连接数
+ */
+public class RouteConnectionPoolTest {
+
+    private ServerSocket upstream;
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final List<Socket> sockets = new ArrayList<>();
+    private RouteConnectionPool pool;
+
+    @Before
+    public void setUp() throws IOException {
+        upstream = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            while (!upstream.isClosed()) {
+                try {
+                    Socket socket = upstream.accept();
+                    synchronized (sockets) {
+                        sockets.add(socket);
+                    }
+                    accepted.incrementAndGet();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager();
+        manager.setMaxTotal(4);
+        manager.setDefaultMaxPerRoute(2);
+        pool = new RouteConnectionPool("producer-service", manager, 50);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        upstream.close();
+        synchronized (sockets) {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    private HttpHost target() {
+        return new HttpHost("127.0.0.1", upstream.getLocalPort(), "http");
+    }
+
+    @Test
+    public void warmupOpensConnectionsThatStayInThePool() throws Exception {
+        assertEquals(2, pool.warmup(target(), false, 2, 1000));
+        assertEquals(2, pool.getStats().getAvailable());
+        assertEquals(0, pool.warmup(target(), false, 2, 1000));
+        assertEquals(2, pool.getWarmedConnections());
+
+        HttpClientConnection connection = pool.requestConnection(new HttpRoute(target()), null).get(0, TimeUnit.MILLISECONDS);
+        assertTrue(connection.isOpen());
+        pool.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+        Thread.sleep(50);
+        assertEquals(2, accepted.get());
+    }
+
+    @Test
+    public void leaseWaitIsBoundedWhenThePoolIsExhausted() throws Exception {
+        HttpRoute route = new HttpRoute(target());
+        pool.requestConnection(route, null).get(0, TimeUnit.MILLISECONDS);
+        pool.requestConnection(route, null).get(0, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        try {
+            pool.requestConnection(route, null).get(0, TimeUnit.MILLISECONDS);
+            fail("pool should be exhausted");
+        } catch (ConnectionPoolTimeoutException expected) {
+            // 0 表示不限等待时间，实际等待被限制为 50ms
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(2, pool.getLeases());
+        assertEquals(1, pool.getLeaseTimeouts());
+        assertTrue(pool.getMaxWaitMillis() >= 40);
+    }
+
+    @Test
+    public void evictClosesIdleConnections() throws Exception {
+        pool.warmup(target(), false, 2, 1000);
+        Thread.sleep(1100);
+        pool.evict(1);
+        assertEquals(0, pool.getStats().getAvailable());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.core.ratelimit;
+
+import com.example.core.config.RateLimitProperties;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 限流器注册表测试
+ */
+public class RateLimiterRegistryTest {
+
+    @Test
+    public void newClientEvictsLeastRecentlyUsedOnceFull() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxClientsPerRoute(2);
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setRatePerSecond(1);
+        limit.setBurst(1);
+        RateLimiterRegistry registry = new RateLimiterRegistry(properties);
+
+        assertEquals(0, registry.tryAcquire("producer", "user:a", limit, 0));
+        assertEquals(0, registry.tryAcquire("producer", "user:b", limit, 0));
+        // a 继续请求（被拒绝也算访问），b 成为最久未访问的客户端
+        assertTrue(registry.tryAcquire("producer", "user:a", limit, 0) > 0);
+        assertEquals(0, registry.tryAcquire("producer", "user:c", limit, 0));
+        assertEquals(0, registry.tryAcquire("producer", "user:d", limit, 0));
+        assertEquals(2, registry.getClientCount("producer"));
+        assertEquals(2, registry.getEvicted());
+    }
+
+    @Test
+    public void aggressiveClientDoesNotStarveNewcomers() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxClientsPerRoute(1);
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setRatePerSecond(1);
+        limit.setBurst(1);
+        RateLimiterRegistry registry = new RateLimiterRegistry(properties);
+
+        registry.tryAcquire("producer", "user:a", limit, 0);
+        for (int i = 0; i < 100; i++) {
+            registry.tryAcquire("producer", "user:a", limit, 0);
+        }
+        assertEquals(0, registry.tryAcquire("producer", "user:b", limit, 0));
+    }
+
+    @Test
+    public void changedLimitRebuildsBucket() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setRatePerSecond(1);
+        limit.setBurst(1);
+        RateLimiterRegistry registry = new RateLimiterRegistry(properties);
+
+        assertEquals(0, registry.tryAcquire("producer", "user:a", limit, 0));
+        assertTrue(registry.tryAcquire("producer", "user:a", limit, 0) > 0);
+        // 配置刷新后同一个 Limit 对象被重新绑定
+        limit.setBurst(10);
+        assertEquals(0, registry.tryAcquire("producer", "user:a", limit, 0));
+        assertEquals(1, registry.getClientCount("producer"));
+    }
+
+    @Test
+    public void purgeFreesSlotsForNewClients() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxClientsPerRoute(1);
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setRatePerSecond(1000);
+        limit.setBurst(1);
+        RateLimiterRegistry registry = new RateLimiterRegistry(properties);
+
+        long start = System.nanoTime() - TimeUnit.SECONDS.toNanos(1);
+        registry.tryAcquire("producer", "user:a", limit, start);
+        registry.purge();
+        assertEquals(0, registry.getClientCount("producer"));
+        assertEquals(0, registry.tryAcquire("producer", "user:b", limit, System.nanoTime()));
+        assertEquals(1, registry.getClientCount("producer"));
+        assertEquals(0, registry.getEvicted());
+    }
+}
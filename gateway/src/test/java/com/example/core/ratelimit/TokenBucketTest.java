@@ -0,0 +1,65 @@
+package com.example.core.ratelimit;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 令牌桶测试
+ */
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void allowsBurstThenRejects() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+        long wait = bucket.tryAcquire(0);
+        assertTrue(wait > 0 && wait <= SECOND / 10);
+    }
+
+    @Test
+    public void refillsAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(SECOND / 20) > 0);
+        assertEquals(0, bucket.tryAcquire(SECOND / 10));
+    }
+
+    @Test
+    public void reportsFullAfterIdle() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        bucket.tryAcquire(0);
+        assertFalse(bucket.isFull(0));
+        assertTrue(bucket.isFull(SECOND));
+    }
+
+    @Test
+    public void concurrentAcquiresNeverExceedBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(0.001, 100, 0);
+        AtomicInteger granted = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(0) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(100, granted.get());
+    }
+}
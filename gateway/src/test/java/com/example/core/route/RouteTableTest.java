@@ -0,0 +1,130 @@
+package com.example.core.route;
+
+import org.junit.Test;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.discovery.SimpleServiceRouteMapper;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 路由表测试
+ */
+public class RouteTableTest {
+
+    private static ZuulProperties zuul(String... idsAndPaths) {
+        ZuulProperties properties = new ZuulProperties();
+        for (int i = 0; i < idsAndPaths.length; i += 2) {
+            properties.getRoutes().put(idsAndPaths[i], new ZuulProperties.ZuulRoute(idsAndPaths[i], idsAndPaths[i + 1],
+                    idsAndPaths[i] + "-service", null, true, null, null));
+        }
+        properties.init();
+        return properties;
+    }
+
+    @Test
+    public void matchesTheSameRouteAsAntPathMatcherInOrder() {
+        List<String> patterns = Arrays.asList("/auth/**", "/auth/admin/**", "/producer/orders", "/producer/*",
+                "/users/{id}/**", "/static/*.js", "/a/b/c/**", "/**/health", "/**");
+        List<String> paths = Arrays.asList("/auth", "/auth/", "/auth/admin/x", "/authx", "/producer/orders",
+                "/producer/orders/", "/producer/items", "/producer/", "/producer/a/b", "/users/42/orders", "/users",
+                "/static/app.js", "/static/app.css", "/a/b/c", "/a/b", "//auth//token", "/x/health", "/", "");
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (String pattern : patterns) {
+            entries.put(pattern, pattern);
+        }
+        PathPatternIndex<String> index = PathPatternIndex.compile(entries);
+        AntPathMatcher matcher = new AntPathMatcher();
+        for (String path : paths) {
+            String expected = null;
+            for (String pattern : patterns) {
+                if (matcher.match(pattern, path)) {
+                    expected = pattern;
+                    break;
+                }
+            }
+            assertEquals(path, expected, index.match(path));
+        }
+    }
+
+    @Test
+    public void ignoredPatternsHideRoutes() {
+        ZuulProperties properties = zuul("auth", "/auth/**");
+        properties.getIgnoredPatterns().add("/**/admin/**");
+        RouteTable table = RouteTable.compile(1, locate(properties), properties.getIgnoredPatterns());
+        assertNotNull(table.match("/auth/token"));
+        assertNull(table.match("/auth/admin/users"));
+    }
+
+    @Test
+    public void reloadSwapsTheWholeTableAndDropsRemovedRoutes() {
+        AtomicReference<ZuulProperties> source = new AtomicReference<>(zuul("auth", "/auth/**", "producer", "/producer/**"));
+        RouteTableLocator locator = locator(source);
+
+        Route route = locator.getMatchingRoute("/producer/orders/1");
+        assertEquals("producer", route.getId());
+        assertEquals("/orders/1", route.getPath());
+        RouteTable first = locator.getTable();
+        assertEquals(1, first.getVersion());
+
+        // 配置没有变化时保留原来的路由表
+        source.set(zuul("auth", "/auth/**", "producer", "/producer/**"));
+        locator.refresh();
+        assertSame(first, locator.getTable());
+
+        source.set(zuul("auth", "/auth/**", "orders", "/orders/**"));
+        locator.refresh();
+        assertEquals(2, locator.getTable().getVersion());
+        assertNull(locator.getMatchingRoute("/producer/orders/1"));
+        assertEquals("orders", locator.getMatchingRoute("/orders/1").getId());
+        assertEquals(2, locator.getRoutes().size());
+        // 旧的路由表不受影响
+        assertNotNull(first.match("/producer/orders/1"));
+    }
+
+    @Test
+    public void failedReloadKeepsTheCurrentTable() {
+        AtomicReference<ZuulProperties> source = new AtomicReference<>(zuul("auth", "/auth/**"));
+        RouteTableLocator locator = locator(source);
+        RouteTable first = locator.getTable();
+        source.set(null);
+        locator.refresh();
+        assertSame(first, locator.getTable());
+        assertEquals("auth", locator.getMatchingRoute("/auth/token").getId());
+    }
+
+    @Test
+    public void lookupDoesNotDependOnTheNumberOfRoutes() {
+        Map<String, ZuulProperties.ZuulRoute> routes = new LinkedHashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            routes.put("/service" + i + "/**", new ZuulProperties.ZuulRoute("service" + i, "/service" + i + "/**",
+                    "service" + i, null, true, null, null));
+        }
+        RouteTable table = RouteTable.compile(1, routes, Arrays.<String>asList());
+        assertEquals("service4999", table.match("/service4999/orders/1").getId());
+        assertEquals("service0", table.match("/service0").getId());
+        assertNull(table.match("/service5000/orders"));
+    }
+
+    private static RouteTableLocator locator(AtomicReference<ZuulProperties> source) {
+        return new RouteTableLocator("/", null, new ZuulProperties(), new SimpleServiceRouteMapper(), null, source::get);
+    }
+
+    private static Map<String, ZuulProperties.ZuulRoute> locate(ZuulProperties properties) {
+        Map<String, ZuulProperties.ZuulRoute> routes = new LinkedHashMap<>();
+        for (ZuulProperties.ZuulRoute route : properties.getRoutes().values()) {
+            routes.put(route.getPath(), route);
+        }
+        return routes;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.core.security;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Bearer 令牌解析测试
+ */
+public class BearerTokensTest {
+
+    @Test
+    public void schemeIsCaseInsensitive() {
+        assertEquals("abc", BearerTokens.extract("Bearer abc"));
+        assertEquals("abc", BearerTokens.extract("bearer abc"));
+        assertEquals("abc", BearerTokens.extract("BEARER   abc \t"));
+    }
+
+    @Test
+    public void rejectsOtherSchemesAndEmptyTokens() {
+        assertNull(BearerTokens.extract(null));
+        assertNull(BearerTokens.extract("Basic YW5kcm9pZDphbmRyb2lk"));
+        assertNull(BearerTokens.extract("Bearerabc"));
+        assertNull(BearerTokens.extract("Bearer "));
+        assertNull(BearerTokens.extract("Bearer    "));
+        assertEquals(-1, BearerTokens.begin("Bearer"));
+    }
+
+    @Test
+    public void returnsTokenRange() {
+        String header = "Bearer  abc  ";
+        assertEquals(8, BearerTokens.begin(header));
+        assertEquals(11, BearerTokens.end(header));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.core.security;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * 签名用户头生成测试
+ */
+public class PrincipalHeaderSignerTest {
+
+    private final PrincipalHeaderSigner signer = new PrincipalHeaderSigner("principal-header-test-secret-0123456789");
+
+    @Test
+    public void bindsHeaderToAccessToken() {
+        TokenPrincipal principal = new TokenPrincipal("admin", Arrays.asList("ROLE_ADMIN", "ROLE_USER"));
+        String header = signer.sign(principal, "token-a", 1000L);
+        String payload = new String(Base64.getUrlDecoder().decode(header.substring(0, header.indexOf('.'))), StandardCharsets.UTF_8);
+        assertArrayEquals(new String[]{"admin", "ROLE_ADMIN,ROLE_USER", "1000", PrincipalHeaderSigner.tokenHash("token-a")},
+                payload.split("\n", -1));
+        assertNotEquals(header, signer.sign(principal, "token-b", 1000L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMissingSecret() {
+        new PrincipalHeaderSigner("");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPlaceholderSecret() {
+        new PrincipalHeaderSigner("change-me-train-ticket-0123456789abcdef");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsShortSecret() {
+        new PrincipalHeaderSigner("too-short");
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.core.security;
+
+import com.example.core.revocation.InProcessBus;
+import com.example.core.revocation.RevokedTokenFilter;
+import com.example.core.revocation.RevokedTokens;
+import com.example.core.revocation.TokenRevokedEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 已撤销令牌过滤器测试，消息总线使用进程内替身，事件为认证服务发出的 JSON
+ */
+public class RevokedTokensTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final Set<String> revoked = ConcurrentHashMap.newKeySet();     // 认证服务中已撤销的令牌
+    private final AtomicInteger introspections = new AtomicInteger();
+    private final AtomicInteger snapshots = new AtomicInteger();
+    private final AtomicReference<Map<String, Object>> snapshot = new AtomicReference<>();
+    private InProcessBus bus;
+    private RevokedTokens revokedTokens;
+    private TokenValidationCache cache;
+
+    @Before
+    public void setUp() {
+        snapshot.set(RevokedTokenFilter.forCapacity(10000, 0.01).toSnapshot(0));
+        revokedTokens = new RevokedTokens(() -> {
+            snapshots.incrementAndGet();
+            return snapshot.get();
+        }, TimeUnit.MINUTES.toMillis(5));
+        revokedTokens.maintain();
+        cache = new TokenValidationCache(token -> {
+            introspections.incrementAndGet();
+            return revoked.contains(token) ? null : new TokenPrincipal("admin", Collections.singletonList("ROLE_ADMIN"));
+        }, executor, 100, 60, 60, TimeUnit.SECONDS);
+        cache.setRevokedTokens(revokedTokens);
+        bus = new InProcessBus(TokenRevokedEvent.class);
+        bus.subscribe("api-gateway:9030", new ApplicationListener<RemoteApplicationEvent>() {
+            @Override
+            public void onApplicationEvent(RemoteApplicationEvent event) {
+                TokenRevokedEvent revocation = (TokenRevokedEvent) event;
+                revokedTokens.apply(revocation.getVersion(), revocation.getFingerprints());
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void broadcastRevocationDropsCachedToken() throws Exception {
+        String header = "Bearer token-a";
+        cache.lookup("token-a").get(1, TimeUnit.SECONDS);
+        cache.lookup("token-b").get(1, TimeUnit.SECONDS);
+        assertEquals("admin", cache.getIfPresent(header, 7, header.length()).getName());
+
+        revoked.add("token-a");
+        bus.deliver(revocation(1, "token-a"));
+
+        assertNull(cache.getIfPresent(header, 7, header.length()));
+        assertNull(cache.lookup("token-a").get(1, TimeUnit.SECONDS));
+        assertTrue(cache.isKnownInvalid(header, 7, header.length()));
+        assertEquals("admin", cache.getIfPresent("token-b").getName());
+        assertEquals(3, introspections.get());
+        assertEquals(1, revokedTokens.getVersion());
+        assertFalse(revokedTokens.hasGap());
+    }
+
+    @Test
+    public void falsePositiveIsConfirmedOncePerGeneration() throws Exception {
+        cache.lookup("token-c").get(1, TimeUnit.SECONDS);
+        // 直接置位模拟误判：令牌仍然有效
+        revokedTokens.apply(1, new long[]{RevokedTokenFilter.fingerprint("token-c")});
+
+        assertNull(cache.getIfPresent("token-c"));
+        assertEquals("admin", cache.lookup("token-c").get(1, TimeUnit.SECONDS).getName());
+        assertEquals("admin", cache.getIfPresent("token-c").getName());
+        assertEquals("admin", cache.getIfPresent("token-c").getName());
+        assertEquals(2, introspections.get());
+    }
+
+    @Test
+    public void missedVersionRefetchesSnapshot() throws Exception {
+        assertEquals(1, snapshots.get());
+        bus.deliver(revocation(1, "token-d"));
+        bus.deliver(revocation(3, "token-f"));     // 漏收版本 2
+        assertTrue(revokedTokens.hasGap());
+        assertTrue(revokedTokens.mightBeRevoked("token-f"));
+
+        RevokedTokenFilter authServer = RevokedTokenFilter.forCapacity(10000, 0.01);
+        authServer.add(RevokedTokenFilter.fingerprint("token-d"));
+        authServer.add(RevokedTokenFilter.fingerprint("token-e"));
+        snapshot.set(authServer.toSnapshot(2));
+        revokedTokens.maintain();
+
+        assertEquals(2, snapshots.get());
+        assertFalse(revokedTokens.hasGap());
+        assertEquals(3, revokedTokens.getVersion());
+        assertTrue(revokedTokens.mightBeRevoked("token-d"));
+        assertTrue(revokedTokens.mightBeRevoked("token-e"));
+        assertTrue(revokedTokens.mightBeRevoked("token-f"));    // 快照之后的增量重新应用
+        assertFalse(revokedTokens.mightBeRevoked("token-g"));
+
+        revokedTokens.maintain();
+        assertEquals(2, snapshots.get());
+    }
+
+    /**
+     * 认证服务发出的消息
+     */
+    private static String revocation(long version, String token) {
+        return "{\"type\":\"TokenRevokedEvent\",\"timestamp\":1,\"originService\":\"auth-server:9040\",\"destinationService\":\"**\","
+                + "\"id\":\"" + version + "\",\"version\":" + version + ",\"fingerprints\":[" + RevokedTokenFilter.fingerprint(token) + "]}";
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.core.security;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * 令牌认证测试：阻塞和非阻塞两种方式的结果一致
+ */
+public class TokenAuthenticatorTest {
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final TokenValidationCache cache = new TokenValidationCache(token -> {
+        if ("slow".equals(token)) {
+            release.await();
+        }
+        return "good".equals(token) ? new TokenPrincipal("admin", Collections.singletonList("ROLE_ADMIN")) : null;
+    }, loader, 100, 60, 60, TimeUnit.SECONDS);
+
+    private final TokenAuthenticator authenticator = new TokenAuthenticator(cache, 200, Collections.singletonList("auth"));
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        loader.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    @Test
+    public void acceptsValidBearerToken() throws Exception {
+        assertEquals("admin", authenticator.authenticate("bearer good", () -> "producer").getName());
+        assertEquals("admin", authenticator.authenticate("Bearer good", () -> "producer", timer).get(1, TimeUnit.SECONDS).getName());
+    }
+
+    @Test
+    public void rejectsMissingInvalidAndUnsupported() {
+        assertRejected(null, "producer", TokenRejectedException.MISSING);
+        assertRejected("Bearer bad", "producer", TokenRejectedException.INVALID);
+        assertRejected("Basic Y2xpZW50OnNlY3JldA==", "producer", TokenRejectedException.UNSUPPORTED_SCHEME);
+        assertRejected("Basic Y2xpZW50OnNlY3JldA==", null, TokenRejectedException.UNSUPPORTED_SCHEME);
+    }
+
+    @Test
+    public void otherSchemePassesOnAllowedRoute() throws Exception {
+        assertNull(authenticator.authenticate("Basic Y2xpZW50OnNlY3JldA==", () -> "auth"));
+        assertNull(authenticator.authenticate("Basic Y2xpZW50OnNlY3JldA==", () -> "auth", timer).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void slowAuthServerIsUnavailable() {
+        assertRejected("Bearer slow", "producer", TokenRejectedException.UNAVAILABLE);
+    }
+
+    @Test
+    public void withoutCacheOnlyRequiresAuthorization() throws Exception {
+        TokenAuthenticator passThrough = new TokenAuthenticator(null, 0, null);
+        assertNull(passThrough.authenticate("Basic x", () -> "producer"));
+        try {
+            passThrough.authenticate(null, () -> "producer");
+            fail();
+        } catch (TokenRejectedException e) {
+            assertSame(TokenRejectedException.MISSING, e);
+        }
+    }
+
+    private void assertRejected(String authorization, String routeId, TokenRejectedException expected) {
+        try {
+            authenticator.authenticate(authorization, () -> routeId);
+            fail();
+        } catch (TokenRejectedException e) {
+            assertSame(expected, e);
+        }
+        CompletableFuture<TokenPrincipal> future = authenticator.authenticate(authorization, () -> routeId, timer);
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(expected, e.getCause());
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
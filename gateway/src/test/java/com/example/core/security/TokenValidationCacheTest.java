@@ -0,0 +1,130 @@
+package com.example.core.security;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 令牌校验缓存测试
+ */
+public class TokenValidationCacheTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentMissesShareOneLookup() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        TokenValidationCache cache = new TokenValidationCache(token -> {
+            calls.incrementAndGet();
+            release.await();
+            return new TokenPrincipal("admin", Collections.singletonList("ROLE_ADMIN"));
+        }, executor, 100, 60, 5, TimeUnit.SECONDS);
+
+        List<CompletableFuture<TokenPrincipal>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(cache.lookup("token-a"));
+        }
+        release.countDown();
+        for (CompletableFuture<TokenPrincipal> future : futures) {
+            assertEquals("admin", future.get(1, TimeUnit.SECONDS).getName());
+        }
+        assertEquals(1, calls.get());
+
+        // 命中缓存不再访问认证服务
+        assertEquals("admin", cache.lookup("token-a").get(1, TimeUnit.SECONDS).getName());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void entriesExpireAfterTtl() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        TokenValidationCache cache = new TokenValidationCache(token -> {
+            calls.incrementAndGet();
+            return new TokenPrincipal("guest", null);
+        }, executor, 100, 20, 20, TimeUnit.MILLISECONDS);
+
+        cache.lookup("token-b").get(1, TimeUnit.SECONDS);
+        Thread.sleep(40);
+        assertNull(cache.getIfPresent("token-b"));
+        cache.lookup("token-b").get(1, TimeUnit.SECONDS);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void ttlIsCappedAtTokenExpiry() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        TokenValidationCache cache = new TokenValidationCache(token -> {
+            calls.incrementAndGet();
+            return new TokenPrincipal("guest", null, System.currentTimeMillis() + 20);
+        }, executor, 100, 60, 60, TimeUnit.SECONDS);
+
+        assertEquals("guest", cache.lookup("token-e").get(1, TimeUnit.SECONDS).getName());
+        assertEquals("guest", cache.getIfPresent("token-e").getName());
+        Thread.sleep(40);
+        assertNull(cache.getIfPresent("token-e"));
+        cache.lookup("token-e").get(1, TimeUnit.SECONDS);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void invalidTokensAreCachedNegatively() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        TokenValidationCache cache = new TokenValidationCache(token -> {
+            calls.incrementAndGet();
+            return null;
+        }, executor, 100, 60, 60, TimeUnit.SECONDS);
+
+        assertNull(cache.lookup("bad").get(1, TimeUnit.SECONDS));
+        assertNull(cache.lookup("bad").get(1, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void sizeIsBounded() throws Exception {
+        TokenValidationCache cache = new TokenValidationCache(token -> new TokenPrincipal(token, null),
+                executor, 10, 60, 60, TimeUnit.SECONDS);
+        for (int i = 0; i < 100; i++) {
+            cache.lookup("token-" + i).get(1, TimeUnit.SECONDS);
+        }
+        assertTrue(cache.size() <= 10);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntries() throws Exception {
+        TokenValidationCache cache = new TokenValidationCache(token -> new TokenPrincipal(token, null),
+                executor, 10, 60, 60, TimeUnit.SECONDS);
+        for (int i = 0; i < 10; i++) {
+            cache.lookup("token-" + i).get(1, TimeUnit.SECONDS);
+        }
+        // 访问时间按秒更新
+        Thread.sleep(1100);
+        assertEquals("token-0", cache.getIfPresent("token-0").getName());
+        for (int i = 10; i < 15; i++) {
+            cache.lookup("token-" + i).get(1, TimeUnit.SECONDS);
+        }
+        assertEquals("token-0", cache.getIfPresent("token-0").getName());
+        for (int i = 1; i <= 5; i++) {
+            assertNull(cache.getIfPresent("token-" + i));
+        }
+        assertEquals(10, cache.size());
+    }
+}
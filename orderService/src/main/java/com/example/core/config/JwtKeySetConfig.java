@@ -0,0 +1,73 @@
+package com.example.core.config;
+
+import com.example.core.security.JwkSetCache;
+import com.example.core.security.JwtKeySetTokenServices;
+import com.example.core.security.RevokedTokenCheck;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 本地校验配置
+ * 启用 security.jwt-key-set 后注册 JwtKeySetTokenServices，资源服务自动配置的 UserInfoTokenServices 不再创建，
+ * 访问令牌按 kid 用缓存的公钥在本地校验；公钥缓存的条目数、拉取次数和被限流的未知 kid 次数通过 /metrics 暴露
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "security.jwt-key-set", name = "enabled")
+@EnableConfigurationProperties(JwtKeySetProperties.class)
+public class JwtKeySetConfig {
+
+    @Autowired
+    private JwtKeySetProperties properties;     // JWT 公钥集合配置
+
+    /**
+     * 公钥集合缓存
+     * @return 公钥集合缓存对象
+     */
+    @Bean
+    public JwkSetCache jwkSetCache() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getConnectTimeoutMillis());
+        requestFactory.setReadTimeout(properties.getReadTimeoutMillis());
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        String uri = properties.getUri();
+        return new JwkSetCache(() -> restTemplate.getForObject(uri, String.class),
+                TimeUnit.SECONDS.toMillis(properties.getRefreshSeconds()),
+                TimeUnit.SECONDS.toMillis(properties.getMinRefetchSeconds()));
+    }
+
+    /**
+     * 本地校验 JWT 的令牌服务
+     * @param revokedTokenCheck 已撤销令牌检查（TokenRevocationConfig，未启用时为空）
+     * @return 令牌服务对象
+     */
+    @Bean
+    public JwtKeySetTokenServices jwtKeySetTokenServices(ObjectProvider<RevokedTokenCheck> revokedTokenCheck) {
+        JwtKeySetTokenServices tokenServices = new JwtKeySetTokenServices(jwkSetCache());
+        tokenServices.setRevokedTokenCheck(revokedTokenCheck.getIfAvailable());
+        return tokenServices;
+    }
+
+    /**
+     * 公钥集合缓存指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics jwkSetMetrics() {
+        JwkSetCache cache = jwkSetCache();
+        return () -> Arrays.<Metric<?>>asList(
+                new Metric<>("security.jwt-key-set.keys", cache.size()),
+                new Metric<>("security.jwt-key-set.fetches", cache.getFetches()),
+                new Metric<>("security.jwt-key-set.rate-limited", cache.getRateLimited()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * JWT 公钥集合配置
+ * 对应 security.jwt-key-set 前缀，启用后访问令牌按 kid 用缓存的公钥在本地校验，不再访问 user-info-uri
+ */
+@ConfigurationProperties(prefix = "security.jwt-key-set")
+public class JwtKeySetProperties {
+    private boolean enabled = false;                                    // 是否在本地校验 JWT 访问令牌
+    private String uri = "http://localhost:9040/oauth/token_keys";      // 授权服务器的公钥集合地址
+    private long refreshSeconds = 300;                                  // 公钥集合的刷新间隔（秒）
+    private long minRefetchSeconds = 10;                                // 两次拉取之间的最小间隔（秒），限制未知 kid 触发的拉取
+    private int connectTimeoutMillis = 2000;                            // 连接超时（毫秒）
+    private int readTimeoutMillis = 2000;                               // 读取超时（毫秒）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public long getRefreshSeconds() {
+        return refreshSeconds;
+    }
+
+    public void setRefreshSeconds(long refreshSeconds) {
+        this.refreshSeconds = refreshSeconds;
+    }
+
+    public long getMinRefetchSeconds() {
+        return minRefetchSeconds;
+    }
+
+    public void setMinRefetchSeconds(long minRefetchSeconds) {
+        this.minRefetchSeconds = minRefetchSeconds;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public void setReadTimeoutMillis(int readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+}
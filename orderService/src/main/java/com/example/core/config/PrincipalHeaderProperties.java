@@ -0,0 +1,47 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 签名用户头配置
+ * 对应 security.principal-header 前缀，密钥需与网关一致
+ */
+@ConfigurationProperties(prefix = "security.principal-header")
+public class PrincipalHeaderProperties {
+    private boolean enabled = false;            // 是否信任网关的签名用户头
+    private String name = "X-Auth-Principal";   // 请求头名称
+    private String secret;                      // 签名密钥
+    private long maxAgeSeconds = 30;            // 签名头的最长有效时间（秒）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    public void setMaxAgeSeconds(long maxAgeSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+}
@@ -1,28 +1,56 @@
 package com.example.core.config;
 
+import com.example.core.security.SignedPrincipalFilter;
+import com.example.core.security.SignedPrincipalTokenExtractor;
+import com.example.core.security.SignedPrincipalVerifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.ResourceServerConfigurerAdapter;
+import org.springframework.security.oauth2.config.annotation.web.configurers.ResourceServerSecurityConfigurer;
+import org.springframework.security.web.authentication.preauth.AbstractPreAuthenticatedProcessingFilter;
 
 import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 资源服务配置
  * @ EnableResourceServer 启用资源服务
  * @ EnableWebSecurity 启用web安全
  * @ EnableGlobalMethodSecurity 启用全局方法安全注解，就可以在方法上使用注解来对请求进行过滤
+ * 启用 security.principal-header 后，带有网关签名用户头的请求在本地校验签名完成认证，不再访问 user-info-uri
+ * 启用 security.jwt-key-set 后，Bearer 令牌由 JwtKeySetTokenServices 在本地校验（见 JwtKeySetConfig）
  */
 @Configuration
 @EnableResourceServer
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(prePostEnabled = true)
+@EnableConfigurationProperties(PrincipalHeaderProperties.class)
 public class ResourceServerConfig extends ResourceServerConfigurerAdapter {
 
+    @Autowired
+    private PrincipalHeaderProperties principalHeaderProperties;    // 签名用户头配置
+
+    @Override
+    public void configure(ResourceServerSecurityConfigurer resources) throws Exception {
+        if (principalHeaderProperties.isEnabled()) {
+            resources.tokenExtractor(new SignedPrincipalTokenExtractor(principalHeaderProperties.getName()));
+        }
+    }
+
     @Override
     public void configure(HttpSecurity http) throws Exception {
+        if (principalHeaderProperties.isEnabled()) {
+            SignedPrincipalVerifier verifier = new SignedPrincipalVerifier(principalHeaderProperties.getSecret(),
+                    TimeUnit.SECONDS.toMillis(principalHeaderProperties.getMaxAgeSeconds()));
+            // OAuth2 认证过滤器位于 AbstractPreAuthenticatedProcessingFilter 之前，签名头过滤器排在其后
+            http.addFilterAfter(new SignedPrincipalFilter(verifier, principalHeaderProperties.getName()),
+                    AbstractPreAuthenticatedProcessingFilter.class);
+        }
         http.csrf().disable().exceptionHandling()
                 .authenticationEntryPoint((request, response, authException) -> response.sendError(HttpServletResponse.SC_UNAUTHORIZED))
                 .and()
@@ -0,0 +1,133 @@
+package com.example.core.config;
+
+import com.example.core.revocation.RevokedTokens;
+import com.example.core.revocation.TokenRevokedEvent;
+import com.example.core.security.RevokedTokenCheck;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已撤销令牌过滤器配置
+ * 本地校验 JWT（security.jwt-key-set）时，签名有效的令牌不会访问授权服务器，撤销需要单独处理：
+ * 启动时拉取授权服务器的完整快照，之后接收消息总线上的 TokenRevokedEvent 增量，
+ * 过滤器命中的令牌通过 confirm-uri 向授权服务器确认；确认和拒绝次数通过 /metrics 暴露
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "security", name = {"jwt-key-set.enabled", "token-revocation.enabled"})
+@EnableConfigurationProperties(TokenRevocationProperties.class)
+@RemoteApplicationEventScan(basePackageClasses = TokenRevokedEvent.class)
+public class TokenRevocationConfig {
+
+    @Autowired
+    private TokenRevocationProperties properties;   // 过滤器配置
+
+    /**
+     * 访问授权服务器的请求模板
+     * @return 请求模板
+     */
+    @Bean
+    public RestTemplate revocationRestTemplate() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getConnectTimeoutMillis());
+        requestFactory.setReadTimeout(properties.getReadTimeoutMillis());
+        return new RestTemplate(requestFactory);
+    }
+
+    /**
+     * 已撤销令牌过滤器
+     * @return 过滤器
+     */
+    @Bean
+    @SuppressWarnings("unchecked")
+    public RevokedTokens revokedTokens() {
+        RestTemplate restTemplate = revocationRestTemplate();
+        String uri = properties.getSnapshotUri();
+        return new RevokedTokens(() -> restTemplate.getForObject(uri, Map.class),
+                TimeUnit.SECONDS.toMillis(properties.getRefreshSeconds()));
+    }
+
+    /**
+     * 已撤销令牌检查，过滤器命中时用令牌访问 confirm-uri，401 表示令牌已失效
+     * @return 检查对象
+     */
+    @Bean
+    public RevokedTokenCheck revokedTokenCheck() {
+        RestTemplate restTemplate = revocationRestTemplate();
+        String uri = properties.getConfirmUri();
+        return new RevokedTokenCheck(revokedTokens(), accessToken -> {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken);
+            try {
+                restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+                return true;
+            } catch (HttpClientErrorException e) {
+                if (e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
+                    return false;
+                }
+                throw e;
+            }
+        }, properties.getMaxConfirmed());
+    }
+
+    /**
+     * 定时检查版本号是否连续，必要时重新拉取快照（启动后立即拉取第一次）
+     * @return 定时任务线程池
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService revokedTokensScheduler() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("revoked-tokens-"));
+        scheduler.scheduleWithFixedDelay(revokedTokens()::maintain, 0, properties.getCheckSeconds(), TimeUnit.SECONDS);
+        return scheduler;
+    }
+
+    /**
+     * 接收授权服务器广播的撤销增量（使用匿名类，以便按泛型参数只接收 TokenRevokedEvent）
+     * @return 事件监听者
+     */
+    @Bean
+    public ApplicationListener<TokenRevokedEvent> tokenRevokedListener() {
+        RevokedTokens revokedTokens = revokedTokens();
+        return new ApplicationListener<TokenRevokedEvent>() {
+            @Override
+            public void onApplicationEvent(TokenRevokedEvent event) {
+                revokedTokens.apply(event.getVersion(), event.getFingerprints());
+            }
+        };
+    }
+
+    /**
+     * 过滤器指标
+     * @return 指标
+     */
+    @Bean
+    public PublicMetrics tokenRevocationMetrics() {
+        RevokedTokens revokedTokens = revokedTokens();
+        RevokedTokenCheck check = revokedTokenCheck();
+        return () -> Arrays.<Metric<?>>asList(
+                new Metric<>("security.token-revocation.version", revokedTokens.getVersion()),
+                new Metric<>("security.token-revocation.refreshes", revokedTokens.getRefreshes()),
+                new Metric<>("security.token-revocation.confirmations", check.getConfirmations()),
+                new Metric<>("security.token-revocation.rejected", check.getRejected()));
+    }
+}
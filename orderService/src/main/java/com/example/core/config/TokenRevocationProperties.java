@@ -0,0 +1,83 @@
+package com.example.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 已撤销令牌过滤器配置
+ * 对应 security.token-revocation 前缀，与 security.jwt-key-set 同时启用时生效
+ */
+@ConfigurationProperties(prefix = "security.token-revocation")
+public class TokenRevocationProperties {
+    private boolean enabled = true;                                         // 是否接收令牌撤销广播
+    private String snapshotUri = "http://localhost:9040/oauth/revocations"; // 授权服务器的完整快照地址
+    private String confirmUri = "http://localhost:9040/user";               // 过滤器命中时确认令牌是否有效的地址
+    private long checkSeconds = 5;                                          // 检查版本号是否连续的间隔（秒）
+    private long refreshSeconds = 300;                                      // 快照的最长使用时间（秒）
+    private int maxConfirmed = 10000;                                       // 最多记录的误判令牌数
+    private int connectTimeoutMillis = 2000;                                // 连接超时（毫秒）
+    private int readTimeoutMillis = 2000;                                   // 读取超时（毫秒）
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getSnapshotUri() {
+        return snapshotUri;
+    }
+
+    public void setSnapshotUri(String snapshotUri) {
+        this.snapshotUri = snapshotUri;
+    }
+
+    public String getConfirmUri() {
+        return confirmUri;
+    }
+
+    public void setConfirmUri(String confirmUri) {
+        this.confirmUri = confirmUri;
+    }
+
+    public long getCheckSeconds() {
+        return checkSeconds;
+    }
+
+    public void setCheckSeconds(long checkSeconds) {
+        this.checkSeconds = checkSeconds;
+    }
+
+    public long getRefreshSeconds() {
+        return refreshSeconds;
+    }
+
+    public void setRefreshSeconds(long refreshSeconds) {
+        this.refreshSeconds = refreshSeconds;
+    }
+
+    public int getMaxConfirmed() {
+        return maxConfirmed;
+    }
+
+    public void setMaxConfirmed(int maxConfirmed) {
+        this.maxConfirmed = maxConfirmed;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public void setReadTimeoutMillis(int readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+}
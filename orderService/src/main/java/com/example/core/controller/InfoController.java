@@ -2,9 +2,13 @@ package com.example.core.controller;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * 读取配置中心的配置测试控制器
  * @ RefreshScope 注解会在配置中心配置改变的时候 手动访问本项目的/refresh路径，就会实现自动刷新配置文件，重新加载配置文件中的数据
@@ -17,10 +21,15 @@ public class InfoController {
 
     /**
      * 输出 变量值
+     * 配置只在刷新时变化，允许网关按 Cache-Control 缓存一小段时间
+     * 经网关的请求都带有 Authorization，需要 public 才允许网关缓存（网关的缓存键按用户区分）
      * @return 变量值
      */
     @RequestMapping("/appInfo")
-    public String info(){
-        return info;
+    public ResponseEntity<String> info(){
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(10, TimeUnit.SECONDS).cachePublic())
+                .eTag(Integer.toHexString(String.valueOf(info).hashCode()))
+                .body(info);
     }
 }
@@ -0,0 +1,143 @@
+package com.example.core.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * JWT 公钥集合缓存
+ * 按 kid 缓存授权服务器发布的 RSA 公钥（JWK Set），校验令牌时不访问授权服务器：
+ * 已知 kid 超过刷新间隔后由一个线程重新拉取（其他线程继续使用旧公钥）；
+ * 未知 kid（密钥轮换）触发一次拉取，同一时刻只有一个线程拉取，其他线程等待结果；
+ * 两次拉取之间至少间隔 minRefetchMillis，伪造 kid 的请求不会让授权服务器承受放大的流量
+ */
+public class JwkSetCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwkSetCache.class);
+
+    private final Supplier<String> source;                  // 拉取公钥集合（JSON）
+    private final long refreshMillis;                       // 公钥集合的刷新间隔
+    private final long minRefetchMillis;                    // 两次拉取之间的最小间隔
+    private final ReentrantLock fetchLock = new ReentrantLock();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LongAdder fetches = new LongAdder();      // 拉取次数
+    private final LongAdder rateLimited = new LongAdder();  // 因间隔限制未拉取的未知 kid 次数
+    private volatile Map<String, SignatureVerifier> verifiers = Collections.emptyMap();   // kid -> 公钥校验器
+    private volatile long fetchedAt = -1;                   // 上次成功拉取的时间，-1 表示从未成功
+    private volatile long attemptedAt = -1;                 // 上次尝试拉取的时间，-1 表示从未尝试
+
+    /**
+     * @param source 拉取公钥集合，返回 JWK Set JSON，失败时抛出运行时异常
+     * @param refreshMillis 公钥集合的刷新间隔（毫秒）
+     * @param minRefetchMillis 两次拉取之间的最小间隔（毫秒）
+     */
+    public JwkSetCache(Supplier<String> source, long refreshMillis, long minRefetchMillis) {
+        this.source = source;
+        this.refreshMillis = refreshMillis;
+        this.minRefetchMillis = minRefetchMillis;
+    }
+
+    /**
+     * 取 kid 对应的公钥校验器
+     * @param kid JWT 头部的 kid
+     * @param now 当前时间（毫秒）
+     * @return 公钥校验器，kid 未知且暂时不能拉取（或拉取后仍未知）时返回 null
+     */
+    public SignatureVerifier getVerifier(String kid, long now) {
+        SignatureVerifier verifier = verifiers.get(kid);
+        if (verifier != null) {
+            if (now - fetchedAt >= refreshMillis && fetchLock.tryLock()) {
+                try {
+                    if (now - fetchedAt >= refreshMillis && mayFetch(now)) {
+                        fetch(now);
+                    }
+                } finally {
+                    fetchLock.unlock();
+                }
+                return verifiers.get(kid);
+            }
+            return verifier;
+        }
+        fetchLock.lock();
+        try {
+            verifier = verifiers.get(kid);
+            if (verifier == null) {
+                if (!mayFetch(now)) {
+                    rateLimited.increment();
+                    return null;
+                }
+                fetch(now);
+                verifier = verifiers.get(kid);
+            }
+            return verifier;
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    public int size() {
+        return verifiers.size();
+    }
+
+    public long getFetches() {
+        return fetches.sum();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    private boolean mayFetch(long now) {
+        return attemptedAt < 0 || now - attemptedAt >= minRefetchMillis;
+    }
+
+    /**
+     * 拉取并替换公钥集合，失败时保留原来的公钥，只在持有 fetchLock 时调用
+     */
+    private void fetch(long now) {
+        attemptedAt = now;
+        fetches.increment();
+        try {
+            Map<String, SignatureVerifier> parsed = parse(source.get());
+            if (parsed.isEmpty()) {
+                logger.warn("JWK set contains no usable RS256 signing keys, keeping {} cached keys", verifiers.size());
+                return;
+            }
+            verifiers = parsed;
+            fetchedAt = now;
+        } catch (RuntimeException | IOException e) {
+            logger.warn("Unable to fetch JWK set, keeping {} cached keys: {}", verifiers.size(), e.toString());
+        }
+    }
+
+    /**
+     * 解析 JWK Set，只保留用于签名的 RSA 公钥
+     */
+    private Map<String, SignatureVerifier> parse(String json) throws IOException {
+        Map<String, SignatureVerifier> parsed = new HashMap<>();
+        for (JsonNode key : objectMapper.readTree(json).path("keys")) {
+            String kid = key.path("kid").asText(null);
+            if (kid == null || !"RSA".equals(key.path("kty").asText())
+                    || !"sig".equals(key.path("use").asText("sig")) || !"RS256".equals(key.path("alg").asText("RS256"))) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(key.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(key.path("e").asText()));
+            parsed.put(kid, new RsaVerifier(modulus, exponent));
+        }
+        return Collections.unmodifiableMap(parsed);
+    }
+}
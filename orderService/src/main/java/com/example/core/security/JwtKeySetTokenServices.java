@@ -0,0 +1,80 @@
+package com.example.core.security;
+
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.jwt.Jwt;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.util.JsonParser;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+
+import java.util.Map;
+
+/**
+ * 本地校验 JWT 访问令牌的令牌服务
+ * 按令牌头部的 kid 从公钥集合缓存中取公钥校验签名和过期时间，每个请求只校验一次签名，不访问授权服务器
+ * 设置了 RevokedTokenCheck 时，签名有效的令牌再检查是否已撤销（见 TokenRevocationConfig）
+ */
+public class JwtKeySetTokenServices implements ResourceServerTokenServices {
+
+    private final JwkSetCache keySet;                                               // 公钥集合缓存
+    private final AccessTokenConverter tokenConverter = new DefaultAccessTokenConverter();
+    private final JsonParser jsonParser = JsonParserFactory.create();
+    private RevokedTokenCheck revokedTokenCheck;                                    // 已撤销令牌检查（可为空）
+
+    public JwtKeySetTokenServices(JwkSetCache keySet) {
+        this.keySet = keySet;
+    }
+
+    public void setRevokedTokenCheck(RevokedTokenCheck revokedTokenCheck) {
+        this.revokedTokenCheck = revokedTokenCheck;
+    }
+
+    @Override
+    public OAuth2Authentication loadAuthentication(String accessToken) throws AuthenticationException, InvalidTokenException {
+        Map<String, Object> claims = decode(accessToken);
+        if (tokenConverter.extractAccessToken(accessToken, claims).isExpired()) {
+            throw new InvalidTokenException("Access token expired");
+        }
+        if (revokedTokenCheck != null && revokedTokenCheck.isRevoked(accessToken)) {
+            throw new InvalidTokenException("Access token revoked");
+        }
+        return tokenConverter.extractAuthentication(claims);
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String accessToken) {
+        return tokenConverter.extractAccessToken(accessToken, decode(accessToken));
+    }
+
+    private Map<String, Object> decode(String accessToken) {
+        String kid;
+        try {
+            kid = JwtHelper.headers(accessToken).get("kid");
+        } catch (RuntimeException e) {
+            throw new InvalidTokenException("Cannot decode access token", e);
+        }
+        if (kid == null) {
+            throw new InvalidTokenException("Access token has no key id");
+        }
+        SignatureVerifier verifier = keySet.getVerifier(kid, System.currentTimeMillis());
+        if (verifier == null) {
+            throw new InvalidTokenException("Unknown signing key");
+        }
+        try {
+            Jwt jwt = JwtHelper.decodeAndVerify(accessToken, verifier);
+            Map<String, Object> claims = jsonParser.parseMap(jwt.getClaims());
+            if (claims.get(AccessTokenConverter.EXP) instanceof Integer) {
+                claims.put(AccessTokenConverter.EXP, ((Integer) claims.get(AccessTokenConverter.EXP)).longValue());
+            }
+            return claims;
+        } catch (RuntimeException e) {
+            throw new InvalidTokenException("Cannot verify access token", e);
+        }
+    }
+}
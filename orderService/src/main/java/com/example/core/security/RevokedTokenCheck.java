@@ -0,0 +1,79 @@
+package com.example.core.security;
+
+import com.example.core.revocation.RevokedTokens;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 已撤销令牌检查
+ * 先查本地的已撤销令牌过滤器，一定未撤销的令牌直接通过；过滤器命中时向授权服务器确认令牌是否仍然有效，
+ * 确认失败（授权服务器不可用）按已撤销处理
+ * 误判的有效令牌记录确认时的 generation，过滤器下次变化之前不再重复确认
+ */
+public class RevokedTokenCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevokedTokenCheck.class);
+
+    private final RevokedTokens revokedTokens;                          // 已撤销令牌过滤器
+    private final Predicate<String> authServerCheck;                    // 向授权服务器确认令牌是否有效
+    private final int maxConfirmed;                                     // 最多记录的误判令牌数
+    private final ConcurrentHashMap<String, Long> confirmed = new ConcurrentHashMap<>();    // 误判令牌 -> 确认时的 generation
+    private final LongAdder confirmations = new LongAdder();            // 向授权服务器确认的次数
+    private final LongAdder rejected = new LongAdder();                 // 拒绝的令牌数
+
+    /**
+     * @param revokedTokens 已撤销令牌过滤器
+     * @param authServerCheck 向授权服务器确认令牌是否有效，令牌无效时返回 false，失败时抛出运行时异常
+     * @param maxConfirmed 最多记录的误判令牌数
+     */
+    public RevokedTokenCheck(RevokedTokens revokedTokens, Predicate<String> authServerCheck, int maxConfirmed) {
+        this.revokedTokens = revokedTokens;
+        this.authServerCheck = authServerCheck;
+        this.maxConfirmed = maxConfirmed;
+    }
+
+    /**
+     * @param accessToken 访问令牌
+     * @return 令牌是否已撤销
+     */
+    public boolean isRevoked(String accessToken) {
+        long generation = revokedTokens.generation();
+        if (!revokedTokens.mightBeRevoked(accessToken)) {
+            return false;
+        }
+        Long confirmedAt = confirmed.get(accessToken);
+        if (confirmedAt != null && confirmedAt == generation) {
+            return false;
+        }
+        confirmations.increment();
+        boolean active;
+        try {
+            active = authServerCheck.test(accessToken);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to confirm possibly revoked token: {}", e.toString());
+            active = false;
+        }
+        if (!active) {
+            confirmed.remove(accessToken);
+            rejected.increment();
+            return true;
+        }
+        if (confirmed.size() >= maxConfirmed) {
+            confirmed.clear();
+        }
+        confirmed.put(accessToken, generation);
+        return false;
+    }
+
+    public long getConfirmations() {
+        return confirmations.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
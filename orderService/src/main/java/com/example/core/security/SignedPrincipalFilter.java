@@ -0,0 +1,62 @@
+package com.example.core.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 签名用户头认证过滤器
+ * 请求带有网关签名用户头时在本地完成认证，不再访问 user-info-uri
+ * 签名无效或与请求中的 Bearer 令牌不匹配时直接返回 401
+ */
+public class SignedPrincipalFilter extends OncePerRequestFilter {
+
+    private static Logger logger = LoggerFactory.getLogger(SignedPrincipalFilter.class);
+
+    private static final String BEARER_SCHEME = "Bearer";
+
+    private final SignedPrincipalVerifier verifier;     // 签名校验器
+    private final String headerName;                    // 请求头名称
+
+    public SignedPrincipalFilter(SignedPrincipalVerifier verifier, String headerName) {
+        this.verifier = verifier;
+        this.headerName = headerName;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String value = request.getHeader(headerName);
+        if (value != null) {
+            Authentication authentication = verifier.verify(value, bearerToken(request.getHeader("Authorization")), System.currentTimeMillis());
+            if (authentication == null) {
+                logger.warn("Invalid signed principal header");
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @param authorization Authorization 请求头
+     * @return Bearer 令牌（不区分方案的大小写），不是 Bearer 令牌时返回 null
+     */
+    private static String bearerToken(String authorization) {
+        if (authorization == null || authorization.length() <= BEARER_SCHEME.length()
+                || !authorization.regionMatches(true, 0, BEARER_SCHEME, 0, BEARER_SCHEME.length())
+                || authorization.charAt(BEARER_SCHEME.length()) != ' ') {
+            return null;
+        }
+        String token = authorization.substring(BEARER_SCHEME.length() + 1).trim();
+        return token.isEmpty() ? null : token;
+    }
+}
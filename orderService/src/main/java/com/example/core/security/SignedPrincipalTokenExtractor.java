@@ -0,0 +1,27 @@
+package com.example.core.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.provider.authentication.BearerTokenExtractor;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 令牌提取器
+ * 请求带有签名用户头时不再提取 Bearer 令牌，避免 OAuth2 过滤器调用 user-info-uri
+ */
+public class SignedPrincipalTokenExtractor extends BearerTokenExtractor {
+
+    private final String headerName;    // 签名用户头名称
+
+    public SignedPrincipalTokenExtractor(String headerName) {
+        this.headerName = headerName;
+    }
+
+    @Override
+    public Authentication extract(HttpServletRequest request) {
+        if (request.getHeader(headerName) != null) {
+            return null;
+        }
+        return super.extract(request);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.core.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 签名用户头校验器
+ * 校验网关生成的签名用户头，格式：base64url(用户名 \n 角色1,角色2 \n 签发时间毫秒 \n 令牌摘要) . base64url(HmacSHA256签名)
+ * 令牌摘要必须与同一请求中 Bearer 令牌 SHA-256 的前 16 字节一致，截获的签名头不能搭配其他令牌重放
+ * 密钥缺失、少于 32 字节或仍为示例值（change-me 开头）时构造失败，服务无法启动
+ */
+public class SignedPrincipalVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final String PLACEHOLDER_PREFIX = "change-me";
+    private static final int TOKEN_HASH_BYTES = 16;
+
+    private final SecretKeySpec key;        // 签名密钥
+    private final long maxAgeMillis;        // 签名头的最长有效时间，限制重放窗口
+    private final ThreadLocal<Mac> macs;    // 每个线程复用一个 Mac 实例
+
+    public SignedPrincipalVerifier(String secret, long maxAgeMillis) {
+        if (!StringUtils.hasText(secret) || secret.trim().startsWith(PLACEHOLDER_PREFIX)) {
+            throw new IllegalArgumentException("Principal header secret is missing or a placeholder; "
+                    + "provide it through the config server or the PRINCIPAL_HEADER_SECRET environment variable");
+        }
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("Principal header secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.maxAgeMillis = maxAgeMillis;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * 校验签名头
+     * @param value 签名头的值
+     * @param accessToken 同一请求中的 Bearer 令牌（不含前缀），为空时校验失败
+     * @param now 当前时间（毫秒）
+     * @return 认证信息，签名无效、已过期或与令牌不匹配时返回 null
+     */
+    public Authentication verify(String value, String accessToken, long now) {
+        if (accessToken == null) {
+            return null;
+        }
+        int dot = value.indexOf('.');
+        if (dot <= 0 || dot == value.length() - 1) {
+            return null;
+        }
+        String payload = value.substring(0, dot);
+        byte[] signature;
+        byte[] decoded;
+        try {
+            signature = Base64.getUrlDecoder().decode(value.substring(dot + 1));
+            decoded = Base64.getUrlDecoder().decode(payload);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        byte[] expected = macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        if (!MessageDigest.isEqual(expected, signature)) {
+            return null;
+        }
+        String[] parts = new String(decoded, StandardCharsets.UTF_8).split("\n", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+        long issuedAt;
+        try {
+            issuedAt = Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (Math.abs(now - issuedAt) > maxAgeMillis) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(tokenHash(accessToken).getBytes(StandardCharsets.US_ASCII), parts[3].getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        String[] roles = StringUtils.commaDelimitedListToStringArray(parts[1]);
+        return new PreAuthenticatedAuthenticationToken(parts[0], "N/A", AuthorityUtils.createAuthorityList(roles));
+    }
+
+    /**
+     * @param accessToken 访问令牌
+     * @return 访问令牌 SHA-256 的前 16 字节（base64url，无填充），与网关 PrincipalHeaderSigner 一致
+     */
+    static String tokenHash(String accessToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, TOKEN_HASH_BYTES));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.core.security;
+
+import com.example.core.revocation.RevokedTokenFilter;
+import com.example.core.revocation.RevokedTokens;
+import org.junit.Test;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * JWT 本地校验和公钥集合缓存测试
+ */
+public class JwtKeySetTokenServicesTest {
+
+    private static final KeyPair KEY_1 = generateKeyPair();
+    private static final KeyPair KEY_2 = generateKeyPair();
+
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final AtomicReference<String> published = new AtomicReference<>(jwkSet("k1", KEY_1));
+    private final Supplier<String> source = () -> {
+        fetches.incrementAndGet();
+        return published.get();
+    };
+
+    @Test
+    public void verifiesLocallyAfterOneFetch() {
+        JwtKeySetTokenServices tokenServices = new JwtKeySetTokenServices(new JwkSetCache(source, 300000, 10000));
+        for (int i = 0; i < 10; i++) {
+            OAuth2Authentication authentication = tokenServices.loadAuthentication(token("k1", KEY_1, "alice", 60));
+            assertEquals("alice", authentication.getName());
+            assertEquals(1, authentication.getAuthorities().size());
+        }
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    public void unknownKeyIdsAreRateLimited() {
+        JwkSetCache cache = new JwkSetCache(source, 300000, 60000);
+        JwtKeySetTokenServices tokenServices = new JwtKeySetTokenServices(cache);
+        tokenServices.loadAuthentication(token("k1", KEY_1, "alice", 60));
+        for (int i = 0; i < 100; i++) {
+            assertRejected(tokenServices, token("forged-" + i, KEY_1, "mallory", 60));
+        }
+        // 距上次拉取不到最小间隔，伪造的 kid 都不会触发拉取
+        assertEquals(1, fetches.get());
+        assertEquals(100, cache.getRateLimited());
+    }
+
+    @Test
+    public void picksUpRotatedKey() {
+        JwtKeySetTokenServices tokenServices = new JwtKeySetTokenServices(new JwkSetCache(source, 300000, 0));
+        tokenServices.loadAuthentication(token("k1", KEY_1, "alice", 60));
+        published.set(jwkSet("k2", KEY_2).replace("]}", "," + jwkSet("k1", KEY_1).substring(9)));
+        assertEquals("bob", tokenServices.loadAuthentication(token("k2", KEY_2, "bob", 60)).getName());
+        assertEquals("alice", tokenServices.loadAuthentication(token("k1", KEY_1, "alice", 60)).getName());
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void keepsCachedKeysWhenRefreshFails() {
+        JwtKeySetTokenServices tokenServices = new JwtKeySetTokenServices(new JwkSetCache(() -> {
+            if (fetches.getAndIncrement() > 0) {
+                throw new IllegalStateException("auth server unavailable");
+            }
+            return published.get();
+        }, 0, 0));
+        for (int i = 0; i < 3; i++) {
+            assertEquals("alice", tokenServices.loadAuthentication(token("k1", KEY_1, "alice", 60)).getName());
+        }
+        assertEquals(3, fetches.get());
+    }
+
+    @Test
+    public void rejectsExpiredOrForgedTokens() {
+        JwtKeySetTokenServices tokenServices = new JwtKeySetTokenServices(new JwkSetCache(source, 300000, 10000));
+        assertRejected(tokenServices, token("k1", KEY_1, "alice", -60));
+        assertRejected(tokenServices, token("k1", KEY_2, "alice", 60));
+        assertRejected(tokenServices, "not-a-jwt");
+    }
+
+    @Test
+    public void rejectsRevokedTokens() {
+        JwtKeySetTokenServices tokenServices = new JwtKeySetTokenServices(new JwkSetCache(source, 300000, 10000));
+        String revoked = token("k1", KEY_1, "alice", 60);
+        String live = token("k1", KEY_1, "bob", 60);
+        RevokedTokens revokedTokens = new RevokedTokens(() -> RevokedTokenFilter.forCapacity(1000, 0.01).toSnapshot(0), 300000);
+        revokedTokens.maintain();
+        revokedTokens.apply(1, new long[]{RevokedTokenFilter.fingerprint(revoked)});
+        tokenServices.setRevokedTokenCheck(new RevokedTokenCheck(revokedTokens, token -> !token.equals(revoked), 100));
+
+        assertRejected(tokenServices, revoked);
+        assertEquals("bob", tokenServices.loadAuthentication(live).getName());
+    }
+
+    private static void assertRejected(JwtKeySetTokenServices tokenServices, String token) {
+        try {
+            tokenServices.loadAuthentication(token);
+            fail("token must be rejected");
+        } catch (InvalidTokenException expected) {
+        }
+    }
+
+    /**
+     * 与授权服务器签发的访问令牌格式相同
+     */
+    private static String token(String kid, KeyPair keyPair, String userName, long expiresInSeconds) {
+        long exp = System.currentTimeMillis() / 1000 + expiresInSeconds;
+        String claims = "{\"exp\":" + exp + ",\"user_name\":\"" + userName + "\",\"authorities\":[\"ROLE_USER\"],"
+                + "\"jti\":\"" + userName + exp + "\",\"client_id\":\"android\",\"scope\":[\"xx\"]}";
+        return JwtHelper.encode(claims, new RsaSigner((RSAPrivateKey) keyPair.getPrivate()),
+                Collections.singletonMap("kid", kid)).getEncoded();
+    }
+
+    private static String jwkSet(String kid, KeyPair keyPair) {
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        return "{\"keys\":[{\"kty\":\"RSA\",\"kid\":\"" + kid + "\",\"use\":\"sig\",\"alg\":\"RS256\",\"n\":\""
+                + base64Url(publicKey.getModulus()) + "\",\"e\":\"" + base64Url(publicKey.getPublicExponent()) + "\"}]}";
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        int offset = bytes[0] == 0 ? 1 : 0;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOfRange(bytes, offset, bytes.length));
+    }
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.core.security;
+
+import com.example.core.revocation.InProcessBus;
+import com.example.core.revocation.RevokedTokenFilter;
+import com.example.core.revocation.RevokedTokens;
+import com.example.core.revocation.TokenRevokedEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 已撤销令牌检查测试，消息总线使用进程内替身，事件为授权服务器发出的 JSON
+ */
+public class RevokedTokenCheckTest {
+
+    private final Set<String> revoked = ConcurrentHashMap.newKeySet();     // 授权服务器中已撤销的令牌
+    private final AtomicInteger confirmations = new AtomicInteger();
+    private final AtomicBoolean authServerDown = new AtomicBoolean();
+    private InProcessBus bus;
+    private RevokedTokens revokedTokens;
+    private RevokedTokenCheck check;
+
+    @Before
+    public void setUp() {
+        revokedTokens = new RevokedTokens(() -> RevokedTokenFilter.forCapacity(10000, 0.01).toSnapshot(0), 300000);
+        revokedTokens.maintain();
+        check = new RevokedTokenCheck(revokedTokens, token -> {
+            confirmations.incrementAndGet();
+            if (authServerDown.get()) {
+                throw new IllegalStateException("auth server unavailable");
+            }
+            return !revoked.contains(token);
+        }, 100);
+        bus = new InProcessBus(TokenRevokedEvent.class);
+        bus.subscribe("producer-service:9020", new ApplicationListener<RemoteApplicationEvent>() {
+            @Override
+            public void onApplicationEvent(RemoteApplicationEvent event) {
+                TokenRevokedEvent revocation = (TokenRevokedEvent) event;
+                revokedTokens.apply(revocation.getVersion(), revocation.getFingerprints());
+            }
+        });
+    }
+
+    @Test
+    public void unrevokedTokensNeverReachAuthServer() {
+        for (int i = 0; i < 1000; i++) {
+            check.isRevoked("token-" + i);
+        }
+        // 空过滤器一定判断未撤销
+        assertEquals(0, confirmations.get());
+    }
+
+    @Test
+    public void broadcastRevocationIsConfirmedAndRejected() {
+        assertFalse(check.isRevoked("token-a"));
+        revoked.add("token-a");
+        bus.deliver(revocation(1, "token-a"));
+
+        assertTrue(check.isRevoked("token-a"));
+        assertTrue(check.isRevoked("token-a"));
+        assertFalse(check.isRevoked("token-b"));
+        assertEquals(2, confirmations.get());
+        assertEquals(2, check.getRejected());
+    }
+
+    @Test
+    public void falsePositiveIsConfirmedOncePerGeneration() {
+        // 直接置位模拟误判：令牌仍然有效
+        revokedTokens.apply(1, new long[]{RevokedTokenFilter.fingerprint("token-c")});
+        assertFalse(check.isRevoked("token-c"));
+        assertFalse(check.isRevoked("token-c"));
+        assertEquals(1, confirmations.get());
+
+        bus.deliver(revocation(2, "token-d"));
+        assertFalse(check.isRevoked("token-c"));
+        assertEquals(2, confirmations.get());
+    }
+
+    @Test
+    public void failsClosedWhenAuthServerIsUnavailable() {
+        bus.deliver(revocation(1, "token-e"));
+        authServerDown.set(true);
+        assertTrue(check.isRevoked("token-e"));
+    }
+
+    /**
+     * 授权服务器发出的消息
+     */
+    private static String revocation(long version, String token) {
+        return "{\"type\":\"TokenRevokedEvent\",\"timestamp\":1,\"originService\":\"auth-server:9040\",\"destinationService\":\"**\","
+                + "\"id\":\"" + version + "\",\"version\":" + version + ",\"fingerprints\":[" + RevokedTokenFilter.fingerprint(token) + "]}";
+    }
+}
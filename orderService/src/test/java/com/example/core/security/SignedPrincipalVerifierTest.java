@@ -0,0 +1,81 @@
+package com.example.core.security;
+
+import org.junit.Test;
+import org.springframework.security.core.Authentication;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 签名用户头校验测试
+ */
+public class SignedPrincipalVerifierTest {
+
+    private static final String SECRET = "test-secret-0123456789abcdefghijkl";
+    private static final String TOKEN = "9f4a1c3e-access-token";
+
+    private final SignedPrincipalVerifier verifier = new SignedPrincipalVerifier(SECRET, 30000);
+
+    @Test
+    public void acceptsValidHeader() throws Exception {
+        long now = System.currentTimeMillis();
+        Authentication authentication = verifier.verify(sign(SECRET, "admin\nROLE_ADMIN,ROLE_USER\n" + now + "\n" + SignedPrincipalVerifier.tokenHash(TOKEN)), TOKEN, now);
+        assertNotNull(authentication);
+        assertEquals("admin", authentication.getName());
+        assertEquals(2, authentication.getAuthorities().size());
+    }
+
+    @Test
+    public void rejectsWrongSecret() throws Exception {
+        long now = System.currentTimeMillis();
+        assertNull(verifier.verify(sign("other-secret-0123456789abcdefghijk", "admin\nROLE_ADMIN\n" + now + "\n" + SignedPrincipalVerifier.tokenHash(TOKEN)), TOKEN, now));
+    }
+
+    @Test
+    public void rejectsExpiredHeader() throws Exception {
+        long now = System.currentTimeMillis();
+        assertNull(verifier.verify(sign(SECRET, "admin\nROLE_ADMIN\n" + (now - 60000) + "\n" + SignedPrincipalVerifier.tokenHash(TOKEN)), TOKEN, now));
+    }
+
+    @Test
+    public void rejectsMalformedHeader() {
+        assertNull(verifier.verify("not-a-header", TOKEN, System.currentTimeMillis()));
+        assertNull(verifier.verify("abc.%%%", TOKEN, System.currentTimeMillis()));
+    }
+
+    @Test
+    public void rejectsHeaderReplayedWithOtherToken() throws Exception {
+        long now = System.currentTimeMillis();
+        String header = sign(SECRET, "admin\nROLE_ADMIN\n" + now + "\n" + SignedPrincipalVerifier.tokenHash(TOKEN));
+        assertNull(verifier.verify(header, "another-token", now));
+        assertNull(verifier.verify(header, null, now));
+        assertNull(verifier.verify(sign(SECRET, "admin\nROLE_ADMIN\n" + now), TOKEN, now));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPlaceholderSecret() {
+        new SignedPrincipalVerifier("change-me-train-ticket-0123456789abcdef", 30000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsShortSecret() {
+        new SignedPrincipalVerifier("too-short", 30000);
+    }
+
+    /**
+     * 按网关 PrincipalHeaderSigner 的格式生成签名头
+     */
+    private String sign(String secret, String payload) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String encoded = encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return encoded + "." + encoder.encodeToString(mac.doFinal(encoded.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.core.revocation;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 已撤销令牌的布隆过滤器
+ * 保存令牌指纹（令牌字符串的 64 位哈希），回答“可能已撤销”或“一定未撤销”；位数组长度为 2 的幂，
+ * 每个指纹按双重哈希（h1 + i * h2）置 hashes 个位，只会置位不会清除
+ * 认证服务、网关和资源服务共用这一份实现（各模块依赖 com.example:revocation 构件），
+ * 指纹算法、位布局和快照格式（auth-server 的 /oauth/revocations）因此始终一致
+ * 判断时直接遍历令牌字符串中的字符，不截取字符串、不分配对象
+ */
+public final class RevokedTokenFilter {
+
+    private static final int MAX_BITS = 1 << 30;
+    private static final int MAX_HASHES = 16;
+
+    private final AtomicLongArray words;    // 位数组
+    private final int mask;                 // 位数 - 1
+    private final int hashes;               // 每个指纹置位的个数
+
+    /**
+     * @param bits 位数（2 的幂，至少 64）
+     * @param hashes 每个指纹置位的个数
+     */
+    public RevokedTokenFilter(int bits, int hashes) {
+        if (bits < 64 || Integer.bitCount(bits) != 1) {
+            throw new IllegalArgumentException("bits must be a power of two >= 64: " + bits);
+        }
+        if (hashes < 1 || hashes > MAX_HASHES) {
+            throw new IllegalArgumentException("hashes must be between 1 and " + MAX_HASHES + ": " + hashes);
+        }
+        this.words = new AtomicLongArray(bits >>> 6);
+        this.mask = bits - 1;
+        this.hashes = hashes;
+    }
+
+    /**
+     * 按预计的指纹数和误判率创建
+     * @param expectedInsertions 预计的指纹数
+     * @param falsePositiveRate 误判率
+     * @return 空的过滤器
+     */
+    public static RevokedTokenFilter forCapacity(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(expectedInsertions, 1);
+        double ln2 = Math.log(2);
+        double optimalBits = -n * Math.log(falsePositiveRate) / (ln2 * ln2);
+        int bits = 64;
+        while (bits < optimalBits && bits < MAX_BITS) {
+            bits <<= 1;
+        }
+        int hashes = (int) Math.round((double) bits / n * ln2);
+        return new RevokedTokenFilter(bits, Math.max(1, Math.min(MAX_HASHES, hashes)));
+    }
+
+    /**
+     * 令牌指纹
+     * @param token 访问令牌
+     * @return 64 位指纹
+     */
+    public static long fingerprint(String token) {
+        return fingerprint(token, 0, token.length());
+    }
+
+    /**
+     * 令牌指纹，令牌为 source 中 [begin, end) 的部分：FNV-1a 逐字符累加后再做一次 64 位混合
+     * @param source 包含令牌的字符串
+     * @param begin 令牌起始位置
+     * @param end 令牌结束位置（不含）
+     * @return 64 位指纹
+     */
+    public static long fingerprint(String source, int begin, int end) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = begin; i < end; i++) {
+            h ^= source.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 加入一个指纹
+     * @param fingerprint 令牌指纹
+     */
+    public void add(long fingerprint) {
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & mask;
+            int index = bit >>> 6;
+            long bitMask = 1L << bit;
+            long word;
+            do {
+                word = words.get(index);
+                if ((word & bitMask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(index, word, word | bitMask));
+        }
+    }
+
+    /**
+     * 指纹是否可能已加入
+     * @param fingerprint 令牌指纹
+     * @return false 表示一定没有加入
+     */
+    public boolean mightContain(long fingerprint) {
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 令牌是否可能已撤销，令牌为 source 中 [begin, end) 的部分（例如 Authorization 请求头去掉 Bearer 前缀）
+     * @param source 包含令牌的字符串
+     * @param begin 令牌起始位置
+     * @param end 令牌结束位置（不含）
+     * @return false 表示一定没有撤销
+     */
+    public boolean mightContain(String source, int begin, int end) {
+        return mightContain(fingerprint(source, begin, end));
+    }
+
+    public int bits() {
+        return mask + 1;
+    }
+
+    public int hashes() {
+        return hashes;
+    }
+
+    /**
+     * 快照：version、hashes、bits 和 words（位数组按大端序排列后的 Base64）
+     * @param version 快照包含的撤销版本
+     * @return 快照
+     */
+    public Map<String, Object> toSnapshot(long version) {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length() * 8);
+        for (int i = 0; i < words.length(); i++) {
+            buffer.putLong(words.get(i));
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("version", version);
+        snapshot.put("hashes", hashes);
+        snapshot.put("bits", bits());
+        snapshot.put("words", Base64.getEncoder().encodeToString(buffer.array()));
+        return snapshot;
+    }
+
+    /**
+     * 从快照恢复
+     * @param snapshot {@link #toSnapshot(long)} 的结果（可以是 JSON 解析后的 Map）
+     * @return 过滤器
+     */
+    public static RevokedTokenFilter fromSnapshot(Map<String, ?> snapshot) {
+        RevokedTokenFilter filter = new RevokedTokenFilter(((Number) snapshot.get("bits")).intValue(),
+                ((Number) snapshot.get("hashes")).intValue());
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode((String) snapshot.get("words")));
+        if (buffer.remaining() != filter.words.length() * 8) {
+            throw new IllegalArgumentException("Snapshot has " + buffer.remaining() + " bytes, expected " + filter.words.length() * 8);
+        }
+        for (int i = 0; i < filter.words.length(); i++) {
+            filter.words.set(i, buffer.getLong());
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.core.revocation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * 本地的已撤销令牌过滤器
+ * 启动后先拉取认证服务的完整快照（/oauth/revocations），之后应用消息总线上的 TokenRevokedEvent 增量；
+ * 增量的版本号不连续（漏收消息）或快照超过 refreshMillis 时由 {@link #maintain()} 重新拉取快照，
+ * 快照之后收到的增量在新快照上重新应用
+ * 收到的增量立即置位，即使前面的版本还没有收到：过滤器只会多判不会漏判
+ * generation 在过滤器每次变化时递增，缓存的校验结果据此判断是否需要重新确认
+ */
+public class RevokedTokens {
+
+    private static Logger logger = LoggerFactory.getLogger(RevokedTokens.class);
+
+    private final Supplier<Map<String, Object>> snapshotSource;     // 拉取完整快照
+    private final long refreshMillis;                               // 快照的最长使用时间
+    private final TreeMap<Long, long[]> updates = new TreeMap<>();  // 快照之后收到的增量
+    private volatile RevokedTokenFilter filter;                     // 当前过滤器
+    private volatile long generation;                               // 过滤器的变化次数
+    private long snapshotVersion;                                   // 快照包含的版本
+    private long version;                                           // 已连续应用到的版本
+    private long latestVersion;                                     // 收到的最大版本
+    private long snapshotAt;                                        // 快照的拉取时间，0 表示还没有快照
+    private long refreshes;                                         // 拉取快照的次数
+
+    /**
+     * @param snapshotSource 拉取完整快照（格式见 RevokedTokenFilter.toSnapshot）
+     * @param refreshMillis 快照的最长使用时间（毫秒）
+     */
+    public RevokedTokens(Supplier<Map<String, Object>> snapshotSource, long refreshMillis) {
+        this.snapshotSource = snapshotSource;
+        this.refreshMillis = refreshMillis;
+        this.filter = RevokedTokenFilter.forCapacity(1024, 0.01);    // 拉取到快照之前暂存增量
+    }
+
+    /**
+     * 令牌是否可能已撤销，令牌为 source 中 [begin, end) 的部分；不截取字符串、不分配对象
+     * @param source 包含令牌的字符串
+     * @param begin 令牌起始位置
+     * @param end 令牌结束位置（不含）
+     * @return false 表示一定没有撤销
+     */
+    public boolean mightBeRevoked(String source, int begin, int end) {
+        return filter.mightContain(source, begin, end);
+    }
+
+    /**
+     * @param token 访问令牌
+     * @return false 表示一定没有撤销
+     */
+    public boolean mightBeRevoked(String token) {
+        return mightBeRevoked(token, 0, token.length());
+    }
+
+    /**
+     * @return 过滤器的变化次数（在它之后加入的指纹会使其增大）
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * 应用一个增量，已包含在快照中的版本忽略
+     * @param version 增量的版本号
+     * @param fingerprints 被撤销令牌的指纹
+     */
+    public synchronized void apply(long version, long[] fingerprints) {
+        if (version <= this.version || updates.containsKey(version)) {
+            return;
+        }
+        updates.put(version, fingerprints);
+        RevokedTokenFilter current = filter;
+        for (long fingerprint : fingerprints) {
+            current.add(fingerprint);
+        }
+        latestVersion = Math.max(latestVersion, version);
+        advance();
+        generation++;
+    }
+
+    /**
+     * 拉取完整快照并重新应用之后的增量
+     */
+    public void refresh() {
+        Map<String, Object> snapshot = snapshotSource.get();
+        RevokedTokenFilter fresh = RevokedTokenFilter.fromSnapshot(snapshot);
+        long freshVersion = ((Number) snapshot.get("version")).longValue();
+        synchronized (this) {
+            if (snapshotAt != 0 && freshVersion < snapshotVersion) {
+                return;     // 并发的拉取中较旧的一个
+            }
+            updates.headMap(freshVersion, true).clear();
+            for (long[] fingerprints : updates.values()) {
+                for (long fingerprint : fingerprints) {
+                    fresh.add(fingerprint);
+                }
+            }
+            snapshotVersion = freshVersion;
+            version = Math.max(version, freshVersion);
+            latestVersion = Math.max(latestVersion, freshVersion);
+            advance();
+            snapshotAt = System.currentTimeMillis();
+            refreshes++;
+            filter = fresh;
+            generation++;
+        }
+    }
+
+    /**
+     * 定期执行：还没有快照、增量的版本号不连续或快照已过期时重新拉取，失败时保留当前过滤器
+     */
+    public void maintain() {
+        boolean stale;
+        synchronized (this) {
+            stale = hasGap() || System.currentTimeMillis() - snapshotAt >= refreshMillis;
+        }
+        if (stale) {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to fetch revoked token snapshot: {}", e.toString());
+            }
+        }
+    }
+
+    /**
+     * @return 是否还没有快照或有未收到的版本
+     */
+    public synchronized boolean hasGap() {
+        return snapshotAt == 0 || latestVersion > version;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized long getRefreshes() {
+        return refreshes;
+    }
+
+    /**
+     * 连续的版本向前推进
+     */
+    private void advance() {
+        while (updates.containsKey(version + 1)) {
+            version++;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.core.revocation;
+
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+import java.util.Arrays;
+
+/**
+ * 令牌撤销事件，由认证服务通过消息总线广播
+ * 携带撤销版本号和这一批被撤销令牌的指纹（见 RevokedTokenFilter.fingerprint），不携带令牌本身；
+ * 总线按类名识别事件类型，认证服务、网关和资源服务共用这一个类
+ */
+public class TokenRevokedEvent extends RemoteApplicationEvent {
+    private final long version;             // 撤销版本号（每一批递增 1）
+    private final long[] fingerprints;      // 被撤销令牌的指纹
+
+    private TokenRevokedEvent() {
+        this.version = 0;
+        this.fingerprints = null;
+    }
+
+    public TokenRevokedEvent(Object source, String originService, long version, long[] fingerprints) {
+        super(source, originService);
+        this.version = version;
+        this.fingerprints = fingerprints;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long[] getFingerprints() {
+        return fingerprints;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * super.hashCode() + Long.hashCode(version)) + Arrays.hashCode(fingerprints);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!super.equals(obj) || getClass() != obj.getClass()) {
+            return false;
+        }
+        TokenRevokedEvent other = (TokenRevokedEvent) obj;
+        return version == other.version && Arrays.equals(fingerprints, other.fingerprints);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.core.revocation;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+import org.springframework.cloud.bus.jackson.SubtypeModule;
+import org.springframework.context.ApplicationListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 进程内的消息总线替身
+ * 与 Spring Cloud Bus 相同，事件序列化为 JSON（type 为类名）发送，接收方反序列化后交给监听者，不投递给发出事件的服务
+ */
+public class InProcessBus {
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final List<String> messages = new CopyOnWriteArrayList<>();    // 已投递给所有订阅者的消息
+
+    /**
+     * @param eventTypes 自定义事件类型（相当于 @RemoteApplicationEventScan）
+     */
+    public InProcessBus(Class<?>... eventTypes) {
+        mapper.registerModule(new SubtypeModule(eventTypes));
+    }
+
+    /**
+     * @param serviceId 订阅的服务 id
+     * @param listener 事件监听者
+     */
+    public void subscribe(String serviceId, ApplicationListener<RemoteApplicationEvent> listener) {
+        subscribers.add(new Subscriber(serviceId, listener));
+    }
+
+    /**
+     * 发送事件
+     * @param event 事件
+     */
+    public void publish(RemoteApplicationEvent event) {
+        try {
+            deliver(mapper.writeValueAsString(event));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 发送一条 JSON 消息（例如其他服务发出的事件）
+     * @param json 消息
+     */
+    public void deliver(String json) {
+        for (Subscriber subscriber : subscribers) {
+            RemoteApplicationEvent event;
+            try {
+                event = mapper.readValue(json, RemoteApplicationEvent.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!subscriber.serviceId.equals(event.getOriginService())) {
+                subscriber.listener.onApplicationEvent(event);
+            }
+        }
+        messages.add(json);
+    }
+
+    public List<String> getMessages() {
+        return messages;
+    }
+
+    private static final class Subscriber {
+        final String serviceId;
+        final ApplicationListener<RemoteApplicationEvent> listener;
+
+        Subscriber(String serviceId, ApplicationListener<RemoteApplicationEvent> listener) {
+            this.serviceId = serviceId;
+            this.listener = listener;
+        }
+    }
+}